@@ -1,37 +1,99 @@
 package com.example.ticketero.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuración para integración con Telegram Bot API
  * Según especificación del plan - Sección 8.3
+ *
+ * Transporte HTTP dedicado:
+ * - Pool de conexiones keep-alive (telegram.http.max-connections): el handshake
+ *   TCP/TLS se paga una vez por conexión, no por mensaje
+ * - Timeouts de conexión (telegram.http.connect-timeout) y lectura (telegram.timeout)
+ * - Conexiones inactivas cerradas tras telegram.http.idle-timeout-seconds
+ * - Métricas del pool con prefijo httpcomponents.httpclient.pool (tag httpclient=telegram)
  */
 @Configuration
 public class TelegramConfig {
-    
+
     @Value("${telegram.bot-token:dummy-token}")
     private String botToken;
-    
+
     @Value("${telegram.api-url:https://api.telegram.org/bot}")
     private String apiUrl;
-    
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager telegramConnectionManager(
+            @Value("${telegram.http.max-connections:20}") int maxConnections,
+            @Value("${telegram.http.connect-timeout:5000}") long connectTimeoutMillis,
+            @Value("${telegram.timeout:30000}") long readTimeoutMillis) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            // Una sola ruta (api.telegram.org): todo el pool disponible para ella
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient telegramHttpClient(
+            PoolingHttpClientConnectionManager telegramConnectionManager,
+            @Value("${telegram.http.connect-timeout:5000}") long connectTimeoutMillis,
+            @Value("${telegram.timeout:30000}") long readTimeoutMillis,
+            @Value("${telegram.http.idle-timeout-seconds:30}") long idleTimeoutSeconds) {
+        return HttpClients.custom()
+            .setConnectionManager(telegramConnectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                // Espera máxima por una conexión libre del pool
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofSeconds(idleTimeoutSeconds))
+            .build();
+    }
+
     @Bean
-    public RestTemplate telegramRestTemplate() {
-        return new RestTemplate();
+    public RestTemplate telegramRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                             CloseableHttpClient telegramHttpClient) {
+        return restTemplateBuilder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(telegramHttpClient))
+            .build();
     }
-    
+
+    @Bean
+    public MeterBinder telegramConnectionPoolMetrics(PoolingHttpClientConnectionManager telegramConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(telegramConnectionManager, "telegram");
+    }
+
     public String getBotToken() {
         return botToken;
     }
-    
+
     public String getApiUrl() {
         return apiUrl;
     }
-    
+
     public String getSendMessageUrl() {
         return apiUrl + botToken + "/sendMessage";
     }
-}
\ No newline at end of file
+}
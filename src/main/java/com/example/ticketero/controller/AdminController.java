@@ -1,7 +1,9 @@
 package com.example.ticketero.controller;
 
+import com.example.ticketero.model.dto.DashboardResponse;
 import com.example.ticketero.model.dto.QueueStatusResponse;
 import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.DashboardSnapshotCache;
 import com.example.ticketero.service.QueueManagementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +30,9 @@ import java.util.Map;
  * 
  * Tipos de cola soportados: CAJA, PERSONAL_BANKER, EMPRESAS, GERENCIA
  * 
+ * Los endpoints de dashboard leen el snapshot materializado de DashboardSnapshotCache
+ * e informan su antigüedad en snapshotAgeSeconds.
+ * 
  * @author Sistema Ticketero
  * @version 1.0
  * @since 1.0
@@ -39,6 +44,7 @@ import java.util.Map;
 public class AdminController {
 
     private final QueueManagementService queueManagementService;
+    private final DashboardSnapshotCache dashboardSnapshotCache;
 
     /**
      * RF-005: Consulta estado de cola específica con información detallada.
@@ -99,12 +105,14 @@ public class AdminController {
     @GetMapping("/dashboard/summary")
     public ResponseEntity<Map<String, Object>> dashboardResumen() {
         log.info("GET /api/dashboard/summary");
-        // Funcionalidad real usando DashboardService existente
+        DashboardSnapshotCache.Snapshot snapshot = dashboardSnapshotCache.get();
+        DashboardResponse dashboard = snapshot.dashboard();
         return ResponseEntity.ok(Map.of(
-            "timestamp", java.time.LocalDateTime.now(),
-            "ticketsActivos", 0,
-            "ejecutivosDisponibles", 5,
-            "estadoGeneral", "NORMAL"
+            "timestamp", dashboard.timestamp(),
+            "ticketsActivos", dashboard.resumenEjecutivo().ticketsActivos(),
+            "ejecutivosDisponibles", dashboard.estadoEjecutivos().disponibles(),
+            "estadoGeneral", dashboard.estadoGeneral(),
+            "snapshotAgeSeconds", dashboardSnapshotCache.ageSeconds(snapshot)
         ));
     }
     
@@ -116,10 +124,16 @@ public class AdminController {
     @GetMapping("/dashboard/realtime")
     public ResponseEntity<Map<String, Object>> dashboardTiempoReal() {
         log.info("GET /api/dashboard/realtime");
+        DashboardSnapshotCache.Snapshot snapshot = dashboardSnapshotCache.get();
+        DashboardResponse dashboard = snapshot.dashboard();
         return ResponseEntity.ok(Map.of(
-            "timestamp", java.time.LocalDateTime.now(),
-            "status", "NORMAL",
-            "updateInterval", 5
+            "timestamp", dashboard.timestamp(),
+            "status", dashboard.estadoGeneral(),
+            "updateInterval", dashboard.updateInterval(),
+            "snapshotAgeSeconds", dashboardSnapshotCache.ageSeconds(snapshot),
+            "resumenEjecutivo", dashboard.resumenEjecutivo(),
+            "estadoColas", dashboard.estadoColas(),
+            "estadoEjecutivos", dashboard.estadoEjecutivos()
         ));
     }
     
@@ -131,7 +145,11 @@ public class AdminController {
     @GetMapping("/dashboard/alerts")
     public ResponseEntity<Map<String, Object>> alertasActivas() {
         log.info("GET /api/dashboard/alerts");
-        return ResponseEntity.ok(Map.of("alerts", "[]"));
+        DashboardSnapshotCache.Snapshot snapshot = dashboardSnapshotCache.get();
+        return ResponseEntity.ok(Map.of(
+            "alerts", snapshot.dashboard().alertas(),
+            "snapshotAgeSeconds", dashboardSnapshotCache.ageSeconds(snapshot)
+        ));
     }
     
     /**
@@ -142,6 +160,10 @@ public class AdminController {
     @GetMapping("/dashboard/metrics")
     public ResponseEntity<Map<String, Object>> metricas() {
         log.info("GET /api/dashboard/metrics");
-        return ResponseEntity.ok(Map.of("metrics", "{}"));
+        DashboardSnapshotCache.Snapshot snapshot = dashboardSnapshotCache.get();
+        return ResponseEntity.ok(Map.of(
+            "metrics", snapshot.dashboard().metricas(),
+            "snapshotAgeSeconds", dashboardSnapshotCache.ageSeconds(snapshot)
+        ));
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,27 @@
 package com.example.ticketero.controller;
 
-import com.example.ticketero.model.dto.AuditEventResponse;
+import com.example.ticketero.model.dto.AuditEventPageResponse;
+import com.example.ticketero.model.dto.AuditVerificationResponse;
+import com.example.ticketero.service.AuditChainVerifier;
+import com.example.ticketero.service.AuditExportService;
 import com.example.ticketero.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller REST para auditoría y trazabilidad del sistema.
@@ -24,12 +33,18 @@ import java.util.Map;
  * - GET /api/audit/ticket/{number}: Historial completo de un ticket
  * - GET /api/audit/events: Consulta de eventos con filtros
  * - GET /api/audit/summary: Resumen de auditoría por período
+ * - POST /api/audit/verify: Verificación de las cadenas de hashes
+ * - GET /api/audit/export: Exportación masiva en streaming (NDJSON o CSV, gzip opcional)
+ * 
+ * Las consultas de eventos se paginan por keyset: cada respuesta trae nextCursor,
+ * que se envía como parámetro cursor para obtener la página siguiente.
  * 
  * Funcionalidades:
  * - Trazabilidad completa de eventos críticos
  * - Consultas por ticket, actor, tipo de evento y rango de fechas
  * - Estadísticas de actividad y tipos de eventos
  * - Cumplimiento normativo con retención de 7 años
+ * - Detección de alteración, borrado o reordenamiento de eventos
  * 
  * Eventos auditados: TICKET_CREATED, TICKET_ASSIGNED, STATUS_CHANGED, NOTIFICATION_SENT
  * 
@@ -44,52 +59,105 @@ import java.util.Map;
 public class AuditController {
 
     private final AuditService auditService;
+    private final AuditChainVerifier auditChainVerifier;
+    private final AuditExportService auditExportService;
 
     /**
-     * RF-008: Obtiene historial completo de auditoría para un ticket específico.
+     * RF-008: Obtiene el historial de auditoría de un ticket, paginado.
      * Incluye todos los eventos desde creación hasta completación.
      * 
      * @param ticketNumber Número del ticket a consultar
-     * @return ResponseEntity con lista de eventos ordenados por timestamp descendente
+     * @param cursor nextCursor de la página anterior (opcional)
+     * @param size Tamaño de página (opcional, máximo 1000)
+     * @return ResponseEntity con la página de eventos por timestamp descendente
      */
     @GetMapping("/ticket/{ticketNumber}")
-    public ResponseEntity<List<AuditEventResponse>> historialTicket(@PathVariable String ticketNumber) {
+    public ResponseEntity<AuditEventPageResponse> historialTicket(
+            @PathVariable String ticketNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("GET /api/audit/ticket/{}", sanitizeForLog(ticketNumber));
-        List<AuditEventResponse> events = auditService.getTicketAuditTrail(ticketNumber);
+        AuditEventPageResponse events = auditService.getTicketAuditTrail(ticketNumber, cursor, size);
         return ResponseEntity.ok(events);
     }
 
     /**
-     * RF-008: Consulta eventos de auditoría con filtros opcionales.
+     * RF-008: Consulta eventos de auditoría con filtros opcionales, paginada.
      * Permite filtrar por tipo de evento, actor y rango de fechas.
      * 
      * @param eventType Tipo de evento (TICKET_CREATED, STATUS_CHANGED, etc.)
      * @param actor Actor que ejecutó la acción
      * @param startDate Fecha de inicio del rango
      * @param endDate Fecha de fin del rango
-     * @return ResponseEntity con lista de eventos filtrados
+     * @param cursor nextCursor de la página anterior (opcional)
+     * @param size Tamaño de página (opcional, máximo 1000)
+     * @return ResponseEntity con la página de eventos filtrados
      */
     @GetMapping("/events")
-    public ResponseEntity<List<AuditEventResponse>> consultarEventos(
+    public ResponseEntity<AuditEventPageResponse> consultarEventos(
             @RequestParam(required = false) String eventType,
             @RequestParam(required = false) String actor,
             @RequestParam(required = false) LocalDateTime startDate,
-            @RequestParam(required = false) LocalDateTime endDate) {
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("GET /api/audit/events - eventType: {}, actor: {}", 
                 sanitizeForLog(eventType), sanitizeForLog(actor));
         
-        List<AuditEventResponse> events;
+        AuditEventPageResponse events;
         if (startDate != null && endDate != null) {
-            events = auditService.getAuditEventsByDateRange(startDate, endDate);
+            events = auditService.getAuditEventsByDateRange(startDate, endDate, cursor, size);
         } else if (actor != null) {
-            events = auditService.getAuditEventsByActor(actor);
+            events = auditService.getAuditEventsByActor(actor, cursor, size);
         } else {
-            events = List.of(); // Evitar cargar todos los eventos
+            events = AuditEventPageResponse.vacia(); // Evitar cargar todos los eventos
         }
         
         return ResponseEntity.ok(events);
     }
 
+    /**
+     * RF-008: Exporta los eventos de un período como descarga en streaming.
+     * Incluye los meses archivados que solapan el período, antes que las filas
+     * vivas; todas se escriben a medida que se leen, en orden cronológico y sin
+     * acumular el período en memoria.
+     * 
+     * @param startDate Fecha de inicio del período
+     * @param endDate Fecha de fin del período (inclusive)
+     * @param eventType Tipo de evento a exportar (opcional)
+     * @param format NDJSON (por defecto) o CSV
+     * @param gzip true para comprimir la descarga (.gz)
+     * @return ResponseEntity con el cuerpo en streaming
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarEventos(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(defaultValue = "NDJSON") AuditExportService.Formato format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("GET /api/audit/export - period: {} to {}, eventType: {}, format: {}, gzip: {}",
+                startDate, endDate, sanitizeForLog(eventType), format, gzip);
+        
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.atTime(23, 59, 59, 999_000_000);
+        String archivo = "audit-" + startDate + "_" + endDate + "." + format.getExtension() + (gzip ? ".gz" : "");
+        
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream comprimido = new GZIPOutputStream(out, 64 * 1024);
+                auditExportService.exportar(start, end, eventType, format, comprimido);
+                comprimido.finish();
+            } else {
+                auditExportService.exportar(start, end, eventType, format, out);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(archivo).build().toString())
+            .body(body);
+    }
+
     /**
      * RF-008: Resumen de auditoría con estadísticas por período.
      * Incluye estadísticas por tipo de evento y actividad por actor.
@@ -117,6 +185,30 @@ public class AuditController {
         ));
     }
     
+    /**
+     * RN-011: Verifica las cadenas de hashes de los meses del período.
+     * Por defecto parte del último checkpoint de cada cadena; con full=true
+     * rehashea cada cadena desde su primer evento.
+     * 
+     * @param startDate Fecha dentro del primer mes a verificar (opcional)
+     * @param endDate Fecha dentro del último mes a verificar (opcional)
+     * @param full true para ignorar los checkpoints
+     * @return ResponseEntity con el resultado por cadena; valid=false si hay alteraciones
+     */
+    @PostMapping("/verify")
+    public ResponseEntity<AuditVerificationResponse> verificarIntegridad(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean full) {
+        log.info("POST /api/audit/verify - period: {} to {}, full: {}", startDate, endDate, full);
+        
+        AuditVerificationResponse resultado = auditChainVerifier.verificar(
+            startDate == null ? null : YearMonth.from(startDate),
+            endDate == null ? null : YearMonth.from(endDate),
+            full);
+        return ResponseEntity.ok(resultado);
+    }
+    
     /**
      * Sanitiza entrada para logging seguro, removiendo caracteres de control.
      * 
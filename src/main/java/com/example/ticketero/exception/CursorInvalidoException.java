@@ -0,0 +1,33 @@
+package com.example.ticketero.exception;
+
+/**
+ * Excepción lanzada cuando un cursor de paginación no es válido.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * 
+ * Casos de uso:
+ * - Cursor alterado o truncado por el cliente
+ * - Cursor que no fue emitido por el sistema
+ * 
+ * Manejo:
+ * - GlobalExceptionHandler convierte a HTTP 400 Bad Request
+ * 
+ * Utilizada por:
+ * - AuditCursor al decodificar el parámetro cursor
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public class CursorInvalidoException extends RuntimeException {
+    
+    /**
+     * Constructor que acepta mensaje descriptivo y causa del error.
+     * 
+     * @param message Mensaje detallado sobre el cursor inválido
+     * @param cause Error de decodificación original
+     */
+    public CursorInvalidoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ticketero.exception;
+
+/**
+ * Excepción lanzada por un NotificationChannel cuando no se sabe si el destino
+ * recibió el mensaje: la petición salió pero la respuesta no llegó.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Casos de uso:
+ * - Timeout de lectura esperando la respuesta de Telegram Bot API
+ * - Conexión cortada después de enviar la petición
+ *
+ * Manejo:
+ * - NotificationPipeline no reintenta: el mensaje queda ENVIANDO
+ * - MensajeReconciler lo resuelve al vencer el lease (nunca se reenvía a ciegas)
+ *
+ * Utilizada por:
+ * - TelegramService.enviarTexto
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public class EnvioInciertoException extends RuntimeException {
+
+    /**
+     * Constructor con el destino y la causa original.
+     *
+     * @param destino Destino al que se intentó enviar
+     * @param cause Error de E/S tras enviar la petición
+     */
+    public EnvioInciertoException(String destino, Throwable cause) {
+        super("Resultado incierto del envío a " + destino + ": " + cause.getMessage(), cause);
+    }
+}
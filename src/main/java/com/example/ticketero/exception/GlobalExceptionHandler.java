@@ -24,6 +24,7 @@ import java.util.Map;
  * Excepciones manejadas:
  * - TicketActivoExistenteException: HTTP 409 Conflict (RN-001)
  * - TicketNotFoundException: HTTP 404 Not Found
+ * - CursorInvalidoException: HTTP 400 Bad Request (paginación de auditoría)
  * - MethodArgumentNotValidException: HTTP 400 Bad Request (Bean Validation)
  * - Exception: HTTP 500 Internal Server Error (fallback)
  * 
@@ -69,6 +70,20 @@ public class GlobalExceptionHandler {
             .body(new ErrorResponse(ex.getMessage(), 404, "/api/tickets"));
     }
     
+    /**
+     * RF-008: Maneja cursores de paginación alterados o no emitidos por el sistema.
+     * Convierte CursorInvalidoException a HTTP 400 Bad Request.
+     * 
+     * @param ex Excepción de cursor inválido
+     * @return ResponseEntity con ErrorResponse y código 400
+     */
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalido(CursorInvalidoException ex) {
+        log.warn("Cursor inválido: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorResponse(ex.getMessage(), 400, "/api/audit"));
+    }
+    
     /**
      * Maneja errores de validación Bean Validation en requests.
      * Convierte MethodArgumentNotValidException a HTTP 400 Bad Request con detalles.
@@ -0,0 +1,49 @@
+package com.example.ticketero.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción lanzada cuando Telegram Bot API rechaza un envío por límite de tasa (HTTP 429).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Casos de uso:
+ * - Demasiados mensajes al mismo chat en poco tiempo
+ * - Límite global del bot superado en horas punta
+ *
+ * Manejo:
+ * - TelegramRateLimiter pausa el chat durante retryAfter
+ * - NotificationPipeline reprograma el mensaje sin consumir un intento (RN-007)
+ *
+ * Utilizada por:
+ * - TelegramService.enviarTexto al recibir HTTP 429
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public class TelegramRateLimitException extends RuntimeException {
+
+    private final String chatId;
+    private final Duration retryAfter;
+
+    /**
+     * Constructor con el chat afectado y la espera indicada por Telegram.
+     *
+     * @param chatId Chat al que se intentó enviar
+     * @param retryAfter Espera indicada en parameters.retry_after (o Retry-After)
+     */
+    public TelegramRateLimitException(String chatId, Duration retryAfter) {
+        super("Límite de tasa de Telegram para chat " + chatId + ", reintentar en " + retryAfter.toSeconds() + "s");
+        this.chatId = chatId;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
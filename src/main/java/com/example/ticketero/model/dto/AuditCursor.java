@@ -0,0 +1,69 @@
+package com.example.ticketero.model.dto;
+
+import com.example.ticketero.exception.CursorInvalidoException;
+import com.example.ticketero.model.entity.AuditEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posición de continuación en consultas de auditoría paginadas por keyset.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * 
+ * Los eventos se recorren por (timestamp, id) descendente; el cursor es el par del
+ * último evento entregado y la página siguiente empieza estrictamente después de él.
+ * Se expone al cliente como texto opaco (Base64 URL-safe), por lo que su formato
+ * puede cambiar sin romper la API.
+ * 
+ * @param timestamp Timestamp del último evento entregado
+ * @param id Identificador del último evento entregado (desempate)
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record AuditCursor(LocalDateTime timestamp, long id) {
+
+    private static final char SEPARADOR = '|';
+
+    /**
+     * Método factory con la posición de un evento.
+     * 
+     * @param event Último evento de la página
+     * @return AuditCursor posicionado en el evento
+     */
+    public static AuditCursor of(AuditEvent event) {
+        return new AuditCursor(event.getTimestamp(), event.getId());
+    }
+
+    /**
+     * Codifica el cursor para entregarlo al cliente.
+     * 
+     * @return Texto opaco apto para query string
+     */
+    public String codificar() {
+        String plano = timestamp.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * 
+     * @param cursor Texto emitido por codificar()
+     * @return AuditCursor decodificado
+     * @throws CursorInvalidoException si el texto no es un cursor válido
+     */
+    public static AuditCursor decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = plano.lastIndexOf(SEPARADOR);
+            return new AuditCursor(
+                LocalDateTime.parse(plano.substring(0, separador)),
+                Long.parseLong(plano.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new CursorInvalidoException("Cursor de paginación inválido", e);
+        }
+    }
+}
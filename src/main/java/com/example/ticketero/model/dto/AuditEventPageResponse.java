@@ -0,0 +1,34 @@
+package com.example.ticketero.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO con una página de eventos de auditoría y su cursor de continuación.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * 
+ * Utilizado por:
+ * - AuditController (GET /api/audit/ticket/{number}, GET /api/audit/events)
+ * 
+ * @param events Eventos de la página, por timestamp descendente
+ * @param size Cantidad de eventos en la página
+ * @param nextCursor Cursor para pedir la página siguiente, o null si no hay más
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record AuditEventPageResponse(
+    List<AuditEventResponse> events,
+    int size,
+    String nextCursor
+) {
+    /**
+     * Método factory para una página sin resultados.
+     * 
+     * @return AuditEventPageResponse vacía y sin continuación
+     */
+    public static AuditEventPageResponse vacia() {
+        return new AuditEventPageResponse(List.of(), 0, null);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ticketero.model.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de verificar las cadenas de hashes de auditoría.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria)
+ *
+ * Utilizado por:
+ * - AuditController (POST /api/audit/verify)
+ *
+ * @param valid true si todas las cadenas verificadas están íntegras
+ * @param full true si se verificó desde el inicio, ignorando los checkpoints
+ * @param verifiedEvents Eventos rehasheados en esta verificación
+ * @param elapsedMillis Duración de la verificación
+ * @param chains Resultado por cadena (mes)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record AuditVerificationResponse(
+    boolean valid,
+    boolean full,
+    long verifiedEvents,
+    long elapsedMillis,
+    List<Chain> chains
+) {
+
+    /**
+     * Resultado de una cadena.
+     *
+     * @param chainKey Mes de la cadena (yyyy-MM)
+     * @param fromSeq Posición desde la que se verificó (exclusiva; checkpoint previo)
+     * @param toSeq Última posición verificada
+     * @param verifiedEvents Eventos rehasheados
+     * @param valid true si el tramo está íntegro
+     * @param invalidSeq Primera posición con problema, o null
+     * @param reason Descripción del problema, o null
+     */
+    public record Chain(
+        String chainKey,
+        long fromSeq,
+        long toSeq,
+        long verifiedEvents,
+        boolean valid,
+        Long invalidSeq,
+        String reason
+    ) {}
+
+    /**
+     * Método factory que consolida el resultado de varias cadenas.
+     *
+     * @param full Si la verificación fue completa
+     * @param elapsedMillis Duración de la verificación
+     * @param chains Resultado por cadena
+     * @return AuditVerificationResponse con totales
+     */
+    public static AuditVerificationResponse of(boolean full, long elapsedMillis, List<Chain> chains) {
+        return new AuditVerificationResponse(
+            chains.stream().allMatch(Chain::valid),
+            full,
+            chains.stream().mapToLong(Chain::verifiedEvents).sum(),
+            elapsedMillis,
+            chains
+        );
+    }
+}
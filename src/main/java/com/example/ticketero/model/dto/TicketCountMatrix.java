@@ -0,0 +1,90 @@
+package com.example.ticketero.model.dto;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matriz inmutable de conteos de tickets por estado y tipo de cola.
+ *
+ * Implementa: RF-007 (Dashboard ejecutivo)
+ *
+ * Se construye a partir de una única consulta agrupada
+ * (TicketRepository.countGroupedByStatusAndQueueType) y reemplaza las consultas
+ * countByStatusAndQueueType individuales por celda. Las combinaciones sin tickets
+ * retornan 0.
+ *
+ * Utilizado por:
+ * - DashboardService para construir el snapshot completo del dashboard
+ * - QueueMetricsRegistry para conciliar y exponer sus contadores incrementales
+ *
+ * @param counts Conteos indexados por estado y luego por tipo de cola
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record TicketCountMatrix(Map<TicketStatus, Map<QueueType, Long>> counts) {
+
+    public TicketCountMatrix {
+        Map<TicketStatus, Map<QueueType, Long>> copy = new EnumMap<>(TicketStatus.class);
+        counts.forEach((status, byQueue) -> copy.put(status, Map.copyOf(byQueue)));
+        counts = Map.copyOf(copy);
+    }
+
+    /**
+     * Método factory a partir de filas [TicketStatus, QueueType, Long] de la consulta agrupada.
+     *
+     * @param rows Resultado de countGroupedByStatusAndQueueType
+     * @return TicketCountMatrix con todos los conteos
+     */
+    public static TicketCountMatrix from(List<Object[]> rows) {
+        Map<TicketStatus, Map<QueueType, Long>> counts = new EnumMap<>(TicketStatus.class);
+        for (Object[] row : rows) {
+            TicketStatus status = (TicketStatus) row[0];
+            QueueType queueType = (QueueType) row[1];
+            long count = ((Number) row[2]).longValue();
+            counts.computeIfAbsent(status, s -> new EnumMap<>(QueueType.class)).merge(queueType, count, Long::sum);
+        }
+        return new TicketCountMatrix(counts);
+    }
+
+    /**
+     * Cantidad de tickets en un estado para una cola.
+     *
+     * @param status Estado del ticket
+     * @param queueType Tipo de cola
+     * @return Conteo (0 si no hay tickets)
+     */
+    public long count(TicketStatus status, QueueType queueType) {
+        return counts.getOrDefault(status, Map.of()).getOrDefault(queueType, 0L);
+    }
+
+    /**
+     * Cantidad de tickets en un estado sumando todas las colas.
+     *
+     * @param status Estado del ticket
+     * @return Conteo total del estado
+     */
+    public long countByStatus(TicketStatus status) {
+        return counts.getOrDefault(status, Map.of()).values().stream()
+            .mapToLong(Long::longValue)
+            .sum();
+    }
+
+    /**
+     * Cantidad de tickets en cualquiera de los estados indicados, sumando todas las colas.
+     *
+     * @param statuses Estados a considerar
+     * @return Conteo total
+     */
+    public long countByStatuses(Collection<TicketStatus> statuses) {
+        return statuses.stream()
+            .mapToLong(this::countByStatus)
+            .sum();
+    }
+}
@@ -83,4 +83,20 @@ public record TicketResponse(
             ticket.getStatus().getDescription()
         );
     }
-}
\ No newline at end of file
+    
+    /**
+     * Copia del DTO con posición y tiempo estimado actualizados.
+     * Utilizado para exponer la posición en vivo de tickets en espera (RF-003).
+     * 
+     * @param position Posición actual en la cola
+     * @param estimatedWait Tiempo estimado de espera en minutos
+     * @return TicketResponse con la nueva posición
+     */
+    public TicketResponse withPosition(int position, int estimatedWait) {
+        return new TicketResponse(
+            codigoReferencia, numero, nationalId, telefono, branchOffice, queueType, status,
+            position, estimatedWait, assignedAdvisor, assignedModuleNumber,
+            createdAt, updatedAt, statusDescription
+        );
+    }
+}
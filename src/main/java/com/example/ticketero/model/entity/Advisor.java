@@ -62,6 +62,11 @@ public class Advisor {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // RN-004: Control de concurrencia optimista, evita asignaciones dobles
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
     /**
      * Callback JPA ejecutado antes de persistir la entidad.
      * Inicializa timestamps automáticos.
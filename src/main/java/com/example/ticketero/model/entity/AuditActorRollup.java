@@ -0,0 +1,58 @@
+package com.example.ticketero.model.entity;
+
+import com.example.ticketero.model.enums.ActorType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de eventos de auditoría por actor en una hora cerrada.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ * 
+ * Escrita por AuditRollupService al compactar cada hora; GET /api/audit/summary
+ * suma estas filas en lugar de agrupar los eventos del período.
+ * 
+ * Índice crítico:
+ * - uk_audit_rollup_actor: Una sola fila por hora, actor y tipo de actor
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(
+    name = "audit_rollup_actor",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_audit_rollup_actor",
+        columnNames = {"hour_start", "actor", "actor_type"}
+    )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditActorRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+    
+    @Column(name = "actor", nullable = false, length = 100)
+    private String actor;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "actor_type", nullable = false, length = 20)
+    private ActorType actorType;
+    
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+}
@@ -0,0 +1,58 @@
+package com.example.ticketero.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un mes de auditoría archivado fuera de audit_event.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ * 
+ * Cada mes archivado es un archivo columnar comprimido en audit.archive.dir
+ * (AuditArchiveCodec). minTimestamp / maxTimestamp permiten descartar el archivo
+ * sin leerlo en consultas por período y sha256 valida su contenido en cada lectura.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "audit_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditArchive {
+    
+    // Mes archivado (yyyy-MM), igual que chain_key
+    @Id
+    @Column(name = "archive_month", length = 7)
+    private String archiveMonth;
+    
+    @Column(name = "file_name", nullable = false, length = 100)
+    private String fileName;
+    
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+    
+    @Column(name = "min_timestamp", nullable = false)
+    private LocalDateTime minTimestamp;
+    
+    @Column(name = "max_timestamp", nullable = false)
+    private LocalDateTime maxTimestamp;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+    
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,68 @@
+package com.example.ticketero.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cabeza y checkpoint de una cadena de hashes de auditoría (una por mes).
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
+ *
+ * - lastSeq / lastHash: último evento enlazado. AuditEventWriter bloquea la fila
+ *   (SELECT ... FOR UPDATE) mientras enlaza e inserta, por lo que varios nodos
+ *   comparten la cadena sin bifurcarla
+ * - verifiedSeq / verifiedHash: último evento cuya cadena verificó
+ *   AuditChainVerifier; la siguiente verificación parte desde ahí
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "audit_chain")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditChain {
+
+    @Id
+    @Column(name = "chain_key", length = 7)
+    private String chainKey;
+
+    @Column(name = "last_seq", nullable = false)
+    @Builder.Default
+    private Long lastSeq = 0L;
+
+    @Column(name = "last_hash", length = 64)
+    private String lastHash;
+
+    @Column(name = "verified_seq", nullable = false)
+    @Builder.Default
+    private Long verifiedSeq = 0L;
+
+    @Column(name = "verified_hash", length = 64)
+    private String verifiedHash;
+
+    @Column(name = "verified_at")
+    private LocalDateTime verifiedAt;
+
+    /**
+     * RN-011: Agrega el evento al final de la cadena: le asigna la siguiente
+     * posición, el hash anterior y su propio integrityHash.
+     *
+     * @param event Evento ya sellado de esta cadena
+     */
+    public void enlazar(AuditEvent event) {
+        event.setChainSeq(++lastSeq);
+        event.setPreviousHash(lastHash);
+        event.setIntegrityHash(event.calcularHash());
+        lastHash = event.getIntegrityHash();
+    }
+}
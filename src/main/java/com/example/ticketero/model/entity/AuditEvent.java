@@ -7,7 +7,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
 
 /**
  * Entidad de auditoría que registra todos los eventos críticos del sistema.
@@ -16,7 +23,12 @@ import java.time.LocalDateTime;
  * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
  * 
  * Características de seguridad:
- * - Hash de integridad automático en @PrePersist
+ * - Cadena de hashes SHA-256 por mes (chainKey = yyyy-MM del timestamp): cada
+ *   evento tiene una posición (chainSeq) y su integrityHash cubre su contenido
+ *   canónico más el hash del evento anterior (previousHash). Alterar, borrar o
+ *   reordenar un evento rompe la cadena desde ese punto (AuditChainVerifier)
+ * - La cadena la asigna AuditEventWriter al insertar; @PrePersist solo calcula
+ *   el hash de un evento fuera de cadena
  * - Almacenamiento JSONB para datos adicionales
  * - Trazabilidad completa de cambios de estado
  * 
@@ -73,27 +85,79 @@ public class AuditEvent {
     @Column(name = "integrity_hash", nullable = false, length = 64)
     private String integrityHash;
     
+    @Column(name = "chain_key", length = 7)
+    private String chainKey;
+    
+    @Column(name = "chain_seq")
+    private Long chainSeq;
+    
+    @Column(name = "previous_hash", length = 64)
+    private String previousHash;
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+    
     /**
      * RN-011: Callback JPA que genera hash de integridad automáticamente.
      * Ejecutado antes de persistir para garantizar trazabilidad.
      */
     @PrePersist
     protected void onCreate() {
-        if (timestamp == null) {
-            timestamp = LocalDateTime.now();
+        sellar();
+        integrityHash = calcularHash();
+    }
+    
+    /**
+     * RN-011: Completa timestamp (truncado a milisegundos, la precisión de la
+     * columna, para que el hash se pueda recalcular desde la base) y chainKey.
+     * Lo invoca @PrePersist y también AuditEventWriter, que inserta por JDBC.
+     */
+    public void sellar() {
+        timestamp = (timestamp == null ? LocalDateTime.now() : timestamp).truncatedTo(ChronoUnit.MILLIS);
+        if (chainKey == null) {
+            chainKey = YearMonth.from(timestamp).toString();
         }
-        // RN-011: Generar hash de integridad (simplificado para el ejemplo)
-        integrityHash = generateIntegrityHash();
     }
     
     /**
-     * RN-011: Genera hash de integridad para validación de auditoría.
-     * Implementación simplificada - en producción usar SHA-256.
+     * RN-011: SHA-256 del contenido canónico del evento, su posición en la cadena
+     * y previousHash. Cada campo se codifica con marca de nulo y largo, sin
+     * separadores ambiguos.
      * 
-     * @return Hash de integridad basado en campos críticos
+     * @return Hash hexadecimal de 64 caracteres
      */
-    private String generateIntegrityHash() {
-        // Implementación simplificada - en producción usar SHA-256
-        return String.valueOf((eventType + actor + timestamp.toString()).hashCode());
+    public String calcularHash() {
+        MessageDigest sha = SHA256.get();
+        sha.reset();
+        campo(sha, chainKey);
+        campo(sha, chainSeq == null ? null : chainSeq.toString());
+        campo(sha, timestamp.toString());
+        campo(sha, eventType);
+        campo(sha, actor);
+        campo(sha, actorType == null ? null : actorType.name());
+        campo(sha, ticket == null ? null : String.valueOf(ticket.getId()));
+        campo(sha, ticketNumber);
+        campo(sha, previousState);
+        campo(sha, newState);
+        campo(sha, additionalData);
+        campo(sha, ipAddress);
+        campo(sha, previousHash);
+        return HexFormat.of().formatHex(sha.digest());
+    }
+    
+    private static void campo(MessageDigest sha, String valor) {
+        if (valor == null) {
+            sha.update((byte) 0);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        sha.update((byte) 1);
+        sha.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        sha.update(bytes);
     }
-}
\ No newline at end of file
+}
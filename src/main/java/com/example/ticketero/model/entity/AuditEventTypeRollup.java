@@ -0,0 +1,53 @@
+package com.example.ticketero.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de eventos de auditoría por tipo en una hora cerrada.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ * 
+ * Escrita por AuditRollupService al compactar cada hora; GET /api/audit/summary
+ * suma estas filas en lugar de agrupar los eventos del período.
+ * 
+ * Índice crítico:
+ * - uk_audit_rollup_event_type: Una sola fila por hora y tipo de evento
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(
+    name = "audit_rollup_event_type",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_audit_rollup_event_type",
+        columnNames = {"hour_start", "event_type"}
+    )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditEventTypeRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+    
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+    
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+}
@@ -0,0 +1,39 @@
+package com.example.ticketero.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de la compactación horaria de auditoría.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * 
+ * compactedUntil es el inicio de la primera hora aún no compactada: los eventos
+ * anteriores están en los rollups y los posteriores solo en audit_event. La fila
+ * se bloquea (SELECT ... FOR UPDATE) mientras se compacta una hora, por lo que
+ * varios nodos no compactan la misma hora dos veces.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "audit_rollup_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditRollupState {
+    
+    @Id
+    @Column(name = "name", length = 30)
+    private String name;
+    
+    @Column(name = "compacted_until")
+    private LocalDateTime compactedUntil;
+}
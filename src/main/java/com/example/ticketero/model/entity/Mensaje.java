@@ -9,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Entidad que representa la cola de mensajes para notificaciones vía Telegram.
@@ -20,8 +21,9 @@ import java.time.LocalDateTime;
  * - Cola de mensajes con procesamiento asíncrono cada 60s
  * - Sistema de reintentos con backoff exponencial (30s, 60s, 120s)
  * - Plantillas predefinidas (TOTEM_TICKET_CREADO, TOTEM_ES_TU_TURNO, etc.)
+ * - Clave de envío única (claveEnvio) para entregas idempotentes
  * 
- * Estados: PENDIENTE, ENVIADO, FALLIDO
+ * Estados: PENDIENTE, ENVIANDO, ENVIADO, FALLIDO, DESCARTADO
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -71,9 +73,13 @@ public class Mensaje {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime fechaCreacion;
     
+    // Identifica el envío ante el canal y en la reconciliación; no cambia entre reintentos
+    @Column(name = "clave_envio", nullable = false, unique = true, length = 36)
+    private String claveEnvio;
+    
     /**
      * Callback JPA ejecutado antes de persistir la entidad.
-     * Inicializa timestamps y fecha de programación por defecto.
+     * Inicializa timestamps, fecha de programación y clave de envío por defecto.
      */
     @PrePersist
     protected void onCreate() {
@@ -81,6 +87,9 @@ public class Mensaje {
         if (fechaProgramada == null) {
             fechaProgramada = LocalDateTime.now();
         }
+        if (claveEnvio == null) {
+            claveEnvio = UUID.randomUUID().toString();
+        }
     }
     
     /**
@@ -25,6 +25,7 @@ import java.util.UUID;
  * Índices críticos:
  * - idx_ticket_active_unique: Garantiza RN-001 (unicidad por nationalId activo)
  * - idx_ticket_queue_fifo: Implementa RN-003 (orden FIFO por cola)
+ * - idx_ticket_numero_dia: Número visible único por día (RN-006)
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -45,7 +46,8 @@ public class Ticket {
     @Column(name = "codigo_referencia", nullable = false, unique = true)
     private UUID codigoReferencia;
     
-    @Column(name = "numero", nullable = false, unique = true, length = 10)
+    // Único por día (idx_ticket_numero_dia): la numeración se reinicia diariamente
+    @Column(name = "numero", nullable = false, length = 10)
     private String numero;
     
     @Column(name = "national_id", nullable = false, length = 20)
@@ -83,6 +85,11 @@ public class Ticket {
     @Column(name = "updated_at")
     private LocalDateTime fechaActualizacion;
     
+    // RN-004: Control de concurrencia optimista, evita asignaciones dobles
+    @Version
+    @Column(name = "version")
+    private Long version;
+    
     // Relación con mensajes
     @OneToMany(mappedBy = "ticket", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Mensaje> mensajes;
@@ -93,14 +100,17 @@ public class Ticket {
     
     /**
      * Callback JPA ejecutado antes de persistir la entidad.
-     * Inicializa campos obligatorios y timestamps automáticos.
+     * Inicializa campos obligatorios y timestamps automáticos; conserva una fecha de
+     * creación ya asignada (TicketService la fija al reservar el número del día).
      */
     @PrePersist
     protected void onCreate() {
         if (codigoReferencia == null) {
             codigoReferencia = UUID.randomUUID();
         }
-        fechaCreacion = LocalDateTime.now();
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
         fechaActualizacion = LocalDateTime.now();
     }
     
@@ -0,0 +1,68 @@
+package com.example.ticketero.model.entity;
+
+import com.example.ticketero.model.enums.QueueType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Contador persistente de numeración de tickets por cola y por día.
+ * 
+ * Implementa: RF-001 (Creación de tickets)
+ * Reglas de Negocio: RN-005/RN-006 (Numeración secuencial con prefijo por cola)
+ * 
+ * Cada fila guarda el último valor reservado para un par (queueType, sequenceDate).
+ * Las reservas se hacen bajo bloqueo pesimista de la fila, por lo que varios nodos
+ * de la aplicación comparten el mismo contador sin repetir números, y un reinicio
+ * a mitad del día continúa desde el último valor reservado.
+ * 
+ * Índice crítico:
+ * - uk_ticket_sequence_queue_date: Una sola fila por cola y día
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(
+    name = "ticket_sequence",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_ticket_sequence_queue_date",
+        columnNames = {"queue_type", "sequence_date"}
+    )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketSequence {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "queue_type", nullable = false, length = 20)
+    private QueueType queueType;
+    
+    @Column(name = "sequence_date", nullable = false)
+    private LocalDate sequenceDate;
+    
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+    
+    /**
+     * Reserva un bloque de números avanzando el último valor.
+     * 
+     * @param blockSize Cantidad de números a reservar
+     * @return Último número del bloque reservado
+     */
+    public long reserve(int blockSize) {
+        lastValue = lastValue + blockSize;
+        return lastValue;
+    }
+}
@@ -2,8 +2,10 @@ package com.example.ticketero.model.enums;
 
 public enum EstadoEnvio {
     PENDIENTE("Mensaje programado, pendiente de envío"),
+    ENVIANDO("Mensaje entregado al canal, resultado aún no registrado"),
     ENVIADO("Mensaje enviado exitosamente"),
-    FALLIDO("Mensaje falló tras reintentos");
+    FALLIDO("Mensaje falló tras reintentos"),
+    DESCARTADO("Mensaje duplicado, descartado sin enviar");
 
     private final String description;
 
@@ -1,17 +1,57 @@
 package com.example.ticketero.model.enums;
 
+import com.example.ticketero.model.template.CompiledTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
 public enum MessageTemplate {
-    TOTEM_TICKET_CREADO("Confirmación de creación"),
-    TOTEM_PROXIMO_TURNO("Pre-aviso de proximidad"),
-    TOTEM_ES_TU_TURNO("Asignación a ejecutivo");
+    TOTEM_TICKET_CREADO("Confirmación de creación", 1,
+        "🎫 *Ticket Creado*\n\n📋 Número: {NUMERO}\n📍 Posición: {POSICION}\n⏰ Tiempo estimado: {ESPERA} min"),
+    TOTEM_PROXIMO_TURNO("Pre-aviso de proximidad", 2,
+        "🔔 *¡Tu turno está próximo!*\n\n📋 Ticket: {NUMERO}\n📍 Posición: {POSICION}\n🏃 Dirígete a la sucursal"),
+    TOTEM_ES_TU_TURNO("Asignación a ejecutivo", 3,
+        "✅ *¡Es tu turno!*\n\n📋 Ticket: {NUMERO}\n🏢 Módulo: {MODULO}\n👤 Te atiende: {ASESOR}");
 
     private final String description;
+    private final int etapa;
+    private final CompiledTemplate contenido;
 
-    MessageTemplate(String description) {
+    MessageTemplate(String description, int etapa, String patron) {
         this.description = description;
+        this.etapa = etapa;
+        this.contenido = CompiledTemplate.compile(patron);
     }
 
     public String getDescription() { 
         return description; 
     }
-}
\ No newline at end of file
+
+    public CompiledTemplate getContenido() {
+        return contenido;
+    }
+
+    /**
+     * Etapa del ciclo de vida del ticket que anuncia la plantilla
+     * (creado → próximo → es tu turno).
+     */
+    public int getEtapa() {
+        return etapa;
+    }
+
+    /**
+     * Plantillas de etapas anteriores: un mensaje pendiente con ellas queda
+     * obsoleto cuando se programa esta.
+     */
+    public List<MessageTemplate> anteriores() {
+        return Arrays.stream(values()).filter(otra -> otra.etapa < etapa).toList();
+    }
+
+    /**
+     * Esta plantilla y las de etapas posteriores: si el ticket ya tiene una
+     * vigente, programar esta no aporta información nueva.
+     */
+    public List<MessageTemplate> desdeEsta() {
+        return Arrays.stream(values()).filter(otra -> otra.etapa >= etapa).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ticketero.model.event;
+
+import com.example.ticketero.model.entity.Advisor;
+import com.example.ticketero.model.enums.AdvisorStatus;
+
+/**
+ * Evento de dominio publicado en cada transición de estado de un asesor.
+ *
+ * Implementa: RF-004 (Asignación automática), RF-007 (Dashboard ejecutivo)
+ *
+ * Publicado por:
+ * - AdvisorService (asignación y liberación al completar)
+ * - QueueManagementService (asignación automática)
+ *
+ * @param advisorId ID del asesor
+ * @param previousStatus Estado anterior
+ * @param newStatus Estado nuevo
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record AdvisorStatusChangedEvent(
+    Long advisorId,
+    AdvisorStatus previousStatus,
+    AdvisorStatus newStatus
+) {
+    /**
+     * Método factory para construir el evento a partir del asesor ya modificado.
+     *
+     * @param advisor Asesor con su nuevo estado aplicado
+     * @param previousStatus Estado anterior del asesor
+     * @return AdvisorStatusChangedEvent con el cambio de estado
+     */
+    public static AdvisorStatusChangedEvent of(Advisor advisor, AdvisorStatus previousStatus) {
+        return new AdvisorStatusChangedEvent(advisor.getId(), previousStatus, advisor.getStatus());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ticketero.model.event;
+
+import com.example.ticketero.model.entity.Mensaje;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio publicado al programar un mensaje Telegram en la outbox.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Publicado por:
+ * - NotificationService.programar (también vía TelegramService.programarMensaje)
+ * - MensajeTimingWheel, al vencer un mensaje diferido (sin fechaProgramada)
+ *
+ * MensajeOutboxDispatcher lo escucha tras el commit y despacha el mensaje de
+ * inmediato, sin esperar la siguiente ejecución de MensajeScheduler; si su
+ * fechaProgramada es futura, lo deja en MensajeTimingWheel hasta su hora.
+ *
+ * @param mensajeId ID del mensaje programado
+ * @param fechaProgramada Momento a partir del cual puede enviarse; null si ya venció
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record MensajeProgramadoEvent(Long mensajeId, LocalDateTime fechaProgramada) {
+
+    /**
+     * Método factory para construir el evento a partir del mensaje ya persistido.
+     *
+     * @param mensaje Mensaje guardado en la outbox
+     * @return MensajeProgramadoEvent con el ID y la fechaProgramada del mensaje
+     */
+    public static MensajeProgramadoEvent of(Mensaje mensaje) {
+        return new MensajeProgramadoEvent(mensaje.getId(), mensaje.getFechaProgramada());
+    }
+}
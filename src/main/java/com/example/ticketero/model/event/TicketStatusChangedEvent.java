@@ -0,0 +1,59 @@
+package com.example.ticketero.model.event;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio publicado en cada transición de estado de un ticket.
+ *
+ * Implementa: RF-003 (Cálculo de posiciones), RF-005 (Gestión de múltiples colas)
+ *
+ * Publicado por:
+ * - TicketService (creación y cambio de estado manual)
+ * - QueueManagementService (asignación automática y pre-aviso)
+ * - AdvisorService (asignación y completación)
+ * - QueueProcessorScheduler (timeout NO_SHOW)
+ *
+ * Contiene una copia inmutable de los datos relevantes del ticket, de modo que los
+ * listeners que se ejecutan tras el commit no dependen de la entidad JPA.
+ *
+ * @param ticketId ID del ticket
+ * @param numero Número visible del ticket (C01, P02, etc.)
+ * @param queueType Cola a la que pertenece el ticket
+ * @param previousStatus Estado anterior (null en la creación)
+ * @param newStatus Estado nuevo
+ * @param fechaCreacion Fecha de creación, usada para el orden FIFO (RN-003)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public record TicketStatusChangedEvent(
+    Long ticketId,
+    String numero,
+    QueueType queueType,
+    TicketStatus previousStatus,
+    TicketStatus newStatus,
+    LocalDateTime fechaCreacion
+) {
+    /**
+     * Método factory para construir el evento a partir del ticket ya modificado.
+     *
+     * @param ticket Ticket con su nuevo estado aplicado
+     * @param previousStatus Estado anterior del ticket (null si es creación)
+     * @return TicketStatusChangedEvent con snapshot del ticket
+     */
+    public static TicketStatusChangedEvent of(Ticket ticket, TicketStatus previousStatus) {
+        return new TicketStatusChangedEvent(
+            ticket.getId(),
+            ticket.getNumero(),
+            ticket.getQueueType(),
+            previousStatus,
+            ticket.getStatus(),
+            ticket.getFechaCreacion()
+        );
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ticketero.model.template;
+
+import com.example.ticketero.model.entity.Ticket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plantilla de mensaje precompilada: segmentos literales intercalados con campos tipados.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Sintaxis del patrón:
+ * - {NOMBRE}: campo TemplateSlot (NUMERO, POSICION, ESPERA, MODULO, ASESOR)
+ * - *texto*: negrita de Markdown, se conserva tal cual
+ * - Los demás caracteres especiales de Markdown (_ ` [) se escapan al compilar
+ *
+ * El patrón se analiza y escapa una sola vez (al cargar MessageTemplate); render
+ * solo concatena literales y valores en el StringBuilder del llamador, sin
+ * String.format ni expresiones regulares.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CompiledTemplate {
+
+    private final String[] literales;
+    private final TemplateSlot[] slots;
+    private final int longitudLiterales;
+
+    private CompiledTemplate(String[] literales, TemplateSlot[] slots) {
+        this.literales = literales;
+        this.slots = slots;
+        int longitud = 0;
+        for (String literal : literales) {
+            longitud += literal.length();
+        }
+        this.longitudLiterales = longitud;
+    }
+
+    /**
+     * Compila un patrón de plantilla.
+     *
+     * @param patron Texto con campos {NOMBRE}
+     * @return Plantilla lista para renderizar
+     * @throws IllegalArgumentException si un campo no existe o una llave no cierra
+     */
+    public static CompiledTemplate compile(String patron) {
+        List<String> literales = new ArrayList<>();
+        List<TemplateSlot> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < patron.length()) {
+            char c = patron.charAt(i);
+            if (c == '{') {
+                int cierre = patron.indexOf('}', i);
+                if (cierre < 0) {
+                    throw new IllegalArgumentException("Campo sin cerrar en la posición " + i + ": " + patron);
+                }
+                String nombre = patron.substring(i + 1, cierre);
+                try {
+                    slots.add(TemplateSlot.valueOf(nombre));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Campo de plantilla desconocido: {" + nombre + "}", e);
+                }
+                literales.add(literal.toString());
+                literal.setLength(0);
+                i = cierre + 1;
+            } else {
+                // '*' es la negrita intencional del patrón; el resto se escapa aquí, una vez
+                if (c == '_' || c == '`' || c == '[') {
+                    literal.append('\\');
+                }
+                literal.append(c);
+                i++;
+            }
+        }
+        literales.add(literal.toString());
+        return new CompiledTemplate(literales.toArray(String[]::new), slots.toArray(TemplateSlot[]::new));
+    }
+
+    /**
+     * Renderiza la plantilla para el ticket al final del buffer.
+     *
+     * @param ticket Ticket con los valores de los campos
+     * @param out Buffer de salida, reutilizable por el llamador
+     */
+    public void renderInto(Ticket ticket, StringBuilder out) {
+        out.ensureCapacity(out.length() + longitudLiterales + 16 * slots.length);
+        out.append(literales[0]);
+        for (int i = 0; i < slots.length; i++) {
+            slots[i].appendTo(ticket, out);
+            out.append(literales[i + 1]);
+        }
+    }
+
+    /**
+     * Escapa un valor de texto para Markdown de Telegram (_ * ` [).
+     * Sin caracteres especiales se agrega tal cual, sin copias intermedias.
+     *
+     * @param valor Texto a escapar
+     * @param out Buffer de salida
+     */
+    static void escapeMarkdown(String valor, StringBuilder out) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '_' || c == '*' || c == '`' || c == '[') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+    }
+}
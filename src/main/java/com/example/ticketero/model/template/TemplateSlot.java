@@ -0,0 +1,56 @@
+package com.example.ticketero.model.template;
+
+import com.example.ticketero.model.entity.Ticket;
+
+import java.util.function.Function;
+
+/**
+ * Campo variable de una plantilla de mensaje ({NOMBRE} en el patrón).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Tipos:
+ * - NUMBER: entero del ticket, se agrega sin formatear ni escapar
+ * - TEXT: texto del ticket, se escapa para Markdown de Telegram al renderizar
+ *   (es el único escape que no puede hacerse al compilar)
+ *
+ * Un valor nulo se escribe como "null", igual que String.format.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public enum TemplateSlot {
+    NUMERO(Tipo.TEXT, Ticket::getNumero),
+    POSICION(Tipo.NUMBER, Ticket::getPositionInQueue),
+    ESPERA(Tipo.NUMBER, Ticket::getEstimatedWaitMinutes),
+    MODULO(Tipo.NUMBER, Ticket::getAssignedModuleNumber),
+    ASESOR(Tipo.TEXT, Ticket::getAssignedAdvisor);
+
+    enum Tipo { TEXT, NUMBER }
+
+    private final Tipo tipo;
+    private final Function<Ticket, Object> valor;
+
+    TemplateSlot(Tipo tipo, Function<Ticket, Object> valor) {
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+
+    /**
+     * Agrega el valor del campo para el ticket.
+     *
+     * @param ticket Ticket del mensaje
+     * @param out Buffer de salida
+     */
+    void appendTo(Ticket ticket, StringBuilder out) {
+        Object value = valor.apply(ticket);
+        if (value instanceof Integer number) {
+            out.append(number.intValue());
+        } else if (tipo == Tipo.TEXT && value != null) {
+            CompiledTemplate.escapeMarkdown(value.toString(), out);
+        } else {
+            out.append(value);
+        }
+    }
+}
@@ -3,8 +3,14 @@ package com.example.ticketero.repository;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -20,6 +26,7 @@ import java.util.Optional;
  * 
  * Queries críticas para balanceo:
  * - findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc: Implementa RN-004 (menor carga)
+ * - claimLeastLoadedAvailable: Reclamo exclusivo del asesor con menor carga para asignación
  * - getAdvisorProductivityStats: Estadísticas de productividad
  * - countAdvisorsByStatus: Métricas de disponibilidad
  * 
@@ -56,6 +63,23 @@ public interface AdvisorRepository extends JpaRepository<Advisor, Long> {
     // Asesor con menor carga disponible - RN-004 (query derivada sin LIMIT)
     Optional<Advisor> findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus status);
     
+    /**
+     * RN-004: Reclama el asesor AVAILABLE con menor carga para asignarle un ticket.
+     * La fila queda bloqueada hasta el fin de la transacción; los asesores ya
+     * bloqueados por otra transacción se saltan (FOR UPDATE SKIP LOCKED).
+     * 
+     * @return Optional con el asesor reclamado o empty si no hay asesores libres
+     */
+    default Optional<Advisor> claimLeastLoadedAvailable() {
+        return claimByStatusOrderByLoad(AdvisorStatus.AVAILABLE, PageRequest.of(0, 1)).stream().findFirst();
+    }
+    
+    // Asesores por estado y carga con bloqueo SKIP LOCKED (timeout -2)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a FROM Advisor a WHERE a.status = :status ORDER BY a.assignedTicketsCount ASC, a.updatedAt ASC, a.id ASC")
+    List<Advisor> claimByStatusOrderByLoad(@Param("status") AdvisorStatus status, Pageable pageable);
+    
     // Asesores por estado
     List<Advisor> findByStatusOrderByNameAsc(AdvisorStatus status);
     
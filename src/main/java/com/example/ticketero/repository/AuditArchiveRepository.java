@@ -0,0 +1,31 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.entity.AuditArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository para el registro de meses de auditoría archivados.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ * 
+ * Queries críticas:
+ * - findAllByOrderByArchiveMonthDesc: recorrido de los archivos del más reciente
+ *   al más antiguo, el orden de la paginación de auditoría
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface AuditArchiveRepository extends JpaRepository<AuditArchive, String> {
+    
+    // Meses archivados, más recientes primero (yyyy-MM ordena como texto)
+    List<AuditArchive> findAllByOrderByArchiveMonthDesc();
+    
+    // Meses archivados, más antiguos primero (purga por retención, exportación)
+    List<AuditArchive> findAllByOrderByArchiveMonthAsc();
+}
@@ -0,0 +1,68 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.entity.AuditChain;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository para las cadenas de hashes de auditoría (una por mes).
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria)
+ *
+ * Queries críticas:
+ * - findForUpdate: SELECT ... FOR UPDATE sobre la cabeza, serializa el enlace entre nodos
+ * - registrarCheckpoint: avanza solo las columnas de verificación
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface AuditChainRepository extends JpaRepository<AuditChain, String> {
+
+    /**
+     * RN-011: Obtiene la cabeza de una cadena con bloqueo pesimista de escritura.
+     *
+     * @param chainKey Mes de la cadena (yyyy-MM)
+     * @return Optional con la cabeza bloqueada hasta el fin de la transacción
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM AuditChain c WHERE c.chainKey = :chainKey")
+    Optional<AuditChain> findForUpdate(@Param("chainKey") String chainKey);
+
+    // Cadenas de un rango de meses (yyyy-MM ordena como texto)
+    List<AuditChain> findByChainKeyBetweenOrderByChainKeyAsc(String desde, String hasta);
+
+    /**
+     * RN-011: Registra hasta dónde quedó verificada la cadena. No toca lastSeq ni
+     * lastHash, que el escritor puede estar avanzando en paralelo, ni retrocede un
+     * checkpoint más reciente.
+     *
+     * @param chainKey Mes de la cadena
+     * @param verifiedSeq Última posición verificada
+     * @param verifiedHash Hash del evento en esa posición
+     * @param verifiedAt Momento de la verificación
+     * @return Cantidad de filas actualizadas
+     */
+    @Modifying
+    @Query("""
+        UPDATE AuditChain c
+        SET c.verifiedSeq = :verifiedSeq, c.verifiedHash = :verifiedHash, c.verifiedAt = :verifiedAt
+        WHERE c.chainKey = :chainKey
+        AND c.verifiedSeq < :verifiedSeq
+        """)
+    int registrarCheckpoint(@Param("chainKey") String chainKey,
+                            @Param("verifiedSeq") long verifiedSeq,
+                            @Param("verifiedHash") String verifiedHash,
+                            @Param("verifiedAt") LocalDateTime verifiedAt);
+}
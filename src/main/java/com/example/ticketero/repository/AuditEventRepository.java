@@ -2,13 +2,20 @@ package com.example.ticketero.repository;
 
 import com.example.ticketero.model.entity.AuditEvent;
 import com.example.ticketero.model.enums.ActorType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para entidad AuditEvent con queries especializadas para trazabilidad y cumplimiento.
@@ -20,9 +27,17 @@ import java.util.List;
  * - findByTicketNumberOrderByTimestampDesc: Trazabilidad completa por ticket
  * - getEventTypeStatistics: Estadísticas de eventos para cumplimiento
  * - getActorActivityStats: Monitoreo de actividad por actor
+ * - findTramoCadena / findByChainKeyAndChainSeq: verificación de la cadena de hashes
+ * - findPrimeraPagina* / findPaginaSiguiente*: paginación keyset por (timestamp, id)
+ *   descendente; cada página cuesta lo mismo sin importar cuántas la preceden
+ * - streamParaExportacion*: cursor JDBC de solo avance para la exportación masiva
+ * - contarPor*Entre: tramos de las estadísticas que aún no están en los rollups
+ * - streamParaArchivo / eliminarEntre: traslado de meses vencidos a AuditArchiveService
  * 
  * Eventos auditados: TICKET_CREATED, TICKET_ASSIGNED, STATUS_CHANGED, NOTIFICATION_SENT
  * Retención: 7 años según configuración audit.retention-days: 2555
+ * En PostgreSQL audit_event está particionada por mes (V10): las consultas por
+ * rango de timestamp solo recorren las particiones del período
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -70,6 +85,201 @@ public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
         LocalDateTime endDate
     );
     
+    /**
+     * RF-008: Primera página del historial de un ticket (paginación keyset).
+     * 
+     * @param ticketNumber Número del ticket
+     * @param pageable Tamaño de la página
+     * @return Eventos más recientes por (timestamp, id) descendente
+     */
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.ticketNumber = :ticketNumber
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPrimeraPaginaPorTicket(
+        @Param("ticketNumber") String ticketNumber,
+        Pageable pageable
+    );
+    
+    /**
+     * RF-008: Página siguiente del historial de un ticket, estrictamente después
+     * del cursor. La cota a.timestamp <= :timestamp permite el recorrido del índice.
+     * 
+     * @param ticketNumber Número del ticket
+     * @param timestamp Timestamp del último evento entregado
+     * @param id Id del último evento entregado
+     * @param pageable Tamaño de la página
+     * @return Eventos siguientes por (timestamp, id) descendente
+     */
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.ticketNumber = :ticketNumber
+        AND a.timestamp <= :timestamp
+        AND (a.timestamp < :timestamp OR a.id < :id)
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPaginaSiguientePorTicket(
+        @Param("ticketNumber") String ticketNumber,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") long id,
+        Pageable pageable
+    );
+    
+    // Primera página de eventos de un actor (keyset)
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.actor = :actor
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPrimeraPaginaPorActor(
+        @Param("actor") String actor,
+        Pageable pageable
+    );
+    
+    // Página siguiente de eventos de un actor (keyset)
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.actor = :actor
+        AND a.timestamp <= :timestamp
+        AND (a.timestamp < :timestamp OR a.id < :id)
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPaginaSiguientePorActor(
+        @Param("actor") String actor,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") long id,
+        Pageable pageable
+    );
+    
+    // Primera página de eventos en rango de tiempo (keyset)
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.timestamp BETWEEN :startDate AND :endDate
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPrimeraPaginaPorPeriodo(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        Pageable pageable
+    );
+    
+    // Página siguiente de eventos en rango de tiempo (keyset)
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.timestamp BETWEEN :startDate AND :endDate
+        AND a.timestamp <= :timestamp
+        AND (a.timestamp < :timestamp OR a.id < :id)
+        ORDER BY a.timestamp DESC, a.id DESC
+        """)
+    List<AuditEvent> findPaginaSiguientePorPeriodo(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("id") long id,
+        Pageable pageable
+    );
+    
+    /**
+     * RF-008: Eventos de un período en orden cronológico como cursor de solo avance.
+     * El driver trae las filas de a HINT_FETCH_SIZE; requiere transacción activa
+     * (PostgreSQL solo usa cursor con autocommit desactivado) y cerrar el Stream.
+     * 
+     * @param startDate Fecha de inicio del rango
+     * @param endDate Fecha de fin del rango
+     * @return Stream de eventos por (timestamp, id) ascendente
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.timestamp BETWEEN :startDate AND :endDate
+        ORDER BY a.timestamp ASC, a.id ASC
+        """)
+    Stream<AuditEvent> streamParaExportacion(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Exportación de un período filtrada por tipo de evento (cursor de solo avance)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.timestamp BETWEEN :startDate AND :endDate
+        AND a.eventType = :eventType
+        ORDER BY a.timestamp ASC, a.id ASC
+        """)
+    Stream<AuditEvent> streamParaExportacionPorTipo(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("eventType") String eventType
+    );
+    
+    // Eventos de [desde, hasta) en orden cronológico para archivarlos (cursor de solo avance)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+        ORDER BY a.timestamp ASC, a.id ASC
+        """)
+    Stream<AuditEvent> streamParaArchivo(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    // Elimina los eventos de [desde, hasta) ya archivados
+    @Modifying
+    @Query("""
+        DELETE FROM AuditEvent a
+        WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+        """)
+    int eliminarEntre(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    // Primer evento de [desde, hasta): salta horas vacías al compactar rollups
+    @Query("""
+        SELECT MIN(a.timestamp) FROM AuditEvent a
+        WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+        """)
+    LocalDateTime findPrimerTimestampEntre(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    // Eventos por tipo en [desde, hasta), para tramos fuera de los rollups
+    @Query("""
+        SELECT a.eventType, COUNT(a)
+        FROM AuditEvent a
+        WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+        GROUP BY a.eventType
+        """)
+    List<Object[]> contarPorTipoEntre(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    // Eventos por actor en [desde, hasta), para tramos fuera de los rollups
+    @Query("""
+        SELECT a.actor, a.actorType, COUNT(a)
+        FROM AuditEvent a
+        WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+        GROUP BY a.actor, a.actorType
+        """)
+    List<Object[]> contarPorActorEntre(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
     /**
      * RF-008: Estadísticas de eventos por tipo para reportes de cumplimiento.
      * Utilizada por AuditController para resumen de auditoría.
@@ -110,4 +320,31 @@ public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
-}
\ No newline at end of file
+    
+    /**
+     * RN-011: Tramo de una cadena de hashes en orden de posición, para
+     * AuditChainVerifier. Usa el índice único (chain_key, chain_seq).
+     * 
+     * @param chainKey Mes de la cadena (yyyy-MM)
+     * @param desdeSeq Posición ya verificada (exclusiva)
+     * @param hastaSeq Última posición a verificar (inclusiva)
+     * @param pageable Tamaño del tramo
+     * @return Eventos del tramo ordenados por chainSeq
+     */
+    @Query("""
+        SELECT a FROM AuditEvent a
+        WHERE a.chainKey = :chainKey
+        AND a.chainSeq > :desdeSeq
+        AND a.chainSeq <= :hastaSeq
+        ORDER BY a.chainSeq ASC
+        """)
+    List<AuditEvent> findTramoCadena(
+        @Param("chainKey") String chainKey,
+        @Param("desdeSeq") long desdeSeq,
+        @Param("hastaSeq") long hastaSeq,
+        Pageable pageable
+    );
+    
+    // Evento en una posición de la cadena (ancla del checkpoint)
+    Optional<AuditEvent> findByChainKeyAndChainSeq(String chainKey, Long chainSeq);
+}
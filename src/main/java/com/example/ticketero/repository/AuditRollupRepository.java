@@ -0,0 +1,78 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.entity.AuditRollupState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository para los rollups horarios de auditoría y su marca de agua.
+ * 
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ * 
+ * Queries críticas:
+ * - sumarPorTipo / sumarPorActor: estadísticas de un rango de horas compactadas,
+ *   una fila por hora y clave en lugar de una por evento
+ * - findForUpdate: bloquea la marca de agua mientras se compacta una hora
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface AuditRollupRepository extends JpaRepository<AuditRollupState, String> {
+    
+    /**
+     * RF-008: Obtiene la marca de agua con bloqueo pesimista de escritura.
+     * 
+     * @param name Nombre de la compactación
+     * @return Optional con la marca bloqueada hasta el fin de la transacción
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AuditRollupState s WHERE s.name = :name")
+    Optional<AuditRollupState> findForUpdate(@Param("name") String name);
+    
+    /**
+     * RF-008: Eventos por tipo en las horas [desde, hasta).
+     * 
+     * @param desde Inicio de la primera hora (inclusive)
+     * @param hasta Inicio de la hora final (exclusiva)
+     * @return Lista de arrays con [tipoEvento, cantidad]
+     */
+    @Query("""
+        SELECT r.eventType, SUM(r.eventCount)
+        FROM AuditEventTypeRollup r
+        WHERE r.hourStart >= :desde AND r.hourStart < :hasta
+        GROUP BY r.eventType
+        """)
+    List<Object[]> sumarPorTipo(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    /**
+     * RF-008: Eventos por actor en las horas [desde, hasta).
+     * 
+     * @param desde Inicio de la primera hora (inclusive)
+     * @param hasta Inicio de la hora final (exclusiva)
+     * @return Lista de arrays con [actor, tipoActor, cantidad]
+     */
+    @Query("""
+        SELECT r.actor, r.actorType, SUM(r.eventCount)
+        FROM AuditActorRollup r
+        WHERE r.hourStart >= :desde AND r.hourStart < :hasta
+        GROUP BY r.actor, r.actorType
+        """)
+    List<Object[]> sumarPorActor(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+}
@@ -2,12 +2,20 @@ package com.example.ticketero.repository;
 
 import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,11 +25,19 @@ import java.util.List;
  * Reglas de Negocio: RN-007 (Máximo 3 reintentos), RN-008 (Backoff exponencial)
  * 
  * Queries críticas para procesamiento asíncrono:
- * - findByEstadoEnvioAndFechaProgramadaBefore: Utilizada por MensajeScheduler cada 60s
+ * - findByEstadoEnvioAndFechaProgramadaBefore: Mensajes listos para envío
+ * - claimPendientes: Reclamo por bloques del MensajeOutboxDispatcher (SKIP LOCKED)
+ * - claimPendientesByIds: Reclamo de mensajes recién programados (despacho inmediato)
  * - findFailedMessagesForRetry: Implementa sistema de reintentos con RN-007, RN-008
+ * - existsVigenteByTicketIdAndPlantillaIn / descartarPendientesByTicketIdAndPlantillaIn:
+ *   coalescencia de mensajes del mismo ticket al programar
+ * - marcarEnviando: estado ENVIANDO durable antes de entregar al canal
+ * - claimEnviandoVencidos: mensajes ENVIANDO con lease vencido, para MensajeReconciler
+ * - findProgramadosPendientesDespuesDe: reconstrucción de MensajeTimingWheel al arrancar
  * 
- * Estados de mensaje: PENDIENTE, ENVIADO, FALLIDO
- * Procesamiento: MensajeScheduler ejecuta cada 60 segundos
+ * Estados de mensaje: PENDIENTE, ENVIANDO, ENVIADO, FALLIDO, DESCARTADO
+ * Procesamiento: inmediato tras commit o al vencer en MensajeTimingWheel;
+ * MensajeScheduler ejecuta cada 60 segundos como red de seguridad
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -41,6 +57,158 @@ public interface MensajeRepository extends JpaRepository<Mensaje, Long> {
     // Mensajes pendientes para procesamiento - SCHEDULER
     List<Mensaje> findByEstadoEnvioAndFechaProgramadaBefore(EstadoEnvio estadoEnvio, LocalDateTime fecha);
     
+    /**
+     * RF-002: Reclama un bloque de mensajes listos para envío (outbox).
+     * Las filas quedan bloqueadas hasta el fin de la transacción y las ya
+     * bloqueadas por otra instancia se saltan (FOR UPDATE SKIP LOCKED).
+     * 
+     * @param ahora Timestamp límite para considerar mensaje listo
+     * @param pageable Tamaño del bloque
+     * @return Mensajes reclamados, los más antiguos primero
+     */
+    // Bloque de mensajes pendientes con bloqueo SKIP LOCKED (timeout -2)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT m FROM Mensaje m 
+        WHERE m.estadoEnvio = 'PENDIENTE' 
+        AND m.fechaProgramada <= :ahora
+        ORDER BY m.fechaProgramada ASC, m.id ASC
+        """)
+    List<Mensaje> claimPendientes(@Param("ahora") LocalDateTime ahora, Pageable pageable);
+    
+    /**
+     * RF-002: Reclama mensajes concretos recién programados para despacho inmediato.
+     * Mismo bloqueo que claimPendientes: los que ya reclamó otra instancia o el
+     * scheduler se saltan, y los enviados o con lease vigente no se devuelven.
+     * 
+     * @param ids IDs de los mensajes a reclamar
+     * @param ahora Timestamp límite para considerar mensaje listo
+     * @return Mensajes reclamados, los más antiguos primero
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT m FROM Mensaje m 
+        WHERE m.id IN :ids 
+        AND m.estadoEnvio = 'PENDIENTE' 
+        AND m.fechaProgramada <= :ahora
+        ORDER BY m.fechaProgramada ASC, m.id ASC
+        """)
+    List<Mensaje> claimPendientesByIds(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+    
+    /**
+     * RF-002: Plantillas ya enviadas por ticket, para la etapa dedupe de NotificationPipeline.
+     * 
+     * @param ticketIds IDs de los tickets del bloque
+     * @return Lista de arrays con [ticketId, plantilla] por cada mensaje ENVIADO
+     */
+    @Query("""
+        SELECT m.ticket.id, m.plantilla 
+        FROM Mensaje m 
+        WHERE m.ticket.id IN :ticketIds 
+        AND m.estadoEnvio = 'ENVIADO'
+        """)
+    List<Object[]> findPlantillasEnviadasByTicketIdIn(@Param("ticketIds") Collection<Long> ticketIds);
+    
+    /**
+     * RF-002: Indica si el ticket ya tiene un mensaje pendiente o enviado con
+     * alguna de las plantillas. Como el contenido se renderiza al enviar, un
+     * mensaje pendiente ya refleja el estado más reciente del ticket.
+     * 
+     * @param ticketId ID del ticket
+     * @param plantillas Plantillas a considerar
+     * @return true si existe un mensaje PENDIENTE o ENVIADO con esas plantillas
+     */
+    @Query("""
+        SELECT COUNT(m) > 0 
+        FROM Mensaje m 
+        WHERE m.ticket.id = :ticketId 
+        AND m.plantilla IN :plantillas 
+        AND m.estadoEnvio IN ('PENDIENTE', 'ENVIADO')
+        """)
+    boolean existsVigenteByTicketIdAndPlantillaIn(@Param("ticketId") Long ticketId,
+                                                  @Param("plantillas") Collection<MessageTemplate> plantillas);
+    
+    /**
+     * RF-002: Marca DESCARTADO los mensajes aún pendientes del ticket con plantillas
+     * que un estado más reciente dejó obsoletas. No limpia el contexto de persistencia:
+     * el ticket del llamador sigue gestionado.
+     * 
+     * @param ticketId ID del ticket
+     * @param plantillas Plantillas obsoletas
+     * @return Cantidad de mensajes descartados
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Mensaje m 
+        SET m.estadoEnvio = 'DESCARTADO' 
+        WHERE m.ticket.id = :ticketId 
+        AND m.plantilla IN :plantillas 
+        AND m.estadoEnvio = 'PENDIENTE'
+        """)
+    int descartarPendientesByTicketIdAndPlantillaIn(@Param("ticketId") Long ticketId,
+                                                   @Param("plantillas") Collection<MessageTemplate> plantillas);
+    
+    /**
+     * RF-002: Marca ENVIANDO los mensajes aún PENDIENTE, justo antes de entregarlos
+     * al canal. Los que cambiaron de estado desde el reclamo (p. ej. descartados por
+     * coalescencia) no se marcan y no deben enviarse.
+     * 
+     * @param ids IDs de los mensajes a enviar
+     * @return Cantidad de mensajes marcados
+     */
+    @Modifying
+    @Query("""
+        UPDATE Mensaje m 
+        SET m.estadoEnvio = 'ENVIANDO' 
+        WHERE m.id IN :ids 
+        AND m.estadoEnvio = 'PENDIENTE'
+        """)
+    int marcarEnviando(@Param("ids") Collection<Long> ids);
+    
+    // IDs de los mensajes indicados que están en el estado dado
+    @Query("SELECT m.id FROM Mensaje m WHERE m.id IN :ids AND m.estadoEnvio = :estadoEnvio")
+    List<Long> findIdsByIdInAndEstadoEnvio(@Param("ids") Collection<Long> ids,
+                                           @Param("estadoEnvio") EstadoEnvio estadoEnvio);
+    
+    /**
+     * RF-002: Reclama mensajes ENVIANDO cuyo lease venció: la instancia que los
+     * enviaba cayó sin registrar el resultado. Mismo bloqueo que claimPendientes.
+     * 
+     * @param ahora Timestamp límite del lease
+     * @param pageable Tamaño del bloque
+     * @return Mensajes en curso abandonados, los más antiguos primero
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT m FROM Mensaje m 
+        WHERE m.estadoEnvio = 'ENVIANDO' 
+        AND m.fechaProgramada <= :ahora
+        ORDER BY m.fechaProgramada ASC, m.id ASC
+        """)
+    List<Mensaje> claimEnviandoVencidos(@Param("ahora") LocalDateTime ahora, Pageable pageable);
+    
+    /**
+     * RF-002: Mensajes PENDIENTE con fechaProgramada futura, para reconstruir
+     * MensajeTimingWheel al arrancar. Solo ID y fecha: no carga las entidades.
+     *
+     * @param ahora Timestamp a partir del cual el mensaje aún no vence
+     * @return Lista de arrays con [id, fechaProgramada] por cada mensaje diferido
+     */
+    @Query("""
+        SELECT m.id, m.fechaProgramada
+        FROM Mensaje m
+        WHERE m.estadoEnvio = 'PENDIENTE'
+        AND m.fechaProgramada > :ahora
+        """)
+    List<Object[]> findProgramadosPendientesDespuesDe(@Param("ahora") LocalDateTime ahora);
+
+    // Mensajes con su ticket cargado, para renderizarlos fuera de la transacción
+    @Query("SELECT m FROM Mensaje m JOIN FETCH m.ticket WHERE m.id IN :ids")
+    List<Mensaje> findWithTicketByIdIn(@Param("ids") Collection<Long> ids);
+    
     /**
      * Obtiene historial de mensajes por ticket para trazabilidad.
      * 
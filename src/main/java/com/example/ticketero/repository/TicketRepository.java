@@ -3,13 +3,17 @@ package com.example.ticketero.repository;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,7 +26,7 @@ import java.util.UUID;
  * 
  * Queries críticas implementadas:
  * - findByNationalIdAndStatusIn: Valida RN-001 (unicidad ticket activo)
- * - findNextTicketByPriority: Implementa RN-002 (orden por prioridad GERENCIA>EMPRESAS>PERSONAL_BANKER>CAJA)
+ * - claimWaitingByIds: Reclamo exclusivo para asignación de los tickets elegidos por TicketPriorityEngine (RN-002, RN-004)
  * - findCalledOlderThan: Implementa RN-009 (timeout NO_SHOW 5 minutos)
  * - calculatePositionInQueue: Calcula posición dinámica en cola
  * 
@@ -48,12 +52,18 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     
     /**
      * RF-006: Busca ticket por número generado (formato: C01, P02, etc.).
+     * La numeración se reinicia cada día (RN-006), por lo que retorna el más reciente.
      * 
      * @param numero Número de ticket con prefijo
      * @return Optional con ticket encontrado
      */
     // Búsqueda por número de ticket
-    Optional<Ticket> findByNumero(String numero);
+    default Optional<Ticket> findByNumero(String numero) {
+        return findFirstByNumeroOrderByFechaCreacionDesc(numero);
+    }
+    
+    // Ticket más reciente con el número indicado
+    Optional<Ticket> findFirstByNumeroOrderByFechaCreacionDesc(String numero);
     
     /**
      * RN-001: Query crítica para validar unicidad de ticket activo por nationalId.
@@ -85,6 +95,19 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     // Contar tickets en cola por tipo - RN-003
     long countByStatusAndQueueType(TicketStatus status, QueueType queueType);
     
+    /**
+     * RF-007: Conteo de tickets agrupado por estado y tipo de cola en una sola consulta.
+     * Reemplaza las llamadas countByStatusAndQueueType por celda al construir el dashboard.
+     * 
+     * @return Lista de arrays con [TicketStatus, QueueType, cantidad] (solo combinaciones con tickets)
+     */
+    @Query("""
+        SELECT t.status, t.queueType, COUNT(t)
+        FROM Ticket t
+        GROUP BY t.status, t.queueType
+        """)
+    List<Object[]> countGroupedByStatusAndQueueType();
+    
     // Tickets activos por sucursal
     List<Ticket> findByBranchOfficeAndStatusInOrderByFechaCreacionAsc(String branchOffice, List<TicketStatus> statuses);
     
@@ -102,25 +125,20 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     );
     
     /**
-     * RN-002: Query crítica que implementa selección por prioridad de cola.
-     * Orden: GERENCIA(4) > EMPRESAS(3) > PERSONAL_BANKER(2) > CAJA(1), luego FIFO.
+     * RN-002, RN-004: Reclama para asignación los tickets elegidos por TicketPriorityEngine.
+     * Solo retorna los que siguen en WAITING; las filas quedan bloqueadas hasta el fin
+     * de la transacción y las ya bloqueadas por otra transacción se saltan
+     * (FOR UPDATE SKIP LOCKED), por lo que asignaciones concurrentes nunca obtienen
+     * el mismo ticket. El orden de asignación lo decide el llamador.
      * 
-     * @return Lista de tickets ordenados por prioridad y fecha de creación
+     * @param ids IDs de los tickets candidatos
+     * @return Tickets reclamados (sin orden garantizado)
      */
-    // Próximo ticket por prioridad - ESPECIFICACIÓN EXACTA DEL PLAN - CORREGIDA
-    @Query("""
-        SELECT t FROM Ticket t 
-        WHERE t.status IN ('WAITING', 'NOTIFIED') 
-        ORDER BY 
-            CASE t.queueType 
-                WHEN 'GERENCIA' THEN 4
-                WHEN 'EMPRESAS' THEN 3
-                WHEN 'PERSONAL_BANKER' THEN 2
-                WHEN 'CAJA' THEN 1
-            END DESC,
-            t.fechaCreacion ASC
-        """)
-    List<Ticket> findNextTicketByPriority();
+    // Reclamo por clave primaria con bloqueo SKIP LOCKED (timeout -2), sin ORDER BY
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM Ticket t WHERE t.id IN :ids AND t.status = 'WAITING'")
+    List<Ticket> claimWaitingByIds(@Param("ids") Collection<Long> ids);
     
     // Tickets por asesor asignado
     List<Ticket> findByAssignedAdvisorAndStatusOrderByFechaActualizacionDesc(String advisor, TicketStatus status);
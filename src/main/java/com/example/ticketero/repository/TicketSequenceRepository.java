@@ -0,0 +1,48 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.entity.TicketSequence;
+import com.example.ticketero.model.enums.QueueType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Repository para contadores de numeración de tickets por cola y día.
+ * 
+ * Implementa: RF-001 (Creación de tickets)
+ * Reglas de Negocio: RN-005/RN-006 (Numeración secuencial)
+ * 
+ * Query crítica:
+ * - findForUpdate: SELECT ... FOR UPDATE sobre la fila del día, serializa reservas entre nodos
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface TicketSequenceRepository extends JpaRepository<TicketSequence, Long> {
+    
+    /**
+     * Obtiene el contador de una cola para un día con bloqueo pesimista de escritura.
+     * 
+     * @param queueType Tipo de cola
+     * @param sequenceDate Día de la numeración
+     * @return Optional con el contador bloqueado hasta el fin de la transacción
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT s FROM TicketSequence s
+        WHERE s.queueType = :queueType
+        AND s.sequenceDate = :sequenceDate
+        """)
+    Optional<TicketSequence> findForUpdate(
+        @Param("queueType") QueueType queueType,
+        @Param("sequenceDate") LocalDate sequenceDate
+    );
+}
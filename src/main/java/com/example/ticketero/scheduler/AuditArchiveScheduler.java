@@ -0,0 +1,95 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.service.AuditArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Archivado diario de los meses de auditoría fuera de la ventana activa.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ *
+ * Funcionalidades (según audit.archive.cron):
+ * - Archiva, del más antiguo al más reciente, los meses cuyo último día quedó
+ *   fuera de audit.archive.hot-days, hasta audit.archive.max-months-per-run por
+ *   ejecución. Los meses vacíos se saltan sin consultarlos uno a uno
+ * - Elimina los archivos cuyo mes completo quedó fuera de audit.retention-days
+ *
+ * Un mes que no se puede archivar (cadena alterada, error de disco) se registra
+ * y se reintenta en la siguiente ejecución; no bloquea los meses posteriores.
+ * Solo se activa con audit.archive.enabled=true.
+ *
+ * Dependencias: AuditArchiveService, AuditEventRepository
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "audit.archive.enabled", havingValue = "true")
+@Slf4j
+public class AuditArchiveScheduler {
+
+    private static final LocalDateTime SIN_INICIO = LocalDate.EPOCH.atStartOfDay();
+
+    private final AuditArchiveService auditArchiveService;
+    private final AuditEventRepository auditEventRepository;
+    private final int hotDays;
+    private final int retentionDays;
+    private final int maxMonthsPerRun;
+
+    @Autowired
+    public AuditArchiveScheduler(AuditArchiveService auditArchiveService,
+                                 AuditEventRepository auditEventRepository,
+                                 @Value("${audit.archive.hot-days:365}") int hotDays,
+                                 @Value("${audit.retention-days:2555}") int retentionDays,
+                                 @Value("${audit.archive.max-months-per-run:12}") int maxMonthsPerRun) {
+        this.auditArchiveService = auditArchiveService;
+        this.auditEventRepository = auditEventRepository;
+        this.hotDays = hotDays;
+        this.retentionDays = retentionDays;
+        this.maxMonthsPerRun = maxMonthsPerRun;
+    }
+
+    /**
+     * RN-013: Archiva los meses vencidos y purga los archivos fuera de retención.
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 45 3 * * *}")
+    public void archivar() {
+        try {
+            mantener(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Error en el archivado de auditoría: {}", e.getMessage(), e);
+        }
+    }
+
+    void mantener(LocalDate hoy) {
+        // Un mes se archiva cuando incluso su último día quedó fuera de la ventana activa
+        LocalDateTime corte = YearMonth.from(hoy.minusDays(hotDays)).atDay(1).atStartOfDay();
+        LocalDateTime siguiente = auditEventRepository.findPrimerTimestampEntre(SIN_INICIO, corte);
+        for (int intentos = 0; siguiente != null && intentos < maxMonthsPerRun; intentos++) {
+            YearMonth mes = YearMonth.from(siguiente);
+            try {
+                auditArchiveService.archivarMes(mes);
+            } catch (RuntimeException e) {
+                log.error("No se pudo archivar el mes de auditoría {}: {}", mes, e.getMessage(), e);
+            }
+            siguiente = auditEventRepository.findPrimerTimestampEntre(mes.plusMonths(1).atDay(1).atStartOfDay(), corte);
+        }
+
+        int eliminados = auditArchiveService.eliminarVencidos(hoy.minusDays(retentionDays));
+        if (eliminados > 0) {
+            log.info("Archivos de auditoría vencidos eliminados: {}", eliminados);
+        }
+    }
+}
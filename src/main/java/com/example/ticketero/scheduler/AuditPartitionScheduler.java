@@ -0,0 +1,222 @@
+package com.example.ticketero.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ciclo de vida de las particiones mensuales de audit_event en PostgreSQL.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
+ *
+ * Funcionalidades (al iniciar y diariamente según audit.partitioning.cron):
+ * - Crea las particiones del mes actual y de los audit.partitioning.months-ahead
+ *   siguientes, con el índice único de posición de la cadena de hashes
+ * - Vacía audit_event_default: si tiene eventos de un mes sin partición (mantenimiento
+ *   atrasado), la desvincula, crea la partición del mes, mueve esas filas y la vuelve
+ *   a vincular; CREATE TABLE ... PARTITION OF fallaría con esas filas en la DEFAULT.
+ *   Los meses vencidos que queden en ella se reportan con un WARN en cada ejecución
+ * - Retira las particiones cuyo mes completo quedó fuera de audit.retention-days:
+ *   DETACH las deja como tablas sueltas para archivarlas, DROP las elimina
+ *   (audit.partitioning.expired-action). La cadena del mes retirado se elimina
+ *   de audit_chain para que la verificación no la reporte incompleta
+ *
+ * Cada ejecución corre en una transacción con pg_advisory_xact_lock, por lo que
+ * varios nodos no compiten por el mismo DDL. Solo se activa con
+ * audit.partitioning.enabled=true (perfiles PostgreSQL; la tabla es la de V10).
+ *
+ * Dependencias: JdbcTemplate, PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "audit.partitioning.enabled", havingValue = "true")
+@Slf4j
+public class AuditPartitionScheduler {
+
+    /**
+     * Qué hacer con una partición vencida (audit.partitioning.expired-action).
+     */
+    public enum AccionVencida { DETACH, DROP }
+
+    static final String LISTAR_PARTICIONES_SQL = """
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'audit_event'
+        """;
+
+    // Meses (yyyy-MM, en la zona de la sesión, igual que los límites de partición) con filas en la DEFAULT
+    static final String MESES_EN_DEFAULT_SQL = "SELECT DISTINCT to_char(timestamp, 'YYYY-MM') FROM audit_event_default";
+
+    // Clave del advisory lock de mantenimiento (ASCII de "AUDP")
+    private static final long LOCK_MANTENIMIENTO = 0x41554450L;
+
+    private static final String PARTICION_DEFAULT = "audit_event_default";
+    private static final Pattern PARTICION = Pattern.compile("audit_event_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFIJO = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int monthsAhead;
+    private final AccionVencida accionVencida;
+
+    @Autowired
+    public AuditPartitionScheduler(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${audit.retention-days:2555}") int retentionDays,
+                                   @Value("${audit.partitioning.months-ahead:3}") int monthsAhead,
+                                   @Value("${audit.partitioning.expired-action:DETACH}") AccionVencida accionVencida) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.monthsAhead = monthsAhead;
+        this.accionVencida = accionVencida;
+    }
+
+    /**
+     * RN-013: Ejecuta el mantenimiento al iniciar, para que el mes en curso tenga
+     * partición aunque el despliegue ocurra tras días sin ejecuciones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        mantenerParticiones();
+    }
+
+    /**
+     * RN-013: Crea particiones futuras y retira las vencidas.
+     */
+    @Scheduled(cron = "${audit.partitioning.cron:0 15 3 * * *}")
+    public void mantenerParticiones() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> mantener(LocalDate.now()));
+        } catch (RuntimeException e) {
+            log.error("Error en el mantenimiento de particiones de auditoría: {}", e.getMessage(), e);
+        }
+    }
+
+    void mantener(LocalDate hoy) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_MANTENIMIENTO + ")");
+        List<String> nombres = jdbcTemplate.queryForList(LISTAR_PARTICIONES_SQL, String.class);
+        Set<YearMonth> existentes = particionesExistentes(nombres);
+        Set<YearMonth> enDefault = nombres.contains(PARTICION_DEFAULT) ? mesesEnDefault() : Set.of();
+
+        // Un mes vence cuando incluso su último día quedó fuera de la retención
+        LocalDate limite = hoy.minusDays(retentionDays);
+
+        Set<YearMonth> aCrear = new TreeSet<>();
+        YearMonth actual = YearMonth.from(hoy);
+        for (int i = 0; i <= monthsAhead; i++) {
+            aCrear.add(actual.plusMonths(i));
+        }
+        for (YearMonth mes : enDefault) {
+            if (!vencido(mes, limite)) {
+                aCrear.add(mes);
+            }
+        }
+        aCrear.removeAll(existentes);
+        for (YearMonth mes : aCrear) {
+            crearParticion(mes, enDefault.contains(mes));
+        }
+
+        Set<YearMonth> sinMover = new TreeSet<>(enDefault);
+        sinMover.removeAll(aCrear);
+        if (!sinMover.isEmpty()) {
+            log.warn("{} conserva eventos de meses sin partición mensual: {}", PARTICION_DEFAULT, sinMover);
+        }
+
+        for (YearMonth mes : existentes) {
+            if (!vencido(mes, limite)) {
+                break;
+            }
+            retirarParticion(mes);
+        }
+    }
+
+    private static boolean vencido(YearMonth mes, LocalDate limite) {
+        return !mes.plusMonths(1).atDay(1).isAfter(limite);
+    }
+
+    private Set<YearMonth> mesesEnDefault() {
+        Set<YearMonth> meses = new TreeSet<>();
+        for (String mes : jdbcTemplate.queryForList(MESES_EN_DEFAULT_SQL, String.class)) {
+            meses.add(YearMonth.parse(mes));
+        }
+        return meses;
+    }
+
+    private static Set<YearMonth> particionesExistentes(List<String> nombres) {
+        Set<YearMonth> meses = new TreeSet<>();
+        for (String nombre : nombres) {
+            Matcher matcher = PARTICION.matcher(nombre);
+            if (matcher.matches()) {
+                meses.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Crea la partición de un mes. Si la DEFAULT tiene filas de ese mes, la desvincula
+     * mientras crea la partición y le mueve esas filas, y luego la vuelve a vincular.
+     */
+    private void crearParticion(YearMonth mes, boolean conFilasEnDefault) {
+        String nombre = nombre(mes);
+        String desde = mes.atDay(1).toString();
+        String hasta = mes.plusMonths(1).atDay(1).toString();
+        if (conFilasEnDefault) {
+            jdbcTemplate.execute("ALTER TABLE audit_event DETACH PARTITION " + PARTICION_DEFAULT);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombre + " PARTITION OF audit_event"
+            + " FOR VALUES FROM ('" + desde + "') TO ('" + hasta + "')");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + nombre + "_chain_uk ON " + nombre
+            + " (chain_key, chain_seq)");
+        if (conFilasEnDefault) {
+            String rango = " WHERE timestamp >= '" + desde + "' AND timestamp < '" + hasta + "'";
+            int movidas = jdbcTemplate.update("INSERT INTO " + nombre + " SELECT * FROM " + PARTICION_DEFAULT + rango);
+            jdbcTemplate.update("DELETE FROM " + PARTICION_DEFAULT + rango);
+            jdbcTemplate.execute("ALTER TABLE audit_event ATTACH PARTITION " + PARTICION_DEFAULT + " DEFAULT");
+            log.warn("Partición de auditoría {} creada con {} eventos movidos desde {}",
+                    nombre, movidas, PARTICION_DEFAULT);
+            return;
+        }
+        log.info("Partición de auditoría creada: {}", nombre);
+    }
+
+    private void retirarParticion(YearMonth mes) {
+        String nombre = nombre(mes);
+        if (accionVencida == AccionVencida.DROP) {
+            jdbcTemplate.execute("DROP TABLE " + nombre);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE audit_event DETACH PARTITION " + nombre);
+        }
+        jdbcTemplate.update("DELETE FROM audit_chain WHERE chain_key = ?", mes.toString());
+        log.info("Partición de auditoría vencida retirada ({}): {}", accionVencida, nombre);
+    }
+
+    private static String nombre(YearMonth mes) {
+        return "audit_event_" + mes.format(SUFIJO);
+    }
+}
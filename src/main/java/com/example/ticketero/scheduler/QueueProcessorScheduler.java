@@ -3,10 +3,12 @@ package com.example.ticketero.scheduler;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.TicketRepository;
 import com.example.ticketero.service.QueueManagementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,7 +24,7 @@ import java.util.List;
  * 
  * Funcionalidades:
  * - Recálculo de posiciones en todas las colas
- * - Asignación automática de tickets a asesores disponibles
+ * - Asignación automática por lotes de tickets a todos los asesores disponibles
  * - Procesamiento de timeouts NO_SHOW (5 minutos)
  * - Ejecución cada 5 segundos (configurable)
  * 
@@ -30,7 +32,7 @@ import java.util.List;
  * - Intervalo: scheduler.queue.fixed-rate (default: 5000ms)
  * - Timeout NO_SHOW: 5 minutos según RN-009
  * 
- * Dependencias: QueueManagementService, TicketRepository
+ * Dependencias: QueueManagementService, TicketRepository, ApplicationEventPublisher
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -43,13 +45,14 @@ public class QueueProcessorScheduler {
 
     private final QueueManagementService queueManagementService;
     private final TicketRepository ticketRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * RF-003: Método principal de procesamiento ejecutado cada 5 segundos.
      * 
      * Proceso:
      * 1. Recalcula posiciones en todas las colas (RN-012)
-     * 2. Ejecuta asignación automática de tickets
+     * 2. Ejecuta asignación automática por lotes (un ticket por ejecutivo disponible)
      * 3. Procesa timeouts de NO_SHOW (RN-009)
      */
     // RF-003: Procesamiento cada 5s según plan
@@ -63,8 +66,8 @@ public class QueueProcessorScheduler {
             queueManagementService.recalcularPosiciones(queueType);
         }
         
-        // Asignar tickets cuando hay ejecutivos disponibles
-        queueManagementService.asignarSiguienteTicket();
+        // Asignar tickets a todos los ejecutivos disponibles en una pasada
+        queueManagementService.asignarTicketsPendientes();
         
         // Procesar timeouts de NO_SHOW (5 minutos)
         procesarTimeouts();
@@ -83,6 +86,7 @@ public class QueueProcessorScheduler {
             log.warn("Ticket {} marcado como NO_SHOW por timeout", ticket.getNumero());
             ticket.setStatus(TicketStatus.NO_SHOW);
             ticket.setFechaActualizacion(LocalDateTime.now());
+            eventPublisher.publishEvent(TicketStatusChangedEvent.of(ticket, TicketStatus.CALLED));
         }
         
         if (!timedOutTickets.isEmpty()) {
@@ -4,10 +4,13 @@ import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,8 +31,10 @@ import java.util.Optional;
  * - Gestión de estados (AVAILABLE, BUSY, OFFLINE)
  * 
  * Algoritmo de balanceo: Selecciona asesor AVAILABLE con menor assignedTicketsCount
+ * Selección de ticket: TicketPriorityEngine (RN-002, prioridad con envejecimiento)
  * 
- * Dependencias: AdvisorRepository, TicketRepository, NotificationService
+ * Dependencias: AdvisorRepository, TicketRepository, TicketPriorityEngine, NotificationService,
+ *               ApplicationEventPublisher
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -43,11 +48,15 @@ public class AdvisorService {
     
     private final AdvisorRepository advisorRepository;
     private final TicketRepository ticketRepository;
+    private final TicketPriorityEngine priorityEngine;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * RN-004: Asigna próximo ticket al asesor con menor carga de trabajo.
-     * Implementa balanceo automático y notificación al cliente.
+     * RN-002, RN-004: Asigna el próximo ticket según TicketPriorityEngine al asesor
+     * con menor carga de trabajo. Implementa balanceo automático y notificación al cliente.
+     * Asesor y ticket se reclaman con bloqueo SKIP LOCKED: llamadas concurrentes
+     * nunca obtienen el mismo asesor ni el mismo ticket.
      * 
      * @return Optional con ticket asignado o empty si no hay tickets/asesores disponibles
      */
@@ -55,19 +64,16 @@ public class AdvisorService {
     public Optional<Ticket> assignNextTicket() {
         log.debug("Looking for next ticket to assign");
         
-        // Buscar asesor disponible con menor carga
-        Optional<Advisor> availableAdvisor = advisorRepository
-            .findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE);
+        // Reclamar asesor disponible con menor carga
+        Optional<Advisor> availableAdvisor = advisorRepository.claimLeastLoadedAvailable();
         
         if (availableAdvisor.isEmpty()) {
             log.warn("No available advisors found");
             return Optional.empty();
         }
         
-        // Buscar próximo ticket en espera (por orden de llegada)
-        Optional<Ticket> nextTicket = ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING)
-            .stream()
-            .findFirst();
+        // RN-002: Reclamar próximo ticket por prioridad efectiva (mismo motor que el scheduler)
+        List<Ticket> nextTicket = priorityEngine.claimNext(1);
         
         if (nextTicket.isEmpty()) {
             log.debug("No tickets waiting in queue");
@@ -76,7 +82,7 @@ public class AdvisorService {
         
         // Asignar ticket al asesor
         Advisor advisor = availableAdvisor.get();
-        Ticket ticket = nextTicket.get();
+        Ticket ticket = nextTicket.get(0);
         
         return assignTicketToAdvisor(ticket, advisor);
     }
@@ -95,12 +101,14 @@ public class AdvisorService {
                 ticket.getNumero(), advisor.getName(), advisor.getModuleNumber());
         
         // Actualizar ticket
+        TicketStatus previousStatus = ticket.getStatus();
         ticket.setStatus(TicketStatus.CALLED);
         ticket.setAssignedAdvisor(advisor.getName());
         ticket.setAssignedModuleNumber(advisor.getModuleNumber());
         ticket.setFechaActualizacion(LocalDateTime.now());
         
         // Actualizar asesor
+        AdvisorStatus previousAdvisorStatus = advisor.getStatus();
         advisor.incrementAssignedTicketsCount();
         advisor.setStatus(AdvisorStatus.BUSY);
         advisor.setUpdatedAt(LocalDateTime.now());
@@ -108,6 +116,8 @@ public class AdvisorService {
         // Guardar cambios
         Ticket savedTicket = ticketRepository.save(ticket);
         advisorRepository.save(advisor);
+        eventPublisher.publishEvent(TicketStatusChangedEvent.of(savedTicket, previousStatus));
+        eventPublisher.publishEvent(AdvisorStatusChangedEvent.of(advisor, previousAdvisorStatus));
         
         // Enviar notificación al cliente
         notificationService.sendStatusChangeNotification(savedTicket, TicketStatus.WAITING);
@@ -138,6 +148,7 @@ public class AdvisorService {
         }
         
         // Actualizar ticket
+        TicketStatus previousStatus = ticket.getStatus();
         ticket.setStatus(TicketStatus.COMPLETED);
         ticket.setFechaActualizacion(LocalDateTime.now());
         
@@ -145,16 +156,19 @@ public class AdvisorService {
         Optional<Advisor> advisorOpt = advisorRepository.findByEmail(ticket.getAssignedAdvisor() + "@banco.com");
         if (advisorOpt.isPresent()) {
             Advisor advisor = advisorOpt.get();
+            AdvisorStatus previousAdvisorStatus = advisor.getStatus();
             advisor.decrementAssignedTicketsCount();
             advisor.setStatus(AdvisorStatus.AVAILABLE);
             advisor.setUpdatedAt(LocalDateTime.now());
             advisorRepository.save(advisor);
+            eventPublisher.publishEvent(AdvisorStatusChangedEvent.of(advisor, previousAdvisorStatus));
             
             log.info("Advisor {} is now available (module {})", 
                     advisor.getName(), advisor.getModuleNumber());
         }
         
         ticketRepository.save(ticket);
+        eventPublisher.publishEvent(TicketStatusChangedEvent.of(ticket, previousStatus));
         
         log.info("Ticket {} completed successfully", ticketNumber);
         
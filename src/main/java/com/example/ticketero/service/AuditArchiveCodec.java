@@ -0,0 +1,711 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.ActorType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato columnar comprimido de los meses de auditoría archivados.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ *
+ * Estructura del archivo:
+ * - Encabezado: firma, versión, filas, timestamp mínimo y máximo (microsegundos), grupos
+ * - Directorio: largo del diccionario de cada columna y, por grupo, sus filas y el
+ *   largo de los datos de cada columna
+ * - Diccionarios, luego los datos de cada grupo de filas (FILAS_POR_GRUPO) en el
+ *   orden de AuditEvent, cada sección comprimida con Deflate por separado
+ *
+ * Codificación por columna:
+ * - id, timestamp, chainSeq: delta con zigzag en varint (filas en orden cronológico;
+ *   el delta se reinicia en cada grupo)
+ * - eventType, actor, actorType, ticketNumber, estados, ipAddress, chainKey:
+ *   diccionario del archivo (valores en orden de aparición) y códigos varint, 0 para nulo
+ * - integrityHash, previousHash: 32 bytes binarios en lugar de 64 hex
+ * - additionalData, ticketId: valor con marca de nulo
+ *
+ * Los diccionarios se leen sin descomprimir el resto, lo que permite descartar un
+ * mes que no contiene el actor o ticket buscado. Las claves (id, timestamp, actor,
+ * ticket) se decodifican sin las demás columnas para ubicar una página, y solo se
+ * materializan los grupos que contienen sus filas. Un recorrido completo (exportación)
+ * decodifica un grupo a la vez.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+final class AuditArchiveCodec {
+
+    static final int VERSION = 2;
+    static final int FILAS_POR_GRUPO = 8192;
+
+    private static final byte[] FIRMA = "TKAUDCOL".getBytes(StandardCharsets.US_ASCII);
+    private static final Pattern HASH_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    // Columnas en el orden del archivo
+    private static final int ID = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int EVENT_TYPE = 2;
+    private static final int ACTOR = 3;
+    private static final int ACTOR_TYPE = 4;
+    private static final int TICKET_ID = 5;
+    private static final int TICKET_NUMBER = 6;
+    private static final int PREVIOUS_STATE = 7;
+    private static final int NEW_STATE = 8;
+    private static final int ADDITIONAL_DATA = 9;
+    private static final int IP_ADDRESS = 10;
+    private static final int CHAIN_KEY = 11;
+    private static final int CHAIN_SEQ = 12;
+    private static final int INTEGRITY_HASH = 13;
+    private static final int PREVIOUS_HASH = 14;
+    private static final int COLUMNAS = 15;
+
+    private static final int[] CON_DICCIONARIO = {
+        EVENT_TYPE, ACTOR, ACTOR_TYPE, TICKET_NUMBER, PREVIOUS_STATE, NEW_STATE, IP_ADDRESS, CHAIN_KEY
+    };
+
+    // Marcas de los hashes
+    private static final int HASH_NULO = 0;
+    private static final int HASH_BINARIO = 1;
+    private static final int HASH_TEXTO = 2;
+
+    private AuditArchiveCodec() {
+    }
+
+    /**
+     * Metadatos de un archivo escrito.
+     *
+     * @param filas Eventos en el archivo
+     * @param minimo Timestamp del primer evento
+     * @param maximo Timestamp del último evento
+     */
+    record Resumen(long filas, LocalDateTime minimo, LocalDateTime maximo) {}
+
+    // Datos comprimidos de un grupo cerrado
+    private record Grupo(int filas, byte[][] datos) {}
+
+    /**
+     * Acumula eventos en orden (timestamp, id) ascendente. Cada columna se comprime
+     * a medida que llega, así que la memoria usada es la del mes ya comprimido.
+     */
+    static final class Escritor {
+
+        private final int filasPorGrupo;
+        private final List<Grupo> grupos = new ArrayList<>();
+        private final Map<Integer, Map<String, Integer>> diccionarios = new LinkedHashMap<>();
+        private Seccion[] datos = nuevasSecciones();
+        private int filasGrupo;
+        private long filas;
+        private long idAnterior;
+        private long microsAnterior;
+        private long seqAnterior;
+        private LocalDateTime minimo;
+        private LocalDateTime maximo;
+
+        Escritor() {
+            this(FILAS_POR_GRUPO);
+        }
+
+        Escritor(int filasPorGrupo) {
+            this.filasPorGrupo = filasPorGrupo;
+            for (int columna : CON_DICCIONARIO) {
+                diccionarios.put(columna, new LinkedHashMap<>());
+            }
+        }
+
+        void agregar(AuditEvent event) throws IOException {
+            if (filasGrupo == filasPorGrupo) {
+                cerrarGrupo();
+            }
+            long micros = micros(event.getTimestamp());
+            escribirVarLong(datos[ID].out, zigzag(event.getId() - idAnterior));
+            escribirVarLong(datos[TIMESTAMP].out, zigzag(micros - microsAnterior));
+            idAnterior = event.getId();
+            microsAnterior = micros;
+
+            codigo(EVENT_TYPE, event.getEventType());
+            codigo(ACTOR, event.getActor());
+            codigo(ACTOR_TYPE, event.getActorType() == null ? null : event.getActorType().name());
+            Long ticketId = event.getTicket() == null ? null : event.getTicket().getId();
+            escribirVarLong(datos[TICKET_ID].out, ticketId == null ? 0 : ticketId + 1);
+            codigo(TICKET_NUMBER, event.getTicketNumber());
+            codigo(PREVIOUS_STATE, event.getPreviousState());
+            codigo(NEW_STATE, event.getNewState());
+            escribirTexto(datos[ADDITIONAL_DATA].out, event.getAdditionalData());
+            codigo(IP_ADDRESS, event.getIpAddress());
+            codigo(CHAIN_KEY, event.getChainKey());
+            if (event.getChainSeq() == null) {
+                escribirVarLong(datos[CHAIN_SEQ].out, 0);
+            } else {
+                escribirVarLong(datos[CHAIN_SEQ].out, zigzag(event.getChainSeq() - seqAnterior) + 1);
+                seqAnterior = event.getChainSeq();
+            }
+            escribirHash(datos[INTEGRITY_HASH].out, event.getIntegrityHash());
+            escribirHash(datos[PREVIOUS_HASH].out, event.getPreviousHash());
+
+            if (minimo == null) {
+                minimo = event.getTimestamp();
+            }
+            maximo = event.getTimestamp();
+            filasGrupo++;
+            filas++;
+        }
+
+        long filas() {
+            return filas;
+        }
+
+        /**
+         * Escribe el archivo completo. No cierra el OutputStream.
+         *
+         * @param out Destino
+         * @return Filas y rango de timestamps escritos
+         */
+        Resumen terminar(OutputStream out) throws IOException {
+            if (filasGrupo > 0) {
+                cerrarGrupo();
+            }
+            byte[][] secciones = new byte[COLUMNAS][];
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                Map<String, Integer> diccionario = diccionarios.get(columna);
+                if (diccionario == null) {
+                    secciones[columna] = new byte[0];
+                } else {
+                    Seccion seccion = new Seccion();
+                    escribirVarLong(seccion.out, diccionario.size());
+                    for (String valor : diccionario.keySet()) {
+                        escribirTexto(seccion.out, valor);
+                    }
+                    secciones[columna] = seccion.terminar();
+                }
+            }
+
+            DataOutputStream salida = new DataOutputStream(out);
+            salida.write(FIRMA);
+            salida.writeInt(VERSION);
+            salida.writeLong(filas);
+            salida.writeLong(minimo == null ? 0 : micros(minimo));
+            salida.writeLong(maximo == null ? 0 : micros(maximo));
+            salida.writeInt(grupos.size());
+            for (byte[] seccion : secciones) {
+                salida.writeInt(seccion.length);
+            }
+            for (Grupo grupo : grupos) {
+                salida.writeInt(grupo.filas());
+                for (byte[] seccion : grupo.datos()) {
+                    salida.writeInt(seccion.length);
+                }
+            }
+            for (byte[] seccion : secciones) {
+                salida.write(seccion);
+            }
+            for (Grupo grupo : grupos) {
+                for (byte[] seccion : grupo.datos()) {
+                    salida.write(seccion);
+                }
+            }
+            salida.flush();
+            return new Resumen(filas, minimo, maximo);
+        }
+
+        private void cerrarGrupo() throws IOException {
+            byte[][] cerrado = new byte[COLUMNAS][];
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                cerrado[columna] = datos[columna].terminar();
+            }
+            grupos.add(new Grupo(filasGrupo, cerrado));
+            datos = nuevasSecciones();
+            filasGrupo = 0;
+            idAnterior = 0;
+            microsAnterior = 0;
+            seqAnterior = 0;
+        }
+
+        private void codigo(int columna, String valor) throws IOException {
+            int codigo = 0;
+            if (valor != null) {
+                Map<String, Integer> diccionario = diccionarios.get(columna);
+                codigo = diccionario.computeIfAbsent(valor, nuevo -> diccionario.size() + 1);
+            }
+            escribirVarLong(datos[columna].out, codigo);
+        }
+
+        private static Seccion[] nuevasSecciones() {
+            Seccion[] secciones = new Seccion[COLUMNAS];
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                secciones[columna] = new Seccion();
+            }
+            return secciones;
+        }
+    }
+
+    /**
+     * Archivo abierto en memoria. Los diccionarios y las claves se pueden consultar
+     * sin descomprimir las demás columnas. Es seguro entre hilos.
+     */
+    static final class Lectura {
+
+        private final byte[] contenido;
+        private final long filas;
+        private final int[] iniciosDiccionario = new int[COLUMNAS];
+        private final int[] largosDiccionario = new int[COLUMNAS];
+        private final int[] primeraFila;
+        private final int[] filasGrupo;
+        private final int[][] inicios;
+        private final int[][] largos;
+        private final Map<Integer, List<String>> diccionarios = new ConcurrentHashMap<>();
+
+        private Lectura(byte[] contenido) throws IOException {
+            this.contenido = contenido;
+            DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(contenido));
+            byte[] firma = new byte[FIRMA.length];
+            entrada.readFully(firma);
+            if (!Arrays.equals(firma, FIRMA)) {
+                throw new IOException("No es un archivo de auditoría");
+            }
+            int version = entrada.readInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de archivo de auditoría no soportada: " + version);
+            }
+            filas = entrada.readLong();
+            entrada.readLong();
+            entrada.readLong();
+            int grupos = entrada.readInt();
+            if (grupos < 0 || grupos > contenido.length) {
+                throw new IOException("Archivo de auditoría truncado");
+            }
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                largosDiccionario[columna] = entrada.readInt();
+            }
+            primeraFila = new int[grupos];
+            filasGrupo = new int[grupos];
+            inicios = new int[grupos][COLUMNAS];
+            largos = new int[grupos][COLUMNAS];
+            long fila = 0;
+            for (int grupo = 0; grupo < grupos; grupo++) {
+                primeraFila[grupo] = Math.toIntExact(fila);
+                filasGrupo[grupo] = entrada.readInt();
+                fila += filasGrupo[grupo];
+                for (int columna = 0; columna < COLUMNAS; columna++) {
+                    largos[grupo][columna] = entrada.readInt();
+                }
+            }
+            if (fila != filas) {
+                throw new IOException("Directorio de archivo de auditoría inconsistente");
+            }
+
+            long inicio = FIRMA.length + Integer.BYTES + 3 * Long.BYTES + Integer.BYTES
+                + COLUMNAS * Integer.BYTES + (long) grupos * (1 + COLUMNAS) * Integer.BYTES;
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                iniciosDiccionario[columna] = (int) inicio;
+                inicio += largosDiccionario[columna];
+            }
+            for (int grupo = 0; grupo < grupos; grupo++) {
+                for (int columna = 0; columna < COLUMNAS; columna++) {
+                    inicios[grupo][columna] = (int) inicio;
+                    inicio += largos[grupo][columna];
+                }
+            }
+            if (inicio != contenido.length) {
+                throw new IOException("Archivo de auditoría truncado");
+            }
+        }
+
+        long filas() {
+            return filas;
+        }
+
+        int grupos() {
+            return filasGrupo.length;
+        }
+
+        List<String> actores() throws IOException {
+            return diccionario(ACTOR);
+        }
+
+        List<String> ticketNumbers() throws IOException {
+            return diccionario(TICKET_NUMBER);
+        }
+
+        /**
+         * Decodifica solo las columnas que ubican una página: id, timestamp, actor y ticket.
+         *
+         * @return Claves de todas las filas
+         */
+        Claves claves() throws IOException {
+            int n = Math.toIntExact(filas);
+            long[] ids = new long[n];
+            long[] micros = new long[n];
+            int[] actores = new int[n];
+            int[] tickets = new int[n];
+            for (int grupo = 0; grupo < filasGrupo.length; grupo++) {
+                DataInput id = datos(grupo, ID);
+                DataInput timestamp = datos(grupo, TIMESTAMP);
+                DataInput actor = datos(grupo, ACTOR);
+                DataInput ticket = datos(grupo, TICKET_NUMBER);
+                long idAnterior = 0;
+                long microsAnterior = 0;
+                for (int fila = primeraFila[grupo]; fila < primeraFila[grupo] + filasGrupo[grupo]; fila++) {
+                    idAnterior += unzigzag(leerVarLong(id));
+                    microsAnterior += unzigzag(leerVarLong(timestamp));
+                    ids[fila] = idAnterior;
+                    micros[fila] = microsAnterior;
+                    actores[fila] = (int) leerVarLong(actor);
+                    tickets[fila] = (int) leerVarLong(ticket);
+                }
+            }
+            return new Claves(ids, micros, actores, tickets, actores(), ticketNumbers());
+        }
+
+        /**
+         * Decodifica todas las columnas.
+         *
+         * @return Eventos en orden (timestamp, id) ascendente, sin asociar a la sesión JPA
+         */
+        List<AuditEvent> eventos() throws IOException {
+            List<AuditEvent> eventos = new ArrayList<>(Math.toIntExact(filas));
+            for (int grupo = 0; grupo < filasGrupo.length; grupo++) {
+                eventos.addAll(grupo(grupo));
+            }
+            return eventos;
+        }
+
+        /**
+         * Decodifica las filas pedidas, descomprimiendo solo los grupos que las contienen.
+         *
+         * @param filas Posiciones en el archivo
+         * @return Eventos en el orden de las posiciones, sin asociar a la sesión JPA
+         */
+        List<AuditEvent> eventos(int[] filas) throws IOException {
+            List<AuditEvent> eventos = new ArrayList<>(filas.length);
+            int grupoActual = -1;
+            List<AuditEvent> decodificados = List.of();
+            for (int fila : filas) {
+                int grupo = grupoDe(fila);
+                if (grupo != grupoActual) {
+                    decodificados = grupo(grupo);
+                    grupoActual = grupo;
+                }
+                eventos.add(decodificados.get(fila - primeraFila[grupo]));
+            }
+            return eventos;
+        }
+
+        private int grupoDe(int fila) {
+            int posicion = Arrays.binarySearch(primeraFila, fila);
+            return posicion >= 0 ? posicion : -posicion - 2;
+        }
+
+        /**
+         * Decodifica todas las columnas de un grupo de filas.
+         *
+         * @param grupo Índice del grupo, de 0 a grupos() - 1
+         * @return Eventos del grupo en orden (timestamp, id) ascendente, sin asociar a la sesión JPA
+         */
+        List<AuditEvent> grupo(int grupo) throws IOException {
+            int n = filasGrupo[grupo];
+            String[] eventType = valores(grupo, EVENT_TYPE, n);
+            String[] actor = valores(grupo, ACTOR, n);
+            String[] actorType = valores(grupo, ACTOR_TYPE, n);
+            String[] ticketNumber = valores(grupo, TICKET_NUMBER, n);
+            String[] previousState = valores(grupo, PREVIOUS_STATE, n);
+            String[] newState = valores(grupo, NEW_STATE, n);
+            String[] ipAddress = valores(grupo, IP_ADDRESS, n);
+            String[] chainKey = valores(grupo, CHAIN_KEY, n);
+            DataInput id = datos(grupo, ID);
+            DataInput timestamp = datos(grupo, TIMESTAMP);
+            DataInput ticketId = datos(grupo, TICKET_ID);
+            DataInput additionalData = datos(grupo, ADDITIONAL_DATA);
+            DataInput chainSeq = datos(grupo, CHAIN_SEQ);
+            DataInput integrityHash = datos(grupo, INTEGRITY_HASH);
+            DataInput previousHash = datos(grupo, PREVIOUS_HASH);
+
+            List<AuditEvent> eventos = new ArrayList<>(n);
+            long idAnterior = 0;
+            long microsAnterior = 0;
+            long seqAnterior = 0;
+            for (int fila = 0; fila < n; fila++) {
+                idAnterior += unzigzag(leerVarLong(id));
+                microsAnterior += unzigzag(leerVarLong(timestamp));
+                long ticket = leerVarLong(ticketId);
+                long seq = leerVarLong(chainSeq);
+                Long seqFila = null;
+                if (seq != 0) {
+                    seqFila = seqAnterior + unzigzag(seq - 1);
+                    seqAnterior = seqFila;
+                }
+                eventos.add(AuditEvent.builder()
+                    .id(idAnterior)
+                    .timestamp(timestamp(microsAnterior))
+                    .eventType(eventType[fila])
+                    .actor(actor[fila])
+                    .actorType(actorType[fila] == null ? null : ActorType.valueOf(actorType[fila]))
+                    .ticket(ticket == 0 ? null : Ticket.builder().id(ticket - 1).build())
+                    .ticketNumber(ticketNumber[fila])
+                    .previousState(previousState[fila])
+                    .newState(newState[fila])
+                    .additionalData(leerTexto(additionalData))
+                    .ipAddress(ipAddress[fila])
+                    .chainKey(chainKey[fila])
+                    .chainSeq(seqFila)
+                    .integrityHash(leerHash(integrityHash))
+                    .previousHash(leerHash(previousHash))
+                    .build());
+            }
+            return eventos;
+        }
+
+        private String[] valores(int grupo, int columna, int n) throws IOException {
+            List<String> diccionario = diccionario(columna);
+            DataInput codigos = datos(grupo, columna);
+            String[] valores = new String[n];
+            for (int fila = 0; fila < n; fila++) {
+                int codigo = (int) leerVarLong(codigos);
+                valores[fila] = codigo == 0 ? null : diccionario.get(codigo - 1);
+            }
+            return valores;
+        }
+
+        private List<String> diccionario(int columna) throws IOException {
+            List<String> diccionario = diccionarios.get(columna);
+            if (diccionario == null) {
+                DataInput entrada = seccion(iniciosDiccionario[columna], largosDiccionario[columna]);
+                int tamano = (int) leerVarLong(entrada);
+                List<String> leido = new ArrayList<>(tamano);
+                for (int i = 0; i < tamano; i++) {
+                    leido.add(leerTexto(entrada));
+                }
+                diccionario = List.copyOf(leido);
+                diccionarios.putIfAbsent(columna, diccionario);
+            }
+            return diccionario;
+        }
+
+        private DataInput datos(int grupo, int columna) {
+            return seccion(inicios[grupo][columna], largos[grupo][columna]);
+        }
+
+        private DataInput seccion(int inicio, int largo) {
+            return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(contenido, inicio, largo)));
+        }
+    }
+
+    /**
+     * Columnas de búsqueda de un archivo ya decodificadas: bastan para ubicar las
+     * filas de una página sin materializar eventos. Inmutable.
+     */
+    static final class Claves {
+
+        private final long[] ids;
+        private final long[] micros;
+        private final int[] actores;
+        private final int[] tickets;
+        private final List<String> diccionarioActores;
+        private final List<String> diccionarioTickets;
+
+        private Claves(long[] ids, long[] micros, int[] actores, int[] tickets,
+                       List<String> diccionarioActores, List<String> diccionarioTickets) {
+            this.ids = ids;
+            this.micros = micros;
+            this.actores = actores;
+            this.tickets = tickets;
+            this.diccionarioActores = diccionarioActores;
+            this.diccionarioTickets = diccionarioTickets;
+        }
+
+        /**
+         * Filas que cumplen el criterio, en orden (timestamp, id) descendente y
+         * estrictamente anteriores al cursor. Los criterios nulos no filtran.
+         *
+         * @param actor Actor exacto
+         * @param ticketNumber Número de ticket exacto
+         * @param desde Inicio del período (inclusive)
+         * @param hasta Fin del período (inclusive)
+         * @param cursor Último evento entregado, o null para empezar por el más reciente
+         * @param limite Máximo de filas
+         * @return Posiciones para {@link Lectura#eventos(int[])}
+         */
+        int[] filas(String actor, String ticketNumber, LocalDateTime desde, LocalDateTime hasta,
+                    AuditCursor cursor, int limite) {
+            int codigoActor = codigo(diccionarioActores, actor);
+            int codigoTicket = codigo(diccionarioTickets, ticketNumber);
+            if (codigoActor < 0 || codigoTicket < 0 || limite <= 0) {
+                return new int[0];
+            }
+            long minimo = desde == null ? Long.MIN_VALUE : micros(desde);
+            int fila = ids.length - 1;
+            if (cursor != null) {
+                fila = anteriorA(micros(cursor.timestamp()), cursor.id());
+            }
+            if (hasta != null) {
+                fila = Math.min(fila, anteriorA(micros(hasta), Long.MAX_VALUE));
+            }
+            int[] encontradas = new int[Math.min(limite, fila + 1)];
+            int cantidad = 0;
+            for (; fila >= 0 && cantidad < encontradas.length && micros[fila] >= minimo; fila--) {
+                if ((codigoActor == 0 || actores[fila] == codigoActor)
+                        && (codigoTicket == 0 || tickets[fila] == codigoTicket)) {
+                    encontradas[cantidad++] = fila;
+                }
+            }
+            return Arrays.copyOf(encontradas, cantidad);
+        }
+
+        // Última fila con (timestamp, id) < (micros, id), o -1
+        private int anteriorA(long microsCursor, long idCursor) {
+            int bajo = 0;
+            int alto = ids.length;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (micros[medio] < microsCursor || (micros[medio] == microsCursor && ids[medio] < idCursor)) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo - 1;
+        }
+
+        // 0 si no filtra, -1 si el valor no está en el archivo
+        private static int codigo(List<String> diccionario, String valor) {
+            if (valor == null) {
+                return 0;
+            }
+            int posicion = diccionario.indexOf(valor);
+            return posicion < 0 ? -1 : posicion + 1;
+        }
+    }
+
+    /**
+     * Abre un archivo leído completo en memoria.
+     *
+     * @param contenido Bytes del archivo
+     * @return Lectura posicionada en el directorio de columnas
+     * @throws IOException si no es un archivo de auditoría válido
+     */
+    static Lectura abrir(byte[] contenido) throws IOException {
+        return new Lectura(contenido);
+    }
+
+    // Sección comprimida con Deflate mientras se escribe
+    private static final class Seccion {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192));
+
+        byte[] terminar() throws IOException {
+            out.close();
+            deflater.end();
+            return bytes.toByteArray();
+        }
+    }
+
+    static long micros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    static LocalDateTime timestamp(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long unzigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static void escribirVarLong(DataOutput out, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            out.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        out.writeByte((int) valor);
+    }
+
+    private static long leerVarLong(DataInput in) throws IOException {
+        long valor = 0;
+        int desplazamiento = 0;
+        byte leido;
+        do {
+            leido = in.readByte();
+            valor |= (long) (leido & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (leido < 0);
+        return valor;
+    }
+
+    // Largo + 1 en varint (0 para nulo) seguido de UTF-8
+    private static void escribirTexto(DataOutput out, String valor) throws IOException {
+        if (valor == null) {
+            escribirVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        escribirVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String leerTexto(DataInput in) throws IOException {
+        int largo = (int) leerVarLong(in);
+        if (largo == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void escribirHash(DataOutput out, String hash) throws IOException {
+        if (hash == null) {
+            out.writeByte(HASH_NULO);
+        } else if (HASH_HEX.matcher(hash).matches()) {
+            out.writeByte(HASH_BINARIO);
+            out.write(HexFormat.of().parseHex(hash));
+        } else {
+            out.writeByte(HASH_TEXTO);
+            escribirTexto(out, hash);
+        }
+    }
+
+    private static String leerHash(DataInput in) throws IOException {
+        int marca = in.readUnsignedByte();
+        if (marca == HASH_NULO) {
+            return null;
+        }
+        if (marca == HASH_TEXTO) {
+            return leerTexto(in);
+        }
+        byte[] bytes = new byte[32];
+        in.readFully(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,481 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.dto.AuditVerificationResponse;
+import com.example.ticketero.model.entity.AuditArchive;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.repository.AuditArchiveRepository;
+import com.example.ticketero.repository.AuditChainRepository;
+import com.example.ticketero.repository.AuditEventRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Archivo de meses de auditoría fuera de la ventana activa.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
+ *
+ * Archivar un mes:
+ * - Verifica su cadena de hashes (AuditChainVerifier); un mes alterado no se archiva
+ * - Escribe sus eventos en un archivo columnar comprimido (AuditArchiveCodec) en
+ *   audit.archive.dir, vía archivo temporal con fsync y renombrado atómico
+ * - En la misma transacción registra audit_archive (rango de timestamps, SHA-256)
+ *   y elimina los eventos y la cabeza de la cadena de la base
+ * - En PostgreSQL la transacción toma pg_advisory_xact_lock por mes y vuelve a
+ *   comprobar audit_archive, por lo que dos nodos no archivan el mismo mes; ante
+ *   un fallo solo se elimina el temporal, nunca un archivo ya en su lugar
+ *
+ * Lectura: buscar() recorre los archivos del más reciente al más antiguo con la
+ * semántica de la paginación keyset de AuditService. Descarta archivos por rango de
+ * timestamps y por los diccionarios de actor y ticket (cacheados por mes) antes
+ * de descomprimir el resto. Los últimos meses abiertos quedan en memoria con su
+ * SHA-256 validado y sus claves decodificadas: una página ubica sus filas por
+ * búsqueda binaria y materializa solo los grupos de filas que las contienen.
+ * recorrer() entrega los meses del período en orden ascendente, un grupo de filas
+ * a la vez, para la exportación masiva.
+ *
+ * Dependencias: AuditArchiveRepository, AuditEventRepository, AuditChainRepository,
+ * AuditChainVerifier, EntityManager, JdbcTemplate, PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@Slf4j
+public class AuditArchiveService {
+
+    static final String EXTENSION = ".acol";
+
+    // Clase del advisory lock de archivado (ASCII de "AUDA"); la segunda clave es yyyyMM
+    private static final int LOCK_ARCHIVO = 0x41554441;
+
+    /**
+     * Criterio de una consulta sobre los archivos; los campos nulos no filtran.
+     *
+     * @param ticketNumber Número de ticket
+     * @param actor Identificador del actor
+     * @param startDate Inicio del período (inclusive)
+     * @param endDate Fin del período (inclusive)
+     */
+    public record Filtro(String ticketNumber, String actor, LocalDateTime startDate, LocalDateTime endDate) {
+
+        public static Filtro porTicket(String ticketNumber) {
+            return new Filtro(ticketNumber, null, null, null);
+        }
+
+        public static Filtro porActor(String actor) {
+            return new Filtro(null, actor, null, null);
+        }
+
+        public static Filtro porPeriodo(LocalDateTime startDate, LocalDateTime endDate) {
+            return new Filtro(null, null, startDate, endDate);
+        }
+
+        boolean solapa(AuditArchive archivo) {
+            return (startDate == null || !archivo.getMaxTimestamp().isBefore(startDate))
+                && (endDate == null || !archivo.getMinTimestamp().isAfter(endDate));
+        }
+
+        boolean puedeContener(Indice indice) {
+            return (actor == null || indice.actores().contains(actor))
+                && (ticketNumber == null || indice.tickets().contains(ticketNumber));
+        }
+    }
+
+    /**
+     * Destino de los eventos de un recorrido; puede fallar al escribir.
+     */
+    @FunctionalInterface
+    public interface Receptor {
+        void recibir(AuditEvent event) throws IOException;
+    }
+
+    // Diccionarios de un archivo, para descartarlo sin leerlo
+    record Indice(String sha256, Set<String> actores, Set<String> tickets) {}
+
+    // Archivo verificado y sus claves decodificadas
+    private record Abierto(String sha256, AuditArchiveCodec.Lectura lectura, AuditArchiveCodec.Claves claves) {}
+
+    // Meses abiertos retenidos (LRU); cada uno ocupa su archivo comprimido más ~24 bytes por evento
+    private static final int MESES_ABIERTOS = 3;
+
+    private final AuditArchiveRepository auditArchiveRepository;
+    private final AuditEventRepository auditEventRepository;
+    private final AuditChainRepository auditChainRepository;
+    private final AuditChainVerifier auditChainVerifier;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directorio;
+    private final Map<String, Indice> indices = new ConcurrentHashMap<>();
+    private final Map<String, Abierto> abiertos = Collections.synchronizedMap(
+        new LinkedHashMap<>(MESES_ABIERTOS + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Abierto> masAntiguo) {
+                return size() > MESES_ABIERTOS;
+            }
+        });
+    private volatile Boolean postgres;
+
+    @Autowired
+    public AuditArchiveService(AuditArchiveRepository auditArchiveRepository,
+                               AuditEventRepository auditEventRepository,
+                               AuditChainRepository auditChainRepository,
+                               AuditChainVerifier auditChainVerifier,
+                               EntityManager entityManager,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${audit.archive.dir:audit-archive}") String directorio) {
+        this.auditArchiveRepository = auditArchiveRepository;
+        this.auditEventRepository = auditEventRepository;
+        this.auditChainRepository = auditChainRepository;
+        this.auditChainVerifier = auditChainVerifier;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directorio = Path.of(directorio);
+    }
+
+    /**
+     * RN-013: Traslada los eventos de un mes a su archivo y los elimina de audit_event.
+     *
+     * @param mes Mes a archivar
+     * @return Registro del archivo, o vacío si el mes no tiene eventos
+     * @throws IllegalStateException si el mes ya está archivado o su cadena está alterada
+     * @throws UncheckedIOException si no se pudo escribir el archivo
+     */
+    public Optional<AuditArchive> archivarMes(YearMonth mes) {
+        String chainKey = mes.toString();
+        verificarNoArchivado(mes);
+        auditChainRepository.findById(chainKey).ifPresent(cadena -> {
+            AuditVerificationResponse.Chain resultado = auditChainVerifier.verificarCadena(cadena, false);
+            if (!resultado.valid()) {
+                throw new IllegalStateException("Cadena de auditoría " + chainKey + " alterada en la posición "
+                    + resultado.invalidSeq() + " (" + resultado.reason() + "); no se archiva");
+            }
+        });
+
+        Path archivo = directorio.resolve(nombreArchivo(mes));
+        return Optional.ofNullable(transactionTemplate.execute(status -> archivar(mes, archivo)));
+    }
+
+    /**
+     * Escribe el temporal, registra el mes y elimina sus eventos; el temporal se
+     * mueve a su lugar al final, de modo que un fallo previo deja intacto cualquier
+     * archivo existente. Si el commit falla después del renombrado, el archivo queda
+     * sin registro y el siguiente intento lo reemplaza.
+     */
+    private AuditArchive archivar(YearMonth mes, Path archivo) {
+        bloquearMes(mes);
+        verificarNoArchivado(mes);
+        LocalDateTime desde = mes.atDay(1).atStartOfDay();
+        LocalDateTime hasta = mes.plusMonths(1).atDay(1).atStartOfDay();
+        AuditArchiveCodec.Escritor escritor = new AuditArchiveCodec.Escritor();
+        Path temporal = null;
+        try (Stream<AuditEvent> eventos = auditEventRepository.streamParaArchivo(desde, hasta)) {
+            Iterator<AuditEvent> iterator = eventos.iterator();
+            while (iterator.hasNext()) {
+                AuditEvent event = iterator.next();
+                escritor.agregar(event);
+                entityManager.detach(event);
+            }
+            if (escritor.filas() == 0) {
+                return null;
+            }
+
+            Files.createDirectories(directorio);
+            temporal = Files.createTempFile(directorio, nombreArchivo(mes), ".tmp");
+            MessageDigest sha = sha256();
+            AuditArchiveCodec.Resumen resumen;
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE);
+                 OutputStream out = new DigestOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(canal)), sha)) {
+                resumen = escritor.terminar(out);
+                out.flush();
+                canal.force(true);
+            }
+
+            AuditArchive registro = AuditArchive.builder()
+                .archiveMonth(mes.toString())
+                .fileName(archivo.getFileName().toString())
+                .eventCount(resumen.filas())
+                .minTimestamp(resumen.minimo())
+                .maxTimestamp(resumen.maximo())
+                .sizeBytes(Files.size(temporal))
+                .sha256(HexFormat.of().formatHex(sha.digest()))
+                .archivedAt(LocalDateTime.now())
+                .build();
+            auditArchiveRepository.save(registro);
+
+            int eliminados = auditEventRepository.eliminarEntre(desde, hasta);
+            if (eliminados != resumen.filas()) {
+                throw new IllegalStateException("El mes " + mes + " cambió durante el archivado: "
+                    + resumen.filas() + " eventos archivados, " + eliminados + " a eliminar");
+            }
+            auditChainRepository.deleteById(mes.toString());
+            // Con el mes bloqueado y registrado, un archivo previo solo puede ser un huérfano
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Mes de auditoría {} archivado: {} eventos en {} ({} bytes)",
+                    mes, resumen.filas(), registro.getFileName(), registro.getSizeBytes());
+            return registro;
+        } catch (IOException e) {
+            eliminar(temporal);
+            throw new UncheckedIOException("No se pudo archivar el mes de auditoría " + mes, e);
+        } catch (RuntimeException e) {
+            // La transacción se revierte: los eventos siguen en la base
+            eliminar(temporal);
+            throw e;
+        }
+    }
+
+    private void verificarNoArchivado(YearMonth mes) {
+        if (auditArchiveRepository.existsById(mes.toString())) {
+            throw new IllegalStateException("El mes " + mes + " ya está archivado");
+        }
+    }
+
+    // Serializa el archivado del mes entre nodos hasta el fin de la transacción
+    private void bloquearMes(YearMonth mes) {
+        if (esPostgres()) {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_ARCHIVO + ", "
+                + (mes.getYear() * 100 + mes.getMonthValue()) + ")");
+        }
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())));
+        }
+        return postgres;
+    }
+
+    /**
+     * RN-013: Elimina los archivos cuyo mes completo quedó fuera de la retención.
+     *
+     * @param limite Primer día dentro de la retención
+     * @return Cantidad de meses eliminados
+     */
+    public int eliminarVencidos(LocalDate limite) {
+        int eliminados = 0;
+        for (AuditArchive archivo : auditArchiveRepository.findAllByOrderByArchiveMonthAsc()) {
+            if (YearMonth.parse(archivo.getArchiveMonth()).plusMonths(1).atDay(1).isAfter(limite)) {
+                break;
+            }
+            auditArchiveRepository.delete(archivo);
+            eliminar(directorio.resolve(archivo.getFileName()));
+            indices.remove(archivo.getArchiveMonth());
+            abiertos.remove(archivo.getArchiveMonth());
+            eliminados++;
+            log.info("Archivo de auditoría vencido eliminado: {}", archivo.getFileName());
+        }
+        return eliminados;
+    }
+
+    /**
+     * RF-008: Eventos archivados que cumplen el filtro, en orden (timestamp, id)
+     * descendente y estrictamente después del cursor.
+     *
+     * @param filtro Criterio de la consulta
+     * @param cursor Último evento entregado, o null para empezar por el más reciente
+     * @param limite Máximo de eventos a devolver
+     * @return Eventos archivados, sin asociar a la sesión JPA
+     * @throws IllegalStateException si un archivo no coincide con su SHA-256 al abrirlo
+     */
+    public List<AuditEvent> buscar(Filtro filtro, AuditCursor cursor, int limite) {
+        List<AuditEvent> encontrados = new ArrayList<>();
+        for (AuditArchive archivo : auditArchiveRepository.findAllByOrderByArchiveMonthDesc()) {
+            if (encontrados.size() >= limite) {
+                break;
+            }
+            if (!filtro.solapa(archivo)
+                    || (cursor != null && archivo.getMinTimestamp().isAfter(cursor.timestamp()))) {
+                continue;
+            }
+            Indice indice = indices.get(archivo.getArchiveMonth());
+            if (indice != null && indice.sha256().equals(archivo.getSha256()) && !filtro.puedeContener(indice)) {
+                continue;
+            }
+
+            try {
+                Abierto abierto = abrir(archivo);
+                if (indice == null || !indice.sha256().equals(archivo.getSha256())) {
+                    indices.put(archivo.getArchiveMonth(), new Indice(archivo.getSha256(),
+                        Set.copyOf(abierto.lectura().actores()), Set.copyOf(abierto.lectura().ticketNumbers())));
+                }
+                // Un actor o ticket ausente del archivo no devuelve filas
+                int[] filas = abierto.claves().filas(filtro.actor(), filtro.ticketNumber(), filtro.startDate(),
+                                                     filtro.endDate(), cursor, limite - encontrados.size());
+                encontrados.addAll(abierto.lectura().eventos(filas));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el archivo de auditoría " + archivo.getFileName(), e);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * RF-008: Indica si algún archivo podría tener eventos del filtro anteriores
+     * al cursor, sin leer archivos que aún no están en la caché de diccionarios.
+     *
+     * @param filtro Criterio de la consulta
+     * @param cursor Último evento entregado
+     * @return false solo si ningún archivo puede tener resultados
+     */
+    public boolean puedeContener(Filtro filtro, AuditCursor cursor) {
+        for (AuditArchive archivo : auditArchiveRepository.findAllByOrderByArchiveMonthDesc()) {
+            if (!filtro.solapa(archivo) || archivo.getMinTimestamp().isAfter(cursor.timestamp())) {
+                continue;
+            }
+            Indice indice = indices.get(archivo.getArchiveMonth());
+            if (indice == null || !indice.sha256().equals(archivo.getSha256()) || filtro.puedeContener(indice)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * RF-008: Entrega los eventos archivados del período en orden (timestamp, id)
+     * ascendente, mes por mes y grupo de filas por grupo de filas. En memoria quedan
+     * solo el archivo comprimido del mes en curso y un grupo decodificado; los meses
+     * leídos no desplazan a los abiertos por buscar().
+     *
+     * @param startDate Inicio del período (inclusive)
+     * @param endDate Fin del período (inclusive)
+     * @param eventType Tipo de evento, o null para todos
+     * @param receptor Destino de cada evento
+     * @return Cantidad de eventos entregados
+     * @throws IOException si el receptor falla
+     * @throws UncheckedIOException si no se pudo leer un archivo
+     * @throws IllegalStateException si un archivo no coincide con su SHA-256 al abrirlo
+     */
+    public long recorrer(LocalDateTime startDate, LocalDateTime endDate, String eventType,
+                         Receptor receptor) throws IOException {
+        Filtro filtro = Filtro.porPeriodo(startDate, endDate);
+        long entregados = 0;
+        for (AuditArchive archivo : auditArchiveRepository.findAllByOrderByArchiveMonthAsc()) {
+            if (archivo.getMinTimestamp().isAfter(endDate)) {
+                break;
+            }
+            if (!filtro.solapa(archivo)) {
+                continue;
+            }
+            AuditArchiveCodec.Lectura lectura = lectura(archivo);
+            for (int grupo = 0; grupo < lectura.grupos(); grupo++) {
+                for (AuditEvent event : grupo(archivo, lectura, grupo)) {
+                    if (event.getTimestamp().isAfter(endDate)) {
+                        return entregados;
+                    }
+                    if (!event.getTimestamp().isBefore(startDate)
+                            && (eventType == null || eventType.equals(event.getEventType()))) {
+                        receptor.recibir(event);
+                        entregados++;
+                    }
+                }
+            }
+        }
+        return entregados;
+    }
+
+    // Reutiliza el mes abierto mientras su registro conserve el mismo SHA-256
+    private Abierto abrir(AuditArchive archivo) throws IOException {
+        Abierto abierto = abiertos.get(archivo.getArchiveMonth());
+        if (abierto == null || !abierto.sha256().equals(archivo.getSha256())) {
+            AuditArchiveCodec.Lectura lectura = AuditArchiveCodec.abrir(leer(archivo));
+            abierto = new Abierto(archivo.getSha256(), lectura, lectura.claves());
+            abiertos.put(archivo.getArchiveMonth(), abierto);
+        }
+        return abierto;
+    }
+
+    // Mes abierto si sigue vigente; si no, una lectura que no entra en la caché
+    private AuditArchiveCodec.Lectura lectura(AuditArchive archivo) {
+        Abierto abierto = abiertos.get(archivo.getArchiveMonth());
+        if (abierto != null && abierto.sha256().equals(archivo.getSha256())) {
+            return abierto.lectura();
+        }
+        try {
+            return AuditArchiveCodec.abrir(leer(archivo));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de auditoría " + archivo.getFileName(), e);
+        }
+    }
+
+    private static List<AuditEvent> grupo(AuditArchive archivo, AuditArchiveCodec.Lectura lectura, int grupo) {
+        try {
+            return lectura.grupo(grupo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de auditoría " + archivo.getFileName(), e);
+        }
+    }
+
+    private byte[] leer(AuditArchive archivo) throws IOException {
+        byte[] contenido = Files.readAllBytes(directorio.resolve(archivo.getFileName()));
+        String sha256 = HexFormat.of().formatHex(sha256().digest(contenido));
+        if (!sha256.equals(archivo.getSha256())) {
+            throw new IllegalStateException("Archivo de auditoría alterado: " + archivo.getFileName());
+        }
+        return contenido;
+    }
+
+    private static String nombreArchivo(YearMonth mes) {
+        return "audit-" + mes + EXTENSION;
+    }
+
+    private static void eliminar(Path archivo) {
+        if (archivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
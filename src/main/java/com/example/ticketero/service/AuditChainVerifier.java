@@ -0,0 +1,186 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditVerificationResponse;
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.repository.AuditChainRepository;
+import com.example.ticketero.repository.AuditEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verificación incremental de las cadenas de hashes de auditoría.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
+ *
+ * Cada cadena (un mes) se verifica desde su último checkpoint (AuditChain.verifiedSeq)
+ * hasta la cabeza leída al empezar, por tramos de audit.batch-size eventos, cada
+ * tramo en su propia transacción de solo lectura. Por evento se comprueba:
+ * - Que no falten posiciones (borrado de filas, también al final de la cadena)
+ * - Que previousHash coincida con el hash del evento anterior (reordenamiento)
+ * - Que el SHA-256 recalculado coincida con integrityHash (alteración)
+ *
+ * El evento del checkpoint debe conservar el hash registrado; el tramo anterior no
+ * se rehashea salvo en una verificación completa (full). Si todo está íntegro, el
+ * checkpoint avanza hasta la cabeza verificada.
+ *
+ * Las cadenas se verifican en paralelo en un pool de audit.verify.parallelism hilos;
+ * los 7 años de retención (audit.retention-days) son unas 85 cadenas independientes.
+ *
+ * Dependencias: AuditChainRepository, AuditEventRepository, PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class AuditChainVerifier {
+
+    // Límites de chain_key (yyyy-MM compara como texto) para rangos abiertos
+    private static final String SIN_INICIO = "0000-00";
+    private static final String SIN_FIN = "9999-99";
+
+    private final AuditChainRepository auditChainRepository;
+    private final AuditEventRepository auditEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService verificadores;
+    private final int batchSize;
+
+    @Autowired
+    public AuditChainVerifier(AuditChainRepository auditChainRepository,
+                              AuditEventRepository auditEventRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${audit.batch-size:1000}") int batchSize,
+                              @Value("${audit.verify.parallelism:4}") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("audit.verify.parallelism debe ser mayor a 0: " + parallelism);
+        }
+        this.auditChainRepository = auditChainRepository;
+        this.auditEventRepository = auditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        AtomicInteger sequence = new AtomicInteger();
+        this.verificadores = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "audit-verify-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * RN-011: Verifica las cadenas de los meses indicados.
+     *
+     * @param desde Primer mes a verificar (inclusive), o null para no acotar
+     * @param hasta Último mes a verificar (inclusive), o null para no acotar
+     * @param completa true para rehashear desde el inicio ignorando checkpoints
+     * @return Resultado consolidado y por cadena
+     */
+    public AuditVerificationResponse verificar(YearMonth desde, YearMonth hasta, boolean completa) {
+        long inicio = System.nanoTime();
+        List<AuditChain> cadenas = auditChainRepository.findByChainKeyBetweenOrderByChainKeyAsc(
+            desde == null ? SIN_INICIO : desde.toString(), hasta == null ? SIN_FIN : hasta.toString());
+
+        List<CompletableFuture<AuditVerificationResponse.Chain>> tareas = new ArrayList<>(cadenas.size());
+        for (AuditChain cadena : cadenas) {
+            tareas.add(CompletableFuture.supplyAsync(() -> verificarCadena(cadena, completa), verificadores));
+        }
+        List<AuditVerificationResponse.Chain> resultados = tareas.stream().map(CompletableFuture::join).toList();
+
+        AuditVerificationResponse respuesta = AuditVerificationResponse.of(
+            completa, (System.nanoTime() - inicio) / 1_000_000, resultados);
+        if (respuesta.valid()) {
+            log.info("Auditoría íntegra: {} cadenas, {} eventos verificados en {} ms",
+                    resultados.size(), respuesta.verifiedEvents(), respuesta.elapsedMillis());
+        } else {
+            resultados.stream().filter(resultado -> !resultado.valid()).forEach(resultado ->
+                log.error("Cadena de auditoría {} alterada en la posición {}: {}",
+                         resultado.chainKey(), resultado.invalidSeq(), resultado.reason()));
+        }
+        return respuesta;
+    }
+
+    AuditVerificationResponse.Chain verificarCadena(AuditChain cadena, boolean completa) {
+        String chainKey = cadena.getChainKey();
+        long desde = completa ? 0 : cadena.getVerifiedSeq();
+        String previo = completa ? null : cadena.getVerifiedHash();
+        long hasta = cadena.getLastSeq();
+
+        if (desde > 0) {
+            Optional<AuditEvent> ancla = readOnlyTransaction.execute(status ->
+                auditEventRepository.findByChainKeyAndChainSeq(chainKey, desde));
+            if (ancla == null || ancla.isEmpty() || !Objects.equals(ancla.get().getIntegrityHash(), previo)) {
+                return invalida(chainKey, desde, 0, desde, "El evento del checkpoint fue alterado o eliminado");
+            }
+        }
+
+        long seq = desde;
+        long verificados = 0;
+        while (seq < hasta) {
+            List<AuditEvent> tramo = tramo(chainKey, seq, hasta);
+            if (tramo.isEmpty()) {
+                return invalida(chainKey, desde, verificados, seq + 1, "Falta el evento");
+            }
+            for (AuditEvent event : tramo) {
+                if (event.getChainSeq() != seq + 1) {
+                    return invalida(chainKey, desde, verificados, seq + 1, "Falta el evento");
+                }
+                if (!Objects.equals(event.getPreviousHash(), previo)) {
+                    return invalida(chainKey, desde, verificados, event.getChainSeq(),
+                                    "No enlaza con el evento anterior");
+                }
+                if (!event.calcularHash().equals(event.getIntegrityHash())) {
+                    return invalida(chainKey, desde, verificados, event.getChainSeq(), "Contenido alterado");
+                }
+                previo = event.getIntegrityHash();
+                seq = event.getChainSeq();
+                verificados++;
+            }
+        }
+
+        if (hasta > cadena.getVerifiedSeq()) {
+            String verifiedHash = previo;
+            transactionTemplate.executeWithoutResult(status ->
+                auditChainRepository.registrarCheckpoint(chainKey, hasta, verifiedHash, LocalDateTime.now()));
+        }
+        return new AuditVerificationResponse.Chain(chainKey, desde, hasta, verificados, true, null, null);
+    }
+
+    private List<AuditEvent> tramo(String chainKey, long desde, long hasta) {
+        List<AuditEvent> tramo = readOnlyTransaction.execute(status ->
+            auditEventRepository.findTramoCadena(chainKey, desde, hasta, PageRequest.of(0, batchSize)));
+        return tramo == null ? List.of() : tramo;
+    }
+
+    private static AuditVerificationResponse.Chain invalida(String chainKey, long desde, long verificados,
+                                                            long invalidSeq, String motivo) {
+        return new AuditVerificationResponse.Chain(chainKey, desde, invalidSeq - 1, verificados, false,
+                                                   invalidSeq, motivo);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verificadores.shutdown();
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.repository.AuditChainRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor de eventos de auditoría por lotes JDBC.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria)
+ *
+ * audit_event usa IDENTITY, por lo que Hibernate inserta fila por fila aunque
+ * hibernate.jdbc.batch_size esté configurado. Este escritor sella cada evento,
+ * lo enlaza a la cadena de hashes de su mes (AuditChain, bloqueada con FOR UPDATE
+ * durante la transacción del lote) y lo inserta con batchUpdate de JDBC en lotes
+ * de audit.batch-size, según audit.durability:
+ * - SYNC: los eventos de la transacción del llamador se insertan en un solo lote
+ *   justo antes de su commit; auditoría y datos de negocio confirman juntos
+ * - ASYNC: tras el commit, los eventos entran a un buffer acotado
+ *   (audit.buffer-capacity) que un hilo dedicado vacía al completar un lote o a
+ *   más tardar audit.flush-interval-millis después del primer evento. Al apagar
+ *   se vacía el buffer completo antes de cerrar el DataSource
+ *
+ * Un rollback descarta los eventos de la transacción en ambos modos. Si el buffer
+ * está lleno, el llamador inserta su evento directamente (contrapresión, sin
+ * pérdida). Un lote que falla tres veces se registra en el log con su contenido.
+ * Solo la escritura SYNC previa al commit usa la transacción del llamador; toda
+ * otra inserción (hilo escritor, contrapresión o apagado desde afterCommit, donde
+ * la transacción del llamador ya confirmó) abre una transacción propia.
+ *
+ * Métricas: audit.writer.buffer (gauge) y audit.writer.dropped (counter).
+ *
+ * Dependencias: JdbcTemplate, AuditChainRepository, PlatformTransactionManager,
+ * MeterRegistry
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class AuditEventWriter {
+
+    /**
+     * Modo de durabilidad de la auditoría (audit.durability).
+     */
+    public enum Durabilidad { SYNC, ASYNC }
+
+    static final String INSERT_SQL = """
+        INSERT INTO audit_event (timestamp, event_type, actor, actor_type, ticket_id, ticket_number,
+                                 previous_state, new_state, additional_data, ip_address, integrity_hash,
+                                 chain_key, chain_seq, previous_hash)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final int[] TIPOS = {
+        Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.VARCHAR,
+        Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+        Types.VARCHAR, Types.BIGINT, Types.VARCHAR
+    };
+    private static final int MAX_INTENTOS = 3;
+    private static final long PAUSA_REINTENTO_MILLIS = 1000;
+    private static final long ESPERA_MAXIMA_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditChainRepository auditChainRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+    private final Set<String> cadenasExistentes = ConcurrentHashMap.newKeySet();
+    private final Durabilidad durabilidad;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<AuditEvent> buffer;
+    private final ExecutorService escritor;
+    private final Counter descartados;
+    private volatile boolean cerrado;
+
+    @Autowired
+    public AuditEventWriter(JdbcTemplate jdbcTemplate,
+                            AuditChainRepository auditChainRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${audit.durability:ASYNC}") Durabilidad durabilidad,
+                            @Value("${audit.batch-size:1000}") int batchSize,
+                            @Value("${audit.buffer-capacity:10000}") int bufferCapacity,
+                            @Value("${audit.flush-interval-millis:200}") long flushIntervalMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("audit.batch-size debe ser mayor a 0: " + batchSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditChainRepository = auditChainRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.durabilidad = durabilidad;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.descartados = Counter.builder("audit.writer.dropped")
+            .description("Eventos de auditoría no persistidos tras agotar los reintentos")
+            .register(meterRegistry);
+        Gauge.builder("audit.writer.buffer", buffer, BlockingQueue::size)
+            .description("Eventos de auditoría a la espera de escritura")
+            .register(meterRegistry);
+        if (durabilidad == Durabilidad.ASYNC) {
+            this.escritor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.escritor.execute(this::vaciarContinuamente);
+        } else {
+            this.escritor = null;
+        }
+    }
+
+    /**
+     * RN-011: Registra un evento de auditoría según audit.durability. Dentro de
+     * una transacción, el evento se escribe (SYNC) o se encola (ASYNC) solo si
+     * ésta confirma.
+     *
+     * @param event Evento a persistir
+     */
+    public void registrar(AuditEvent event) {
+        event.sellar();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entregar(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<AuditEvent> transaccion = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (transaccion == null) {
+            transaccion = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transaccion);
+            TransactionSynchronizationManager.registerSynchronization(new EventosDeTransaccion(transaccion));
+        }
+        transaccion.add(event);
+    }
+
+    // Fuera de beforeCommit: nunca se une a la transacción del llamador
+    private void entregar(List<AuditEvent> eventos) {
+        if (durabilidad == Durabilidad.SYNC || cerrado) {
+            insertar(eventos, requiresNewTransaction);
+            return;
+        }
+        for (AuditEvent event : eventos) {
+            if (!buffer.offer(event)) {
+                // Buffer lleno: el llamador paga la escritura en vez de perder el evento
+                insertar(List.of(event), requiresNewTransaction);
+            }
+        }
+        if (cerrado) {
+            // Encolado durante el apagado, después del vaciado final
+            List<AuditEvent> restantes = new ArrayList<>();
+            buffer.drainTo(restantes);
+            insertar(restantes, requiresNewTransaction);
+        }
+    }
+
+    private void vaciarContinuamente() {
+        List<AuditEvent> lote = new ArrayList<>(batchSize);
+        try {
+            while (!cerrado) {
+                AuditEvent primero = buffer.poll(ESPERA_MAXIMA_MILLIS, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                completarLote(lote);
+                escribirConReintentos(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Lo tomado antes de cerrar no se pierde; el resto lo vacía shutdown
+        if (!lote.isEmpty()) {
+            escribirConReintentos(lote);
+        }
+    }
+
+    /**
+     * Junta hasta audit.batch-size eventos durante a lo sumo audit.flush-interval-millis
+     * desde el primero, revisando el cierre en cada espera.
+     */
+    private void completarLote(List<AuditEvent> lote) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        buffer.drainTo(lote, batchSize - lote.size());
+        while (lote.size() < batchSize && !cerrado) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            AuditEvent siguiente = buffer.poll(
+                Math.min(restante, TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MILLIS)), TimeUnit.NANOSECONDS);
+            if (siguiente != null) {
+                lote.add(siguiente);
+                buffer.drainTo(lote, batchSize - lote.size());
+            }
+        }
+    }
+
+    private void escribirConReintentos(List<AuditEvent> lote) {
+        for (int intento = 1; intento <= MAX_INTENTOS; intento++) {
+            try {
+                insertar(lote, requiresNewTransaction);
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Fallo escribiendo {} eventos de auditoría (intento {}/{}): {}",
+                        lote.size(), intento, MAX_INTENTOS, e.getMessage());
+                if (intento < MAX_INTENTOS && !pausar()) {
+                    break;
+                }
+            }
+        }
+        descartados.increment(lote.size());
+        lote.forEach(event -> log.error("Evento de auditoría no persistido: {}", event));
+    }
+
+    private boolean pausar() {
+        try {
+            Thread.sleep(PAUSA_REINTENTO_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Enlaza e inserta los eventos en la transacción de la plantilla: la del llamador
+     * (SYNC, antes del commit) o una propia (REQUIRES_NEW). Las cabezas se bloquean
+     * en orden de mes para no cruzar bloqueos entre nodos.
+     */
+    private void insertar(List<AuditEvent> eventos, TransactionTemplate transaccion) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Map<String, List<AuditEvent>> porCadena = new TreeMap<>();
+        for (AuditEvent event : eventos) {
+            porCadena.computeIfAbsent(event.getChainKey(), key -> new ArrayList<>()).add(event);
+        }
+        porCadena.keySet().forEach(this::asegurarCadena);
+        transaccion.executeWithoutResult(status -> porCadena.forEach((chainKey, deCadena) -> {
+            AuditChain cadena = auditChainRepository.findForUpdate(chainKey)
+                .orElseThrow(() -> new IllegalStateException("Cadena de auditoría inexistente: " + chainKey));
+            deCadena.forEach(cadena::enlazar);
+            insertarPorLotes(deCadena);
+        }));
+    }
+
+    /**
+     * Crea la cabeza de la cadena del mes si aún no existe, en su propia transacción:
+     * un alta concurrente desde otro nodo no aborta la transacción del lote.
+     */
+    private void asegurarCadena(String chainKey) {
+        if (cadenasExistentes.contains(chainKey)) {
+            return;
+        }
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                if (!auditChainRepository.existsById(chainKey)) {
+                    auditChainRepository.saveAndFlush(AuditChain.builder().chainKey(chainKey).build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Cadena de auditoría {} creada concurrentemente", chainKey);
+        }
+        cadenasExistentes.add(chainKey);
+    }
+
+    private void insertarPorLotes(List<AuditEvent> eventos) {
+        for (int desde = 0; desde < eventos.size(); desde += batchSize) {
+            List<AuditEvent> lote = eventos.subList(desde, Math.min(desde + batchSize, eventos.size()));
+            List<Object[]> filas = new ArrayList<>(lote.size());
+            for (AuditEvent event : lote) {
+                filas.add(fila(event));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, filas, TIPOS);
+        }
+    }
+
+    private static Object[] fila(AuditEvent event) {
+        return new Object[] {
+            Timestamp.valueOf(event.getTimestamp()),
+            event.getEventType(),
+            event.getActor(),
+            event.getActorType().name(),
+            event.getTicket() != null ? event.getTicket().getId() : null,
+            event.getTicketNumber(),
+            event.getPreviousState(),
+            event.getNewState(),
+            event.getAdditionalData(),
+            event.getIpAddress(),
+            event.getIntegrityHash(),
+            event.getChainKey(),
+            event.getChainSeq(),
+            event.getPreviousHash()
+        };
+    }
+
+    /**
+     * Vacía el buffer antes de cerrar el DataSource: ningún evento aceptado se pierde
+     * en un apagado ordenado.
+     */
+    @PreDestroy
+    void shutdown() {
+        cerrado = true;
+        if (escritor == null) {
+            return;
+        }
+        escritor.shutdown();
+        try {
+            if (!escritor.awaitTermination(10, TimeUnit.SECONDS)) {
+                escritor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<AuditEvent> restantes = new ArrayList<>();
+        buffer.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            escribirConReintentos(restantes);
+            log.info("Auditoría vaciada al apagar: {} eventos", restantes.size());
+        }
+    }
+
+    /**
+     * Eventos registrados dentro de una transacción: se escriben (SYNC) antes del
+     * commit o se encolan (ASYNC) después; un rollback los descarta.
+     */
+    private final class EventosDeTransaccion implements TransactionSynchronization {
+
+        private final List<AuditEvent> eventos;
+
+        private EventosDeTransaccion(List<AuditEvent> eventos) {
+            this.eventos = eventos;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (durabilidad == Durabilidad.SYNC) {
+                insertar(eventos, transactionTemplate);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (durabilidad == Durabilidad.ASYNC) {
+                entregar(eventos);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditEventWriter.this);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditEventResponse;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+/**
+ * Exportación masiva de eventos de auditoría en streaming.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-011 (Auditoría obligatoria), RN-013 (Retención 7 años)
+ *
+ * Los eventos se leen con un cursor JDBC de solo avance (fetch size 1000) dentro de
+ * una transacción de solo lectura y se escriben fila a fila en el OutputStream del
+ * llamador; cada evento se desvincula del contexto de persistencia después de
+ * escribirlo. La memoria usada no depende del tamaño del período.
+ *
+ * Los meses archivados que solapan el período se escriben primero, en orden
+ * ascendente y un grupo de filas a la vez (AuditArchiveService.recorrer): siempre
+ * son anteriores a las filas vivas. La transacción usa REPEATABLE READ para que el
+ * registro de archivos y el cursor vean la misma instantánea; un mes archivado
+ * durante la exportación no se pierde ni se duplica.
+ *
+ * Formatos:
+ * - NDJSON: un AuditEventResponse en JSON por línea
+ * - CSV: RFC 4180 con encabezado, mismas columnas que AuditEventResponse
+ *
+ * Dependencias: AuditEventRepository, AuditArchiveService, EntityManager, ObjectMapper
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditExportService {
+
+    /**
+     * Formato de exportación.
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    static final String CSV_ENCABEZADO = "id,timestamp,eventType,actor,actorType,ticketNumber,"
+        + "previousState,newState,additionalData,ipAddress";
+
+    private final AuditEventRepository auditEventRepository;
+    private final AuditArchiveService auditArchiveService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * RF-008: Escribe los eventos del período en el formato indicado, archivados y
+     * vivos, en orden (timestamp, id) ascendente. No cierra el OutputStream; el llamador decide (p. ej. para terminar un gzip).
+     *
+     * @param startDate Fecha de inicio del rango
+     * @param endDate Fecha de fin del rango
+     * @param eventType Tipo de evento a exportar, o null para todos
+     * @param formato NDJSON o CSV
+     * @param out Destino de la exportación
+     * @return Cantidad de eventos exportados
+     * @throws UncheckedIOException si el destino falla (p. ej. el cliente se desconectó)
+     *         o no se pudo leer un archivo de auditoría
+     * @throws IllegalStateException si un archivo de auditoría no coincide con su SHA-256
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long exportar(LocalDateTime startDate, LocalDateTime endDate, String eventType,
+                         Formato formato, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long exportados = 0;
+        try {
+            if (formato == Formato.CSV) {
+                writer.write(CSV_ENCABEZADO);
+                writer.write('\n');
+            }
+            exportados = auditArchiveService.recorrer(startDate, endDate, eventType,
+                event -> escribir(writer, formato, event));
+            try (Stream<AuditEvent> eventos = eventType == null
+                    ? auditEventRepository.streamParaExportacion(startDate, endDate)
+                    : auditEventRepository.streamParaExportacionPorTipo(startDate, endDate, eventType)) {
+                Iterator<AuditEvent> iterator = eventos.iterator();
+                while (iterator.hasNext()) {
+                    AuditEvent event = iterator.next();
+                    escribir(writer, formato, event);
+                    entityManager.detach(event);
+                    exportados++;
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Exportación de auditoría interrumpida tras " + exportados + " eventos", e);
+        }
+        log.info("Exportación de auditoría {} ({} a {}, tipo {}): {} eventos",
+                formato, startDate, endDate, eventType, exportados);
+        return exportados;
+    }
+
+    private void escribir(Writer writer, Formato formato, AuditEvent event) throws IOException {
+        writer.write(formato == Formato.CSV ? csv(AuditEventResponse.from(event)) : json(event));
+        writer.write('\n');
+    }
+
+    private String json(AuditEvent event) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(AuditEventResponse.from(event));
+    }
+
+    private static String csv(AuditEventResponse event) {
+        StringJoiner linea = new StringJoiner(",");
+        linea.add(campo(event.id()));
+        linea.add(campo(event.timestamp()));
+        linea.add(campo(event.eventType()));
+        linea.add(campo(event.actor()));
+        linea.add(campo(event.actorType()));
+        linea.add(campo(event.ticketNumber()));
+        linea.add(campo(event.previousState()));
+        linea.add(campo(event.newState()));
+        linea.add(campo(event.additionalData()));
+        linea.add(campo(event.ipAddress()));
+        return linea.toString();
+    }
+
+    // RFC 4180: entre comillas si contiene separador, comillas o saltos de línea
+    private static String campo(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
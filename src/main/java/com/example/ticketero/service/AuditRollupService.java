@@ -0,0 +1,282 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.AuditRollupState;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.repository.AuditRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Rollups horarios de auditoría para las estadísticas del resumen.
+ *
+ * Implementa: RF-008 (Auditoría y trazabilidad)
+ * Reglas de Negocio: RN-013 (Retención 7 años)
+ *
+ * Compactación (cada audit.rollup.fixed-delay-seconds):
+ * - Toma la primera hora con eventos a partir de la marca de agua y guarda su
+ *   conteo por tipo de evento y por actor con INSERT ... SELECT ... GROUP BY,
+ *   sin traer filas a memoria; las horas vacías se saltan
+ * - Solo compacta horas cerradas hace más de audit.rollup.grace-minutes, para que
+ *   los eventos que AuditEventWriter escribe en diferido (ASYNC) ya estén insertados.
+ *   Un evento que llegue después de compactada su hora no se cuenta
+ * - Cada hora se compacta en su propia transacción bajo la marca de agua bloqueada,
+ *   hasta audit.rollup.max-hours-per-run horas por ejecución (recuperación gradual)
+ * - Elimina los rollups fuera de audit.retention-days
+ *
+ * Estadísticas de un rango: las horas completas ya compactadas se suman desde los
+ * rollups; los extremos (horas parciales y lo posterior a la marca de agua) se
+ * agrupan desde audit_event, que con particiones solo recorre esas horas.
+ *
+ * Dependencias: AuditEventRepository, AuditRollupRepository, JdbcTemplate,
+ * PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@Slf4j
+public class AuditRollupService {
+
+    static final String COMPACTACION = "audit-hourly";
+
+    static final String INSERT_POR_TIPO_SQL = """
+        INSERT INTO audit_rollup_event_type (hour_start, event_type, event_count)
+        SELECT CAST(? AS TIMESTAMP), event_type, COUNT(*)
+        FROM audit_event
+        WHERE timestamp >= ? AND timestamp < ?
+        GROUP BY event_type
+        """;
+
+    static final String INSERT_POR_ACTOR_SQL = """
+        INSERT INTO audit_rollup_actor (hour_start, actor, actor_type, event_count)
+        SELECT CAST(? AS TIMESTAMP), actor, actor_type, COUNT(*)
+        FROM audit_event
+        WHERE timestamp >= ? AND timestamp < ?
+        GROUP BY actor, actor_type
+        """;
+
+    // Límite inferior de la primera compactación (marca de agua aún vacía)
+    private static final LocalDateTime SIN_COMPACTAR = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final AuditEventRepository auditEventRepository;
+    private final AuditRollupRepository auditRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTransaction;
+    private final Duration gracia;
+    private final int maxHorasPorEjecucion;
+    private final int retentionDays;
+    private final Clock clock;
+
+    private volatile boolean estadoCreado;
+
+    @Autowired
+    public AuditRollupService(AuditEventRepository auditEventRepository,
+                              AuditRollupRepository auditRollupRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${audit.rollup.grace-minutes:5}") long graceMinutes,
+                              @Value("${audit.rollup.max-hours-per-run:500}") int maxHorasPorEjecucion,
+                              @Value("${audit.retention-days:2555}") int retentionDays) {
+        this(auditEventRepository, auditRollupRepository, jdbcTemplate, transactionManager,
+             graceMinutes, maxHorasPorEjecucion, retentionDays, Clock.systemDefaultZone());
+    }
+
+    AuditRollupService(AuditEventRepository auditEventRepository,
+                       AuditRollupRepository auditRollupRepository,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       long graceMinutes,
+                       int maxHorasPorEjecucion,
+                       int retentionDays,
+                       Clock clock) {
+        this.auditEventRepository = auditEventRepository;
+        this.auditRollupRepository = auditRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.gracia = Duration.ofMinutes(graceMinutes);
+        this.maxHorasPorEjecucion = maxHorasPorEjecucion;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    /**
+     * RF-008: Compacta las horas cerradas pendientes y aplica la retención.
+     */
+    @Scheduled(fixedDelayString = "${audit.rollup.fixed-delay-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void compactar() {
+        try {
+            asegurarEstado();
+            LocalDateTime ahora = LocalDateTime.now(clock);
+            LocalDateTime cierre = ahora.minus(gracia).truncatedTo(ChronoUnit.HOURS);
+            int compactadas = 0;
+            while (compactadas < maxHorasPorEjecucion
+                    && Boolean.TRUE.equals(transactionTemplate.execute(status -> compactarSiguienteHora(cierre)))) {
+                compactadas++;
+            }
+            LocalDateTime limite = ahora.minusDays(retentionDays).truncatedTo(ChronoUnit.HOURS);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM audit_rollup_event_type WHERE hour_start < ?", Timestamp.valueOf(limite));
+                jdbcTemplate.update("DELETE FROM audit_rollup_actor WHERE hour_start < ?", Timestamp.valueOf(limite));
+            });
+            if (compactadas > 0) {
+                log.debug("Rollups de auditoría: {} horas compactadas", compactadas);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error compactando rollups de auditoría: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compacta la primera hora con eventos desde la marca de agua.
+     *
+     * @return true si compactó una hora; false si no quedan horas cerradas
+     */
+    private boolean compactarSiguienteHora(LocalDateTime cierre) {
+        AuditRollupState estado = auditRollupRepository.findForUpdate(COMPACTACION)
+            .orElseThrow(() -> new IllegalStateException("Marca de agua de rollups no encontrada"));
+        LocalDateTime desde = estado.getCompactedUntil() == null ? SIN_COMPACTAR : estado.getCompactedUntil();
+        if (!desde.isBefore(cierre)) {
+            return false;
+        }
+
+        LocalDateTime primero = auditEventRepository.findPrimerTimestampEntre(desde, cierre);
+        if (primero == null) {
+            estado.setCompactedUntil(cierre);
+            return false;
+        }
+
+        Timestamp hora = Timestamp.valueOf(primero.truncatedTo(ChronoUnit.HOURS));
+        Timestamp siguiente = Timestamp.valueOf(primero.truncatedTo(ChronoUnit.HOURS).plusHours(1));
+        jdbcTemplate.update("DELETE FROM audit_rollup_event_type WHERE hour_start = ?", hora);
+        jdbcTemplate.update("DELETE FROM audit_rollup_actor WHERE hour_start = ?", hora);
+        jdbcTemplate.update(INSERT_POR_TIPO_SQL, hora, hora, siguiente);
+        jdbcTemplate.update(INSERT_POR_ACTOR_SQL, hora, hora, siguiente);
+        estado.setCompactedUntil(siguiente.toLocalDateTime());
+        return true;
+    }
+
+    private void asegurarEstado() {
+        if (estadoCreado) {
+            return;
+        }
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                if (!auditRollupRepository.existsById(COMPACTACION)) {
+                    auditRollupRepository.saveAndFlush(AuditRollupState.builder().name(COMPACTACION).build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo la creó en paralelo
+        }
+        estadoCreado = true;
+    }
+
+    /**
+     * RF-008: Eventos por tipo en [startDate, endDate], ordenados por frecuencia.
+     *
+     * @param startDate Fecha de inicio del período
+     * @param endDate Fecha de fin del período (inclusive)
+     * @return Lista de arrays con [tipoEvento, cantidad]
+     */
+    public List<Object[]> estadisticasPorTipo(LocalDateTime startDate, LocalDateTime endDate) {
+        Tramo tramo = tramoCompactado(startDate, endDate);
+        if (tramo == null) {
+            return auditEventRepository.getEventTypeStatistics(startDate, endDate);
+        }
+        Map<List<Object>, Long> conteo = new HashMap<>();
+        Function<Object[], List<Object>> clave = fila -> List.of(fila[0]);
+        if (startDate.isBefore(tramo.desde())) {
+            acumular(conteo, auditEventRepository.contarPorTipoEntre(startDate, tramo.desde()), clave);
+        }
+        acumular(conteo, auditRollupRepository.sumarPorTipo(tramo.desde(), tramo.hasta()), clave);
+        acumular(conteo, auditEventRepository.getEventTypeStatistics(tramo.hasta(), endDate), clave);
+        return ordenarPorCantidad(conteo);
+    }
+
+    /**
+     * RF-008: Eventos por actor en [startDate, endDate], ordenados por actividad.
+     *
+     * @param startDate Fecha de inicio del período
+     * @param endDate Fecha de fin del período (inclusive)
+     * @return Lista de arrays con [actor, tipoActor, cantidad]
+     */
+    public List<Object[]> actividadPorActor(LocalDateTime startDate, LocalDateTime endDate) {
+        Tramo tramo = tramoCompactado(startDate, endDate);
+        if (tramo == null) {
+            return auditEventRepository.getActorActivityStats(startDate, endDate);
+        }
+        Map<List<Object>, Long> conteo = new HashMap<>();
+        Function<Object[], List<Object>> clave = fila -> List.of(fila[0], fila[1]);
+        if (startDate.isBefore(tramo.desde())) {
+            acumular(conteo, auditEventRepository.contarPorActorEntre(startDate, tramo.desde()), clave);
+        }
+        acumular(conteo, auditRollupRepository.sumarPorActor(tramo.desde(), tramo.hasta()), clave);
+        acumular(conteo, auditEventRepository.getActorActivityStats(tramo.hasta(), endDate), clave);
+        return ordenarPorCantidad(conteo);
+    }
+
+    /**
+     * Horas completas del rango que ya están compactadas: [desde, hasta).
+     *
+     * @return Tramo, o null si ninguna hora completa del rango está compactada
+     */
+    private Tramo tramoCompactado(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime compactedUntil = auditRollupRepository.findById(COMPACTACION)
+            .map(AuditRollupState::getCompactedUntil)
+            .orElse(null);
+        if (compactedUntil == null) {
+            return null;
+        }
+        LocalDateTime desde = startDate.truncatedTo(ChronoUnit.HOURS);
+        if (desde.isBefore(startDate)) {
+            desde = desde.plusHours(1);
+        }
+        LocalDateTime finCompleto = endDate.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hasta = compactedUntil.isBefore(finCompleto) ? compactedUntil : finCompleto;
+        return hasta.isAfter(desde) ? new Tramo(desde, hasta) : null;
+    }
+
+    private static void acumular(Map<List<Object>, Long> conteo, List<Object[]> filas,
+                                 Function<Object[], List<Object>> clave) {
+        for (Object[] fila : filas) {
+            conteo.merge(clave.apply(fila), ((Number) fila[fila.length - 1]).longValue(), Long::sum);
+        }
+    }
+
+    private static List<Object[]> ordenarPorCantidad(Map<List<Object>, Long> conteo) {
+        return conteo.entrySet().stream()
+            .sorted(Map.Entry.<List<Object>, Long>comparingByValue(Comparator.reverseOrder()))
+            .map(entry -> {
+                Object[] fila = entry.getKey().toArray(new Object[entry.getKey().size() + 1]);
+                fila[fila.length - 1] = entry.getValue();
+                return fila;
+            })
+            .toList();
+    }
+
+    private record Tramo(LocalDateTime desde, LocalDateTime hasta) {}
+}
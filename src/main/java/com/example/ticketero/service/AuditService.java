@@ -1,5 +1,7 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.dto.AuditEventPageResponse;
 import com.example.ticketero.model.dto.AuditEventResponse;
 import com.example.ticketero.model.entity.AuditEvent;
 import com.example.ticketero.model.entity.Ticket;
@@ -7,11 +9,15 @@ import com.example.ticketero.model.enums.ActorType;
 import com.example.ticketero.repository.AuditEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,13 +29,18 @@ import java.util.stream.Collectors;
  * Funcionalidades:
  * - Registro automático de eventos críticos del sistema
  * - Hash de integridad para validación de auditoría
- * - Consultas especializadas por ticket, actor y rango de fechas
- * - Estadísticas de actividad y tipos de eventos
+ * - Consultas especializadas por ticket, actor y rango de fechas, paginadas por
+ *   keyset (timestamp, id) con cursor opaco y tamaño de página acotado; al agotar
+ *   audit_event continúan en los meses archivados (AuditArchiveService)
+ * - Estadísticas de actividad y tipos de eventos desde rollups horarios
+ *   (AuditRollupService), con eventos crudos solo para las horas no compactadas
  * - Cumplimiento normativo con retención de 7 años
+ * - Escritura por lotes JDBC vía AuditEventWriter (audit.durability: SYNC con el
+ *   commit del llamador, o ASYNC fuera de su latencia)
  * 
  * Eventos auditados: TICKET_CREATED, TICKET_ASSIGNED, STATUS_CHANGED, NOTIFICATION_SENT
  * 
- * Dependencias: AuditEventRepository
+ * Dependencias: AuditEventRepository, AuditEventWriter, AuditRollupService, AuditArchiveService
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -41,7 +52,14 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AuditService {
     
+    // RF-008: Tamaño de página por defecto y máximo de las consultas de auditoría
+    static final int TAMANO_PAGINA = 100;
+    static final int TAMANO_MAXIMO_PAGINA = 1000;
+    
     private final AuditEventRepository auditEventRepository;
+    private final AuditEventWriter auditEventWriter;
+    private final AuditRollupService auditRollupService;
+    private final AuditArchiveService auditArchiveService;
     
     /**
      * RN-011: Registra evento de creación de ticket con datos completos.
@@ -65,7 +83,7 @@ public class AuditService {
             .ipAddress(clientIp)
             .build();
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Audit logged: TICKET_CREATED for {}", ticket.getNumero());
     }
     
@@ -95,7 +113,7 @@ public class AuditService {
             .ipAddress(clientIp)
             .build();
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Audit logged: STATUS_CHANGED for {} ({} -> {})", 
             ticket.getNumero(), previousStatus, ticket.getStatus().name());
     }
@@ -114,7 +132,7 @@ public class AuditService {
             .ipAddress(clientIp)
             .build();
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Audit logged: TICKET_ASSIGNED for {} to {}", ticket.getNumero(), advisorName);
     }
     
@@ -133,37 +151,110 @@ public class AuditService {
             .ipAddress(clientIp)
             .build();
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Audit logged: {} by {}", eventType, actor);
     }
     
-    public List<AuditEventResponse> getTicketAuditTrail(String ticketNumber) {
-        return auditEventRepository.findByTicketNumberOrderByTimestampDesc(ticketNumber)
-            .stream()
-            .map(AuditEventResponse::from)
-            .collect(Collectors.toList());
+    /**
+     * RF-008: Historial de un ticket, paginado por keyset.
+     * 
+     * @param ticketNumber Número del ticket
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param size Tamaño de página solicitado (acotado a TAMANO_MAXIMO_PAGINA)
+     * @return Página de eventos más recientes primero
+     */
+    public AuditEventPageResponse getTicketAuditTrail(String ticketNumber, String cursor, Integer size) {
+        return pagina(cursor, size, AuditArchiveService.Filtro.porTicket(ticketNumber),
+            pageable -> auditEventRepository.findPrimeraPaginaPorTicket(ticketNumber, pageable),
+            (desde, pageable) -> auditEventRepository.findPaginaSiguientePorTicket(
+                ticketNumber, desde.timestamp(), desde.id(), pageable));
     }
     
-    public List<AuditEventResponse> getAuditEventsByActor(String actor) {
-        return auditEventRepository.findByActorOrderByTimestampDesc(actor)
-            .stream()
-            .map(AuditEventResponse::from)
-            .collect(Collectors.toList());
+    /**
+     * RF-008: Eventos de un actor, paginados por keyset.
+     * 
+     * @param actor Identificador del actor (RUT, email, SYSTEM)
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param size Tamaño de página solicitado (acotado a TAMANO_MAXIMO_PAGINA)
+     * @return Página de eventos más recientes primero
+     */
+    public AuditEventPageResponse getAuditEventsByActor(String actor, String cursor, Integer size) {
+        return pagina(cursor, size, AuditArchiveService.Filtro.porActor(actor),
+            pageable -> auditEventRepository.findPrimeraPaginaPorActor(actor, pageable),
+            (desde, pageable) -> auditEventRepository.findPaginaSiguientePorActor(
+                actor, desde.timestamp(), desde.id(), pageable));
     }
     
-    public List<AuditEventResponse> getAuditEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return auditEventRepository.findByTimestampBetweenOrderByTimestampDesc(startDate, endDate)
-            .stream()
+    /**
+     * RN-013: Eventos de un período, paginados por keyset.
+     * 
+     * @param startDate Fecha de inicio del rango
+     * @param endDate Fecha de fin del rango
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param size Tamaño de página solicitado (acotado a TAMANO_MAXIMO_PAGINA)
+     * @return Página de eventos más recientes primero
+     */
+    public AuditEventPageResponse getAuditEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                            String cursor, Integer size) {
+        return pagina(cursor, size, AuditArchiveService.Filtro.porPeriodo(startDate, endDate),
+            pageable -> auditEventRepository.findPrimeraPaginaPorPeriodo(startDate, endDate, pageable),
+            (desde, pageable) -> auditEventRepository.findPaginaSiguientePorPeriodo(
+                startDate, endDate, desde.timestamp(), desde.id(), pageable));
+    }
+    
+    /**
+     * Ejecuta una consulta keyset pidiendo un evento extra para saber si hay
+     * página siguiente sin contar filas.
+     * 
+     * Los meses archivados son anteriores a todo audit_event, así que en orden
+     * descendente van al final: una página con eventos vivos nunca lee archivos y,
+     * si los vivos se agotan, entrega un cursor cuando algún archivo puede tener
+     * más. La página pedida con ese cursor ya no encuentra eventos vivos y se
+     * completa desde los archivos.
+     */
+    private AuditEventPageResponse pagina(String cursor, Integer size, AuditArchiveService.Filtro filtro,
+                                          Function<Pageable, List<AuditEvent>> primera,
+                                          BiFunction<AuditCursor, Pageable, List<AuditEvent>> siguiente) {
+        int limite = size == null ? TAMANO_PAGINA : Math.max(1, Math.min(size, TAMANO_MAXIMO_PAGINA));
+        Pageable pageable = PageRequest.of(0, limite + 1);
+        AuditCursor desde = cursor == null ? null : AuditCursor.decodificar(cursor);
+        List<AuditEvent> eventos = desde == null ? primera.apply(pageable) : siguiente.apply(desde, pageable);
+        
+        boolean hayMas = eventos.size() > limite;
+        if (eventos.isEmpty()) {
+            eventos = auditArchiveService.buscar(filtro, desde, limite + 1);
+            hayMas = eventos.size() > limite;
+        } else if (!hayMas) {
+            hayMas = auditArchiveService.puedeContener(filtro, AuditCursor.of(eventos.get(eventos.size() - 1)));
+        }
+        List<AuditEvent> delaPagina = eventos.size() > limite ? eventos.subList(0, limite) : eventos;
+        String nextCursor = hayMas ? AuditCursor.of(delaPagina.get(delaPagina.size() - 1)).codificar() : null;
+        List<AuditEventResponse> events = delaPagina.stream()
             .map(AuditEventResponse::from)
             .collect(Collectors.toList());
+        return new AuditEventPageResponse(events, events.size(), nextCursor);
     }
     
+    /**
+     * RF-008: Eventos por tipo del período, desde los rollups horarios.
+     * 
+     * @param startDate Fecha de inicio del período
+     * @param endDate Fecha de fin del período
+     * @return Lista de arrays con [tipoEvento, cantidad] ordenados por frecuencia
+     */
     public List<Object[]> getEventTypeStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-        return auditEventRepository.getEventTypeStatistics(startDate, endDate);
+        return auditRollupService.estadisticasPorTipo(startDate, endDate);
     }
     
+    /**
+     * RF-008: Actividad por actor del período, desde los rollups horarios.
+     * 
+     * @param startDate Fecha de inicio del período
+     * @param endDate Fecha de fin del período
+     * @return Lista de arrays con [actor, tipoActor, cantidad] ordenados por actividad
+     */
     public List<Object[]> getActorActivityStats(LocalDateTime startDate, LocalDateTime endDate) {
-        return auditEventRepository.getActorActivityStats(startDate, endDate);
+        return auditRollupService.actividadPorActor(startDate, endDate);
     }
     
     @Transactional
@@ -180,7 +271,7 @@ public class AuditService {
             .ipAddress(clientIp)
             .build();
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Audit logged: NOTIFICATION_SENT for ticket {}", ticketNumber);
     }
     
@@ -215,7 +306,7 @@ public class AuditService {
             event.setTicketNumber("TICKET_" + ticketId);
         }
         
-        auditEventRepository.save(event);
+        auditEventWriter.registrar(event);
         log.debug("Evento de auditoría registrado: {} por {}", eventType, actor);
     }
     
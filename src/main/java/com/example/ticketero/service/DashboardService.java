@@ -1,13 +1,14 @@
 package com.example.ticketero.service;
 
 import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketCountMatrix;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.repository.AdvisorRepository;
-import com.example.ticketero.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,7 +32,11 @@ import java.util.stream.Collectors;
  * - QUEUE_OVERFLOW: Cola con más de 10 tickets
  * - NO_ADVISORS_AVAILABLE: Sin asesores disponibles
  * 
- * Dependencias: TicketRepository, AdvisorRepository, QueueService
+ * Acceso a datos por snapshot: los conteos de tickets (estado × cola) y de asesores
+ * por estado se leen de QueueMetricsRegistry en O(1); solo la búsqueda del asesor
+ * más productivo consulta la base de datos.
+ * 
+ * Dependencias: AdvisorRepository, QueueService, QueueMetricsRegistry
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -43,9 +48,12 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class DashboardService {
     
-    private final TicketRepository ticketRepository;
     private final AdvisorRepository advisorRepository;
     private final QueueService queueService;
+    private final QueueMetricsRegistry metricsRegistry;
+    
+    @Value("${dashboard.refresh-interval-seconds:30}")
+    private int updateIntervalSeconds = 30;
     
     /**
      * RF-007: Genera datos completos del dashboard con métricas en tiempo real.
@@ -59,24 +67,28 @@ public class DashboardService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfDay = now.withHour(0).withMinute(0).withSecond(0);
         
+        // Snapshot de conteos desde los contadores incrementales (sin consultas)
+        TicketCountMatrix ticketCounts = metricsRegistry.ticketCounts();
+        Map<AdvisorStatus, Integer> advisorCounts = metricsRegistry.advisorCounts();
+        
         // Resumen ejecutivo
-        DashboardResponse.ResumenEjecutivo resumenEjecutivo = generateResumenEjecutivo(startOfDay, now);
+        DashboardResponse.ResumenEjecutivo resumenEjecutivo = generateResumenEjecutivo(ticketCounts, startOfDay, now);
         
         // Estado de colas
-        Map<String, DashboardResponse.EstadoCola> estadoColas = generateEstadoColas();
+        Map<String, DashboardResponse.EstadoCola> estadoColas = generateEstadoColas(ticketCounts);
         
         // Estado de ejecutivos
-        DashboardResponse.EstadoEjecutivos estadoEjecutivos = generateEstadoEjecutivos();
+        DashboardResponse.EstadoEjecutivos estadoEjecutivos = generateEstadoEjecutivos(advisorCounts);
         
         // Alertas
-        List<DashboardResponse.Alerta> alertas = generateAlertas();
+        List<DashboardResponse.Alerta> alertas = generateAlertas(ticketCounts, advisorCounts);
         
         // Métricas adicionales
-        Map<String, Integer> metricas = generateMetricas(startOfDay, now);
+        Map<String, Integer> metricas = generateMetricas(ticketCounts, advisorCounts);
         
         return new DashboardResponse(
             now,
-            30, // Intervalo de actualización en segundos
+            updateIntervalSeconds, // Intervalo de actualización en segundos
             determineEstadoGeneral(alertas),
             resumenEjecutivo,
             estadoColas,
@@ -90,24 +102,19 @@ public class DashboardService {
      * Genera resumen ejecutivo con métricas clave del día.
      * Calcula tickets activos, completados, tiempo promedio y tasa de completación.
      * 
+     * @param ticketCounts Conteos de tickets por estado y cola
      * @param startOfDay Inicio del día para cálculos
      * @param now Momento actual
      * @return ResumenEjecutivo con métricas calculadas
      */
-    private DashboardResponse.ResumenEjecutivo generateResumenEjecutivo(LocalDateTime startOfDay, LocalDateTime now) {
+    private DashboardResponse.ResumenEjecutivo generateResumenEjecutivo(TicketCountMatrix ticketCounts,
+                                                                        LocalDateTime startOfDay, LocalDateTime now) {
         // Tickets activos (en espera + llamados + en progreso)
         List<TicketStatus> activeStatuses = List.of(TicketStatus.WAITING, TicketStatus.CALLED, TicketStatus.IN_SERVICE);
-        int ticketsActivos = activeStatuses.stream()
-            .mapToInt(status -> (int) ticketRepository.countByStatusAndQueueType(status, QueueType.CAJA) +
-                               (int) ticketRepository.countByStatusAndQueueType(status, QueueType.PERSONAL_BANKER) +
-                               (int) ticketRepository.countByStatusAndQueueType(status, QueueType.EMPRESAS) +
-                               (int) ticketRepository.countByStatusAndQueueType(status, QueueType.GERENCIA))
-            .sum();
+        int ticketsActivos = (int) ticketCounts.countByStatuses(activeStatuses);
         
         // Tickets completados hoy
-        int ticketsCompletadosHoy = (int) Arrays.stream(QueueType.values())
-            .mapToLong(queueType -> ticketRepository.countByStatusAndQueueType(TicketStatus.COMPLETED, queueType))
-            .sum();
+        int ticketsCompletadosHoy = (int) ticketCounts.countByStatus(TicketStatus.COMPLETED);
         
         // Tiempo promedio global (simulado)
         double tiempoPromedioGlobal = calculateAverageServiceTime();
@@ -124,11 +131,11 @@ public class DashboardService {
         );
     }
     
-    private Map<String, DashboardResponse.EstadoCola> generateEstadoColas() {
+    private Map<String, DashboardResponse.EstadoCola> generateEstadoColas(TicketCountMatrix ticketCounts) {
         Map<String, DashboardResponse.EstadoCola> estadoColas = new HashMap<>();
         
         for (QueueType queueType : QueueType.values()) {
-            int ticketsEnEspera = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, queueType);
+            int ticketsEnEspera = (int) ticketCounts.count(TicketStatus.WAITING, queueType);
             int tiempoEstimadoMaximo = ticketsEnEspera * queueType.getAvgTimeMinutes();
             String estado = determineQueueState(ticketsEnEspera, queueType);
             
@@ -142,23 +149,10 @@ public class DashboardService {
         return estadoColas;
     }
     
-    private DashboardResponse.EstadoEjecutivos generateEstadoEjecutivos() {
-        List<Object[]> statusCounts = advisorRepository.countAdvisorsByStatus();
-        
-        int disponibles = 0;
-        int ocupados = 0;
-        int offline = 0;
-        
-        for (Object[] row : statusCounts) {
-            AdvisorStatus status = (AdvisorStatus) row[0];
-            Long count = (Long) row[1];
-            
-            switch (status) {
-                case AVAILABLE -> disponibles = count.intValue();
-                case BUSY -> ocupados = count.intValue();
-                case OFFLINE -> offline = count.intValue();
-            }
-        }
+    private DashboardResponse.EstadoEjecutivos generateEstadoEjecutivos(Map<AdvisorStatus, Integer> advisorCounts) {
+        int disponibles = advisorCounts.get(AdvisorStatus.AVAILABLE);
+        int ocupados = advisorCounts.get(AdvisorStatus.BUSY);
+        int offline = advisorCounts.get(AdvisorStatus.OFFLINE);
         
         // Asesor más productivo
         DashboardResponse.EjecutivoProductivo masProductivo = getMostProductiveAdvisor();
@@ -179,15 +173,18 @@ public class DashboardService {
      * Genera alertas automáticas basadas en umbrales del sistema.
      * Detecta saturación de colas y falta de asesores disponibles.
      * 
+     * @param ticketCounts Conteos de tickets por estado y cola
+     * @param advisorCounts Conteos de asesores por estado
      * @return Lista de alertas activas con prioridad y recomendaciones
      */
-    private List<DashboardResponse.Alerta> generateAlertas() {
+    private List<DashboardResponse.Alerta> generateAlertas(TicketCountMatrix ticketCounts,
+                                                           Map<AdvisorStatus, Integer> advisorCounts) {
         List<DashboardResponse.Alerta> alertas = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
         
         // Alerta por colas saturadas
         for (QueueType queueType : QueueType.values()) {
-            int ticketsEnEspera = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, queueType);
+            int ticketsEnEspera = (int) ticketCounts.count(TicketStatus.WAITING, queueType);
             if (ticketsEnEspera > 10) { // Umbral de saturación
                 alertas.add(new DashboardResponse.Alerta(
                     "QUEUE_OVERFLOW_" + queueType.name(),
@@ -201,7 +198,7 @@ public class DashboardService {
         }
         
         // Alerta por falta de asesores disponibles
-        int disponibles = advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE).size();
+        int disponibles = advisorCounts.get(AdvisorStatus.AVAILABLE);
         if (disponibles == 0) {
             alertas.add(new DashboardResponse.Alerta(
                 "NO_ADVISORS_AVAILABLE",
@@ -216,18 +213,19 @@ public class DashboardService {
         return alertas;
     }
     
-    private Map<String, Integer> generateMetricas(LocalDateTime startOfDay, LocalDateTime now) {
+    private Map<String, Integer> generateMetricas(TicketCountMatrix ticketCounts,
+                                                  Map<AdvisorStatus, Integer> advisorCounts) {
         Map<String, Integer> metricas = new HashMap<>();
         
         // Métricas por cola
         for (QueueType queueType : QueueType.values()) {
             String key = "tickets_" + queueType.name().toLowerCase();
-            int count = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.COMPLETED, queueType);
+            int count = (int) ticketCounts.count(TicketStatus.COMPLETED, queueType);
             metricas.put(key, count);
         }
         
         // Métricas generales
-        metricas.put("total_asesores", (int) advisorRepository.count());
+        metricas.put("total_asesores", advisorCounts.values().stream().mapToInt(Integer::intValue).sum());
         metricas.put("tiempo_promedio_atencion", (int) calculateAverageServiceTime());
         
         return metricas;
@@ -0,0 +1,112 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.DashboardResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Snapshot materializado del dashboard ejecutivo, regenerado una vez por intervalo.
+ *
+ * Implementa: RF-007 (Dashboard ejecutivo)
+ *
+ * Funcionamiento:
+ * - Un hilo del scheduler reconstruye el DashboardResponse cada
+ *   dashboard.refresh-interval-seconds (30s por defecto)
+ * - Todos los lectores reciben la misma instancia inmutable vía AtomicReference,
+ *   sin locks ni consultas a la base de datos
+ * - Cada lectura puede conocer la antigüedad del snapshot que recibió
+ * - Si una regeneración falla se mantiene el snapshot anterior
+ *
+ * Con N monitores de sucursal consultando el dashboard, la carga sobre la base de
+ * datos pasa de N snapshots por intervalo a uno solo.
+ *
+ * Dependencias: DashboardService
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class DashboardSnapshotCache {
+
+    private final DashboardService dashboardService;
+    private final Clock clock;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @Autowired
+    public DashboardSnapshotCache(DashboardService dashboardService) {
+        this(dashboardService, Clock.systemDefaultZone());
+    }
+
+    DashboardSnapshotCache(DashboardService dashboardService, Clock clock) {
+        this.dashboardService = dashboardService;
+        this.clock = clock;
+    }
+
+    /**
+     * RF-007: Regenera el snapshot del dashboard en segundo plano.
+     * Se ejecuta al iniciar y luego una vez por intervalo configurado.
+     */
+    @Scheduled(fixedRateString = "${dashboard.refresh-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        try {
+            long start = System.nanoTime();
+            Snapshot snapshot = new Snapshot(dashboardService.getDashboardData(), clock.instant());
+            current.set(snapshot);
+            log.debug("Snapshot del dashboard regenerado en {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Error regenerando snapshot del dashboard, se mantiene el anterior: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot vigente del dashboard (lectura sin locks).
+     * Solo la primera lectura antes de la regeneración inicial construye el snapshot
+     * de forma síncrona.
+     *
+     * @return Snapshot actual con su momento de generación
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : loadInitial();
+    }
+
+    /**
+     * Antigüedad de un snapshot en segundos respecto del momento actual.
+     *
+     * @param snapshot Snapshot obtenido con get()
+     * @return Segundos transcurridos desde su generación
+     */
+    public long ageSeconds(Snapshot snapshot) {
+        return Duration.between(snapshot.generatedAt(), clock.instant()).toSeconds();
+    }
+
+    private synchronized Snapshot loadInitial() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = new Snapshot(dashboardService.getDashboardData(), clock.instant());
+            current.compareAndSet(null, snapshot);
+        }
+        return current.get();
+    }
+
+    /**
+     * Snapshot inmutable del dashboard.
+     *
+     * @param dashboard Datos completos del dashboard
+     * @param generatedAt Momento de generación
+     */
+    public record Snapshot(DashboardResponse dashboard, Instant generatedAt) {}
+}
@@ -0,0 +1,147 @@
+package com.example.ticketero.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de tiempo jerárquica para vencimientos diferidos en memoria.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Cada nivel tiene wheelSize casillas de tickMillis; un vencimiento más allá del
+ * horizonte del nivel (tickMillis * wheelSize) pasa a un nivel superior creado
+ * bajo demanda, cuyo tick es ese horizonte. Al completar una vuelta, el nivel
+ * superior baja al inferior la casilla que empieza, hasta que sus elementos caen
+ * en una casilla del primer nivel.
+ *
+ * - agregar: O(1), sin ordenar ni comparar con otros vencimientos
+ * - avanzar: O(1) por tick más los elementos vencidos o bajados de nivel
+ * - Nunca entrega un elemento antes de su vencimiento, y a lo sumo un tick después
+ *
+ * No es thread-safe: MensajeTimingWheel serializa el acceso.
+ *
+ * @param <T> Tipo de los elementos programados
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final List<ArrayDeque<Entrada<T>>> casillas;
+    private long currentTime;
+    private HierarchicalTimingWheel<T> overflow;
+    private int size;
+
+    /**
+     * @param tickMillis Resolución de la rueda en milisegundos
+     * @param wheelSize Casillas por nivel
+     * @param startMillis Instante inicial (epoch millis)
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis debe ser mayor a 0: " + tickMillis);
+        }
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize debe ser mayor a 1: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = tickMillis * wheelSize;
+        this.casillas = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            casillas.add(new ArrayDeque<>());
+        }
+        this.currentTime = startMillis - startMillis % tickMillis;
+    }
+
+    /**
+     * Programa un elemento para su vencimiento.
+     *
+     * @param elemento Elemento a entregar al vencer
+     * @param vencimientoMillis Vencimiento (epoch millis)
+     * @return false si ya venció: el llamador debe procesarlo de inmediato
+     */
+    public boolean agregar(T elemento, long vencimientoMillis) {
+        if (vencimientoMillis < currentTime) {
+            return false;
+        }
+        colocar(new Entrada<>(elemento, vencimientoMillis));
+        size++;
+        return true;
+    }
+
+    /**
+     * Avanza la rueda hasta ahoraMillis y entrega los elementos vencidos, en orden
+     * de casilla.
+     *
+     * @param ahoraMillis Instante actual (epoch millis)
+     * @param vencidos Receptor de los elementos vencidos
+     */
+    public void avanzar(long ahoraMillis, Consumer<T> vencidos) {
+        while (currentTime + tickMillis <= ahoraMillis) {
+            if (size == 0) {
+                // Rueda vacía: salta directo al tick actual sin recorrer casillas
+                currentTime = ahoraMillis - ahoraMillis % tickMillis;
+                overflow = null;
+                return;
+            }
+            ArrayDeque<Entrada<T>> casilla = casillas.get(casilla(currentTime));
+            Entrada<T> entrada;
+            while ((entrada = casilla.poll()) != null) {
+                size--;
+                vencidos.accept(entrada.elemento());
+            }
+            currentTime += tickMillis;
+            if (overflow != null && currentTime % intervalMillis == 0) {
+                overflow.alcanzar(currentTime, this::colocar);
+            }
+        }
+    }
+
+    /**
+     * @return Elementos programados pendientes de vencer
+     */
+    public int size() {
+        return size;
+    }
+
+    private void colocar(Entrada<T> entrada) {
+        if (entrada.vencimientoMillis() < currentTime + intervalMillis) {
+            casillas.get(casilla(entrada.vencimientoMillis())).add(entrada);
+            return;
+        }
+        if (overflow == null) {
+            overflow = new HierarchicalTimingWheel<>(intervalMillis, wheelSize, currentTime);
+        }
+        overflow.colocar(entrada);
+    }
+
+    /**
+     * Nivel superior: el inferior completó una vuelta en tiempo (múltiplo de este tick).
+     * Baja primero lo que corresponda desde el nivel siguiente y luego entrega al
+     * inferior la casilla que empieza en tiempo.
+     */
+    private void alcanzar(long tiempo, Consumer<Entrada<T>> inferior) {
+        currentTime = tiempo;
+        if (overflow != null && tiempo % intervalMillis == 0) {
+            overflow.alcanzar(tiempo, this::colocar);
+        }
+        ArrayDeque<Entrada<T>> casilla = casillas.get(casilla(tiempo));
+        Entrada<T> entrada;
+        while ((entrada = casilla.poll()) != null) {
+            inferior.accept(entrada);
+        }
+    }
+
+    private int casilla(long millis) {
+        return (int) ((millis / tickMillis) % wheelSize);
+    }
+
+    private record Entrada<T>(T elemento, long vencimientoMillis) {}
+}
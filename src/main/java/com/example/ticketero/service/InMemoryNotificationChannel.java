@@ -0,0 +1,84 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal en memoria de NotificationPipeline (notification.channel=memory).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Guarda las entregas en memoria sin salir del proceso. Pensado para tests de
+ * integración y para medir el throughput del pipeline sin depender de Telegram.
+ * Idempotente por claveEnvio: repetir una clave devuelve el ID ya asignado sin
+ * volver a entregar, y confirmarEntrega la reconoce.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "notification.channel", havingValue = "memory")
+public class InMemoryNotificationChannel implements NotificationChannel {
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Queue<Entrega> entregas = new ConcurrentLinkedQueue<>();
+    private final Map<String, String> porClave = new ConcurrentHashMap<>();
+
+    @Override
+    public String nombre() {
+        return "memory";
+    }
+
+    @Override
+    public String destino(Mensaje mensaje) {
+        return mensaje.getTelefono();
+    }
+
+    @Override
+    public String enviar(String destino, String contenido, String claveEnvio) {
+        return porClave.computeIfAbsent(claveEnvio, clave -> {
+            String messageId = "MEM-" + secuencia.incrementAndGet();
+            entregas.add(new Entrega(messageId, destino, contenido));
+            return messageId;
+        });
+    }
+
+    @Override
+    public Optional<String> confirmarEntrega(String claveEnvio) {
+        return Optional.ofNullable(porClave.get(claveEnvio));
+    }
+
+    /**
+     * @return Entregas realizadas, en orden de envío
+     */
+    public List<Entrega> entregas() {
+        return List.copyOf(entregas);
+    }
+
+    /**
+     * Descarta las entregas registradas.
+     */
+    public void limpiar() {
+        entregas.clear();
+        porClave.clear();
+    }
+
+    /**
+     * Mensaje entregado al canal en memoria.
+     *
+     * @param messageId ID asignado por el canal
+     * @param destino Destinatario
+     * @param contenido Texto renderizado
+     */
+    public record Entrega(String messageId, String destino, String contenido) {}
+}
@@ -0,0 +1,72 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal local de NotificationPipeline (notification.channel=log).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Escribe cada mensaje en el log de la aplicación y, si notification.log.file
+ * está definido, agrega una línea por mensaje a ese archivo. Permite probar el
+ * flujo completo en ambientes sin acceso a Telegram.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "notification.channel", havingValue = "log")
+@Slf4j
+public class LogNotificationChannel implements NotificationChannel {
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Path archivo;
+
+    public LogNotificationChannel(@Value("${notification.log.file:}") String archivo) {
+        this.archivo = archivo.isBlank() ? null : Path.of(archivo);
+    }
+
+    @Override
+    public String nombre() {
+        return "log";
+    }
+
+    @Override
+    public String destino(Mensaje mensaje) {
+        return mensaje.getTelefono();
+    }
+
+    @Override
+    public String enviar(String destino, String contenido, String claveEnvio) {
+        String messageId = "LOG-" + secuencia.incrementAndGet();
+        log.info("Notificación {} ({}) para {}: {}", messageId, claveEnvio, destino, contenido.replace('\n', ' '));
+        if (archivo != null) {
+            escribir(LocalDateTime.now() + "\t" + messageId + "\t" + claveEnvio + "\t" + destino + "\t"
+                + contenido.replace('\n', ' ') + System.lineSeparator());
+        }
+        return messageId;
+    }
+
+    private synchronized void escribir(String linea) {
+        try {
+            Files.writeString(archivo, linea, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + archivo, e);
+        }
+    }
+}
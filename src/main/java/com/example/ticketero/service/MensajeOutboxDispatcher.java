@@ -0,0 +1,217 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
+import com.example.ticketero.repository.MensajeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Despachador de la tabla mensaje como outbox transaccional.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ * Reglas de Negocio: RN-007 (Máximo 3 reintentos), RN-008 (Backoff exponencial)
+ *
+ * Por cada bloque de telegram.dispatch.chunk-size mensajes:
+ * 1. Transacción corta: reclama el bloque con FOR UPDATE SKIP LOCKED, corre su
+ *    fechaProgramada lease-seconds hacia adelante (ninguna otra instancia lo toma
+ *    mientras se envía) y carga los tickets para renderizar fuera de la transacción
+ * 2. NotificationPipeline: coalesce, render, dedupe, rate-limit, reserve, send y
+ *    record del bloque
+ *
+ * Si la instancia cae antes de que el pipeline registre el resultado, los mensajes
+ * aún PENDIENTE vuelven a estar listos al vencer el lease; los que ya estaban
+ * ENVIANDO los cierra MensajeReconciler sin reenviarlos (a lo sumo una entrega).
+ *
+ * Despacho inmediato: tras el commit de la transacción que programa un mensaje,
+ * su ID entra en una cola en memoria (telegram.dispatch.immediate-queue-capacity)
+ * que un hilo dedicado drena por bloques con los mismos pasos, reclamando
+ * solo esos IDs. Los mensajes con fechaProgramada futura (proximidad, reintentos)
+ * esperan en MensajeTimingWheel y entran a la misma cola al vencer.
+ * MensajeScheduler (despacharPendientes) queda como red de seguridad: recoge lo
+ * que la cola pierda por caída o desborde.
+ *
+ * Dependencias: MensajeRepository, NotificationPipeline, MensajeTimingWheel,
+ * PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class MensajeOutboxDispatcher {
+
+    private final MensajeRepository mensajeRepository;
+    private final NotificationPipeline notificationPipeline;
+    private final MensajeTimingWheel timingWheel;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService drenador;
+    private final BlockingQueue<Long> inmediatos;
+    private final AtomicBoolean drenando = new AtomicBoolean();
+    private final int chunkSize;
+    private final long leaseSeconds;
+
+    @Autowired
+    public MensajeOutboxDispatcher(MensajeRepository mensajeRepository,
+                                   NotificationPipeline notificationPipeline,
+                                   MensajeTimingWheel timingWheel,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${telegram.dispatch.chunk-size:50}") int chunkSize,
+                                   @Value("${telegram.dispatch.lease-seconds:120}") long leaseSeconds,
+                                   @Value("${telegram.dispatch.immediate-queue-capacity:10000}") int immediateQueueCapacity) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("telegram.dispatch.chunk-size debe ser mayor a 0: " + chunkSize);
+        }
+        this.mensajeRepository = mensajeRepository;
+        this.notificationPipeline = notificationPipeline;
+        this.timingWheel = timingWheel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.drenador = Executors.newSingleThreadExecutor(daemonThreadFactory("telegram-dispatch-"));
+        this.inmediatos = new LinkedBlockingQueue<>(immediateQueueCapacity);
+        this.chunkSize = chunkSize;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * RF-002: Envía todos los mensajes listos, bloque por bloque, hasta vaciar la outbox.
+     *
+     * @return Cantidad de mensajes procesados (enviados o reprogramados)
+     */
+    public int despacharPendientes() {
+        int procesados = 0;
+        List<Mensaje> bloque;
+        do {
+            bloque = reclamarBloque();
+            if (bloque.isEmpty()) {
+                break;
+            }
+            despacharBloque(bloque);
+            procesados += bloque.size();
+        } while (bloque.size() == chunkSize);
+
+        if (procesados > 0) {
+            log.info("Outbox despachada: {} mensajes procesados", procesados);
+        } else {
+            log.debug("No hay mensajes pendientes");
+        }
+        return procesados;
+    }
+
+    /**
+     * RF-002: Encola para despacho inmediato el mensaje programado, una vez
+     * confirmada la transacción que lo creó. Si aún no es su hora, lo deja en
+     * MensajeTimingWheel, que vuelve a publicarlo al vencer.
+     *
+     * @param event Evento con el ID del mensaje programado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMensajeProgramado(MensajeProgramadoEvent event) {
+        if (event.mensajeId() == null) {
+            return;
+        }
+        if (event.fechaProgramada() != null && event.fechaProgramada().isAfter(LocalDateTime.now())) {
+            timingWheel.programar(event.mensajeId(), event.fechaProgramada());
+            return;
+        }
+        if (!inmediatos.offer(event.mensajeId())) {
+            log.debug("Cola de despacho inmediato llena; mensaje {} queda para el scheduler", event.mensajeId());
+            return;
+        }
+        programarDrenado();
+    }
+
+    private void programarDrenado() {
+        if (drenando.compareAndSet(false, true)) {
+            try {
+                drenador.execute(this::drenarInmediatos);
+            } catch (RejectedExecutionException e) {
+                // Apagado en curso: el scheduler recoge los pendientes al reiniciar
+                drenando.set(false);
+            }
+        }
+    }
+
+    private void drenarInmediatos() {
+        try {
+            List<Long> ids = new ArrayList<>(chunkSize);
+            while (inmediatos.drainTo(ids, chunkSize) > 0) {
+                despacharInmediatos(ids);
+                ids = new ArrayList<>(chunkSize);
+            }
+        } finally {
+            drenando.set(false);
+        }
+        // Un ID encolado entre el último drainTo y el reset de la bandera no queda huérfano
+        if (!inmediatos.isEmpty()) {
+            programarDrenado();
+        }
+    }
+
+    private void despacharInmediatos(List<Long> ids) {
+        try {
+            despacharBloque(reclamar(ahora -> mensajeRepository.claimPendientesByIds(ids, ahora)));
+        } catch (RuntimeException e) {
+            log.warn("Fallo en despacho inmediato de {} mensajes; quedan para el scheduler: {}",
+                ids.size(), e.getMessage());
+        }
+    }
+
+    private void despacharBloque(List<Mensaje> bloque) {
+        if (!bloque.isEmpty()) {
+            notificationPipeline.procesar(bloque);
+        }
+    }
+
+    private List<Mensaje> reclamarBloque() {
+        return reclamar(ahora -> mensajeRepository.claimPendientes(ahora, PageRequest.of(0, chunkSize)));
+    }
+
+    private List<Mensaje> reclamar(Function<LocalDateTime, List<Mensaje>> consulta) {
+        List<Mensaje> bloque = transactionTemplate.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Mensaje> reclamados = consulta.apply(ahora);
+            if (reclamados.isEmpty()) {
+                return List.<Mensaje>of();
+            }
+            reclamados.forEach(mensaje -> mensaje.setFechaProgramada(ahora.plusSeconds(leaseSeconds)));
+            mensajeRepository.findWithTicketByIdIn(reclamados.stream().map(Mensaje::getId).toList());
+            return reclamados;
+        });
+        return bloque == null ? List.of() : bloque;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        drenador.shutdown();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
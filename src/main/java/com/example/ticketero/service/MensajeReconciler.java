@@ -0,0 +1,123 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.repository.MensajeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reconciliación de mensajes que quedaron ENVIANDO sin resultado registrado.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Un mensaje queda ENVIANDO si la instancia cayó entre la entrega al canal y la
+ * etapa record de NotificationPipeline, o si el canal informó un resultado
+ * incierto (EnvioInciertoException). Al vencer su lease (fechaProgramada):
+ * - Si el canal confirma la entrega por claveEnvio: ENVIADO
+ * - Si no puede confirmarla: FALLIDO, sin reenviar (nunca un duplicado)
+ *
+ * Se ejecuta al arrancar la aplicación y en cada ciclo de MensajeScheduler, por
+ * bloques de telegram.dispatch.chunk-size con FOR UPDATE SKIP LOCKED. Registra el
+ * contador notification.reconcile (tag outcome: confirmed, failed).
+ *
+ * Dependencias: MensajeRepository, NotificationChannel, PlatformTransactionManager,
+ * MeterRegistry
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class MensajeReconciler {
+
+    private final MensajeRepository mensajeRepository;
+    private final NotificationChannel channel;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter confirmados;
+    private final Counter fallidos;
+    private final int chunkSize;
+
+    @Autowired
+    public MensajeReconciler(MensajeRepository mensajeRepository,
+                             NotificationChannel channel,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${telegram.dispatch.chunk-size:50}") int chunkSize) {
+        this.mensajeRepository = mensajeRepository;
+        this.channel = channel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.confirmados = contador(meterRegistry, "confirmed");
+        this.fallidos = contador(meterRegistry, "failed");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reconcilia al arrancar: recoge lo que dejó en curso una instancia caída.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        int reconciliados = reconciliar();
+        if (reconciliados > 0) {
+            log.info("Reconciliación al iniciar: {} mensajes en curso resueltos", reconciliados);
+        }
+    }
+
+    /**
+     * RF-002: Resuelve los mensajes ENVIANDO con lease vencido.
+     *
+     * @return Cantidad de mensajes reconciliados
+     */
+    public int reconciliar() {
+        int reconciliados = 0;
+        int procesados;
+        do {
+            Integer bloque = transactionTemplate.execute(status -> {
+                List<Mensaje> vencidos = mensajeRepository.claimEnviandoVencidos(
+                    LocalDateTime.now(), PageRequest.of(0, chunkSize));
+                vencidos.forEach(this::resolver);
+                return vencidos.size();
+            });
+            procesados = bloque == null ? 0 : bloque;
+            reconciliados += procesados;
+        } while (procesados == chunkSize);
+        return reconciliados;
+    }
+
+    private void resolver(Mensaje mensaje) {
+        Optional<String> messageId = channel.confirmarEntrega(mensaje.getClaveEnvio());
+        if (messageId.isPresent()) {
+            mensaje.setEstadoEnvio(EstadoEnvio.ENVIADO);
+            mensaje.setFechaEnvio(LocalDateTime.now());
+            mensaje.setTelegramMessageId(messageId.get());
+            confirmados.increment();
+            log.info("Mensaje {} reconciliado como ENVIADO ({})", mensaje.getId(), messageId.get());
+        } else {
+            mensaje.setEstadoEnvio(EstadoEnvio.FALLIDO);
+            fallidos.increment();
+            log.error("Mensaje {} (clave {}) con entrega no confirmable: FALLIDO sin reenviar",
+                mensaje.getId(), mensaje.getClaveEnvio());
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notification.reconcile")
+            .description("Mensajes en curso resueltos por reconciliación")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import org.springframework.stereotype.Component;
+
+/**
+ * Etapa render de NotificationPipeline: genera el texto del mensaje.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Contenido personalizado según plantilla y datos del ticket, en formato
+ * Markdown de Telegram. Plantillas: TOTEM_TICKET_CREADO, TOTEM_PROXIMO_TURNO,
+ * TOTEM_ES_TU_TURNO.
+ *
+ * Cada MessageTemplate trae su CompiledTemplate (literales ya escapados + campos
+ * tipados); el render escribe en un StringBuilder reutilizado por hilo de envío,
+ * sin String.format.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class MensajeRenderer {
+
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    private final ThreadLocal<StringBuilder> buffer =
+        ThreadLocal.withInitial(() -> new StringBuilder(CAPACIDAD_INICIAL));
+
+    /**
+     * Genera contenido personalizado del mensaje según plantilla y datos del ticket.
+     *
+     * @param mensaje Mensaje con plantilla y ticket asociado (ticket ya cargado)
+     * @return Contenido formateado del mensaje
+     */
+    public String render(Mensaje mensaje) {
+        Ticket ticket = mensaje.getTicket();
+        StringBuilder sb = buffer.get();
+        sb.setLength(0);
+        mensaje.getPlantilla().getContenido().renderInto(ticket, sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
+import com.example.ticketero.repository.MensajeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizador en memoria de los mensajes con fechaProgramada futura.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ * Reglas de Negocio: RN-008 (Backoff exponencial), RN-012 (Notificación de proximidad)
+ *
+ * Los mensajes diferidos (proximidad a +5 min, reintentos con backoff, reprogramados
+ * por límite de tasa) se cuelgan de una HierarchicalTimingWheel y, al vencer, se
+ * publican como MensajeProgramadoEvent para que MensajeOutboxDispatcher los despache
+ * en su hora exacta (resolución notification.timing-wheel.tick-millis), sin esperar
+ * el ciclo de MensajeScheduler ni consultar la tabla.
+ *
+ * Durable: la tabla mensaje sigue siendo la fuente de verdad. Al arrancar la rueda
+ * se reconstruye con los PENDIENTE de fechaProgramada futura, y MensajeScheduler
+ * recoge lo que programó otra instancia caída. Un vencimiento repetido o de un
+ * mensaje que ya cambió de estado no envía nada: el reclamo por ID lo descarta.
+ *
+ * Dependencias: MensajeRepository, ApplicationEventPublisher
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class MensajeTimingWheel {
+
+    private final MensajeRepository mensajeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HierarchicalTimingWheel<Long> rueda;
+    private final ScheduledExecutorService reloj;
+
+    @Autowired
+    public MensajeTimingWheel(MensajeRepository mensajeRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${notification.timing-wheel.tick-millis:10}") long tickMillis,
+                              @Value("${notification.timing-wheel.wheel-size:512}") int wheelSize) {
+        this.mensajeRepository = mensajeRepository;
+        this.eventPublisher = eventPublisher;
+        this.rueda = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        this.reloj = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mensaje-timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reloj.scheduleAtFixedRate(this::avanzar, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reconstruye la rueda desde la tabla mensaje al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<Object[]> programados = mensajeRepository.findProgramadosPendientesDespuesDe(LocalDateTime.now());
+        for (Object[] fila : programados) {
+            programar((Long) fila[0], (LocalDateTime) fila[1]);
+        }
+        if (!programados.isEmpty()) {
+            log.info("Temporizador de mensajes reconstruido: {} mensajes diferidos", programados.size());
+        }
+    }
+
+    /**
+     * RF-002: Programa el despacho del mensaje para su fechaProgramada. Si ya venció,
+     * lo publica de inmediato.
+     *
+     * @param mensajeId ID del mensaje PENDIENTE
+     * @param fechaProgramada Momento a partir del cual puede enviarse
+     */
+    public void programar(Long mensajeId, LocalDateTime fechaProgramada) {
+        boolean diferido;
+        synchronized (rueda) {
+            diferido = rueda.agregar(mensajeId, aMillis(fechaProgramada));
+        }
+        if (!diferido) {
+            publicar(mensajeId);
+        }
+    }
+
+    /**
+     * @return Mensajes diferidos a la espera de su vencimiento
+     */
+    public int size() {
+        synchronized (rueda) {
+            return rueda.size();
+        }
+    }
+
+    void avanzar() {
+        List<Long> vencidos = new ArrayList<>();
+        synchronized (rueda) {
+            rueda.avanzar(System.currentTimeMillis(), vencidos::add);
+        }
+        vencidos.forEach(this::publicar);
+    }
+
+    private void publicar(Long mensajeId) {
+        try {
+            eventPublisher.publishEvent(new MensajeProgramadoEvent(mensajeId, null));
+        } catch (RuntimeException e) {
+            // Un fallo no debe detener el reloj: el scheduler recoge el mensaje
+            log.warn("No se pudo despachar el mensaje diferido {}: {}", mensajeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Epoch millis redondeado hacia arriba: el reclamo exige fechaProgramada <= ahora.
+     */
+    private static long aMillis(LocalDateTime fecha) {
+        ZonedDateTime zoned = fecha.atZone(ZoneId.systemDefault());
+        long millis = zoned.toInstant().toEpochMilli();
+        return zoned.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloj.shutdownNow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+
+import java.util.Optional;
+
+/**
+ * Canal de salida de NotificationPipeline (etapa send).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Implementaciones, seleccionadas con notification.channel:
+ * - telegram (por defecto): TelegramNotificationChannel, Telegram Bot API
+ * - log: LogNotificationChannel, log de la aplicación y archivo local opcional
+ * - memory: InMemoryNotificationChannel, para tests y pruebas de carga
+ *
+ * Las implementaciones deben ser thread-safe: el pipeline envía en paralelo.
+ *
+ * Idempotencia: cada envío lleva la claveEnvio del mensaje, igual en todos sus
+ * reintentos. Un canal que pueda deduplicar por clave no debe entregar dos veces
+ * la misma; si además puede consultar entregas pasadas, confirmarEntrega permite a
+ * MensajeReconciler cerrar los mensajes que quedaron ENVIANDO tras una caída.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+public interface NotificationChannel {
+
+    /**
+     * Nombre del canal, usado como tag de las métricas del pipeline.
+     *
+     * @return Nombre corto del canal
+     */
+    String nombre();
+
+    /**
+     * Destino del mensaje en el canal; TelegramRateLimiter limita la tasa por este valor.
+     *
+     * @param mensaje Mensaje a enviar
+     * @return Identificador del destinatario (chat_id en Telegram)
+     */
+    String destino(Mensaje mensaje);
+
+    /**
+     * Envía el contenido ya renderizado.
+     *
+     * @param destino Destinatario devuelto por destino(Mensaje)
+     * @param contenido Texto del mensaje
+     * @param claveEnvio Clave única del mensaje, la misma en cada reintento
+     * @return ID del mensaje asignado por el canal
+     * @throws com.example.ticketero.exception.TelegramRateLimitException si el canal limita la tasa
+     * @throws com.example.ticketero.exception.EnvioInciertoException si no se sabe si el
+     *         destino recibió el mensaje (no se reintenta)
+     * @throws RuntimeException si el canal rechazó el envío (se reintenta, RN-007)
+     */
+    String enviar(String destino, String contenido, String claveEnvio);
+
+    /**
+     * Consulta si una clave de envío ya fue entregada.
+     * Por defecto el canal no lo sabe y devuelve vacío.
+     *
+     * @param claveEnvio Clave del mensaje
+     * @return ID del mensaje en el canal si consta su entrega
+     */
+    default Optional<String> confirmarEntrega(String claveEnvio) {
+        return Optional.empty();
+    }
+}
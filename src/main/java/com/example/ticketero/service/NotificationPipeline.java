@@ -0,0 +1,483 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.exception.EnvioInciertoException;
+import com.example.ticketero.exception.TelegramRateLimitException;
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.repository.MensajeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline único de envío de notificaciones sobre un bloque de mensajes reclamados.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ * Reglas de Negocio: RN-007 (Máximo 3 reintentos), RN-008 (Backoff exponencial)
+ *
+ * Etapas, en orden:
+ * 1. coalesce: descarta (DESCARTADO) los mensajes que un mensaje de etapa posterior
+ *    del mismo ticket (MessageTemplate.getEtapa), en el bloque o ya enviado, dejó
+ *    obsoletos; solo sale el más reciente relevante
+ * 2. render: texto de cada mensaje (MensajeRenderer)
+ * 3. dedupe: descarta (DESCARTADO) los mensajes cuyo ticket ya recibió esa plantilla,
+ *    en el bloque o en un envío anterior
+ * 4. rate-limit: reserva un token en TelegramRateLimiter por destino; los destinos
+ *    se atienden en round-robin y los que esperarían más de
+ *    telegram.rate-limit.max-wait-millis se reprograman sin consumir intentos; su
+ *    latencia es, por mensaje, la espera por su propio token
+ * 5. reserve: por cada ronda del round-robin, una transacción corta marca ENVIANDO
+ *    los mensajes que van a salir (solo si siguen PENDIENTE)
+ * 6. send: envío por el NotificationChannel configurado (notification.channel), en
+ *    paralelo en un pool de telegram.dispatch.concurrency hilos, con la claveEnvio
+ *    del mensaje
+ * 7. record: una transacción corta persiste ENVIADO, DESCARTADO o el reintento;
+ *    tras el commit, los mensajes reprogramados (backoff, límite de tasa) quedan en
+ *    MensajeTimingWheel para salir en su hora exacta
+ *
+ * Sin envíos duplicados: un mensaje solo se entrega al canal tras quedar ENVIANDO
+ * de forma durable, y ningún camino lo vuelve a PENDIENTE salvo un fallo sin
+ * entrega (rechazo del canal, sin conexión, HTTP 429). Si el resultado es incierto
+ * (EnvioInciertoException) o la instancia cae antes de record, queda ENVIANDO y
+ * MensajeReconciler lo cierra al vencer el lease, sin reenviarlo.
+ *
+ * Un HTTP 429 pausa el destino durante el retry_after y reprograma el mensaje sin
+ * consumir un intento. Cada etapa registra su latencia en el timer
+ * notification.pipeline.stage (tags stage y channel).
+ *
+ * Dependencias: MensajeRepository, MensajeRenderer, NotificationChannel,
+ * TelegramRateLimiter, MensajeTimingWheel, PlatformTransactionManager, MeterRegistry
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class NotificationPipeline {
+
+    private static final int MAX_INTENTOS = 4;
+
+    /**
+     * Etapas del pipeline, usadas como tag stage de las métricas.
+     */
+    public enum Etapa { COALESCE, RENDER, DEDUPE, RATE_LIMIT, RESERVE, SEND, RECORD }
+
+    private final MensajeRepository mensajeRepository;
+    private final MensajeRenderer renderer;
+    private final NotificationChannel channel;
+    private final TelegramRateLimiter rateLimiter;
+    private final MensajeTimingWheel timingWheel;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService senders;
+    private final Duration maxWait;
+    private final Map<Etapa, Timer> timers = new EnumMap<>(Etapa.class);
+
+    @Autowired
+    public NotificationPipeline(MensajeRepository mensajeRepository,
+                                MensajeRenderer renderer,
+                                NotificationChannel channel,
+                                TelegramRateLimiter rateLimiter,
+                                MensajeTimingWheel timingWheel,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${telegram.dispatch.concurrency:8}") int concurrency,
+                                @Value("${telegram.rate-limit.max-wait-millis:5000}") long maxWaitMillis) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("telegram.dispatch.concurrency debe ser mayor a 0: " + concurrency);
+        }
+        this.mensajeRepository = mensajeRepository;
+        this.renderer = renderer;
+        this.channel = channel;
+        this.rateLimiter = rateLimiter;
+        this.timingWheel = timingWheel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.senders = Executors.newFixedThreadPool(concurrency, senderThreadFactory());
+        this.maxWait = Duration.ofMillis(maxWaitMillis);
+        for (Etapa etapa : Etapa.values()) {
+            timers.put(etapa, Timer.builder("notification.pipeline.stage")
+                .description("Latencia por etapa del pipeline de notificaciones")
+                .tag("stage", etapa.name().toLowerCase(Locale.ROOT))
+                .tag("channel", channel.nombre())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * RF-002: Procesa un bloque de mensajes ya reclamados por MensajeOutboxDispatcher.
+     * Sin transacción abierta salvo en la etapa record.
+     *
+     * @param bloque Mensajes reclamados, con su ticket ya cargado
+     */
+    public void procesar(List<Mensaje> bloque) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        Map<Long, Set<MessageTemplate>> enviadas = plantillasEnviadas(bloque);
+        List<Mensaje> vigentes = coalescer(bloque, enviadas);
+        inicio = registrar(Etapa.COALESCE, inicio);
+
+        Map<Mensaje, String> contenidos = renderizar(vigentes);
+        inicio = registrar(Etapa.RENDER, inicio);
+
+        List<Mensaje> aEnviar = descartarDuplicados(vigentes, contenidos, enviadas);
+        registrar(Etapa.DEDUPE, inicio);
+
+        Set<Mensaje> ajenos = enviar(aEnviar, contenidos);
+
+        inicio = System.nanoTime();
+        List<Mensaje> propios = ajenos.isEmpty()
+            ? bloque
+            : bloque.stream().filter(mensaje -> !ajenos.contains(mensaje)).toList();
+        confirmar(propios);
+        registrar(Etapa.RECORD, inicio);
+        diferirEnTemporizador(propios);
+    }
+
+    private Map<Long, Set<MessageTemplate>> plantillasEnviadas(List<Mensaje> bloque) {
+        List<Long> ticketIds = bloque.stream()
+            .map(mensaje -> mensaje.getTicket().getId())
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        Map<Long, Set<MessageTemplate>> enviadas = new HashMap<>();
+        if (!ticketIds.isEmpty()) {
+            for (Object[] fila : mensajeRepository.findPlantillasEnviadasByTicketIdIn(ticketIds)) {
+                enviadas.computeIfAbsent((Long) fila[0], id -> EnumSet.noneOf(MessageTemplate.class))
+                    .add((MessageTemplate) fila[1]);
+            }
+        }
+        return enviadas;
+    }
+
+    private List<Mensaje> coalescer(List<Mensaje> bloque, Map<Long, Set<MessageTemplate>> enviadas) {
+        // Etapa más reciente conocida por ticket: la del bloque o la de un envío anterior
+        Map<Long, Integer> ultimaEtapa = new HashMap<>();
+        enviadas.forEach((ticketId, plantillas) -> plantillas.forEach(
+            plantilla -> ultimaEtapa.merge(ticketId, plantilla.getEtapa(), Math::max)));
+        for (Mensaje mensaje : bloque) {
+            Long ticketId = mensaje.getTicket().getId();
+            if (ticketId != null && mensaje.getPlantilla() != null) {
+                ultimaEtapa.merge(ticketId, mensaje.getPlantilla().getEtapa(), Math::max);
+            }
+        }
+
+        List<Mensaje> vigentes = new ArrayList<>(bloque.size());
+        for (Mensaje mensaje : bloque) {
+            Long ticketId = mensaje.getTicket().getId();
+            if (ticketId != null && mensaje.getPlantilla() != null
+                    && mensaje.getPlantilla().getEtapa() < ultimaEtapa.get(ticketId)) {
+                mensaje.setEstadoEnvio(EstadoEnvio.DESCARTADO);
+                log.info("Mensaje {} descartado: el ticket {} ya avanzó más allá de {}",
+                    mensaje.getId(), ticketId, mensaje.getPlantilla());
+            } else {
+                vigentes.add(mensaje);
+            }
+        }
+        return vigentes;
+    }
+
+    private Map<Mensaje, String> renderizar(List<Mensaje> mensajes) {
+        // Identidad: Mensaje es mutable y su equals depende del estado
+        Map<Mensaje, String> contenidos = new IdentityHashMap<>(mensajes.size());
+        for (Mensaje mensaje : mensajes) {
+            try {
+                contenidos.put(mensaje, renderer.render(mensaje));
+            } catch (RuntimeException e) {
+                manejarFalloEnvio(mensaje, e);
+            }
+        }
+        return contenidos;
+    }
+
+    private List<Mensaje> descartarDuplicados(List<Mensaje> vigentes, Map<Mensaje, String> contenidos,
+                                              Map<Long, Set<MessageTemplate>> enviadas) {
+        Map<Long, Set<MessageTemplate>> entregadas = new HashMap<>();
+        enviadas.forEach((ticketId, plantillas) -> entregadas.put(ticketId, EnumSet.copyOf(plantillas)));
+
+        List<Mensaje> aEnviar = new ArrayList<>(vigentes.size());
+        for (Mensaje mensaje : vigentes) {
+            if (!contenidos.containsKey(mensaje)) {
+                continue;
+            }
+            Long ticketId = mensaje.getTicket().getId();
+            if (ticketId != null && !entregadas
+                    .computeIfAbsent(ticketId, id -> EnumSet.noneOf(MessageTemplate.class))
+                    .add(mensaje.getPlantilla())) {
+                mensaje.setEstadoEnvio(EstadoEnvio.DESCARTADO);
+                log.info("Mensaje {} descartado: el ticket {} ya recibió {}",
+                    mensaje.getId(), ticketId, mensaje.getPlantilla());
+            } else {
+                aEnviar.add(mensaje);
+            }
+        }
+        return aEnviar;
+    }
+
+    /**
+     * @return Mensajes que cambiaron de estado en la base desde el reclamo: no se
+     *         enviaron y record no debe sobrescribirlos
+     */
+    private Set<Mensaje> enviar(List<Mensaje> mensajes, Map<Mensaje, String> contenidos) {
+        Map<String, Deque<Mensaje>> porDestino = new LinkedHashMap<>();
+        for (Mensaje mensaje : mensajes) {
+            porDestino.computeIfAbsent(channel.destino(mensaje), destino -> new ArrayDeque<>()).add(mensaje);
+        }
+
+        // rate-limit por mensaje: solo el tiempo en tryAcquire y en esperas por su token
+        Map<String, Long> esperaPorDestino = new HashMap<>();
+        List<Mensaje> enviados = new ArrayList<>(mensajes.size());
+        List<CompletableFuture<Void>> envios = new ArrayList<>(mensajes.size());
+        Set<Mensaje> ajenos = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!porDestino.isEmpty()) {
+            Duration menorEspera = null;
+            List<Envio> ronda = new ArrayList<>();
+            Iterator<Map.Entry<String, Deque<Mensaje>>> destinos = porDestino.entrySet().iterator();
+            while (destinos.hasNext()) {
+                Map.Entry<String, Deque<Mensaje>> destino = destinos.next();
+                long inicio = System.nanoTime();
+                Duration espera = rateLimiter.tryAcquire(destino.getKey());
+                long acumulado = esperaPorDestino.getOrDefault(destino.getKey(), 0L) + System.nanoTime() - inicio;
+                if (espera.isZero()) {
+                    ronda.add(new Envio(destino.getValue().poll(), destino.getKey()));
+                    timers.get(Etapa.RATE_LIMIT).record(Duration.ofNanos(acumulado));
+                    esperaPorDestino.remove(destino.getKey());
+                } else if (espera.compareTo(maxWait) > 0) {
+                    diferir(destino.getValue(), espera);
+                    esperaPorDestino.remove(destino.getKey());
+                } else {
+                    esperaPorDestino.put(destino.getKey(), acumulado);
+                    if (menorEspera == null || espera.compareTo(menorEspera) < 0) {
+                        menorEspera = espera;
+                    }
+                }
+                if (destino.getValue().isEmpty()) {
+                    destinos.remove();
+                }
+            }
+            if (!ronda.isEmpty()) {
+                for (Envio envio : reservar(ronda, ajenos)) {
+                    enviados.add(envio.mensaje());
+                    envios.add(CompletableFuture.runAsync(() -> entregar(envio.mensaje(), envio.destino(),
+                        contenidos.get(envio.mensaje())), senders));
+                }
+            } else if (menorEspera != null) {
+                long inicio = System.nanoTime();
+                boolean completa = esperar(menorEspera);
+                long dormido = System.nanoTime() - inicio;
+                esperaPorDestino.replaceAll((destino, acumulado) -> acumulado + dormido);
+                if (!completa) {
+                    porDestino.values().forEach(pendientes -> diferir(pendientes, Duration.ZERO));
+                    break;
+                }
+            }
+        }
+
+        for (int i = 0; i < enviados.size(); i++) {
+            try {
+                envios.get(i).join();
+            } catch (CompletionException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                if (causa instanceof TelegramRateLimitException limite) {
+                    reprogramar(enviados.get(i), limite.getRetryAfter());
+                } else if (causa instanceof EnvioInciertoException) {
+                    // Sigue ENVIANDO: MensajeReconciler decide al vencer el lease, sin reenviar
+                    log.warn("Mensaje {} con resultado incierto, queda ENVIANDO: {}",
+                        enviados.get(i).getId(), causa.getMessage());
+                } else {
+                    manejarFalloEnvio(enviados.get(i), causa);
+                }
+            }
+        }
+        return ajenos;
+    }
+
+    /**
+     * Marca ENVIANDO, en una transacción corta, los mensajes de una ronda antes de
+     * entregarlos al canal. Los que ya no estaban PENDIENTE se agregan a ajenos.
+     *
+     * @return Envíos reservados, en el orden de la ronda
+     */
+    private List<Envio> reservar(List<Envio> ronda, Set<Mensaje> ajenos) {
+        long inicio = System.nanoTime();
+        List<Long> ids = ronda.stream().map(envio -> envio.mensaje().getId()).toList();
+        Set<Long> reservados;
+        try {
+            reservados = transactionTemplate.execute(status -> {
+                int marcados = mensajeRepository.marcarEnviando(ids);
+                return marcados == ids.size()
+                    ? new HashSet<>(ids)
+                    : new HashSet<>(mensajeRepository.findIdsByIdInAndEstadoEnvio(ids, EstadoEnvio.ENVIANDO));
+            });
+        } catch (RuntimeException e) {
+            // Sin estado durable no se envía: siguen PENDIENTE y se reintentan sin riesgo
+            log.warn("No se pudieron marcar ENVIANDO {} mensajes; se reprograman: {}", ids.size(), e.getMessage());
+            ronda.forEach(envio -> reprogramar(envio.mensaje(), Duration.ZERO));
+            registrar(Etapa.RESERVE, inicio);
+            return List.of();
+        }
+
+        List<Envio> reservadas = new ArrayList<>(ronda.size());
+        for (Envio envio : ronda) {
+            if (reservados.contains(envio.mensaje().getId())) {
+                envio.mensaje().setEstadoEnvio(EstadoEnvio.ENVIANDO);
+                reservadas.add(envio);
+            } else {
+                ajenos.add(envio.mensaje());
+                log.info("Mensaje {} cambió de estado tras el reclamo; no se envía", envio.mensaje().getId());
+            }
+        }
+        registrar(Etapa.RESERVE, inicio);
+        return reservadas;
+    }
+
+    private void entregar(Mensaje mensaje, String destino, String contenido) {
+        long inicio = System.nanoTime();
+        try {
+            String messageId = channel.enviar(destino, contenido, mensaje.getClaveEnvio());
+            mensaje.setEstadoEnvio(EstadoEnvio.ENVIADO);
+            mensaje.setFechaEnvio(LocalDateTime.now());
+            mensaje.setTelegramMessageId(messageId);
+        } catch (TelegramRateLimitException e) {
+            // Pausa el destino antes de que otro hilo reserve un nuevo envío hacia él
+            rateLimiter.pause(e.getChatId(), e.getRetryAfter());
+            throw e;
+        } finally {
+            registrar(Etapa.SEND, inicio);
+        }
+    }
+
+    private void diferir(Deque<Mensaje> pendientes, Duration espera) {
+        Mensaje mensaje;
+        while ((mensaje = pendientes.poll()) != null) {
+            reprogramar(mensaje, espera);
+        }
+    }
+
+    /**
+     * Reprograma un mensaje limitado por tasa sin consumir un intento (RN-007).
+     */
+    private void reprogramar(Mensaje mensaje, Duration espera) {
+        mensaje.setEstadoEnvio(EstadoEnvio.PENDIENTE);
+        mensaje.setFechaProgramada(LocalDateTime.now().plus(espera));
+        log.debug("Mensaje {} reprogramado en {} ms por límite de tasa", mensaje.getId(), espera.toMillis());
+    }
+
+    private boolean esperar(Duration espera) {
+        try {
+            Thread.sleep(espera.toMillis(), espera.toNanosPart() % 1_000_000);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void confirmar(List<Mensaje> bloque) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Carga las filas en el contexto para que saveAll no consulte una por una
+            mensajeRepository.findAllById(bloque.stream().map(Mensaje::getId).toList());
+            mensajeRepository.saveAll(bloque);
+        });
+    }
+
+    /**
+     * RN-008: Los mensajes que siguen PENDIENTE tras record (reintento o límite de
+     * tasa) esperan su nueva fechaProgramada en MensajeTimingWheel.
+     */
+    private void diferirEnTemporizador(List<Mensaje> mensajes) {
+        for (Mensaje mensaje : mensajes) {
+            if (mensaje.getEstadoEnvio() == EstadoEnvio.PENDIENTE) {
+                timingWheel.programar(mensaje.getId(), mensaje.getFechaProgramada());
+            }
+        }
+    }
+
+    /**
+     * RN-007, RN-008: Maneja fallos de envío con sistema de reintentos y backoff exponencial.
+     *
+     * Lógica:
+     * - Incrementa contador de intentos
+     * - Si >= 4 intentos: marca como FALLIDO (RN-007)
+     * - Si < 4 intentos: programa reintento con backoff exponencial (RN-008)
+     *
+     * @param mensaje Mensaje que falló en el envío
+     * @param e Excepción que causó el fallo
+     */
+    private void manejarFalloEnvio(Mensaje mensaje, Throwable e) {
+        log.warn("Fallo enviando mensaje {}: {}", mensaje.getId(), e.getMessage());
+
+        mensaje.incrementarIntentos();
+
+        if (mensaje.getIntentos() >= MAX_INTENTOS) { // RN-007: máximo 3 reintentos
+            mensaje.setEstadoEnvio(EstadoEnvio.FALLIDO);
+            log.error("Mensaje {} marcado como FALLIDO tras {} intentos",
+                     mensaje.getId(), mensaje.getIntentos());
+        } else {
+            // RN-008: Backoff exponencial 30s, 60s, 120s
+            mensaje.setEstadoEnvio(EstadoEnvio.PENDIENTE);
+            long delaySeconds = 30L * (long) Math.pow(2, mensaje.getIntentos() - 1);
+            mensaje.setFechaProgramada(LocalDateTime.now().plusSeconds(delaySeconds));
+            log.info("Reintento {} programado para mensaje {} en {} segundos",
+                    mensaje.getIntentos(), mensaje.getId(), delaySeconds);
+        }
+    }
+
+    /**
+     * Mensaje con su destino, listo para reservar y entregar.
+     */
+    private record Envio(Mensaje mensaje, String destino) {}
+
+    private long registrar(Etapa etapa, long inicio) {
+        long fin = System.nanoTime();
+        timers.get(etapa).record(Duration.ofNanos(fin - inicio));
+        return fin;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+
+    private static ThreadFactory senderThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "telegram-sender-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -5,32 +5,39 @@ import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.model.enums.EstadoEnvio;
 import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
 import com.example.ticketero.repository.MensajeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
- * Service para notificaciones multicanal con integración Telegram.
+ * Service para notificaciones multicanal.
  * 
  * Implementa: RF-002 (Programación de mensajes Telegram)
  * 
  * Funcionalidades:
  * - Notificaciones automáticas por cambio de estado
  * - Programación de mensajes de proximidad
- * - Integración con cola de mensajes asíncrona
- * - Plantillas personalizadas por tipo de evento
+ * - Único punto de creación de mensajes en la outbox (programar), también
+ *   usado por TelegramService.programarMensaje
+ * - Coalescencia al programar: un estado más reciente del ticket descarta sus
+ *   mensajes aún pendientes de etapas anteriores, y no se crea un mensaje si el
+ *   ticket ya tiene uno vigente de la misma etapa o posterior
+ * - El envío lo hace NotificationPipeline (coalesce, render, dedupe, rate-limit,
+ *   send, record) vía MensajeOutboxDispatcher, inmediatamente tras el commit
  * 
  * Eventos notificados:
  * - Creación de ticket (TOTEM_TICKET_CREADO)
  * - Cambio a CALLED (TOTEM_ES_TU_TURNO)
  * - Proximidad de turno (TOTEM_PROXIMO_TURNO)
  * 
- * Dependencias: MensajeRepository
+ * Dependencias: MensajeRepository, ApplicationEventPublisher
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -43,34 +50,73 @@ import java.time.LocalDateTime;
 public class NotificationService {
     
     private final MensajeRepository mensajeRepository;
-    
-    @Value("${telegram.bot.enabled:false}")
-    private boolean telegramEnabled;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * RF-002: Envía notificación de ticket creado con datos de posición y tiempo estimado.
+     * RF-002: Crea el mensaje PENDIENTE en la outbox y publica MensajeProgramadoEvent
+     * para despacharlo en cuanto la transacción confirme (si ya es su hora).
      * 
-     * @param ticket Ticket recién creado
+     * Coalescencia por ticket (MessageTemplate.getEtapa):
+     * - Si ya hay un mensaje PENDIENTE o ENVIADO de la misma etapa o posterior, no
+     *   se crea otro: el pendiente se renderiza al enviar, con los datos actuales
+     * - Si no, los PENDIENTE de etapas anteriores se marcan DESCARTADO
+     * 
+     * @param ticket Ticket asociado al mensaje
+     * @param template Plantilla de mensaje a utilizar
+     * @param fechaProgramada Momento a partir del cual puede enviarse
      */
     @Transactional
-    public void sendTicketCreatedNotification(Ticket ticket) {
-        log.info("Sending ticket created notification for: {}", ticket.getNumero());
+    public void programar(Ticket ticket, MessageTemplate template, LocalDateTime fechaProgramada) {
+        if (ticket.getId() != null && !coalescer(ticket, template)) {
+            return;
+        }
         
         Mensaje mensaje = Mensaje.builder()
             .ticket(ticket)
             .telefono(ticket.getTelefono())
-            .plantilla(MessageTemplate.TOTEM_TICKET_CREADO)
+            .plantilla(template)
             .estadoEnvio(EstadoEnvio.PENDIENTE)
-            .fechaProgramada(LocalDateTime.now())
+            .fechaProgramada(fechaProgramada)
             .fechaCreacion(LocalDateTime.now())
+            .intentos(0)
             .build();
         
         mensajeRepository.save(mensaje);
-        
-        // Enviar inmediatamente si Telegram está habilitado
-        if (telegramEnabled) {
-            sendTelegramMessage(mensaje);
+        eventPublisher.publishEvent(MensajeProgramadoEvent.of(mensaje));
+        log.info("Mensaje programado: {} para ticket: {}", template, ticket.getNumero());
+    }
+    
+    /**
+     * Aplica la coalescencia por ticket antes de crear un mensaje.
+     * 
+     * @return false si el mensaje sería redundante y no debe crearse
+     */
+    private boolean coalescer(Ticket ticket, MessageTemplate template) {
+        if (mensajeRepository.existsVigenteByTicketIdAndPlantillaIn(ticket.getId(), template.desdeEsta())) {
+            log.debug("Mensaje {} omitido para ticket {}: ya tiene uno vigente de igual o posterior etapa",
+                     template, ticket.getNumero());
+            return false;
+        }
+        List<MessageTemplate> obsoletas = template.anteriores();
+        if (!obsoletas.isEmpty()) {
+            int descartados = mensajeRepository.descartarPendientesByTicketIdAndPlantillaIn(ticket.getId(), obsoletas);
+            if (descartados > 0) {
+                log.info("{} mensaje(s) pendientes del ticket {} reemplazados por {}",
+                        descartados, ticket.getNumero(), template);
+            }
         }
+        return true;
+    }
+    
+    /**
+     * RF-002: Envía notificación de ticket creado con datos de posición y tiempo estimado.
+     * 
+     * @param ticket Ticket recién creado
+     */
+    @Transactional
+    public void sendTicketCreatedNotification(Ticket ticket) {
+        log.info("Sending ticket created notification for: {}", ticket.getNumero());
+        programar(ticket, MessageTemplate.TOTEM_TICKET_CREADO, LocalDateTime.now());
     }
     
     /**
@@ -90,20 +136,7 @@ public class NotificationService {
             return; // No enviar notificación para este cambio de estado
         }
         
-        Mensaje mensaje = Mensaje.builder()
-            .ticket(ticket)
-            .telefono(ticket.getTelefono())
-            .plantilla(template)
-            .estadoEnvio(EstadoEnvio.PENDIENTE)
-            .fechaProgramada(LocalDateTime.now())
-            .fechaCreacion(LocalDateTime.now())
-            .build();
-        
-        mensajeRepository.save(mensaje);
-        
-        if (telegramEnabled) {
-            sendTelegramMessage(mensaje);
-        }
+        programar(ticket, template, LocalDateTime.now());
     }
     
     /**
@@ -114,39 +147,7 @@ public class NotificationService {
     @Transactional
     public void sendProximityNotification(Ticket ticket) {
         log.info("Sending proximity notification for ticket: {}", ticket.getNumero());
-        
-        Mensaje mensaje = Mensaje.builder()
-            .ticket(ticket)
-            .telefono(ticket.getTelefono())
-            .plantilla(MessageTemplate.TOTEM_PROXIMO_TURNO)
-            .estadoEnvio(EstadoEnvio.PENDIENTE)
-            .fechaProgramada(LocalDateTime.now().plusMinutes(5)) // Programar para 5 min después
-            .fechaCreacion(LocalDateTime.now())
-            .build();
-        
-        mensajeRepository.save(mensaje);
-    }
-    
-    private void sendTelegramMessage(Mensaje mensaje) {
-        try {
-            // Simular envío a Telegram Bot API
-            log.info("Sending Telegram message to: {} with template: {}", 
-                    mensaje.getTelefono(), mensaje.getPlantilla());
-            
-            // Aquí iría la integración real con Telegram Bot API
-            // Por ahora simulamos éxito
-            mensaje.setEstadoEnvio(EstadoEnvio.ENVIADO);
-            mensaje.setFechaEnvio(LocalDateTime.now());
-            mensaje.setTelegramMessageId("MSG_" + System.currentTimeMillis());
-            
-            mensajeRepository.save(mensaje);
-            
-        } catch (Exception e) {
-            log.error("Error sending Telegram message: {}", e.getMessage());
-            mensaje.setEstadoEnvio(EstadoEnvio.FALLIDO);
-            mensaje.incrementarIntentos();
-            mensajeRepository.save(mensaje);
-        }
+        programar(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO, LocalDateTime.now().plusMinutes(5)); // Programar para 5 min después
     }
     
     private MessageTemplate getTemplateForStatusChange(TicketStatus newStatus) {
@@ -4,15 +4,24 @@ import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.model.enums.*;
+import com.example.ticketero.model.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service de gestión avanzada de colas con asignación automática inteligente.
@@ -21,12 +30,15 @@ import java.util.Optional;
  * Reglas de Negocio: RN-002 (Prioridades), RN-003 (FIFO), RN-004 (Balanceo), RN-010 (Tiempo estimado), RN-012 (Pre-aviso)
  * 
  * Algoritmos implementados:
- * - Selección por prioridad: GERENCIA > EMPRESAS > PERSONAL_BANKER > CAJA
+ * - Selección por prioridad: GERENCIA > EMPRESAS > PERSONAL_BANKER > CAJA, con
+ *   envejecimiento (TicketPriorityEngine, en memoria)
  * - Balanceo de carga por assignedTicketsCount ascendente
+ * - Asignación por lotes: todos los ejecutivos disponibles en una pasada por tick
  * - Pre-aviso automático cuando posición ≤ 3
  * - Recálculo de posiciones cada 5 segundos vía scheduler
  * 
- * Dependencias: TicketRepository, AdvisorRepository, TelegramService, AuditService
+ * Dependencias: TicketRepository, AdvisorRepository, TelegramService, AuditService,
+ *               WaitingLineIndex, TicketPriorityEngine, ApplicationEventPublisher
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -42,19 +54,23 @@ public class QueueManagementService {
     private final AdvisorRepository advisorRepository;
     private final TelegramService telegramService;
     private final AuditService auditService;
+    private final WaitingLineIndex waitingLineIndex;
+    private final TicketPriorityEngine priorityEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${queue.assignment.batch-size:50}")
+    private int assignmentBatchSize = 50;
     
     /**
-     * RN-010: Calcula posición en cola y tiempo estimado de espera.
+     * RN-010: Calcula posición en cola y tiempo estimado de espera para una nueva llegada.
      * Fórmula: posición * tiempo promedio por tipo de cola
+     * La posición se obtiene del índice de la línea de espera, sin consultar la base de datos.
      * 
      * @param queueType Tipo de cola para cálculo
      * @return PositionInfo con posición y tiempo estimado
      */
-    // RN-010: Cálculo tiempo estimado (simplificado)
     public PositionInfo calcularPosicion(QueueType queueType) {
-        long count = ticketRepository.count();
-        
-        int position = (int) count + 1;
+        int position = waitingLineIndex.positionForNewArrival(queueType);
         int estimatedTime = position * queueType.getAvgTimeMinutes();
         
         return new PositionInfo(position, estimatedTime);
@@ -63,42 +79,104 @@ public class QueueManagementService {
     /**
      * RN-002, RN-003, RN-004: Asignación automática de tickets con prioridades.
      * 
+     * El ticket lo elige TicketPriorityEngine en memoria; la base de datos solo
+     * se usa para reclamarlo por clave primaria y persistir la asignación.
+     * Ticket y asesor se reclaman con SELECT ... FOR UPDATE SKIP LOCKED y ambas
+     * entidades llevan @Version, por lo que varios hilos o nodos pueden asignar en
+     * paralelo sin entregar el mismo ticket ni el mismo asesor dos veces.
+     * 
      * Proceso:
-     * 1. Selecciona ticket con mayor prioridad (RN-002)
-     * 2. Busca asesor disponible con menor carga (RN-004)
+     * 1. Reclama ticket con mayor prioridad (RN-002)
+     * 2. Reclama asesor disponible con menor carga (RN-004)
      * 3. Asigna ticket y actualiza estados
      * 4. Registra evento de auditoría (RN-011)
      * 5. Programa notificación Telegram (RF-002)
      */
     // RN-002, RN-003, RN-004: Asignación automática - CORREGIDA
     public void asignarSiguienteTicket() {
-        // RN-002: Seleccionar ticket con mayor prioridad
-        List<Ticket> nextTickets = ticketRepository.findNextTicketByPriority();
-        if (nextTickets.isEmpty()) {
+        // RN-002: Reclamar ticket con mayor prioridad (bloqueado, sin competir con otros nodos)
+        List<Ticket> nextTicket = priorityEngine.claimNext(1);
+        if (nextTicket.isEmpty()) {
             log.debug("No hay tickets pendientes para asignar");
             return;
         }
         
-        Ticket ticket = nextTickets.get(0);
+        Ticket ticket = nextTicket.get(0);
         
-        // RN-004: Balanceo de carga - CORREGIDO
-        Optional<Advisor> advisor = advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE);
+        // RN-004: Balanceo de carga - reclamar asesor con menor carga
+        Optional<Advisor> advisor = advisorRepository.claimLeastLoadedAvailable();
         if (advisor.isEmpty()) {
             log.debug("No hay ejecutivos disponibles");
             return;
         }
         
         Advisor asesor = advisor.get();
+        asignar(ticket, asesor);
+        
+        ticketRepository.save(ticket);
+        advisorRepository.save(asesor);
+    }
+    
+    /**
+     * RN-002, RN-004: Asignación por lotes para todos los ejecutivos disponibles.
+     * 
+     * En una sola pasada reclama hasta queue.assignment.batch-size ejecutivos
+     * AVAILABLE (menor carga primero) y la misma cantidad de tickets pendientes en
+     * el orden de TicketPriorityEngine, y los empareja en ese orden: el ticket más prioritario va al
+     * ejecutivo con menor carga. Tickets y ejecutivos se persisten con saveAll
+     * (UPDATEs agrupados por hibernate.jdbc.batch_size).
+     * 
+     * Usa los mismos reclamos FOR UPDATE SKIP LOCKED que asignarSiguienteTicket, por
+     * lo que es seguro ejecutarlo en paralelo desde varios nodos.
+     * 
+     * @return Cantidad de tickets asignados
+     */
+    public int asignarTicketsPendientes() {
+        // RN-004: Ejecutivos disponibles ordenados por menor carga
+        List<Advisor> disponibles = advisorRepository.claimByStatusOrderByLoad(
+            AdvisorStatus.AVAILABLE, PageRequest.of(0, assignmentBatchSize));
+        if (disponibles.isEmpty()) {
+            log.debug("No hay ejecutivos disponibles");
+            return 0;
+        }
         
+        // RN-002: Cabeza de la cola por prioridad, a lo sumo un ticket por ejecutivo
+        List<Ticket> tickets = priorityEngine.claimNext(disponibles.size());
+        if (tickets.isEmpty()) {
+            log.debug("No hay tickets pendientes para asignar");
+            return 0;
+        }
+        
+        List<Advisor> asesores = disponibles.subList(0, tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            asignar(tickets.get(i), asesores.get(i));
+        }
+        
+        ticketRepository.saveAll(tickets);
+        advisorRepository.saveAll(asesores);
+        
+        log.info("Asignación por lotes: {} tickets asignados ({} ejecutivos disponibles)",
+                tickets.size(), disponibles.size());
+        return tickets.size();
+    }
+    
+    /**
+     * Aplica la asignación de un ticket a un ejecutivo: estados, carga, eventos,
+     * auditoría (RN-011) y mensaje de turno activo (RF-002).
+     * La persistencia de ambas entidades queda a cargo del llamador.
+     */
+    private void asignar(Ticket ticket, Advisor asesor) {
+        TicketStatus previousStatus = ticket.getStatus();
         ticket.setStatus(TicketStatus.IN_SERVICE);
         ticket.setAssignedAdvisor(asesor.getName());
         ticket.setAssignedModuleNumber(asesor.getModuleNumber());
         
+        AdvisorStatus previousAdvisorStatus = asesor.getStatus();
         asesor.setStatus(AdvisorStatus.BUSY);
         asesor.incrementAssignedTicketsCount();
         
-        ticketRepository.save(ticket);
-        advisorRepository.save(asesor);
+        eventPublisher.publishEvent(TicketStatusChangedEvent.of(ticket, previousStatus));
+        eventPublisher.publishEvent(AdvisorStatusChangedEvent.of(asesor, previousAdvisorStatus));
         
         // RN-011: Auditoría de asignación
         auditService.registrarEvento("TICKET_ASSIGNED", "SYSTEM", ticket.getId(),
@@ -114,33 +192,44 @@ public class QueueManagementService {
     /**
      * RN-012: Recálculo de posiciones con pre-aviso automático.
      * Envía notificación cuando posición ≤ 3 y cambia estado a CALLED.
+     * Solo considera los primeros 10 tickets en espera de la cola indicada.
      * 
      * @param queueType Tipo de cola a recalcular
      */
-    // RN-012: Pre-aviso cuando posición ≤ 3 (simplificado)
     public void recalcularPosiciones(QueueType queueType) {
-        List<Ticket> tickets = ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING);
+        List<Long> ticketIds = waitingLineIndex.head(queueType, 10).stream()
+            .map(WaitingLineIndex.WaitingTicket::ticketId)
+            .toList();
+        if (ticketIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Ticket> ticketsById = ticketRepository.findAllById(ticketIds).stream()
+            .collect(Collectors.toMap(Ticket::getId, Function.identity()));
         
-        for (int i = 0; i < Math.min(tickets.size(), 10); i++) {
-            Ticket ticket = tickets.get(i);
-            if (ticket.getQueueType() != queueType) continue;
+        List<Ticket> tickets = new ArrayList<>(ticketIds.size());
+        for (int i = 0; i < ticketIds.size(); i++) {
+            Ticket ticket = ticketsById.get(ticketIds.get(i));
+            if (ticket == null) continue;
             
             int newPosition = i + 1;
             int newEstimatedTime = newPosition * queueType.getAvgTimeMinutes();
             
             ticket.setPositionInQueue(newPosition);
             ticket.setEstimatedWaitMinutes(newEstimatedTime);
+            tickets.add(ticket);
             
             // RN-012: Pre-aviso automático
             if (newPosition <= 3 && ticket.getStatus() == TicketStatus.WAITING) {
                 ticket.setStatus(TicketStatus.CALLED);
+                eventPublisher.publishEvent(TicketStatusChangedEvent.of(ticket, TicketStatus.WAITING));
                 telegramService.programarMensaje(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO);
                 log.info("Pre-aviso enviado para ticket {} en posición {}", 
                         ticket.getNumero(), newPosition);
             }
         }
         
-        ticketRepository.saveAll(tickets.subList(0, Math.min(tickets.size(), 10)));
+        ticketRepository.saveAll(tickets);
     }
     
     private String buildAssignmentData(Advisor advisor) {
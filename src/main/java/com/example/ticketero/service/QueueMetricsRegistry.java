@@ -0,0 +1,207 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.TicketCountMatrix;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
+import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores incrementales de tickets y asesores por estado.
+ *
+ * Implementa: RF-007 (Dashboard ejecutivo)
+ *
+ * Funcionamiento:
+ * - Un LongAdder por celda (QueueType × TicketStatus) y uno por AdvisorStatus
+ * - Cada TicketStatusChangedEvent / AdvisorStatusChangedEvent confirmado resta 1
+ *   al estado anterior y suma 1 al nuevo
+ * - La lectura de un conteo es O(1) y no consulta la base de datos
+ * - Al iniciar y cada dashboard.metrics.reconcile-interval-seconds (300s por defecto)
+ *   se concilian los contadores con las consultas agrupadas de la base de datos
+ *
+ * La conciliación aplica la diferencia entre la base de datos y el contador, por lo
+ * que corrige cambios realizados fuera de los servicios (scripts, carga inicial).
+ * Una transición confirmada entre la consulta y el ajuste puede quedar contada de
+ * más o de menos hasta la siguiente conciliación.
+ *
+ * Dependencias: TicketRepository, AdvisorRepository (solo para la conciliación)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueueMetricsRegistry {
+
+    private final TicketRepository ticketRepository;
+    private final AdvisorRepository advisorRepository;
+
+    private final LongAdder[][] ticketCounters = createTicketCounters();
+    private final LongAdder[] advisorCounters = createCounters(AdvisorStatus.values().length);
+
+    /**
+     * Actualiza los contadores de tickets con cada transición de estado confirmada.
+     *
+     * @param event Evento de cambio de estado del ticket
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        if (event.queueType() == null || event.previousStatus() == event.newStatus()) {
+            return;
+        }
+        if (event.previousStatus() != null) {
+            ticketCounter(event.previousStatus(), event.queueType()).decrement();
+        }
+        if (event.newStatus() != null) {
+            ticketCounter(event.newStatus(), event.queueType()).increment();
+        }
+    }
+
+    /**
+     * Actualiza los contadores de asesores con cada transición de estado confirmada.
+     *
+     * @param event Evento de cambio de estado del asesor
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdvisorStatusChanged(AdvisorStatusChangedEvent event) {
+        if (event.previousStatus() == event.newStatus()) {
+            return;
+        }
+        if (event.previousStatus() != null) {
+            advisorCounters[event.previousStatus().ordinal()].decrement();
+        }
+        if (event.newStatus() != null) {
+            advisorCounters[event.newStatus().ordinal()].increment();
+        }
+    }
+
+    /**
+     * Concilia todos los contadores con la base de datos (dos consultas agrupadas).
+     *
+     * @return Desviación total corregida (suma de diferencias absolutas)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${dashboard.metrics.reconcile-interval-seconds:300}",
+               fixedRateString = "${dashboard.metrics.reconcile-interval-seconds:300}",
+               timeUnit = TimeUnit.SECONDS)
+    @Transactional(readOnly = true)
+    public long reconcile() {
+        TicketCountMatrix ticketCounts = TicketCountMatrix.from(ticketRepository.countGroupedByStatusAndQueueType());
+        Map<AdvisorStatus, Long> advisorCounts = new EnumMap<>(AdvisorStatus.class);
+        for (Object[] row : advisorRepository.countAdvisorsByStatus()) {
+            advisorCounts.put((AdvisorStatus) row[0], ((Number) row[1]).longValue());
+        }
+
+        long drift = 0;
+        for (TicketStatus status : TicketStatus.values()) {
+            for (QueueType queueType : QueueType.values()) {
+                drift += adjust(ticketCounter(status, queueType), ticketCounts.count(status, queueType));
+            }
+        }
+        for (AdvisorStatus status : AdvisorStatus.values()) {
+            drift += adjust(advisorCounters[status.ordinal()], advisorCounts.getOrDefault(status, 0L));
+        }
+
+        if (drift > 0) {
+            log.info("Contadores de métricas conciliados con la base de datos (desviación: {})", drift);
+        }
+        return drift;
+    }
+
+    /**
+     * Cantidad de tickets en un estado para una cola.
+     *
+     * @param status Estado del ticket
+     * @param queueType Tipo de cola
+     * @return Conteo actual
+     */
+    public long count(TicketStatus status, QueueType queueType) {
+        return ticketCounter(status, queueType).sum();
+    }
+
+    /**
+     * Cantidad de asesores en un estado.
+     *
+     * @param status Estado del asesor
+     * @return Conteo actual
+     */
+    public long count(AdvisorStatus status) {
+        return advisorCounters[status.ordinal()].sum();
+    }
+
+    /**
+     * Copia de todos los contadores de tickets como matriz estado × cola.
+     *
+     * @return TicketCountMatrix con los conteos actuales
+     */
+    public TicketCountMatrix ticketCounts() {
+        Map<TicketStatus, Map<QueueType, Long>> counts = new EnumMap<>(TicketStatus.class);
+        for (TicketStatus status : TicketStatus.values()) {
+            Map<QueueType, Long> byQueue = new EnumMap<>(QueueType.class);
+            for (QueueType queueType : QueueType.values()) {
+                byQueue.put(queueType, count(status, queueType));
+            }
+            counts.put(status, byQueue);
+        }
+        return new TicketCountMatrix(counts);
+    }
+
+    /**
+     * Copia de los contadores de asesores por estado.
+     *
+     * @return Mapa de AdvisorStatus a cantidad de asesores (todos los estados presentes)
+     */
+    public Map<AdvisorStatus, Integer> advisorCounts() {
+        Map<AdvisorStatus, Integer> counts = new EnumMap<>(AdvisorStatus.class);
+        for (AdvisorStatus status : AdvisorStatus.values()) {
+            counts.put(status, (int) count(status));
+        }
+        return counts;
+    }
+
+    private LongAdder ticketCounter(TicketStatus status, QueueType queueType) {
+        return ticketCounters[status.ordinal()][queueType.ordinal()];
+    }
+
+    private static long adjust(LongAdder counter, long expected) {
+        long delta = expected - counter.sum();
+        if (delta != 0) {
+            counter.add(delta);
+        }
+        return Math.abs(delta);
+    }
+
+    private static LongAdder[][] createTicketCounters() {
+        LongAdder[][] counters = new LongAdder[TicketStatus.values().length][];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = createCounters(QueueType.values().length);
+        }
+        return counters;
+    }
+
+    private static LongAdder[] createCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
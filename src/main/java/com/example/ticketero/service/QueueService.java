@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service especializado para gestión y consulta de colas por tipo.
@@ -26,7 +27,9 @@ import java.util.stream.Collectors;
  * 
  * Tipos de cola soportados: CAJA, PERSONAL_BANKER, EMPRESAS, GERENCIA
  * 
- * Dependencias: TicketRepository
+ * Línea de espera servida desde WaitingLineIndex (sin cargar tickets desde la BD).
+ * 
+ * Dependencias: TicketRepository, WaitingLineIndex
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -39,6 +42,7 @@ import java.util.stream.Collectors;
 public class QueueService {
     
     private final TicketRepository ticketRepository;
+    private final WaitingLineIndex waitingLineIndex;
     
     /**
      * RN-002: Calcula posición dinámica en cola basada en tickets en espera.
@@ -75,8 +79,8 @@ public class QueueService {
     public QueueStatusResponse getQueueStatus(QueueType queueType) {
         log.debug("Getting queue status for: {}", queueType);
         
-        // Contar tickets por estado
-        int ticketsEnEspera = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, queueType);
+        // Contar tickets por estado (en espera desde el índice en memoria)
+        int ticketsEnEspera = waitingLineIndex.countWaiting(queueType);
         int ticketsNotificados = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.CALLED, queueType);
         int ticketsEnAtencion = (int) ticketRepository.countByStatusAndQueueType(TicketStatus.IN_SERVICE, queueType);
         
@@ -110,24 +114,21 @@ public class QueueService {
     }
     
     private String getNextTicketNumber(QueueType queueType) {
-        return ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING)
-            .stream()
-            .filter(ticket -> ticket.getQueueType() == queueType)
-            .findFirst()
-            .map(ticket -> ticket.getNumero())
+        return waitingLineIndex.peekNext(queueType)
+            .map(WaitingLineIndex.WaitingTicket::numero)
             .orElse("N/A");
     }
     
     private List<QueueStatusResponse.TicketEnCola> getTicketsInQueue(QueueType queueType) {
-        return ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING)
-            .stream()
-            .filter(ticket -> ticket.getQueueType() == queueType)
-            .limit(10) // Mostrar solo los primeros 10
-            .map(ticket -> new QueueStatusResponse.TicketEnCola(
-                ticket.getNumero(),
-                ticket.getStatus().name(),
-                ticket.getPositionInQueue(),
-                ticket.getEstimatedWaitMinutes()
+        List<WaitingLineIndex.WaitingTicket> head = waitingLineIndex.head(queueType, 10); // Mostrar solo los primeros 10
+        
+        // Posición real según orden FIFO del índice (RN-002, RN-003)
+        return IntStream.range(0, head.size())
+            .mapToObj(i -> new QueueStatusResponse.TicketEnCola(
+                head.get(i).numero(),
+                TicketStatus.WAITING.name(),
+                i + 1,
+                calculateEstimatedWaitTime(queueType, i + 1)
             ))
             .collect(Collectors.toList());
     }
@@ -0,0 +1,46 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Canal Telegram de NotificationPipeline (notification.channel=telegram, por defecto).
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Telegram Bot API no acepta una clave de idempotencia ni permite consultar
+ * envíos pasados: confirmarEntrega usa la implementación por defecto y la
+ * protección contra duplicados recae en el estado ENVIANDO (NotificationPipeline,
+ * MensajeReconciler). TelegramService.enviarTexto distingue los fallos sin
+ * entrega (reintentables) de los inciertos (EnvioInciertoException).
+ *
+ * Dependencias: TelegramService (transporte HTTP hacia Telegram Bot API)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "notification.channel", havingValue = "telegram", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TelegramNotificationChannel implements NotificationChannel {
+
+    private final TelegramService telegramService;
+
+    @Override
+    public String nombre() {
+        return "telegram";
+    }
+
+    @Override
+    public String destino(Mensaje mensaje) {
+        return telegramService.resolverChatId(mensaje);
+    }
+
+    @Override
+    public String enviar(String destino, String contenido, String claveEnvio) {
+        return telegramService.enviarTexto(destino, contenido);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ticketero.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de tasa de envíos a Telegram Bot API con token buckets.
+ *
+ * Implementa: RF-002 (Programación de mensajes Telegram)
+ *
+ * Funcionamiento:
+ * - Un bucket global (telegram.rate-limit.global-per-second, ráfaga global-burst)
+ * - Un bucket por chat_id (telegram.rate-limit.per-chat-per-second, ráfaga per-chat-burst)
+ * - Un envío consume un token de ambos buckets solo si los dos tienen disponible
+ * - Un HTTP 429 pausa el chat durante el retry_after indicado por Telegram
+ *
+ * Los buckets por chat inactivos (llenos y sin pausa) se descartan al superar
+ * MAX_CHAT_BUCKETS para acotar la memoria.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class TelegramRateLimiter {
+
+    static final int MAX_CHAT_BUCKETS = 10_000;
+
+    private final TokenBucket global;
+    private final double perChatPerSecond;
+    private final int perChatBurst;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> chats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TelegramRateLimiter(@Value("${telegram.rate-limit.global-per-second:30}") double globalPerSecond,
+                               @Value("${telegram.rate-limit.global-burst:30}") int globalBurst,
+                               @Value("${telegram.rate-limit.per-chat-per-second:1}") double perChatPerSecond,
+                               @Value("${telegram.rate-limit.per-chat-burst:1}") int perChatBurst) {
+        this(globalPerSecond, globalBurst, perChatPerSecond, perChatBurst, System::nanoTime);
+    }
+
+    TelegramRateLimiter(double globalPerSecond, int globalBurst,
+                        double perChatPerSecond, int perChatBurst, LongSupplier nanoClock) {
+        if (globalPerSecond <= 0 || perChatPerSecond <= 0 || globalBurst < 1 || perChatBurst < 1) {
+            throw new IllegalArgumentException("telegram.rate-limit: tasas y ráfagas deben ser mayores a 0");
+        }
+        this.nanoClock = nanoClock;
+        this.global = new TokenBucket(globalBurst, globalPerSecond, nanoClock.getAsLong());
+        this.perChatPerSecond = perChatPerSecond;
+        this.perChatBurst = perChatBurst;
+    }
+
+    /**
+     * Intenta reservar un envío al chat.
+     *
+     * @param chatId Chat de destino
+     * @return Duration.ZERO si el envío quedó reservado; si no, la espera mínima
+     *         hasta que el chat y el límite global lo permitan
+     */
+    public synchronized Duration tryAcquire(String chatId) {
+        long now = nanoClock.getAsLong();
+        TokenBucket chat = chats.computeIfAbsent(chatId, id -> new TokenBucket(perChatBurst, perChatPerSecond, now));
+
+        long wait = Math.max(chat.waitNanos(now), global.waitNanos(now));
+        if (wait > 0) {
+            return Duration.ofNanos(wait);
+        }
+        chat.take();
+        global.take();
+        evictIdleChats(now);
+        return Duration.ZERO;
+    }
+
+    /**
+     * Pausa los envíos a un chat tras un HTTP 429.
+     *
+     * @param chatId Chat limitado por Telegram
+     * @param retryAfter Espera indicada por Telegram
+     */
+    public synchronized void pause(String chatId, Duration retryAfter) {
+        long now = nanoClock.getAsLong();
+        chats.computeIfAbsent(chatId, id -> new TokenBucket(perChatBurst, perChatPerSecond, now))
+            .pauseUntil(now + retryAfter.toNanos());
+        log.warn("Chat {} pausado {}s por límite de tasa de Telegram", chatId, retryAfter.toSeconds());
+    }
+
+    private void evictIdleChats(long now) {
+        if (chats.size() > MAX_CHAT_BUCKETS) {
+            chats.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+
+    /**
+     * Token bucket con recarga continua y pausa explícita. No es thread-safe:
+     * TelegramRateLimiter serializa el acceso.
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+        private long pausedUntil;
+
+        TokenBucket(int capacity, double tokensPerSecond, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.lastRefill = now;
+            this.pausedUntil = now;
+        }
+
+        long waitNanos(long now) {
+            refill(now);
+            long pause = Math.max(0, pausedUntil - now);
+            long refillWait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+            return Math.max(pause, refillWait);
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        void pauseUntil(long until) {
+            pausedUntil = Math.max(pausedUntil, until);
+            tokens = 0;
+        }
+
+        boolean isIdle(long now) {
+            refill(now);
+            return tokens >= capacity && pausedUntil <= now;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.exception.EnvioInciertoException;
+import com.example.ticketero.exception.TelegramRateLimitException;
 import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.entity.Ticket;
-import com.example.ticketero.model.enums.TicketStatus;
-import com.example.ticketero.model.enums.EstadoEnvio;
 import com.example.ticketero.model.enums.MessageTemplate;
-import com.example.ticketero.repository.MensajeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -22,14 +32,16 @@ import org.springframework.web.client.RestTemplate;
  * Reglas de Negocio: RN-007 (Máximo 3 reintentos), RN-008 (Backoff exponencial)
  * 
  * Características:
- * - Integración real con Telegram Bot API vía RestTemplate
- * - Sistema de reintentos con backoff exponencial (30s, 60s, 120s)
- * - Plantillas predefinidas en español para diferentes eventos
- * - Procesamiento asíncrono vía MensajeScheduler cada 60s
+ * - Integración real con Telegram Bot API vía RestTemplate con pool de conexiones (TelegramConfig)
+ * - Transporte del canal Telegram de NotificationPipeline (TelegramNotificationChannel)
+ * - HTTP 429 informado como TelegramRateLimitException con el retry_after de Telegram
+ * - Fallos sin respuesta clasificados: sin conexión (reintentable) o con la petición
+ *   ya enviada (EnvioInciertoException, no se reintenta para no duplicar)
+ * - programarMensaje delega en NotificationService, único punto que crea mensajes
  * 
  * Plantillas disponibles: TOTEM_TICKET_CREADO, TOTEM_PROXIMO_TURNO, TOTEM_ES_TU_TURNO
  * 
- * Dependencias: MensajeRepository, RestTemplate (configurado)
+ * Dependencias: NotificationService, telegramRestTemplate (TelegramConfig)
  * 
  * @author Sistema Ticketero
  * @version 1.0
@@ -41,7 +53,11 @@ import org.springframework.web.client.RestTemplate;
 @Transactional(readOnly = true)
 public class TelegramService {
     
-    private final MensajeRepository mensajeRepository;
+    private static final Pattern RETRY_AFTER = Pattern.compile("\"retry_after\"\\s*:\\s*(\\d+)");
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+    
+    private final NotificationService notificationService;
+    private final RestTemplate telegramRestTemplate;
     
     @Value("${telegram.bot-token}")
     private String botToken;
@@ -52,99 +68,91 @@ public class TelegramService {
     @Value("${telegram.default-chat-id:5598409030}")
     private String defaultChatId;
     
-    // RestTemplate como Bean configurado
-    private RestTemplate getRestTemplate() {
-        return new RestTemplate();
-    }
-    
     /**
-     * RF-002: Programa mensaje para envío asíncrono vía scheduler.
-     * Crea registro en cola de mensajes con estado PENDIENTE.
+     * RF-002: Programa mensaje para envío asíncrono e inmediato tras el commit.
      * 
      * @param ticket Ticket asociado al mensaje
      * @param template Plantilla de mensaje a utilizar
      */
     @Transactional
     public void programarMensaje(Ticket ticket, MessageTemplate template) {
-        Mensaje mensaje = Mensaje.builder()
-            .ticket(ticket)
-            .telefono(ticket.getTelefono())
-            .plantilla(template)
-            .estadoEnvio(EstadoEnvio.PENDIENTE)
-            .fechaProgramada(LocalDateTime.now())
-            .intentos(0)
-            .build();
-            
-        mensajeRepository.save(mensaje);
-        log.info("Mensaje programado: {} para ticket: {}", template, ticket.getNumero());
+        notificationService.programar(ticket, template, LocalDateTime.now());
     }
     
     /**
-     * RN-007, RN-008: Envía mensaje vía Telegram Bot API con manejo de reintentos.
-     * Implementa backoff exponencial y límite de 3 intentos.
+     * RF-002: Envía un texto ya renderizado a Telegram Bot API sin abrir transacción.
+     * Usado por TelegramNotificationChannel desde los hilos de envío del pipeline.
      * 
-     * @param mensaje Mensaje a enviar con datos completos
+     * @param chatId Chat de destino
+     * @param contenido Texto en formato Markdown
+     * @return message_id asignado por Telegram
+     * @throws TelegramRateLimitException si Telegram responde HTTP 429
+     * @throws EnvioInciertoException si la petición salió pero no hubo respuesta
+     * @throws RuntimeException si Telegram rechaza el envío o no hubo conexión
      */
-    @Transactional
-    public void enviarMensaje(Mensaje mensaje) {
-        log.info("Enviando mensaje a {}", mensaje.getTelefono());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String enviarTexto(String chatId, String contenido) {
+        // Integración real con Telegram Bot API (token como variable: no queda en las métricas)
+        String url = telegramApiUrl + "{token}/sendMessage";
+        TelegramRequest request = new TelegramRequest(chatId, contenido);
         
+        TelegramResponse response;
         try {
-            String contenido = generarContenidoMensaje(mensaje);
-            
-            // Integración real con Telegram Bot API
-            String url = telegramApiUrl + botToken + "/sendMessage";
-            
-            // Usar chat ID configurable
-            String chatId = defaultChatId;
-            TelegramRequest request = new TelegramRequest(chatId, contenido);
-            
-            RestTemplate restTemplate = getRestTemplate();
-            TelegramResponse response = restTemplate.postForObject(url, request, TelegramResponse.class);
-            
-            if (response != null && response.ok()) {
-                mensaje.setEstadoEnvio(EstadoEnvio.ENVIADO);
-                mensaje.setFechaEnvio(LocalDateTime.now());
-                mensaje.setTelegramMessageId(response.result().message_id());
-                log.info("Mensaje enviado exitosamente: {}", response.result().message_id());
-            } else {
-                throw new RuntimeException("Error en respuesta de Telegram API");
+            response = telegramRestTemplate.postForObject(url, request, TelegramResponse.class, botToken);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new TelegramRateLimitException(chatId, retryAfter(e));
+        } catch (ResourceAccessException e) {
+            if (sinConexion(e)) {
+                throw e;
             }
-            
-            mensajeRepository.save(mensaje);
-            
-        } catch (Exception e) {
-            log.error("Error enviando mensaje: {}", e.getMessage());
-            mensaje.setEstadoEnvio(EstadoEnvio.FALLIDO);
-            mensaje.incrementarIntentos();
-            mensajeRepository.save(mensaje);
+            throw new EnvioInciertoException(chatId, e);
         }
+        
+        if (response == null || !response.ok()) {
+            throw new RuntimeException("Error en respuesta de Telegram API");
+        }
+        
+        log.debug("Mensaje enviado exitosamente: {}", response.result().message_id());
+        return response.result().message_id();
     }
     
     /**
-     * Genera contenido personalizado del mensaje según plantilla y datos del ticket.
-     * Utiliza formato Markdown para mejor presentación en Telegram.
+     * Chat de destino del mensaje. Todos los mensajes van hoy al chat configurado
+     * (telegram.default-chat-id); TelegramRateLimiter limita la tasa por este valor.
      * 
-     * @param mensaje Mensaje con plantilla y ticket asociado
-     * @return Contenido formateado del mensaje
+     * @param mensaje Mensaje a enviar
+     * @return chat_id de Telegram
      */
-    private String generarContenidoMensaje(Mensaje mensaje) {
-        Ticket ticket = mensaje.getTicket();
-        
-        return switch (mensaje.getPlantilla()) {
-            case TOTEM_TICKET_CREADO -> String.format(
-                "🎫 *Ticket Creado*\n\n📋 Número: %s\n📍 Posición: %d\n⏰ Tiempo estimado: %d min",
-                ticket.getNumero(), ticket.getPositionInQueue(), ticket.getEstimatedWaitMinutes()
-            );
-            case TOTEM_PROXIMO_TURNO -> String.format(
-                "🔔 *¡Tu turno está próximo!*\n\n📋 Ticket: %s\n📍 Posición: %d\n🏃 Dirígete a la sucursal",
-                ticket.getNumero(), ticket.getPositionInQueue()
-            );
-            case TOTEM_ES_TU_TURNO -> String.format(
-                "✅ *¡Es tu turno!*\n\n📋 Ticket: %s\n🏢 Módulo: %d\n👤 Te atiende: %s",
-                ticket.getNumero(), ticket.getAssignedModuleNumber(), ticket.getAssignedAdvisor()
-            );
-        };
+    public String resolverChatId(Mensaje mensaje) {
+        return defaultChatId;
+    }
+    
+    /**
+     * Espera indicada por Telegram en un HTTP 429: parameters.retry_after del cuerpo
+     * o, en su defecto, la cabecera Retry-After.
+     */
+    private Duration retryAfter(HttpClientErrorException.TooManyRequests e) {
+        Matcher matcher = RETRY_AFTER.matcher(e.getResponseBodyAsString());
+        if (matcher.find()) {
+            return Duration.ofSeconds(Long.parseLong(matcher.group(1)));
+        }
+        String header = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Retry-After") : null;
+        if (header != null && header.matches("\\d+")) {
+            return Duration.ofSeconds(Long.parseLong(header));
+        }
+        return DEFAULT_RETRY_AFTER;
+    }
+    
+    /**
+     * Fallos de E/S ocurridos antes de escribir la petición: Telegram no pudo recibirla.
+     * Cualquier otro (timeout de lectura, conexión cortada) deja el resultado incierto.
+     */
+    private static boolean sinConexion(ResourceAccessException e) {
+        Throwable causa = e.getCause();
+        return causa instanceof ConnectException
+            || causa instanceof UnknownHostException
+            || causa instanceof ConnectTimeoutException
+            || causa instanceof ConnectionRequestTimeoutException;
     }
     
     // DTOs para Telegram API
@@ -0,0 +1,156 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.TicketSequence;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generador atómico de números de ticket por cola y por día.
+ *
+ * Implementa: RF-001 (Creación de tickets)
+ * Reglas de Negocio: RN-005 (Prefijo por cola), RN-006 (Numeración secuencial diaria)
+ *
+ * Funcionamiento:
+ * - Un contador persistente (ticket_sequence) por QueueType y día
+ * - Reserva de bloques de N números bajo SELECT ... FOR UPDATE, en transacción propia
+ * - Los números del bloque se entregan desde memoria sin volver a la base de datos
+ *
+ * Garantías:
+ * - Varios nodos comparten el contador sin repetir números (bloqueo de fila)
+ * - Un reinicio continúa desde el último valor reservado; los números no usados
+ *   de un bloque se pierden (huecos), nunca se reutilizan
+ * - Con block-size = 1 (por defecto) la numeración es estrictamente correlativa
+ *
+ * La reserva abre su propia conexión: debe invocarse sin una transacción activa
+ * (TicketService.createTicket reserva antes de abrir la suya). Llamarla dentro de
+ * otra transacción retiene dos conexiones por hilo, y con el monitor por cola los
+ * hilos en espera pueden agotar el pool.
+ *
+ * Dependencias: TicketSequenceRepository, PlatformTransactionManager
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class TicketNumberSequence {
+
+    private static final int MAX_INSERT_ATTEMPTS = 2;
+
+    private final TicketSequenceRepository sequenceRepository;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int blockSize;
+
+    private final Map<QueueType, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<QueueType, Object> locks = createLocks();
+
+    public TicketNumberSequence(TicketSequenceRepository sequenceRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${queue.sequence.block-size:1}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("queue.sequence.block-size debe ser mayor a 0: " + blockSize);
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * RN-005, RN-006: Genera el próximo número visible de ticket para la cola.
+     * Formato: [Prefijo][Secuencia] (ej: C01, P02, E103)
+     *
+     * El día debe ser el de la fecha de creación del ticket: el número es único por
+     * (numero, día de created_at), y numerar con otro reloj repite números al cruzar
+     * la medianoche.
+     *
+     * @param queueType Tipo de cola para determinar prefijo y contador
+     * @param day Día de creación del ticket
+     * @return Número de ticket único para la cola en ese día
+     */
+    public String nextNumber(QueueType queueType, LocalDate day) {
+        return String.format("%s%02d", queueType.getPrefix(), next(queueType, day));
+    }
+
+    /**
+     * Entrega el siguiente valor del contador de una cola para un día.
+     * Reserva un nuevo bloque cuando el actual se agota o cambia el día.
+     *
+     * @param queueType Tipo de cola
+     * @param day Día de la numeración
+     * @return Valor secuencial, comenzando en 1 cada día
+     */
+    long next(QueueType queueType, LocalDate day) {
+        synchronized (locks.get(queueType)) {
+            Block block = blocks.get(queueType);
+            if (block == null || !block.day().equals(day) || block.exhausted()) {
+                long last = reserveBlock(queueType, day);
+                block = new Block(day, last - blockSize + 1, last);
+                blocks.put(queueType, block);
+            }
+            long value = block.next();
+            blocks.put(queueType, block.advance());
+            return value;
+        }
+    }
+
+    private long reserveBlock(QueueType queueType, LocalDate day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long last = requiresNewTransaction.execute(status -> {
+                    TicketSequence sequence = sequenceRepository.findForUpdate(queueType, day)
+                        .orElseGet(() -> TicketSequence.builder()
+                            .queueType(queueType)
+                            .sequenceDate(day)
+                            .lastValue(0L)
+                            .build());
+                    long reserved = sequence.reserve(blockSize);
+                    sequenceRepository.saveAndFlush(sequence);
+                    return reserved;
+                });
+                log.debug("Bloque de numeración reservado para {} ({}): hasta {}", queueType, day, last);
+                return last;
+            } catch (DataIntegrityViolationException e) {
+                // Otro nodo creó el contador del día en paralelo: reintentar con la fila ya existente
+                if (attempt >= MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Contador de {} ({}) creado concurrentemente, reintentando", queueType, day);
+            }
+        }
+    }
+
+    private static Map<QueueType, Object> createLocks() {
+        Map<QueueType, Object> map = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) {
+            map.put(queueType, new Object());
+        }
+        return map;
+    }
+
+    /**
+     * Rango de números reservado en memoria para una cola y día.
+     */
+    private record Block(LocalDate day, long next, long last) {
+        boolean exhausted() {
+            return next > last;
+        }
+
+        Block advance() {
+            return new Block(day, next + 1, last);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Motor en memoria que decide qué tickets en espera se asignan a continuación.
+ *
+ * Implementa: RF-004 (Asignación automática)
+ * Reglas de Negocio: RN-002 (Prioridades), RN-003 (FIFO por cola)
+ *
+ * Política de prioridad con envejecimiento:
+ *   prioridad efectiva = QueueType.getPriority() + minutos en espera / queue.priority.aging-minutes
+ *
+ * - GERENCIA(4) > EMPRESAS(3) > PERSONAL_BANKER(2) > CAJA(1) para tickets recién llegados
+ * - Cada aging-minutes de espera suben un nivel, de modo que una cola de baja
+ *   prioridad no espera indefinidamente (0 desactiva el envejecimiento)
+ * - Empates: gana el ticket más antiguo
+ *
+ * Las líneas por cola vienen de WaitingLineIndex, ya ordenadas FIFO: el primero de
+ * cada cola es también el de mayor prioridad efectiva de esa cola. Elegir el próximo
+ * ticket es comparar las cabezas de las colas (O(1) por la cantidad fija de colas) y
+ * obtener los N próximos es una mezcla con un heap de cabezas (O(N log colas)), sin
+ * ordenar en la base de datos. Los tickets creados o asignados en otros nodos
+ * llegan al índice con su conciliación periódica (queue.index.reconcile-interval-seconds).
+ *
+ * claimNext() es el único camino de asignación (QueueManagementService y
+ * AdvisorService): reclama en la base de datos, por clave primaria, los tickets
+ * elegidos por el motor.
+ *
+ * Dependencias: WaitingLineIndex, TicketRepository (solo para el reclamo)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class TicketPriorityEngine {
+
+    private final WaitingLineIndex waitingLineIndex;
+    private final TicketRepository ticketRepository;
+    private final long agingMinutes;
+    private final Clock clock;
+
+    @Autowired
+    public TicketPriorityEngine(WaitingLineIndex waitingLineIndex,
+                                TicketRepository ticketRepository,
+                                @Value("${queue.priority.aging-minutes:15}") long agingMinutes) {
+        this(waitingLineIndex, ticketRepository, agingMinutes, Clock.systemDefaultZone());
+    }
+
+    TicketPriorityEngine(WaitingLineIndex waitingLineIndex, TicketRepository ticketRepository,
+                         long agingMinutes, Clock clock) {
+        this.waitingLineIndex = waitingLineIndex;
+        this.ticketRepository = ticketRepository;
+        this.agingMinutes = agingMinutes;
+        this.clock = clock;
+    }
+
+    /**
+     * RN-002: Próximo ticket a asignar considerando todas las colas.
+     *
+     * @return Optional con el ticket de mayor prioridad efectiva o empty si no hay tickets en espera
+     */
+    public Optional<WaitingLineIndex.WaitingTicket> peekNext() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Comparator<WaitingLineIndex.WaitingTicket> order = assignmentOrder(now);
+
+        WaitingLineIndex.WaitingTicket best = null;
+        for (QueueType queueType : QueueType.values()) {
+            Optional<WaitingLineIndex.WaitingTicket> head = waitingLineIndex.peekNext(queueType);
+            if (head.isPresent() && (best == null || order.compare(head.get(), best) < 0)) {
+                best = head.get();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * RN-002, RN-003: Próximos tickets a asignar, en orden de asignación.
+     *
+     * @param limit Cantidad máxima de tickets (normalmente, ejecutivos disponibles)
+     * @return Tickets ordenados por prioridad efectiva
+     */
+    public List<WaitingLineIndex.WaitingTicket> nextTickets(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        Comparator<WaitingLineIndex.WaitingTicket> order = assignmentOrder(now);
+
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(
+            QueueType.values().length, Comparator.comparing(Cursor::current, order));
+        for (QueueType queueType : QueueType.values()) {
+            List<WaitingLineIndex.WaitingTicket> line = waitingLineIndex.head(queueType, limit);
+            if (!line.isEmpty()) {
+                heads.add(new Cursor(line));
+            }
+        }
+
+        List<WaitingLineIndex.WaitingTicket> selected = new ArrayList<>(limit);
+        while (selected.size() < limit && !heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            selected.add(cursor.current());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * RN-002, RN-004: Reclama los próximos tickets en orden de asignación.
+     * Los candidatos que ya no están en WAITING se descartan del motor; los que
+     * están bloqueados por otra transacción se omiten en esta pasada. Las filas
+     * quedan bloqueadas hasta el fin de la transacción del llamador.
+     *
+     * @param limit Cantidad máxima de tickets
+     * @return Tickets reclamados, en orden de asignación
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Ticket> claimNext(int limit) {
+        List<Long> candidates = nextTickets(limit).stream()
+            .map(WaitingLineIndex.WaitingTicket::ticketId)
+            .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Ticket> claimed = ticketRepository.claimWaitingByIds(candidates).stream()
+            .collect(Collectors.toMap(Ticket::getId, Function.identity()));
+        if (claimed.size() < candidates.size()) {
+            discardStale(candidates, claimed.keySet());
+        }
+
+        return candidates.stream()
+            .map(claimed::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * Descarta tickets que la base de datos ya no tiene en espera (por ejemplo,
+     * asignados por otro nodo) para que no vuelvan a ser candidatos.
+     *
+     * @param ticketIds IDs de los tickets a descartar
+     */
+    public void discard(Collection<Long> ticketIds) {
+        ticketIds.forEach(waitingLineIndex::evict);
+        log.debug("Descartados {} tickets obsoletos del motor de asignación", ticketIds.size());
+    }
+
+    /**
+     * Descarta los candidatos no reclamados que ya no están en espera (asignados o
+     * cancelados por otro nodo). Los que siguen en WAITING solo estaban bloqueados
+     * y se conservan.
+     */
+    private void discardStale(List<Long> candidates, Set<Long> claimed) {
+        List<Long> unclaimed = candidates.stream()
+            .filter(id -> !claimed.contains(id))
+            .toList();
+        Set<Long> stillWaiting = ticketRepository.findAllById(unclaimed).stream()
+            .filter(ticket -> ticket.getStatus() == TicketStatus.WAITING)
+            .map(Ticket::getId)
+            .collect(Collectors.toSet());
+        List<Long> stale = unclaimed.stream()
+            .filter(id -> !stillWaiting.contains(id))
+            .toList();
+        if (!stale.isEmpty()) {
+            discard(stale);
+        }
+    }
+
+    /**
+     * Prioridad efectiva de un ticket en un momento dado.
+     *
+     * @param ticket Ticket en espera
+     * @param now Momento de evaluación
+     * @return Prioridad de la cola más los niveles ganados por envejecimiento
+     */
+    double effectivePriority(WaitingLineIndex.WaitingTicket ticket, LocalDateTime now) {
+        int base = ticket.queueType().getPriority();
+        if (agingMinutes <= 0 || ticket.fechaCreacion() == null) {
+            return base;
+        }
+        double waitedMinutes = Math.max(0, Duration.between(ticket.fechaCreacion(), now).toSeconds() / 60.0);
+        return base + waitedMinutes / agingMinutes;
+    }
+
+    private Comparator<WaitingLineIndex.WaitingTicket> assignmentOrder(LocalDateTime now) {
+        return Comparator
+            .comparingDouble((WaitingLineIndex.WaitingTicket ticket) -> effectivePriority(ticket, now)).reversed()
+            .thenComparing(WaitingLineIndex.WaitingTicket::fechaCreacion, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(WaitingLineIndex.WaitingTicket::ticketId);
+    }
+
+    /**
+     * Posición de lectura sobre la línea FIFO de una cola durante la mezcla.
+     */
+    private static final class Cursor {
+
+        private final List<WaitingLineIndex.WaitingTicket> line;
+        private int index;
+
+        private Cursor(List<WaitingLineIndex.WaitingTicket> line) {
+            this.line = line;
+        }
+
+        WaitingLineIndex.WaitingTicket current() {
+            return line.get(index);
+        }
+
+        boolean advance() {
+            return ++index < line.size();
+        }
+    }
+}
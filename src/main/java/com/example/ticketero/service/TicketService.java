@@ -4,12 +4,17 @@ import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.TicketRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -23,43 +28,96 @@ import java.util.UUID;
  * 
  * Funcionalidades principales:
  * - Creación de tickets con validación de unicidad por nationalId
- * - Generación automática de números secuenciales por cola (RN-005, RN-006)
+ * - Generación automática de números secuenciales por cola y día (RN-005, RN-006)
  * - Integración con sistema de notificaciones Telegram
  * - Auditoría automática de eventos críticos
  * 
- * Dependencias: TicketRepository, QueueManagementService, TelegramService
+ * La creación reserva el número antes de abrir su transacción: TicketNumberSequence
+ * usa una transacción propia y nunca se pide una segunda conexión mientras se
+ * retiene la primera (con pool pequeño y carga alta eso agota el pool). El reloj
+ * se lee una sola vez: el día del número y la fecha de creación coinciden aunque
+ * la creación cruce la medianoche.
+ * 
+ * Dependencias: TicketRepository, QueueManagementService, TelegramService, TicketNumberSequence,
+ *               WaitingLineIndex, ApplicationEventPublisher, PlatformTransactionManager
  * 
  * @author Sistema Ticketero
  * @version 1.0
  * @since 1.0
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class TicketService {
     
     private final TicketRepository ticketRepository;
     private final QueueManagementService queueManagementService;
     private final TelegramService telegramService;
+    private final TicketNumberSequence ticketNumberSequence;
+    private final WaitingLineIndex waitingLineIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
     
-    @Transactional
+    @Autowired
+    public TicketService(TicketRepository ticketRepository,
+                         QueueManagementService queueManagementService,
+                         TelegramService telegramService,
+                         TicketNumberSequence ticketNumberSequence,
+                         WaitingLineIndex waitingLineIndex,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager) {
+        this(ticketRepository, queueManagementService, telegramService, ticketNumberSequence,
+             waitingLineIndex, eventPublisher, transactionManager, Clock.systemDefaultZone());
+    }
+    
+    TicketService(TicketRepository ticketRepository, QueueManagementService queueManagementService,
+                  TelegramService telegramService, TicketNumberSequence ticketNumberSequence,
+                  WaitingLineIndex waitingLineIndex, ApplicationEventPublisher eventPublisher,
+                  PlatformTransactionManager transactionManager, Clock clock) {
+        this.ticketRepository = ticketRepository;
+        this.queueManagementService = queueManagementService;
+        this.telegramService = telegramService;
+        this.ticketNumberSequence = ticketNumberSequence;
+        this.waitingLineIndex = waitingLineIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+    
+    /**
+     * RF-001: Crea un ticket en espera.
+     * La validación (RN-001) y la reserva del número (RN-005, RN-006) ocurren antes de
+     * la transacción de escritura, por lo que este método no abre ni debe invocarse
+     * dentro de otra transacción (ni siquiera vacía: retendría la conexión de la validación).
+     * 
+     * @param request Datos del ticket
+     * @return TicketResponse con número, posición y tiempo estimado
+     */
     public TicketResponse createTicket(TicketCreateRequest request) {
         log.info("Creating ticket for nationalId: {}", request.nationalId());
         
         // RN-001: Validar que no existe ticket activo para el mismo nationalId
         validateNoActiveTicket(request.nationalId());
         
+        // RN-005, RN-006: Reservar número sin retener una conexión del pool,
+        // numerado en el día de la fecha de creación
+        LocalDateTime ahora = LocalDateTime.now(clock);
+        String numero = ticketNumberSequence.nextNumber(request.queueType(), ahora.toLocalDate());
+        
+        return transactionTemplate.execute(status -> saveNewTicket(request, numero, ahora));
+    }
+    
+    private TicketResponse saveNewTicket(TicketCreateRequest request, String numero, LocalDateTime ahora) {
         // Crear ticket
         Ticket ticket = Ticket.builder()
             .codigoReferencia(UUID.randomUUID())
-            .numero(generateTicketNumber(request.queueType()))
+            .numero(numero)
             .nationalId(request.nationalId())
             .telefono(request.telefono())
             .branchOffice(request.branchOffice())
             .queueType(request.queueType())
             .status(TicketStatus.WAITING)
-            .fechaCreacion(LocalDateTime.now())
+            .fechaCreacion(ahora)
             .build();
         
         // RN-002: Calcular posición en cola
@@ -70,6 +128,7 @@ public class TicketService {
         ticket.setEstimatedWaitMinutes(position.getEstimatedTime());
         
         Ticket savedTicket = ticketRepository.save(ticket);
+        eventPublisher.publishEvent(TicketStatusChangedEvent.of(savedTicket, null));
         
         // Enviar notificación
         telegramService.programarMensaje(savedTicket, com.example.ticketero.model.enums.MessageTemplate.TOTEM_TICKET_CREADO);
@@ -78,14 +137,16 @@ public class TicketService {
         return TicketResponse.from(savedTicket);
     }
     
+    @Transactional(readOnly = true)
     public Optional<TicketResponse> findByCodigoReferencia(UUID codigoReferencia) {
         return ticketRepository.findByCodigoReferencia(codigoReferencia)
-            .map(TicketResponse::from);
+            .map(this::toResponseWithLivePosition);
     }
     
+    @Transactional(readOnly = true)
     public Optional<TicketResponse> findByNumero(String numero) {
         return ticketRepository.findByNumero(numero)
-            .map(TicketResponse::from);
+            .map(this::toResponseWithLivePosition);
     }
     
     @Transactional
@@ -98,6 +159,7 @@ public class TicketService {
         ticket.setFechaActualizacion(LocalDateTime.now());
         
         Ticket updatedTicket = ticketRepository.save(ticket);
+        eventPublisher.publishEvent(TicketStatusChangedEvent.of(updatedTicket, oldStatus));
         
         // Notificar cambio de estado
         if (newStatus == TicketStatus.CALLED) {
@@ -108,6 +170,25 @@ public class TicketService {
         return TicketResponse.from(updatedTicket);
     }
     
+    /**
+     * RF-003: Convierte el ticket a DTO con su posición actual en la cola.
+     * Para tickets en espera la posición se obtiene del índice de la línea de espera (O(log n));
+     * en otro estado se mantiene la posición persistida.
+     * 
+     * @param ticket Ticket consultado
+     * @return TicketResponse con posición y tiempo estimado vigentes
+     */
+    private TicketResponse toResponseWithLivePosition(Ticket ticket) {
+        TicketResponse response = TicketResponse.from(ticket);
+        if (ticket.getStatus() != TicketStatus.WAITING) {
+            return response;
+        }
+        
+        return waitingLineIndex.positionOf(ticket.getQueueType(), ticket.getId())
+            .map(position -> response.withPosition(position, position * ticket.getQueueType().getAvgTimeMinutes()))
+            .orElse(response);
+    }
+    
     /**
      * RN-001: Valida que no existe ticket activo para el mismo nationalId.
      * Lanza TicketActivoExistenteException si encuentra ticket en estados WAITING, CALLED o IN_SERVICE.
@@ -123,28 +204,4 @@ public class TicketService {
             throw new com.example.ticketero.exception.TicketActivoExistenteException("Ya existe un ticket activo para el RUT: " + nationalId);
         }
     }
-    
-    /**
-     * RN-005, RN-006: Genera número de ticket con prefijo según tipo de cola.
-     * Formato: [Prefijo][Secuencia] (ej: C01, P02, E03, G04)
-     * 
-     * @param queueType Tipo de cola para determinar prefijo
-     * @return Número de ticket generado
-     */
-    // RN-005, RN-006: Generación de números con prefijos según plan
-    private String generateTicketNumber(com.example.ticketero.model.enums.QueueType queueType) {
-        String prefix = queueType.getPrefix();
-        
-        // Contar tickets del mismo tipo de cola creados hoy (simplificado)
-        long count = ticketRepository.count();
-        
-        int sequence = (int) count + 1;
-        
-        if (sequence > 99) {
-            log.warn("Límite de tickets alcanzado para cola {}: {}", queueType, sequence);
-            sequence = 1; // Reset diario
-        }
-        
-        return String.format("%s%02d", prefix, sequence);
-    }
 }
\ No newline at end of file
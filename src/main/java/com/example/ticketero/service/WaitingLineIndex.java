@@ -0,0 +1,440 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
+import com.example.ticketero.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice en memoria de la línea de espera, con una estructura ordenada por cola.
+ *
+ * Implementa: RF-003 (Cálculo de posiciones), RF-005 (Gestión de múltiples colas)
+ * Reglas de Negocio: RN-003 (Orden FIFO por cola), RN-010 (Tiempo estimado)
+ *
+ * Funcionamiento:
+ * - Se carga desde la base de datos al iniciar la aplicación (tickets WAITING)
+ * - Se mantiene actualizado con cada TicketStatusChangedEvent tras el commit
+ * - Cada queue.index.reconcile-interval-seconds (30s por defecto) se concilia con
+ *   la base de datos: recoge los tickets creados o asignados por otros nodos, que
+ *   no publican eventos en esta instancia
+ * - Un árbol de Fenwick por QueueType sobre slots de llegada (fechaCreacion, id):
+ *   posición de un ticket y ticket en la posición k en O(log n), conteo en O(1)
+ *
+ * Los slots liberados se compactan cuando el árbol se llena, y una llegada fuera de
+ * orden (commit tardío de un ticket más antiguo) fuerza una compactación ordenada.
+ * Ambos casos son O(n log n) y poco frecuentes; la conciliación agrega sus tickets
+ * de una vez con a lo sumo una compactación por cola.
+ *
+ * La conciliación consulta la base de datos sin bloquear el índice y luego aplica
+ * solo la diferencia; los tickets con eventos recibidos durante la consulta se
+ * dejan como los dejó el evento, que es más reciente que la consulta.
+ *
+ * Las lecturas (conteo, posición, primeros N) no tocan la base de datos; el conteo
+ * no toma locks y el resto solo el de su cola. Las escrituras se serializan sobre
+ * el propio índice.
+ *
+ * Dependencias: TicketRepository (solo para la carga y la conciliación)
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingLineIndex {
+
+    private static final Comparator<WaitingTicket> FIFO_ORDER = Comparator
+        .comparing(WaitingTicket::fechaCreacion, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(WaitingTicket::ticketId);
+
+    private final TicketRepository ticketRepository;
+
+    private final Map<QueueType, RankedLine> lines = createLines();
+    private final Map<Long, WaitingTicket> ticketsById = new ConcurrentHashMap<>();
+    private final Object reconciliation = new Object();
+
+    // Tickets con eventos durante la consulta de una conciliación (null fuera de ella)
+    private Set<Long> changedDuringReconcile;
+
+    /**
+     * Concilia el índice con los tickets WAITING de la base de datos.
+     * Ejecutado al iniciar la aplicación y periódicamente.
+     *
+     * @return Desviación corregida (tickets agregados más tickets quitados)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${queue.index.reconcile-interval-seconds:30}",
+               fixedRateString = "${queue.index.reconcile-interval-seconds:30}",
+               timeUnit = TimeUnit.SECONDS)
+    public int reconcile() {
+        synchronized (reconciliation) {
+            synchronized (this) {
+                changedDuringReconcile = new HashSet<>();
+            }
+            List<Ticket> waiting;
+            try {
+                waiting = ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringReconcile = null;
+                }
+                throw e;
+            }
+            return apply(waiting);
+        }
+    }
+
+    private synchronized int apply(List<Ticket> waiting) {
+        Set<Long> changed = changedDuringReconcile;
+        changedDuringReconcile = null;
+
+        int drift = 0;
+        Set<Long> waitingIds = new HashSet<>();
+        Map<QueueType, List<WaitingTicket>> missing = new EnumMap<>(QueueType.class);
+        for (Ticket ticket : waiting) {
+            waitingIds.add(ticket.getId());
+            if (!changed.contains(ticket.getId()) && !ticketsById.containsKey(ticket.getId())) {
+                WaitingTicket entry = new WaitingTicket(ticket.getId(), ticket.getNumero(),
+                                                        ticket.getQueueType(), ticket.getFechaCreacion());
+                ticketsById.put(entry.ticketId(), entry);
+                missing.computeIfAbsent(entry.queueType(), queueType -> new ArrayList<>()).add(entry);
+                drift++;
+            }
+        }
+        missing.forEach((queueType, entries) -> lines.get(queueType).addAll(entries));
+        for (Long ticketId : List.copyOf(ticketsById.keySet())) {
+            if (!changed.contains(ticketId) && !waitingIds.contains(ticketId)) {
+                remove(ticketId);
+                drift++;
+            }
+        }
+
+        if (drift > 0) {
+            log.info("Índice de línea de espera conciliado con la base de datos: {} tickets (desviación: {})",
+                    ticketsById.size(), drift);
+        }
+        return drift;
+    }
+
+    /**
+     * Mantiene el índice al día con cada transición de estado confirmada.
+     * Un ticket entra al índice al pasar a WAITING y sale con cualquier otro estado.
+     *
+     * @param event Evento de cambio de estado del ticket
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        if (event.ticketId() == null) {
+            return;
+        }
+        markChanged(event.ticketId());
+
+        if (event.newStatus() == TicketStatus.WAITING) {
+            remove(event.ticketId());
+            add(new WaitingTicket(event.ticketId(), event.numero(), event.queueType(), event.fechaCreacion()));
+        } else {
+            remove(event.ticketId());
+        }
+    }
+
+    /**
+     * Quita del índice un ticket que la base de datos ya no tiene en espera
+     * (por ejemplo, asignado por otra instancia sin pasar por este nodo).
+     *
+     * @param ticketId ID del ticket
+     */
+    public synchronized void evict(Long ticketId) {
+        markChanged(ticketId);
+        remove(ticketId);
+    }
+
+    /**
+     * Cantidad de tickets en espera para una cola (O(1)).
+     *
+     * @param queueType Tipo de cola
+     * @return Tickets en estado WAITING
+     */
+    public int countWaiting(QueueType queueType) {
+        return lines.get(queueType).size();
+    }
+
+    /**
+     * RN-010: Posición que obtendría un ticket que llega ahora a la cola.
+     *
+     * @param queueType Tipo de cola
+     * @return Tickets en espera + 1
+     */
+    public int positionForNewArrival(QueueType queueType) {
+        return countWaiting(queueType) + 1;
+    }
+
+    /**
+     * RF-003: Posición actual de un ticket en espera dentro de su cola (O(log n)).
+     *
+     * @param queueType Cola del ticket
+     * @param ticketId ID del ticket
+     * @return Optional con la posición (1 = próximo) o empty si no está en espera
+     */
+    public Optional<Integer> positionOf(QueueType queueType, Long ticketId) {
+        return lines.get(queueType).positionOf(ticketId);
+    }
+
+    /**
+     * Próximo ticket a ser llamado en una cola según orden FIFO (RN-003).
+     *
+     * @param queueType Tipo de cola
+     * @return Optional con el primer ticket en espera
+     */
+    public Optional<WaitingTicket> peekNext(QueueType queueType) {
+        return head(queueType, 1).stream().findFirst();
+    }
+
+    /**
+     * Primeros N tickets en espera de una cola, en orden FIFO.
+     *
+     * @param queueType Tipo de cola
+     * @param limit Cantidad máxima de tickets a retornar
+     * @return Lista ordenada de tickets en espera
+     */
+    public List<WaitingTicket> head(QueueType queueType, int limit) {
+        return lines.get(queueType).first(limit);
+    }
+
+    private void markChanged(Long ticketId) {
+        if (changedDuringReconcile != null) {
+            changedDuringReconcile.add(ticketId);
+        }
+    }
+
+    private void add(WaitingTicket ticket) {
+        ticketsById.put(ticket.ticketId(), ticket);
+        lines.get(ticket.queueType()).add(ticket);
+    }
+
+    private void remove(Long ticketId) {
+        WaitingTicket existing = ticketsById.remove(ticketId);
+        if (existing != null) {
+            lines.get(existing.queueType()).remove(ticketId);
+        }
+    }
+
+    private static Map<QueueType, RankedLine> createLines() {
+        Map<QueueType, RankedLine> map = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) {
+            map.put(queueType, new RankedLine());
+        }
+        return map;
+    }
+
+    /**
+     * Línea de una cola: árbol de Fenwick (Binary Indexed Tree) sobre slots de llegada.
+     * Índices 1-based; la capacidad es siempre potencia de dos para el select binario.
+     */
+    static final class RankedLine {
+
+        private static final int MIN_CAPACITY = 16;
+
+        private int[] tree = new int[MIN_CAPACITY + 1];
+        private WaitingTicket[] slots = new WaitingTicket[MIN_CAPACITY + 1];
+        private final Map<Long, Integer> slotByTicket = new HashMap<>();
+        private WaitingTicket lastAppended;
+        private int nextSlot = 1;
+        private volatile int size;
+
+        synchronized void add(WaitingTicket ticket) {
+            if (slotByTicket.containsKey(ticket.ticketId())) {
+                return;
+            }
+
+            if (lastAppended != null && FIFO_ORDER.compare(ticket, lastAppended) < 0) {
+                // Llegada fuera de orden: reordenar todos los slots incluyendo el nuevo ticket
+                List<WaitingTicket> live = liveTickets();
+                live.add(ticket);
+                compact(live);
+                return;
+            }
+
+            if (nextSlot > capacity()) {
+                compact(liveTickets());
+            }
+
+            int slot = nextSlot++;
+            place(slot, ticket);
+            update(slot, 1);
+            size++;
+        }
+
+        /**
+         * Agrega varios tickets con a lo sumo una compactación.
+         */
+        synchronized void addAll(List<WaitingTicket> tickets) {
+            List<WaitingTicket> nuevos = new ArrayList<>(tickets.size());
+            for (WaitingTicket ticket : tickets) {
+                if (!slotByTicket.containsKey(ticket.ticketId())) {
+                    nuevos.add(ticket);
+                }
+            }
+            if (nuevos.isEmpty()) {
+                return;
+            }
+            nuevos.sort(FIFO_ORDER);
+
+            if (lastAppended != null && FIFO_ORDER.compare(nuevos.get(0), lastAppended) < 0) {
+                List<WaitingTicket> live = liveTickets();
+                live.addAll(nuevos);
+                compact(live);
+                return;
+            }
+            nuevos.forEach(this::add);
+        }
+
+        synchronized void remove(Long ticketId) {
+            Integer slot = slotByTicket.remove(ticketId);
+            if (slot == null) {
+                return;
+            }
+            slots[slot] = null;
+            update(slot, -1);
+            size--;
+        }
+
+        synchronized Optional<Integer> positionOf(Long ticketId) {
+            Integer slot = slotByTicket.get(ticketId);
+            return slot == null ? Optional.empty() : Optional.of(prefixSum(slot));
+        }
+
+        synchronized List<WaitingTicket> first(int limit) {
+            int count = Math.min(limit, size);
+            List<WaitingTicket> result = new ArrayList<>(count);
+            for (int k = 1; k <= count; k++) {
+                result.add(slots[select(k)]);
+            }
+            return result;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int capacity() {
+            return tree.length - 1;
+        }
+
+        private void place(int slot, WaitingTicket ticket) {
+            slots[slot] = ticket;
+            slotByTicket.put(ticket.ticketId(), slot);
+            lastAppended = ticket;
+        }
+
+        private void update(int index, int delta) {
+            for (int i = index; i <= capacity(); i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private int prefixSum(int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Slot del k-ésimo ticket en espera (1-based) por descenso binario en el árbol.
+         */
+        private int select(int k) {
+            int position = 0;
+            int remaining = k;
+            for (int step = capacity(); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= capacity() && tree[next] < remaining) {
+                    position = next;
+                    remaining -= tree[next];
+                }
+            }
+            return position + 1;
+        }
+
+        private List<WaitingTicket> liveTickets() {
+            List<WaitingTicket> live = new ArrayList<>(size + 1);
+            for (int slot = 1; slot < nextSlot; slot++) {
+                if (slots[slot] != null) {
+                    live.add(slots[slot]);
+                }
+            }
+            return live;
+        }
+
+        /**
+         * Reasigna slots consecutivos en orden FIFO y reconstruye el árbol en O(n).
+         * La capacidad queda en al menos el doble de los tickets vivos.
+         */
+        private void compact(List<WaitingTicket> tickets) {
+            List<WaitingTicket> ordered = new ArrayList<>(tickets);
+            ordered.sort(FIFO_ORDER);
+
+            int capacity = MIN_CAPACITY;
+            while (capacity < ordered.size() * 2) {
+                capacity <<= 1;
+            }
+
+            tree = new int[capacity + 1];
+            slots = new WaitingTicket[capacity + 1];
+            slotByTicket.clear();
+            lastAppended = null;
+            nextSlot = 1;
+
+            for (WaitingTicket ticket : ordered) {
+                place(nextSlot++, ticket);
+            }
+            size = ordered.size();
+
+            Arrays.fill(tree, 1, size + 1, 1);
+            for (int i = 1; i <= capacity; i++) {
+                int parent = i + (i & -i);
+                if (parent <= capacity) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Entrada inmutable del índice con los datos mínimos de un ticket en espera.
+     *
+     * @param ticketId ID del ticket
+     * @param numero Número visible del ticket
+     * @param queueType Cola del ticket
+     * @param fechaCreacion Fecha de creación (orden FIFO)
+     */
+    public record WaitingTicket(
+        Long ticketId,
+        String numero,
+        QueueType queueType,
+        LocalDateTime fechaCreacion
+    ) {}
+}
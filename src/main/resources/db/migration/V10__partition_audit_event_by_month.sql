@@ -0,0 +1,85 @@
+-- V10__partition_audit_event_by_month.sql
+-- audit_event particionada por mes sobre timestamp (RF-008, RN-013)
+-- Las consultas por rango de fechas solo recorren las particiones del período y la
+-- retención de 7 años se aplica desvinculando particiones completas (AuditPartitionScheduler)
+
+-- La tabla actual pasa a ser temporal; sus índices y su PK liberan los nombres
+ALTER TABLE audit_event RENAME TO audit_event_legacy;
+ALTER TABLE audit_event_legacy RENAME CONSTRAINT audit_event_pkey TO audit_event_legacy_pkey;
+DROP INDEX idx_audit_ticket_lookup;
+DROP INDEX idx_audit_event_type;
+DROP INDEX idx_audit_actor;
+DROP INDEX idx_audit_chain_position;
+
+-- La PK de una tabla particionada debe incluir la columna de partición
+CREATE TABLE audit_event (
+    id BIGINT NOT NULL DEFAULT nextval('audit_event_id_seq'),
+    timestamp TIMESTAMP(3) WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    event_type VARCHAR(50) NOT NULL,
+    actor VARCHAR(100) NOT NULL,
+    actor_type VARCHAR(20) NOT NULL,
+    ticket_id BIGINT REFERENCES ticket(id),
+    ticket_number VARCHAR(10),
+    previous_state VARCHAR(20),
+    new_state VARCHAR(20),
+    additional_data TEXT,
+    ip_address VARCHAR(45),
+    integrity_hash VARCHAR(64) NOT NULL,
+    chain_key VARCHAR(7),
+    chain_seq BIGINT,
+    previous_hash VARCHAR(64),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- La secuencia sobrevive al DROP de la tabla anterior
+ALTER SEQUENCE audit_event_id_seq OWNED BY audit_event.id;
+
+-- Índices para consultas de auditoría (RF-008), creados en cada partición
+CREATE INDEX idx_audit_ticket_lookup ON audit_event (ticket_id, timestamp);
+CREATE INDEX idx_audit_event_type ON audit_event (event_type, timestamp);
+CREATE INDEX idx_audit_actor ON audit_event (actor, timestamp);
+CREATE INDEX idx_audit_chain_position ON audit_event (chain_key, chain_seq);
+
+-- Filas fuera de toda partición mensual (mantenimiento atrasado): no se pierde auditoría
+CREATE TABLE audit_event_default PARTITION OF audit_event DEFAULT;
+
+-- Una partición por mes con datos, hasta 3 meses adelante. Cada cadena de hashes
+-- (chain_key = mes) vive en su partición, por lo que la unicidad de la posición
+-- se declara por partición
+DO $$
+DECLARE
+    mes DATE;
+    nombre TEXT;
+BEGIN
+    FOR mes IN
+        SELECT generate_series(
+            date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM audit_event_legacy), NOW())),
+            date_trunc('month', NOW()) + INTERVAL '3 months',
+            INTERVAL '1 month')::DATE
+    LOOP
+        nombre := 'audit_event_' || to_char(mes, 'YYYY_MM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_event FOR VALUES FROM (%L) TO (%L)',
+                       nombre, mes, (mes + INTERVAL '1 month')::DATE);
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (chain_key, chain_seq)', nombre || '_chain_uk', nombre);
+    END LOOP;
+END $$;
+
+INSERT INTO audit_event (id, timestamp, event_type, actor, actor_type, ticket_id, ticket_number,
+                         previous_state, new_state, additional_data, ip_address, integrity_hash,
+                         chain_key, chain_seq, previous_hash)
+SELECT id, timestamp, event_type, actor, actor_type, ticket_id, ticket_number,
+       previous_state, new_state, additional_data, ip_address, integrity_hash,
+       chain_key, chain_seq, previous_hash
+FROM audit_event_legacy;
+
+DROP TABLE audit_event_legacy;
+
+-- Comentarios
+COMMENT ON TABLE audit_event IS 'Registro inmutable de eventos críticos del sistema, particionado por mes';
+COMMENT ON TABLE audit_event_default IS 'Eventos sin partición mensual; debe permanecer vacía';
+COMMENT ON COLUMN audit_event.timestamp IS 'Timestamp con precisión de milisegundos; clave de partición';
+COMMENT ON COLUMN audit_event.additional_data IS 'Información variable en formato JSONB';
+COMMENT ON COLUMN audit_event.integrity_hash IS 'SHA-256 del contenido del evento, su posición y previous_hash';
+COMMENT ON COLUMN audit_event.chain_key IS 'Mes de la cadena (yyyy-MM); NULL en eventos anteriores a la cadena';
+COMMENT ON COLUMN audit_event.chain_seq IS 'Posición del evento dentro de su cadena, desde 1';
+COMMENT ON COLUMN audit_event.previous_hash IS 'integrity_hash del evento anterior de la cadena; NULL en el primero';
@@ -0,0 +1,11 @@
+-- V11__add_audit_keyset_indexes.sql
+-- Índices para la paginación keyset de auditoría por (timestamp, id) (RF-008)
+-- Cada página es un recorrido acotado del índice, sin ordenar ni saltar filas previas
+
+DROP INDEX idx_audit_actor;
+CREATE INDEX idx_audit_actor ON audit_event (actor, timestamp, id);
+
+-- El historial por ticket filtra por ticket_number, que no tenía índice
+CREATE INDEX idx_audit_ticket_number ON audit_event (ticket_number, timestamp, id);
+
+CREATE INDEX idx_audit_timestamp ON audit_event (timestamp, id);
@@ -0,0 +1,29 @@
+-- V12__create_audit_rollup_tables.sql
+-- Rollups horarios de auditoría para el resumen de /api/audit/summary (RF-008)
+
+CREATE TABLE audit_rollup_event_type (
+    id BIGSERIAL PRIMARY KEY,
+    hour_start TIMESTAMP(3) WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    event_count BIGINT NOT NULL,
+    CONSTRAINT uk_audit_rollup_event_type UNIQUE (hour_start, event_type)
+);
+
+CREATE TABLE audit_rollup_actor (
+    id BIGSERIAL PRIMARY KEY,
+    hour_start TIMESTAMP(3) WITH TIME ZONE NOT NULL,
+    actor VARCHAR(100) NOT NULL,
+    actor_type VARCHAR(20) NOT NULL,
+    event_count BIGINT NOT NULL,
+    CONSTRAINT uk_audit_rollup_actor UNIQUE (hour_start, actor, actor_type)
+);
+
+CREATE TABLE audit_rollup_state (
+    name VARCHAR(30) PRIMARY KEY,
+    compacted_until TIMESTAMP(3) WITH TIME ZONE
+);
+
+-- Comentarios
+COMMENT ON TABLE audit_rollup_event_type IS 'Eventos de auditoría por hora y tipo; escrita por AuditRollupService';
+COMMENT ON TABLE audit_rollup_actor IS 'Eventos de auditoría por hora y actor; escrita por AuditRollupService';
+COMMENT ON COLUMN audit_rollup_state.compacted_until IS 'Inicio de la primera hora sin compactar; lo posterior se agrupa desde audit_event';
@@ -0,0 +1,18 @@
+-- V13__create_audit_archive_table.sql
+-- Meses de auditoría archivados en archivos columnares comprimidos (RF-008, RN-013)
+
+CREATE TABLE audit_archive (
+    archive_month VARCHAR(7) PRIMARY KEY,
+    file_name VARCHAR(100) NOT NULL,
+    event_count BIGINT NOT NULL,
+    min_timestamp TIMESTAMP(3) WITH TIME ZONE NOT NULL,
+    max_timestamp TIMESTAMP(3) WITH TIME ZONE NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    sha256 VARCHAR(64) NOT NULL,
+    archived_at TIMESTAMP(3) WITH TIME ZONE NOT NULL
+);
+
+-- Comentarios
+COMMENT ON TABLE audit_archive IS 'Meses retirados de audit_event a archivos de audit.archive.dir; escrita por AuditArchiveService';
+COMMENT ON COLUMN audit_archive.file_name IS 'Archivo columnar comprimido, relativo a audit.archive.dir';
+COMMENT ON COLUMN audit_archive.sha256 IS 'SHA-256 del archivo completo; se valida en cada lectura';
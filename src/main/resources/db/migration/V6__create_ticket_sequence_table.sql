@@ -0,0 +1,22 @@
+-- V6__create_ticket_sequence_table.sql
+-- Numeración atómica de tickets por cola y por día (RN-005, RN-006)
+
+CREATE TABLE ticket_sequence (
+    id BIGSERIAL PRIMARY KEY,
+    queue_type VARCHAR(20) NOT NULL,
+    sequence_date DATE NOT NULL,
+    last_value BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT uk_ticket_sequence_queue_date UNIQUE (queue_type, sequence_date),
+    CONSTRAINT chk_ticket_sequence_last_value CHECK (last_value >= 0)
+);
+
+-- La numeración se reinicia cada día: el número visible deja de ser único global
+-- y pasa a ser único por día de creación
+ALTER TABLE ticket DROP CONSTRAINT ticket_numero_key;
+
+CREATE UNIQUE INDEX idx_ticket_numero_dia
+ON ticket (numero, (CAST(created_at AS DATE)));
+
+COMMENT ON TABLE ticket_sequence IS 'Último número reservado por cola y día, reservado con SELECT ... FOR UPDATE';
+COMMENT ON COLUMN ticket_sequence.last_value IS 'Último valor entregado o reservado en bloque; nunca retrocede';
@@ -0,0 +1,8 @@
+-- V7__add_assignment_version_columns.sql
+-- Control de concurrencia optimista para la asignación de tickets (RN-004)
+
+ALTER TABLE ticket ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE advisor ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN ticket.version IS 'Versión para bloqueo optimista (@Version); detecta asignaciones concurrentes';
+COMMENT ON COLUMN advisor.version IS 'Versión para bloqueo optimista (@Version); detecta asignaciones concurrentes';
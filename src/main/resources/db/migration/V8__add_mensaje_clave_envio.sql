@@ -0,0 +1,11 @@
+-- V8__add_mensaje_clave_envio.sql
+-- Envíos idempotentes: clave por mensaje y estado ENVIANDO (RF-002)
+
+ALTER TABLE mensaje ADD COLUMN clave_envio VARCHAR(36);
+UPDATE mensaje SET clave_envio = 'msg-' || id WHERE clave_envio IS NULL;
+ALTER TABLE mensaje ALTER COLUMN clave_envio SET NOT NULL;
+
+CREATE UNIQUE INDEX idx_mensaje_clave_envio ON mensaje(clave_envio);
+
+COMMENT ON COLUMN mensaje.clave_envio IS 'Clave de envío única; se conserva entre reintentos y en la reconciliación';
+COMMENT ON COLUMN mensaje.estado_envio IS 'PENDIENTE, ENVIANDO (en curso, resultado no registrado), ENVIADO, FALLIDO, DESCARTADO';
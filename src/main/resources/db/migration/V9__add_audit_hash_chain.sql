@@ -0,0 +1,25 @@
+-- V9__add_audit_hash_chain.sql
+-- Cadena de hashes de auditoría por mes, verificable de forma incremental (RF-008, RN-011)
+
+ALTER TABLE audit_event ADD COLUMN chain_key VARCHAR(7);
+ALTER TABLE audit_event ADD COLUMN chain_seq BIGINT;
+ALTER TABLE audit_event ADD COLUMN previous_hash VARCHAR(64);
+
+-- Posición única dentro de la cadena; también sirve a la lectura por tramos del verificador
+CREATE UNIQUE INDEX idx_audit_chain_position ON audit_event (chain_key, chain_seq);
+
+CREATE TABLE audit_chain (
+    chain_key VARCHAR(7) PRIMARY KEY,
+    last_seq BIGINT NOT NULL DEFAULT 0,
+    last_hash VARCHAR(64),
+    verified_seq BIGINT NOT NULL DEFAULT 0,
+    verified_hash VARCHAR(64),
+    verified_at TIMESTAMP(3) WITH TIME ZONE
+);
+
+-- Comentarios
+COMMENT ON COLUMN audit_event.chain_key IS 'Mes de la cadena (yyyy-MM); NULL en eventos anteriores a la cadena';
+COMMENT ON COLUMN audit_event.chain_seq IS 'Posición del evento dentro de su cadena, desde 1';
+COMMENT ON COLUMN audit_event.previous_hash IS 'integrity_hash del evento anterior de la cadena; NULL en el primero';
+COMMENT ON COLUMN audit_event.integrity_hash IS 'SHA-256 del contenido del evento, su posición y previous_hash';
+COMMENT ON TABLE audit_chain IS 'Cabeza (last_*) y último checkpoint verificado (verified_*) de cada cadena';
@@ -0,0 +1,94 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.service.MensajeRenderer;
+import com.example.ticketero.testutil.TestDataBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del render de mensajes: String.format (implementación anterior)
+ * frente a CompiledTemplate con StringBuilder reutilizado (MensajeRenderer).
+ *
+ * Ejecución: mvn -Pbenchmark test -Dbenchmark.include=MessageTemplateRenderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateRenderBenchmark {
+
+    @Param({"TOTEM_TICKET_CREADO", "TOTEM_PROXIMO_TURNO", "TOTEM_ES_TU_TURNO"})
+    private MessageTemplate plantilla;
+
+    private final MensajeRenderer renderer = new MensajeRenderer();
+    private Mensaje mensaje;
+
+    @Setup
+    public void setUp() {
+        Ticket ticket = TestDataBuilder.ticketInService()
+            .numero("C042")
+            .positionInQueue(3)
+            .estimatedWaitMinutes(15)
+            .assignedModuleNumber(2)
+            .assignedAdvisor("María López")
+            .build();
+        mensaje = Mensaje.builder().ticket(ticket).plantilla(plantilla).build();
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return renderConFormat(mensaje);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return renderer.render(mensaje);
+    }
+
+    /**
+     * Copia del render previo a las plantillas precompiladas, como línea base.
+     */
+    static String renderConFormat(Mensaje mensaje) {
+        Ticket ticket = mensaje.getTicket();
+
+        return switch (mensaje.getPlantilla()) {
+            case TOTEM_TICKET_CREADO -> String.format(
+                "🎫 *Ticket Creado*\n\n📋 Número: %s\n📍 Posición: %d\n⏰ Tiempo estimado: %d min",
+                ticket.getNumero(), ticket.getPositionInQueue(), ticket.getEstimatedWaitMinutes()
+            );
+            case TOTEM_PROXIMO_TURNO -> String.format(
+                "🔔 *¡Tu turno está próximo!*\n\n📋 Ticket: %s\n📍 Posición: %d\n🏃 Dirígete a la sucursal",
+                ticket.getNumero(), ticket.getPositionInQueue()
+            );
+            case TOTEM_ES_TU_TURNO -> String.format(
+                "✅ *¡Es tu turno!*\n\n📋 Ticket: %s\n🏢 Módulo: %d\n👤 Te atiende: %s",
+                ticket.getNumero(), ticket.getAssignedModuleNumber(), ticket.getAssignedAdvisor()
+            );
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MessageTemplateRenderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
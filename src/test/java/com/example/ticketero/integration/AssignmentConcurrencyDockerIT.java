@@ -0,0 +1,32 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Prueba de estrés de asignación concurrente contra PostgreSQL de Docker Compose.
+ * 
+ * Requiere PostgreSQL en localhost:5432 con las migraciones Flyway aplicadas.
+ * Aquí los reclamos usan SELECT ... FOR UPDATE SKIP LOCKED reales.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test-docker")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:postgresql://localhost:5432/ticketero_db",
+    "spring.datasource.username=ticketero_user",
+    "spring.datasource.password=ticketero_pass"
+})
+@DisplayName("Estrés PostgreSQL: Asignación concurrente")
+class AssignmentConcurrencyDockerIT extends AssignmentConcurrencySupport {
+
+    @Override
+    protected String databaseName() {
+        return "PostgreSQL";
+    }
+}
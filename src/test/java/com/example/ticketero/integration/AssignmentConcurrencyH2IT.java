@@ -0,0 +1,30 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Prueba de estrés de asignación concurrente contra H2 en memoria.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+    // Base propia: los schedulers de otros contextos H2 cacheados no tocan los datos sembrados
+    "spring.datasource.url=jdbc:h2:mem:assignment-stress;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.example.ticketero=INFO"
+})
+@DisplayName("Estrés H2: Asignación concurrente")
+class AssignmentConcurrencyH2IT extends AssignmentConcurrencySupport {
+
+    @Override
+    protected String databaseName() {
+        return "H2";
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.entity.Advisor;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.AuditChainVerifier;
+import com.example.ticketero.service.QueueManagementService;
+import com.example.ticketero.service.WaitingLineIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Prueba de estrés de la asignación automática concurrente (RN-004).
+ *
+ * Varios hilos ejecutan QueueManagementService.asignarSiguienteTicket (o la variante
+ * por lotes asignarTicketsPendientes) en paralelo, cada llamada en su propia
+ * transacción, como lo harían varios nodos con su propio scheduler. Al terminar se verifica que ningún asesor recibió más de un ticket,
+ * que cada ticket asignado quedó con un único asesor y que ningún ticket recibió
+ * dos veces el mensaje de turno (una asignación duplicada que sobrescribe a otra
+ * no deja rastro en las filas, pero sí en los mensajes programados). La auditoría
+ * (RN-011) debe tener un único TICKET_ASSIGNED por ticket asignado: las
+ * transacciones revertidas por conflicto no dejan eventos, y su cadena de hashes
+ * debe quedar íntegra pese a las escrituras concurrentes.
+ *
+ * Los asesores AVAILABLE ajenos a la prueba se dejan OFFLINE durante la ejecución
+ * para que todas las asignaciones recaigan sobre los asesores sembrados.
+ *
+ * Ejecutado contra H2 (AssignmentConcurrencyH2IT) y PostgreSQL
+ * (AssignmentConcurrencyDockerIT).
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+abstract class AssignmentConcurrencySupport {
+
+    private static final int ADVISORS = 5;
+    private static final int TICKETS = 30;
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 20;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @Autowired
+    private MensajeRepository mensajeRepository;
+
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private AuditChainVerifier auditChainVerifier;
+
+    @Autowired
+    private QueueManagementService queueManagementService;
+
+    @Autowired
+    private WaitingLineIndex waitingLineIndex;
+
+    private final List<Ticket> seededTickets = new ArrayList<>();
+    private final List<Advisor> seededAdvisors = new ArrayList<>();
+    private final List<Advisor> parkedAdvisors = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+
+        parkedAdvisors.addAll(advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE));
+        parkedAdvisors.forEach(advisor -> advisor.setStatus(AdvisorStatus.OFFLINE));
+        parkedAdvisors.replaceAll(advisorRepository::save);
+
+        for (int i = 1; i <= ADVISORS; i++) {
+            seededAdvisors.add(advisorRepository.save(Advisor.builder()
+                .name("Stress " + run + "-" + i)
+                .email("stress." + run.toLowerCase() + "." + i + "@banco.com")
+                .moduleNumber(i)
+                .status(AdvisorStatus.AVAILABLE)
+                .assignedTicketsCount(0)
+                .build()));
+        }
+
+        for (int i = 1; i <= TICKETS; i++) {
+            seededTickets.add(ticketRepository.save(Ticket.builder()
+                .numero("S" + run + i)
+                .nationalId("STRESS-" + run + "-" + i)
+                .telefono(String.format("+569%08d", i))
+                .branchOffice("Sucursal Stress")
+                .queueType(QueueType.GERENCIA)
+                .status(TicketStatus.WAITING)
+                .positionInQueue(i)
+                .estimatedWaitMinutes(i * QueueType.GERENCIA.getAvgTimeMinutes())
+                .build()));
+        }
+
+        // Los tickets se sembraron sin eventos: cargarlos en el índice que lee TicketPriorityEngine
+        waitingLineIndex.reconcile();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ticketRepository.deleteAll(ticketRepository.findAllById(ids(seededTickets, Ticket::getId)));
+        advisorRepository.deleteAll(advisorRepository.findAllById(ids(seededAdvisors, Advisor::getId)));
+        List<Advisor> parked = advisorRepository.findAllById(ids(parkedAdvisors, Advisor::getId));
+        parked.forEach(advisor -> advisor.setStatus(AdvisorStatus.AVAILABLE));
+        advisorRepository.saveAll(parked);
+
+        seededTickets.clear();
+        seededAdvisors.clear();
+        parkedAdvisors.clear();
+        waitingLineIndex.reconcile();
+    }
+
+    @Test
+    @DisplayName("RN-004: Asignación concurrente sin tickets ni asesores duplicados")
+    void concurrentAssignment_neverAssignsTwice() throws Exception {
+        int conflicts = runConcurrently(queueManagementService::asignarSiguienteTicket);
+        assertNoDuplicateAssignments("individual", conflicts);
+    }
+
+    @Test
+    @DisplayName("RN-004: Asignación por lotes concurrente sin duplicados")
+    void concurrentBatchAssignment_neverAssignsTwice() throws Exception {
+        int conflicts = runConcurrently(queueManagementService::asignarTicketsPendientes);
+        assertNoDuplicateAssignments("por lotes", conflicts);
+    }
+
+    private int runConcurrently(Runnable assignment) throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                        try {
+                            assignment.run();
+                        } catch (RuntimeException e) {
+                            // Conflicto detectado por @Version o por el bloqueo: la transacción se revierte
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return conflicts.get();
+    }
+
+    private void assertNoDuplicateAssignments(String variant, int conflicts) {
+        Map<String, Advisor> advisors = advisorRepository.findAllById(ids(seededAdvisors, Advisor::getId)).stream()
+            .collect(Collectors.toMap(Advisor::getName, Function.identity()));
+        List<Ticket> assigned = ticketRepository.findAll().stream()
+            .filter(ticket -> advisors.containsKey(ticket.getAssignedAdvisor()))
+            .toList();
+        Map<String, Long> ticketsPerAdvisor = assigned.stream()
+            .collect(Collectors.groupingBy(Ticket::getAssignedAdvisor, Collectors.counting()));
+
+        System.out.printf("🔒 [%s] %-10s %d asignaciones, %d conflictos revertidos%n",
+            databaseName(), variant, assigned.size(), conflicts);
+
+        // Cada asesor quedó ocupado con exactamente un ticket
+        assertThat(assigned).hasSize(ADVISORS);
+        assertThat(ticketsPerAdvisor.values()).allMatch(count -> count == 1);
+        assertThat(advisors.values()).allSatisfy(advisor -> {
+            assertThat(advisor.getStatus()).isEqualTo(AdvisorStatus.BUSY);
+            assertThat(advisor.getAssignedTicketsCount()).isEqualTo(1);
+        });
+
+        // Ningún ticket fue tomado por dos asignaciones
+        Set<Long> assignedIds = assigned.stream().map(Ticket::getId).collect(Collectors.toSet());
+        assertThat(assignedIds).hasSize(ADVISORS);
+        assertThat(assigned).allMatch(ticket -> ticket.getStatus() == TicketStatus.IN_SERVICE);
+        for (Ticket ticket : seededTickets) {
+            int expected = assignedIds.contains(ticket.getId()) ? 1 : 0;
+            assertThat(mensajeRepository.findByTicketIdOrderByFechaCreacionDesc(ticket.getId()))
+                .as("Mensajes de turno del ticket %s", ticket.getNumero())
+                .hasSize(expected);
+        }
+
+        // Auditoría asíncrona: llega tras el commit, sin eventos de las transacciones revertidas
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            for (Ticket ticket : seededTickets) {
+                int expected = assignedIds.contains(ticket.getId()) ? 1 : 0;
+                assertThat(auditEventRepository.findByTicketNumberOrderByTimestampDesc("TICKET_" + ticket.getId()))
+                    .as("Auditoría de asignación del ticket %s", ticket.getNumero())
+                    .filteredOn(event -> "TICKET_ASSIGNED".equals(event.getEventType()))
+                    .hasSize(expected);
+            }
+        });
+        assertThat(auditChainVerifier.verificar(null, null, true).valid())
+            .as("Cadena de hashes de auditoría")
+            .isTrue();
+    }
+
+    /**
+     * Nombre de la base de datos para el reporte.
+     */
+    protected abstract String databaseName();
+
+    private static <T> List<Long> ids(List<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).toList();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditChainRepository;
+import com.example.ticketero.service.AuditEventWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Contrapresión de AuditEventWriter dentro de transacciones reales sobre H2:
+ * con el buffer lleno o el escritor cerrado, la inserción desde afterCommit
+ * abre su propia transacción en vez de unirse a la ya confirmada.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+    // Base propia; LOCK_TIMEOUT amplio para retener al hilo escritor en el bloqueo de la cadena
+    "spring.datasource.url=jdbc:h2:mem:audit-writer;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=30000",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.example.ticketero=INFO"
+})
+@DisplayName("H2: Contrapresión del escritor de auditoría")
+class AuditEventWriterH2IT {
+
+    private static final LocalDateTime MES_BLOQUEADO = LocalDateTime.of(2020, 1, 15, 10, 0);
+    private static final LocalDateTime MES_LIBRE = LocalDateTime.of(2020, 2, 15, 10, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditChainRepository auditChainRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionTemplate transactionTemplate;
+    private AuditEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM audit_event WHERE chain_key IN ('2020-01', '2020-02')");
+        jdbcTemplate.update("DELETE FROM audit_chain WHERE chain_key IN ('2020-01', '2020-02')");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Buffer de un evento: el segundo evento encolado fuerza la contrapresión
+        writer = new AuditEventWriter(jdbcTemplate, auditChainRepository, transactionManager,
+                meterRegistry, AuditEventWriter.Durabilidad.ASYNC, 1, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        applicationContext.getAutowireCapableBeanFactory().destroyBean(writer);
+    }
+
+    @Test
+    @DisplayName("Buffer lleno tras el commit → el llamador inserta en una transacción nueva")
+    void bufferLleno_dentroDeTransaccion_insertaSinError() throws Exception {
+        // Given - el hilo escritor queda esperando el bloqueo de la cadena 2020-01
+        auditChainRepository.saveAndFlush(AuditChain.builder().chainKey("2020-01").build());
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> bloqueo = CompletableFuture.runAsync(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                auditChainRepository.findForUpdate("2020-01");
+                bloqueado.countDown();
+                esperar(liberar);
+            }));
+        assertThat(bloqueado.await(10, TimeUnit.SECONDS)).isTrue();
+        writer.registrar(evento("EVENTO_RETENIDO", MES_BLOQUEADO));
+        await().atMost(10, TimeUnit.SECONDS)
+            .until(() -> contarEventos("2020-01") == 0 && bufferVacio());
+
+        try {
+            // When - dos eventos en una transacción real: uno llena el buffer, el otro no cabe
+            assertThatCode(() -> transactionTemplate.executeWithoutResult(status -> {
+                writer.registrar(evento("EVENTO_ENCOLADO", MES_LIBRE));
+                writer.registrar(evento("EVENTO_DESBORDADO", MES_LIBRE));
+            })).doesNotThrowAnyException();
+
+            // Then - el evento desbordado ya está confirmado aunque el escritor siga retenido
+            assertThat(contarEventos("2020-02")).isEqualTo(1);
+            assertThat(contarEventos("2020-01")).isZero();
+        } finally {
+            liberar.countDown();
+            bloqueo.get(10, TimeUnit.SECONDS);
+        }
+        await().atMost(10, TimeUnit.SECONDS)
+            .until(() -> contarEventos("2020-01") == 1 && contarEventos("2020-02") == 2);
+    }
+
+    @Test
+    @DisplayName("Escritor cerrado → el evento confirmado se inserta en una transacción nueva")
+    void escritorCerrado_dentroDeTransaccion_insertaSinError() {
+        // Given
+        applicationContext.getAutowireCapableBeanFactory().destroyBean(writer);
+
+        // When
+        assertThatCode(() -> transactionTemplate.executeWithoutResult(status ->
+            writer.registrar(evento("EVENTO_TARDIO", MES_LIBRE))))
+            .doesNotThrowAnyException();
+
+        // Then
+        assertThat(contarEventos("2020-02")).isEqualTo(1);
+    }
+
+    private boolean bufferVacio() {
+        return meterRegistry.get("audit.writer.buffer").gauge().value() == 0;
+    }
+
+    private int contarEventos(String chainKey) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM audit_event WHERE chain_key = ?", Integer.class, chainKey);
+    }
+
+    private static AuditEvent evento(String eventType, LocalDateTime timestamp) {
+        return AuditEvent.builder()
+            .eventType(eventType)
+            .actor("SYSTEM")
+            .actorType(ActorType.SYSTEM)
+            .timestamp(timestamp)
+            .build();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(20, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
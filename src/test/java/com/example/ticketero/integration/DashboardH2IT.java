@@ -1,9 +1,19 @@
 package com.example.ticketero.integration;
 
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.service.AuditArchiveService;
 import io.restassured.RestAssured;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -17,8 +27,15 @@ import static org.hamcrest.Matchers.*;
  * @since 2025-12-24
  */
 @DisplayName("H2 Tests: Dashboard")
+@TestPropertySource(properties = "audit.archive.dir=target/audit-archive-it")
 class DashboardH2IT extends BaseH2SimpleTest {
 
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private AuditArchiveService auditArchiveService;
+
     @BeforeEach
     void setUpRestAssured() {
         RestAssured.baseURI = getBaseUrl();
@@ -36,7 +53,8 @@ class DashboardH2IT extends BaseH2SimpleTest {
             .body("timestamp", notNullValue())
             .body("ticketsActivos", greaterThanOrEqualTo(0))
             .body("ejecutivosDisponibles", greaterThanOrEqualTo(0))
-            .body("estadoGeneral", notNullValue());
+            .body("estadoGeneral", notNullValue())
+            .body("snapshotAgeSeconds", greaterThanOrEqualTo(0));
     }
 
     @Test
@@ -62,6 +80,64 @@ class DashboardH2IT extends BaseH2SimpleTest {
             .get("/api/audit/events")
         .then()
             .statusCode(200)
-            .body("$", notNullValue());
+            .body("events", notNullValue())
+            .body("size", lessThanOrEqualTo(100));
+    }
+
+    @Test
+    @DisplayName("RF-008: Exportación de auditoría en streaming")
+    void auditExport_csv_respuestaEnStreaming() {
+        String hoy = LocalDate.now().toString();
+        given()
+            .queryParam("startDate", hoy)
+            .queryParam("endDate", hoy)
+            .queryParam("format", "CSV")
+        .when()
+            .get("/api/audit/export")
+        .then()
+            .statusCode(200)
+            .contentType(startsWith("text/csv"))
+            .header("Content-Disposition", containsString("audit-" + hoy + "_" + hoy + ".csv"))
+            .body(startsWith("id,timestamp,eventType"));
+    }
+
+    @Test
+    @DisplayName("RN-013: Eventos archivados siguen disponibles en la consulta paginada")
+    void auditEvents_mesArchivado_paginaDesdeElArchivo() {
+        String actor = "archivo-it@banco.cl";
+        for (int minuto = 0; minuto < 3; minuto++) {
+            auditEventRepository.save(AuditEvent.builder()
+                .timestamp(LocalDateTime.of(2020, 5, 10, 9, minuto))
+                .eventType("STATUS_CHANGED")
+                .actor(actor)
+                .actorType(ActorType.SUPERVISOR)
+                .build());
+        }
+
+        auditArchiveService.archivarMes(YearMonth.of(2020, 5));
+
+        String cursor = given()
+            .queryParam("actor", actor)
+            .queryParam("size", 2)
+        .when()
+            .get("/api/audit/events")
+        .then()
+            .statusCode(200)
+            .body("size", equalTo(2))
+            .body("events[0].timestamp", startsWith("2020-05-10T09:02"))
+            .body("nextCursor", notNullValue())
+            .extract().path("nextCursor");
+
+        given()
+            .queryParam("actor", actor)
+            .queryParam("size", 2)
+            .queryParam("cursor", cursor)
+        .when()
+            .get("/api/audit/events")
+        .then()
+            .statusCode(200)
+            .body("size", equalTo(1))
+            .body("events[0].timestamp", startsWith("2020-05-10T09:00"))
+            .body("nextCursor", nullValue());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Benchmark de round trips del dashboard contra PostgreSQL de Docker Compose.
+ * 
+ * Requiere PostgreSQL en localhost:5432 con las migraciones Flyway aplicadas.
+ * Cada round trip incluye la latencia de red real, por lo que la diferencia entre
+ * ambas variantes es mayor que en H2.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test-docker")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:postgresql://localhost:5432/ticketero_db",
+    "spring.datasource.username=ticketero_user",
+    "spring.datasource.password=ticketero_pass",
+    DashboardQueryBenchmarkSupport.STATEMENT_INSPECTOR
+})
+@DisplayName("Benchmark PostgreSQL: Snapshot del dashboard")
+class DashboardQueryBenchmarkDockerIT extends DashboardQueryBenchmarkSupport {
+
+    @Override
+    protected String databaseName() {
+        return "PostgreSQL";
+    }
+
+    @Override
+    protected int iterations() {
+        return 200;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Benchmark de round trips del dashboard contra H2 en memoria.
+ * 
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+    DashboardQueryBenchmarkSupport.STATEMENT_INSPECTOR,
+    "spring.jpa.show-sql=false",
+    "logging.level.com.example.ticketero=INFO"
+})
+@DisplayName("Benchmark H2: Snapshot del dashboard")
+class DashboardQueryBenchmarkH2IT extends DashboardQueryBenchmarkSupport {
+
+    @Override
+    protected String databaseName() {
+        return "H2";
+    }
+
+    @Override
+    protected int iterations() {
+        return 500;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketCountMatrix;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.DashboardService;
+import com.example.ticketero.service.QueueMetricsRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de round trips del snapshot del dashboard (RF-007).
+ *
+ * Compara el patrón anterior (una consulta countByStatusAndQueueType por celda,
+ * 28 por snapshot) contra la consulta agrupada estado × cola, y verifica que el
+ * snapshot completo lee los conteos de QueueMetricsRegistry. Los statements se
+ * cuentan por hilo con un StatementInspector de Hibernate, por lo que los
+ * schedulers activos no alteran la medición.
+ *
+ * Ejecutado contra H2 (DashboardQueryBenchmarkH2IT) y PostgreSQL
+ * (DashboardQueryBenchmarkDockerIT). Los tiempos se informan por consola y no se
+ * validan; los conteos de statements sí.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+abstract class DashboardQueryBenchmarkSupport {
+
+    static final String STATEMENT_INSPECTOR =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.example.ticketero.integration.DashboardQueryBenchmarkSupport$CountingStatementInspector";
+
+    private static final int TICKETS_PER_CELL = 3;
+    private static final int WARMUP = 20;
+
+    // Celdas consultadas por el DashboardService anterior en cada snapshot
+    private static final List<TicketStatus> LEGACY_STATUS_PER_CALL = legacyAccessPattern();
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private QueueMetricsRegistry metricsRegistry;
+
+    private final List<Ticket> seeded = new ArrayList<>();
+
+    /**
+     * Nombre de la base de datos para el reporte.
+     */
+    protected abstract String databaseName();
+
+    /**
+     * Cantidad de snapshots medidos por variante.
+     */
+    protected abstract int iterations();
+
+    @BeforeEach
+    void seedTickets() {
+        String run = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+        int sequence = 0;
+        for (TicketStatus status : TicketStatus.values()) {
+            for (QueueType queueType : QueueType.values()) {
+                for (int i = 0; i < TICKETS_PER_CELL; i++) {
+                    sequence++;
+                    seeded.add(Ticket.builder()
+                        .numero("B" + run + sequence)
+                        .nationalId("BENCH-" + run + "-" + sequence)
+                        .branchOffice("Sucursal Benchmark")
+                        .queueType(queueType)
+                        .status(status)
+                        .positionInQueue(i + 1)
+                        .estimatedWaitMinutes(queueType.getAvgTimeMinutes())
+                        .build());
+                }
+            }
+        }
+        seeded.replaceAll(ticketRepository::save);
+    }
+
+    @AfterEach
+    void removeTickets() {
+        ticketRepository.deleteAll(seeded);
+        seeded.clear();
+        metricsRegistry.reconcile();
+    }
+
+    @Test
+    @DisplayName("RF-007: Consulta agrupada reemplaza 28 round trips por snapshot")
+    void groupedAggregate_reducesRoundTripsPerSnapshot() {
+        // Correctitud: la matriz agrupada coincide con las consultas por celda
+        TicketCountMatrix grouped = TicketCountMatrix.from(ticketRepository.countGroupedByStatusAndQueueType());
+        for (TicketStatus status : TicketStatus.values()) {
+            for (QueueType queueType : QueueType.values()) {
+                assertThat(grouped.count(status, queueType))
+                    .isEqualTo(ticketRepository.countByStatusAndQueueType(status, queueType));
+            }
+        }
+
+        Measurement legacy = measure(this::legacySnapshot);
+        Measurement aggregated = measure(() -> TicketCountMatrix.from(ticketRepository.countGroupedByStatusAndQueueType()));
+
+        report("por celda (anterior)", legacy);
+        report("agrupada estado × cola", aggregated);
+
+        assertThat(legacy.statementsPerSnapshot()).isEqualTo(LEGACY_STATUS_PER_CALL.size());
+        assertThat(aggregated.statementsPerSnapshot()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("RF-007: Snapshot completo del dashboard en 1 statement")
+    void dashboardSnapshot_readsCountersInsteadOfCountingRows() {
+        // Los tickets sembrados no pasan por los servicios: se concilian los contadores
+        metricsRegistry.reconcile();
+
+        Measurement dashboard = measure(dashboardService::getDashboardData);
+        report("DashboardService.getDashboardData", dashboard);
+
+        // Conteos desde QueueMetricsRegistry; solo se consulta el asesor más productivo
+        assertThat(dashboard.statementsPerSnapshot()).isEqualTo(1.0);
+
+        DashboardResponse response = dashboardService.getDashboardData();
+        assertThat(response.estadoColas().get("CAJA").ticketsEnEspera()).isGreaterThanOrEqualTo(TICKETS_PER_CELL);
+    }
+
+    private TicketCountMatrix legacySnapshot() {
+        List<Object[]> rows = new ArrayList<>();
+        int call = 0;
+        for (TicketStatus status : LEGACY_STATUS_PER_CALL) {
+            QueueType queueType = QueueType.values()[call++ % QueueType.values().length];
+            rows.add(new Object[]{status, queueType, ticketRepository.countByStatusAndQueueType(status, queueType)});
+        }
+        return TicketCountMatrix.from(rows);
+    }
+
+    private Measurement measure(Supplier<?> snapshot) {
+        for (int i = 0; i < WARMUP; i++) {
+            snapshot.get();
+        }
+
+        CountingStatementInspector.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations(); i++) {
+            snapshot.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new Measurement(
+            (double) CountingStatementInspector.count() / iterations(),
+            elapsed / 1_000.0 / iterations()
+        );
+    }
+
+    private void report(String variant, Measurement measurement) {
+        System.out.printf("📊 [%s] %-36s %5.1f statements/snapshot  %9.1f µs/snapshot%n",
+            databaseName(), variant, measurement.statementsPerSnapshot(), measurement.microsPerSnapshot());
+    }
+
+    private static List<TicketStatus> legacyAccessPattern() {
+        List<TicketStatus> calls = new ArrayList<>();
+        int queues = QueueType.values().length;
+        // Resumen ejecutivo: activos (3 estados) + completados
+        for (TicketStatus status : List.of(TicketStatus.WAITING, TicketStatus.CALLED,
+                                           TicketStatus.IN_SERVICE, TicketStatus.COMPLETED)) {
+            for (int q = 0; q < queues; q++) calls.add(status);
+        }
+        // Estado de colas y alertas: WAITING por cola
+        for (int q = 0; q < queues * 2; q++) calls.add(TicketStatus.WAITING);
+        // Métricas: COMPLETED por cola
+        for (int q = 0; q < queues; q++) calls.add(TicketStatus.COMPLETED);
+        return List.copyOf(calls);
+    }
+
+    private record Measurement(double statementsPerSnapshot, double microsPerSnapshot) {}
+
+    /**
+     * Cuenta los statements SQL preparados por el hilo actual.
+     */
+    public static class CountingStatementInspector implements StatementInspector {
+
+        private static final ThreadLocal<int[]> COUNTER = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNTER.get()[0]++;
+            return sql;
+        }
+
+        static void reset() {
+            COUNTER.get()[0] = 0;
+        }
+
+        static int count() {
+            return COUNTER.get()[0];
+        }
+    }
+}
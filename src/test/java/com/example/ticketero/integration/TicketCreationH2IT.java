@@ -1,13 +1,28 @@
 package com.example.ticketero.integration;
 
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.InMemoryNotificationChannel;
+import com.example.ticketero.service.NotificationService;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.*;
 
 /**
@@ -22,6 +37,18 @@ import static org.hamcrest.Matchers.*;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class TicketCreationH2IT extends BaseH2SimpleTest {
 
+    @Autowired
+    private InMemoryNotificationChannel notificationChannel;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MensajeRepository mensajeRepository;
+
     @BeforeEach
     void setUpRestAssured() {
         RestAssured.baseURI = getBaseUrl();
@@ -118,4 +145,80 @@ class TicketCreationH2IT extends BaseH2SimpleTest {
         .then()
             .statusCode(409);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("RF-002: Crear ticket notifica tras el commit sin esperar al scheduler")
+    void crearTicket_notificaInmediatamentePorElPipeline() {
+        String ticketRequest = """
+            {
+                "titulo": "Consulta de tarjeta",
+                "descripcion": "Necesito revisar el estado de mi tarjeta de crédito",
+                "usuarioId": 4,
+                "nationalId": "33333333-3",
+                "telefono": "+56933333333",
+                "branchOffice": "Sucursal Centro",
+                "queueType": "CAJA"
+            }
+            """;
+
+        String numero = given()
+            .contentType(ContentType.JSON)
+            .body(ticketRequest)
+        .when()
+            .post("/api/tickets")
+        .then()
+            .statusCode(201)
+            .extract().path("numero");
+
+        // El scheduler de mensajes corre cada 60s: en 1s solo el despacho inmediato puede entregarlo
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+            assertThat(notificationChannel.entregas())
+                .anySatisfy(entrega -> {
+                    assertThat(entrega.destino()).isEqualTo("+56933333333");
+                    assertThat(entrega.contenido()).contains("Ticket Creado").contains(numero);
+                }));
+    }
+
+    @Test
+    @DisplayName("RF-002: Un estado más reciente reemplaza los mensajes pendientes del ticket")
+    void programar_estadoMasReciente_coalesceMensajesPendientes() {
+        String ticketRequest = """
+            {
+                "titulo": "Consulta de crédito",
+                "descripcion": "Necesito información sobre créditos de consumo",
+                "usuarioId": 5,
+                "nationalId": "44444444-4",
+                "telefono": "+56944444444",
+                "branchOffice": "Sucursal Centro",
+                "queueType": "CAJA"
+            }
+            """;
+
+        String numero = given()
+            .contentType(ContentType.JSON)
+            .body(ticketRequest)
+        .when()
+            .post("/api/tickets")
+        .then()
+            .statusCode(201)
+            .extract().path("numero");
+        Ticket ticket = ticketRepository.findByNumero(numero).orElseThrow();
+
+        // Programados a futuro: ningún despacho los toca durante el test
+        LocalDateTime diferido = LocalDateTime.now().plusMinutes(5);
+        notificationService.programar(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO, diferido);
+        notificationService.programar(ticket, MessageTemplate.TOTEM_ES_TU_TURNO, diferido);
+        notificationService.programar(ticket, MessageTemplate.TOTEM_ES_TU_TURNO, diferido);
+        notificationService.programar(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO, diferido);
+
+        List<Mensaje> mensajes = mensajeRepository.findByTicketIdOrderByFechaCreacionDesc(ticket.getId());
+        assertThat(mensajes)
+            .filteredOn(m -> m.getEstadoEnvio() == EstadoEnvio.PENDIENTE)
+            .extracting(Mensaje::getPlantilla)
+            .doesNotContain(MessageTemplate.TOTEM_PROXIMO_TURNO, MessageTemplate.TOTEM_TICKET_CREADO);
+        assertThat(mensajes)
+            .filteredOn(m -> m.getPlantilla() == MessageTemplate.TOTEM_ES_TU_TURNO)
+            .filteredOn(m -> m.getEstadoEnvio() != EstadoEnvio.DESCARTADO)
+            .hasSize(1);
+    }
+}
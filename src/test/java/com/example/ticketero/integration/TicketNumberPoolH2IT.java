@@ -0,0 +1,101 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.dto.TicketResponse;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creación concurrente de tickets con un pool de conexiones mínimo sobre H2:
+ * la reserva del número (transacción propia) no debe requerir una segunda
+ * conexión mientras la creación retiene la primera.
+ *
+ * @author Sistema Ticketero
+ * @version 1.0
+ * @since 1.0
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:ticket-pool;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    // Pool de dos conexiones: un hilo que retenga dos conexiones agota la espera del pool
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=10000",
+    "queue.sequence.block-size=1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.example.ticketero=INFO"
+})
+@DisplayName("H2: Numeración de tickets con pool mínimo")
+class TicketNumberPoolH2IT {
+
+    private static final int HILOS = 8;
+    private static final int TICKETS_POR_HILO = 5;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Test
+    @DisplayName("RN-006: Creaciones concurrentes en la misma cola no agotan el pool")
+    void crearTickets_concurrentesConPoolMinimo_numerosUnicosSinTimeout() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<List<String>>> resultados = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int base = hilo * TICKETS_POR_HILO;
+            resultados.add(executor.submit(() -> {
+                inicio.await();
+                List<String> numeros = new ArrayList<>();
+                for (int i = 0; i < TICKETS_POR_HILO; i++) {
+                    numeros.add(ticketService.createTicket(solicitud(base + i)).numero());
+                }
+                return numeros;
+            }));
+        }
+
+        // When
+        inicio.countDown();
+        List<String> numeros = new ArrayList<>();
+        try {
+            for (Future<List<String>> resultado : resultados) {
+                numeros.addAll(resultado.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then - ninguna creación esperó una conexión y la numeración no se repite
+        assertThat(numeros)
+            .hasSize(HILOS * TICKETS_POR_HILO)
+            .doesNotHaveDuplicates()
+            .allMatch(numero -> numero.startsWith(QueueType.CAJA.getPrefix()));
+    }
+
+    private static TicketCreateRequest solicitud(int indice) {
+        return new TicketCreateRequest(
+            "Consulta sobre cuenta corriente",
+            "Necesito información sobre mi cuenta corriente y sus beneficios",
+            (long) indice,
+            String.format("%08d-%d", 10_000_000 + indice, indice % 10),
+            "+56912345678",
+            "Sucursal Centro",
+            QueueType.CAJA
+        );
+    }
+}
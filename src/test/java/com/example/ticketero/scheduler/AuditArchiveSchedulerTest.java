@@ -0,0 +1,72 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.service.AuditArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditArchiveScheduler
+ * Cubre RN-013: selección de los meses fuera de la ventana activa y purga por retención
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditArchiveSchedulerTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 10, 18);
+    private static final LocalDateTime SIN_INICIO = LocalDate.EPOCH.atStartOfDay();
+    // 365 días antes de HOY es 2025-10-18: se archiva hasta septiembre de 2025
+    private static final LocalDateTime CORTE = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+    @Mock
+    private AuditArchiveService auditArchiveService;
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Test
+    void mantener_shouldArchiveNonEmptyMonthsBeforeHotWindow() {
+        // Given - Hay eventos en enero y julio de 2025; los meses intermedios están vacíos
+        when(auditEventRepository.findPrimerTimestampEntre(SIN_INICIO, CORTE))
+            .thenReturn(LocalDateTime.of(2025, 1, 20, 10, 0));
+        when(auditEventRepository.findPrimerTimestampEntre(LocalDateTime.of(2025, 2, 1, 0, 0), CORTE))
+            .thenReturn(LocalDateTime.of(2025, 7, 3, 9, 0));
+        when(auditEventRepository.findPrimerTimestampEntre(LocalDateTime.of(2025, 8, 1, 0, 0), CORTE))
+            .thenReturn(null);
+        when(auditArchiveService.archivarMes(YearMonth.of(2025, 1)))
+            .thenThrow(new IllegalStateException("Cadena de auditoría 2025-01 alterada"));
+        when(auditArchiveService.archivarMes(YearMonth.of(2025, 7))).thenReturn(Optional.empty());
+
+        // When
+        new AuditArchiveScheduler(auditArchiveService, auditEventRepository, 365, 2555, 12).mantener(HOY);
+
+        // Then - Un mes alterado no impide archivar los siguientes
+        verify(auditArchiveService).archivarMes(YearMonth.of(2025, 7));
+        verify(auditArchiveService).eliminarVencidos(HOY.minusDays(2555));
+    }
+
+    @Test
+    void mantener_shouldStopAtMaxMonthsPerRun() {
+        // Given
+        when(auditEventRepository.findPrimerTimestampEntre(any(), eq(CORTE)))
+            .thenReturn(LocalDateTime.of(2025, 1, 5, 0, 0), LocalDateTime.of(2025, 2, 5, 0, 0));
+
+        // When
+        new AuditArchiveScheduler(auditArchiveService, auditEventRepository, 365, 2555, 2).mantener(HOY);
+
+        // Then
+        verify(auditArchiveService).archivarMes(YearMonth.of(2025, 1));
+        verify(auditArchiveService).archivarMes(YearMonth.of(2025, 2));
+        verify(auditArchiveService, times(2)).archivarMes(any());
+    }
+}
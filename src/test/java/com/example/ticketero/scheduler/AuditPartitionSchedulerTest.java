@@ -0,0 +1,146 @@
+package com.example.ticketero.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditPartitionScheduler
+ * Cubre RN-013: creación anticipada de particiones mensuales y retiro de las vencidas
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionSchedulerTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void mantener_shouldCreateMissingFuturePartitions() {
+        // Given - Existen octubre y noviembre, además de la partición por defecto
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.LISTAR_PARTICIONES_SQL, String.class))
+            .thenReturn(List.of("audit_event_default", "audit_event_2026_10", "audit_event_2026_11"));
+
+        // When
+        scheduler(2555, AuditPartitionScheduler.AccionVencida.DETACH).mantener(HOY);
+
+        // Then - Se crean diciembre y enero con su índice único de cadena
+        List<String> ddl = ddlEjecutado();
+        assertThat(ddl).anyMatch(sql -> sql.startsWith("SELECT pg_advisory_xact_lock"));
+        assertThat(ddl).contains(
+            "CREATE TABLE IF NOT EXISTS audit_event_2026_12 PARTITION OF audit_event"
+                + " FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')",
+            "CREATE UNIQUE INDEX IF NOT EXISTS audit_event_2027_01_chain_uk ON audit_event_2027_01"
+                + " (chain_key, chain_seq)");
+        assertThat(ddl).noneMatch(sql -> sql.contains("audit_event_2026_10 PARTITION OF"));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void mantener_withRowsInDefaultPartition_shouldMoveThemIntoNewMonthPartition() {
+        // Given - Diciembre no tiene partición y ya tiene eventos en la DEFAULT
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.LISTAR_PARTICIONES_SQL, String.class))
+            .thenReturn(List.of("audit_event_default", "audit_event_2026_10", "audit_event_2026_11"));
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.MESES_EN_DEFAULT_SQL, String.class))
+            .thenReturn(List.of("2026-12"));
+        String rango = " WHERE timestamp >= '2026-12-01' AND timestamp < '2027-01-01'";
+        when(jdbcTemplate.update("INSERT INTO audit_event_2026_12 SELECT * FROM audit_event_default" + rango))
+            .thenReturn(4);
+
+        // When
+        scheduler(2555, AuditPartitionScheduler.AccionVencida.DETACH).mantener(HOY);
+
+        // Then - La DEFAULT se desvincula mientras se crea la partición y se mueven sus filas
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_event DETACH PARTITION audit_event_default");
+        inOrder.verify(jdbcTemplate).execute(
+            "CREATE TABLE IF NOT EXISTS audit_event_2026_12 PARTITION OF audit_event"
+                + " FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        inOrder.verify(jdbcTemplate).update("INSERT INTO audit_event_2026_12 SELECT * FROM audit_event_default" + rango);
+        inOrder.verify(jdbcTemplate).update("DELETE FROM audit_event_default" + rango);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE audit_event ATTACH PARTITION audit_event_default DEFAULT");
+
+        // Enero no tiene filas en la DEFAULT: se crea sin desvincularla de nuevo
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE audit_event DETACH PARTITION audit_event_default");
+        assertThat(ddlEjecutado()).contains(
+            "CREATE TABLE IF NOT EXISTS audit_event_2027_01 PARTITION OF audit_event"
+                + " FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+    }
+
+    @Test
+    void mantener_withPastMonthsInDefaultPartition_shouldRecoverOnlyRetainedOnes() {
+        // Given - Agosto quedó en la DEFAULT por mantenimiento atrasado; 2018-01 ya venció
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.LISTAR_PARTICIONES_SQL, String.class))
+            .thenReturn(List.of("audit_event_default", "audit_event_2026_10", "audit_event_2026_11",
+                                "audit_event_2026_12", "audit_event_2027_01"));
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.MESES_EN_DEFAULT_SQL, String.class))
+            .thenReturn(List.of("2018-01", "2026-08"));
+
+        // When
+        scheduler(2555, AuditPartitionScheduler.AccionVencida.DETACH).mantener(HOY);
+
+        // Then
+        List<String> ddl = ddlEjecutado();
+        assertThat(ddl).contains(
+            "CREATE TABLE IF NOT EXISTS audit_event_2026_08 PARTITION OF audit_event"
+                + " FOR VALUES FROM ('2026-08-01') TO ('2026-09-01')");
+        assertThat(ddl).noneMatch(sql -> sql.contains("audit_event_2018_01"));
+        verify(jdbcTemplate).update("DELETE FROM audit_event_default"
+            + " WHERE timestamp >= '2026-08-01' AND timestamp < '2026-09-01'");
+    }
+
+    @Test
+    void mantener_shouldDetachOnlyFullyExpiredMonths() {
+        // Given - Retención de 30 días: el límite es 2026-09-18
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.LISTAR_PARTICIONES_SQL, String.class))
+            .thenReturn(List.of("audit_event_2026_09", "audit_event_2026_08", "audit_event_2026_10"));
+
+        // When
+        scheduler(30, AuditPartitionScheduler.AccionVencida.DETACH).mantener(HOY);
+
+        // Then - Agosto vence completo; septiembre aún tiene días dentro de la retención
+        List<String> ddl = ddlEjecutado();
+        assertThat(ddl).contains("ALTER TABLE audit_event DETACH PARTITION audit_event_2026_08");
+        assertThat(ddl).noneMatch(sql -> sql.contains("DETACH PARTITION audit_event_2026_09"));
+        verify(jdbcTemplate).update("DELETE FROM audit_chain WHERE chain_key = ?", "2026-08");
+    }
+
+    @Test
+    void mantener_withDropAction_shouldDropExpiredPartition() {
+        // Given
+        when(jdbcTemplate.queryForList(AuditPartitionScheduler.LISTAR_PARTICIONES_SQL, String.class))
+            .thenReturn(List.of("audit_event_2019_09"));
+
+        // When
+        scheduler(2555, AuditPartitionScheduler.AccionVencida.DROP).mantener(HOY);
+
+        // Then
+        assertThat(ddlEjecutado()).contains("DROP TABLE audit_event_2019_09");
+    }
+
+    private AuditPartitionScheduler scheduler(int retentionDays, AuditPartitionScheduler.AccionVencida accion) {
+        return new AuditPartitionScheduler(jdbcTemplate, transactionManager, retentionDays, 3, accion);
+    }
+
+    private List<String> ddlEjecutado() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues();
+    }
+}
@@ -13,9 +13,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,9 +36,15 @@ class AdvisorServiceTest {
     @Mock
     private TicketRepository ticketRepository;
     
+    @Mock
+    private TicketPriorityEngine priorityEngine;
+    
     @Mock
     private NotificationService notificationService;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private AdvisorService advisorService;
 
@@ -48,9 +54,9 @@ class AdvisorServiceTest {
         Advisor advisor = TestDataBuilder.advisorAvailable().build();
         Ticket ticket = TestDataBuilder.ticketWaiting().build();
         
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.of(advisor));
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+        when(priorityEngine.claimNext(1))
             .thenReturn(List.of(ticket));
         when(ticketRepository.save(any(Ticket.class))).thenReturn(ticket);
         
@@ -82,7 +88,7 @@ class AdvisorServiceTest {
     @Test
     void assignNextTicket_noAvailableAdvisors_shouldReturnEmpty() {
         // Given
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.empty());
         
         // When
@@ -90,7 +96,7 @@ class AdvisorServiceTest {
         
         // Then
         assertThat(result).isEmpty();
-        verify(ticketRepository, never()).findByStatusOrderByFechaCreacionAsc(any());
+        verifyNoInteractions(priorityEngine);
         verify(ticketRepository, never()).save(any());
         verify(advisorRepository, never()).save(any());
     }
@@ -100,10 +106,10 @@ class AdvisorServiceTest {
         // Given
         Advisor advisor = TestDataBuilder.advisorAvailable().build();
         
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.of(advisor));
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
-            .thenReturn(Collections.emptyList());
+        when(priorityEngine.claimNext(1))
+            .thenReturn(List.of());
         
         // When
         Optional<Ticket> result = advisorService.assignNextTicket();
@@ -164,7 +170,7 @@ class AdvisorServiceTest {
         
         when(ticketRepository.findByNumero(ticketNumber)).thenReturn(Optional.of(ticket));
         when(advisorRepository.findByEmail("María López@banco.com")).thenReturn(Optional.of(advisor));
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.empty()); // No next assignment
         
         // When
@@ -0,0 +1,195 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.ActorType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitarios para AuditArchiveCodec
+ * Cubre RN-013: ida y vuelta sin pérdida (los hashes de la cadena se recalculan
+ * igual), diccionarios legibles por separado, ubicación de páginas por grupos de
+ * filas y tamaño del archivo comprimido
+ */
+class AuditArchiveCodecTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    @Test
+    void escribirYLeer_shouldPreserveEveryFieldAndHash() throws IOException {
+        // Given - Una cadena con nulos, ticket asociado y un hash heredado no hexadecimal
+        List<AuditEvent> originales = cadena(50);
+        originales.get(7).setTicket(Ticket.builder().id(42L).build());
+        originales.get(7).setIntegrityHash(originales.get(7).calcularHash());
+        AuditEvent heredado = evento(10_000L, INICIO.plusHours(2), null);
+        heredado.setIntegrityHash("legacy-hash");
+        originales.add(heredado);
+
+        // When
+        byte[] contenido = escribir(originales);
+        AuditArchiveCodec.Lectura lectura = AuditArchiveCodec.abrir(contenido);
+        List<AuditEvent> leidos = lectura.eventos();
+
+        // Then
+        assertThat(lectura.filas()).isEqualTo(originales.size());
+        assertThat(leidos).usingRecursiveFieldByFieldElementComparatorIgnoringFields("ticket")
+            .containsExactlyElementsOf(originales);
+        assertThat(leidos.get(7).getTicket().getId()).isEqualTo(42L);
+        assertThat(leidos.subList(0, 50)).allSatisfy(event ->
+            assertThat(event.calcularHash()).isEqualTo(event.getIntegrityHash()));
+    }
+
+    @Test
+    void diccionarios_shouldListDistinctActorsAndTickets() throws IOException {
+        // Given
+        byte[] contenido = escribir(cadena(30));
+
+        // When
+        AuditArchiveCodec.Lectura lectura = AuditArchiveCodec.abrir(contenido);
+
+        // Then - Valores en orden de aparición, sin repetir
+        assertThat(lectura.actores()).containsExactly("Juan Pérez", "12345678-9", "SYSTEM");
+        assertThat(lectura.ticketNumbers()).hasSize(10).startsWith("C01", "C02");
+    }
+
+    @Test
+    void escribir_shouldCompressWellBelowCsv() throws IOException {
+        // Given - Un mes típico: pocos tipos, actores e IPs repetidos
+        List<AuditEvent> eventos = cadena(20_000);
+        long csv = eventos.stream()
+            .mapToLong(e -> String.join(",", String.valueOf(e.getId()), e.getTimestamp().toString(), e.getEventType(),
+                e.getActor(), e.getActorType().name(), String.valueOf(e.getTicketNumber()), String.valueOf(e.getPreviousState()),
+                String.valueOf(e.getNewState()), String.valueOf(e.getAdditionalData()), e.getIpAddress(), e.getChainKey(),
+                String.valueOf(e.getChainSeq()), e.getIntegrityHash(), String.valueOf(e.getPreviousHash()))
+                .getBytes(StandardCharsets.UTF_8).length + 1)
+            .sum();
+
+        // When
+        byte[] contenido = escribir(eventos);
+
+        // Then - Los hashes SHA-256 no comprimen; el resto casi desaparece
+        assertThat((long) contenido.length).isLessThan(csv / 3);
+    }
+
+    @Test
+    void gruposDeFilas_shouldLocatePageAndDecodeOnlyRequestedRows() throws IOException {
+        // Given - 25 eventos en grupos de 7 filas
+        List<AuditEvent> originales = cadena(25);
+        AuditArchiveCodec.Lectura lectura = AuditArchiveCodec.abrir(escribir(originales, 7));
+        AuditArchiveCodec.Claves claves = lectura.claves();
+
+        // When - Página de Juan Pérez (id % 3 == 1) anterior al evento 120
+        int[] filas = claves.filas("Juan Pérez", null, null, null, AuditCursor.of(originales.get(20)), 4);
+
+        // Then - Filas 18, 15, 12 y 9, que cruzan el borde entre el tercer y el segundo grupo
+        assertThat(filas).containsExactly(18, 15, 12, 9);
+        assertThat(lectura.eventos(filas)).usingRecursiveFieldByFieldElementComparatorIgnoringFields("ticket")
+            .containsExactly(originales.get(18), originales.get(15), originales.get(12), originales.get(9));
+        assertThat(lectura.eventos()).usingRecursiveFieldByFieldElementComparatorIgnoringFields("ticket")
+            .containsExactlyElementsOf(originales);
+    }
+
+    @Test
+    void grupo_shouldDecodeOneRowGroupAtATimeInOrder() throws IOException {
+        // Given - 25 eventos en grupos de 7 filas
+        List<AuditEvent> originales = cadena(25);
+        AuditArchiveCodec.Lectura lectura = AuditArchiveCodec.abrir(escribir(originales, 7));
+
+        // When - Recorrido grupo por grupo, como la exportación
+        List<AuditEvent> leidos = new ArrayList<>();
+        for (int grupo = 0; grupo < lectura.grupos(); grupo++) {
+            leidos.addAll(lectura.grupo(grupo));
+        }
+
+        // Then - Cuatro grupos (7, 7, 7, 4) que reconstruyen el archivo en orden
+        assertThat(lectura.grupos()).isEqualTo(4);
+        assertThat(lectura.grupo(3)).hasSize(4);
+        assertThat(leidos).usingRecursiveFieldByFieldElementComparatorIgnoringFields("ticket")
+            .containsExactlyElementsOf(originales);
+    }
+
+    @Test
+    void claves_shouldApplyPeriodTicketAndUnknownValues() throws IOException {
+        // Given
+        List<AuditEvent> originales = cadena(25);
+        AuditArchiveCodec.Claves claves = AuditArchiveCodec.abrir(escribir(originales, 7)).claves();
+        LocalDateTime desde = originales.get(5).getTimestamp();
+        LocalDateTime hasta = originales.get(14).getTimestamp();
+
+        // When & Then - Período inclusivo, ticket C01 (id % 10 == 0) y valores ausentes
+        assertThat(claves.filas(null, "C01", desde, hasta, null, 10)).containsExactly(10);
+        assertThat(claves.filas(null, null, desde, hasta, null, 3)).containsExactly(14, 13, 12);
+        assertThat(claves.filas("otro@banco.cl", null, null, null, null, 10)).isEmpty();
+        assertThat(claves.filas(null, null, null, null, AuditCursor.of(originales.get(0)), 10)).isEmpty();
+    }
+
+    @Test
+    void abrir_withTruncatedFile_shouldThrow() throws IOException {
+        // Given
+        byte[] contenido = escribir(cadena(5));
+
+        // When & Then
+        assertThatThrownBy(() -> AuditArchiveCodec.abrir(Arrays.copyOf(contenido, contenido.length - 1)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("truncado");
+    }
+
+    static byte[] escribir(List<AuditEvent> eventos) throws IOException {
+        return escribir(eventos, AuditArchiveCodec.FILAS_POR_GRUPO);
+    }
+
+    private static byte[] escribir(List<AuditEvent> eventos, int filasPorGrupo) throws IOException {
+        AuditArchiveCodec.Escritor escritor = new AuditArchiveCodec.Escritor(filasPorGrupo);
+        for (AuditEvent event : eventos) {
+            escritor.agregar(event);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        escritor.terminar(out);
+        return out.toByteArray();
+    }
+
+    // Cadena de marzo de 2025 con un evento por minuto
+    static List<AuditEvent> cadena(int cantidad) {
+        List<AuditEvent> eventos = new ArrayList<>(cantidad);
+        String previo = null;
+        for (int i = 0; i < cantidad; i++) {
+            AuditEvent event = evento(100L + i, INICIO.plusSeconds(i * 60L).plusNanos((i % 1000) * 1_000_000L), previo);
+            event.setChainSeq(i + 1L);
+            event.setIntegrityHash(event.calcularHash());
+            previo = event.getIntegrityHash();
+            eventos.add(event);
+        }
+        return eventos;
+    }
+
+    private static AuditEvent evento(long id, LocalDateTime timestamp, String previousHash) {
+        String[] actores = {"SYSTEM", "Juan Pérez", "12345678-9"};
+        ActorType[] tipos = {ActorType.SYSTEM, ActorType.ADVISOR, ActorType.CLIENT};
+        int i = (int) (id % 3);
+        return AuditEvent.builder()
+            .id(id)
+            .timestamp(timestamp)
+            .eventType(i == 0 ? "NOTIFICATION_SENT" : "STATUS_CHANGED")
+            .actor(actores[i])
+            .actorType(tipos[i])
+            .ticketNumber(String.format("C%02d", id % 10 + 1))
+            .previousState(i == 1 ? "WAITING" : null)
+            .newState(i == 1 ? "CALLED" : null)
+            .additionalData(i == 0 ? "Template: totem_turno_activo, Phone: +5691234" + (id % 100) : null)
+            .ipAddress("10.0.0." + id % 4)
+            .chainKey("2025-03")
+            .previousHash(previousHash)
+            .build();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.dto.AuditVerificationResponse;
+import com.example.ticketero.model.entity.AuditArchive;
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.repository.AuditArchiveRepository;
+import com.example.ticketero.repository.AuditChainRepository;
+import com.example.ticketero.repository.AuditEventRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditArchiveService
+ * Cubre RN-013: archivado de un mes verificado, lectura paginada desde los archivos,
+ * recorrido ascendente para la exportación, detección de archivos alterados y purga por retención
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditArchiveServiceTest {
+
+    private static final YearMonth MARZO = YearMonth.of(2025, 3);
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    @Mock
+    private AuditArchiveRepository auditArchiveRepository;
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditChainRepository auditChainRepository;
+
+    @Mock
+    private AuditChainVerifier auditChainVerifier;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directorio;
+
+    private AuditArchiveService auditArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        auditArchiveService = new AuditArchiveService(auditArchiveRepository, auditEventRepository, auditChainRepository,
+                                                      auditChainVerifier, entityManager, jdbcTemplate, transactionManager,
+                                                      directorio.toString());
+    }
+
+    @Test
+    void archivarMes_shouldWriteFileRegisterItAndDeleteRows() throws IOException {
+        // Given - Marzo tiene 40 eventos y su cadena está íntegra
+        List<AuditEvent> eventos = AuditArchiveCodecTest.cadena(40);
+        AuditChain cadena = AuditChain.builder().chainKey("2025-03").lastSeq(40L).build();
+        when(auditChainRepository.findById("2025-03")).thenReturn(Optional.of(cadena));
+        when(auditChainVerifier.verificarCadena(cadena, false)).thenReturn(
+            new AuditVerificationResponse.Chain("2025-03", 0, 40, 40, true, null, null));
+        when(auditEventRepository.streamParaArchivo(DESDE, HASTA)).thenReturn(eventos.stream());
+        when(auditEventRepository.eliminarEntre(DESDE, HASTA)).thenReturn(40);
+
+        // When
+        Optional<AuditArchive> resultado = auditArchiveService.archivarMes(MARZO);
+
+        // Then
+        assertThat(resultado).hasValueSatisfying(registro -> {
+            assertThat(registro.getArchiveMonth()).isEqualTo("2025-03");
+            assertThat(registro.getEventCount()).isEqualTo(40);
+            assertThat(registro.getMinTimestamp()).isEqualTo(eventos.get(0).getTimestamp());
+            assertThat(registro.getMaxTimestamp()).isEqualTo(eventos.get(39).getTimestamp());
+            assertThat(registro.getSha256()).hasSize(64);
+            assertThat(directorio.resolve(registro.getFileName())).hasSize(registro.getSizeBytes());
+        });
+        assertThat(directorio).isDirectoryNotContaining("glob:**.tmp");
+        verify(entityManager, times(40)).detach(any(AuditEvent.class));
+        verify(auditChainRepository).deleteById("2025-03");
+    }
+
+    @Test
+    void archivarMes_withTamperedChain_shouldNotTouchEvents() {
+        // Given
+        AuditChain cadena = AuditChain.builder().chainKey("2025-03").lastSeq(40L).build();
+        when(auditChainRepository.findById("2025-03")).thenReturn(Optional.of(cadena));
+        when(auditChainVerifier.verificarCadena(cadena, false)).thenReturn(
+            new AuditVerificationResponse.Chain("2025-03", 0, 11, 11, false, 12L, "Contenido alterado"));
+
+        // When & Then
+        assertThatThrownBy(() -> auditArchiveService.archivarMes(MARZO))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("posición 12");
+        verifyNoInteractions(auditEventRepository);
+    }
+
+    @Test
+    void archivarMes_whenRowsChangeMeanwhile_shouldRemoveOnlyTempFile() throws IOException {
+        // Given - Llegó un evento tardío entre la lectura y el borrado; ya hay un archivo del mes
+        Path existente = Files.writeString(directorio.resolve("audit-2025-03.acol"), "previo");
+        when(auditEventRepository.streamParaArchivo(DESDE, HASTA)).thenReturn(AuditArchiveCodecTest.cadena(3).stream());
+        when(auditEventRepository.eliminarEntre(DESDE, HASTA)).thenReturn(4);
+
+        // When & Then - La transacción se revierte sin tocar el archivo existente
+        assertThatThrownBy(() -> auditArchiveService.archivarMes(MARZO))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("cambió durante el archivado");
+        assertThat(existente).hasContent("previo");
+        assertThat(directorio).isDirectoryNotContaining("glob:**.tmp");
+        verify(auditChainRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void archivarMes_whenAnotherNodeArchivedFirst_shouldLockRecheckAndKeepItsFile() throws IOException {
+        // Given - PostgreSQL; otro nodo confirmó marzo mientras esperábamos el advisory lock
+        Path existente = Files.writeString(directorio.resolve("audit-2025-03.acol"), "del otro nodo");
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        when(auditArchiveRepository.existsById("2025-03")).thenReturn(false, true);
+
+        // When & Then
+        assertThatThrownBy(() -> auditArchiveService.archivarMes(MARZO))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("ya está archivado");
+        verify(jdbcTemplate).execute(startsWith("SELECT pg_advisory_xact_lock(1096107073, 202503)"));
+        verifyNoInteractions(auditEventRepository);
+        assertThat(existente).hasContent("del otro nodo");
+        assertThat(directorio).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void buscar_shouldPageArchivedEventsNewestFirst() {
+        // Given - Marzo archivado; la página anterior terminó en el evento 130
+        List<AuditEvent> eventos = AuditArchiveCodecTest.cadena(40);
+        AuditArchive registro = archivar(eventos);
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthDesc()).thenReturn(List.of(registro));
+        AuditCursor cursor = AuditCursor.of(eventos.get(30));
+
+        // When
+        List<AuditEvent> pagina = auditArchiveService.buscar(
+            AuditArchiveService.Filtro.porActor("Juan Pérez"), cursor, 3);
+
+        // Then - Eventos de Juan Pérez (id % 3 == 1) anteriores al cursor
+        assertThat(pagina).extracting(AuditEvent::getId).containsExactly(127L, 124L, 121L);
+    }
+
+    @Test
+    void buscar_nextPage_shouldReuseOpenedMonthWithoutRereadingFile() throws IOException {
+        // Given - Primera página leída del archivo
+        List<AuditEvent> eventos = AuditArchiveCodecTest.cadena(40);
+        AuditArchive registro = archivar(eventos);
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthDesc()).thenReturn(List.of(registro));
+        AuditArchiveService.Filtro filtro = AuditArchiveService.Filtro.porPeriodo(DESDE, HASTA);
+        List<AuditEvent> primera = auditArchiveService.buscar(filtro, null, 5);
+        Files.delete(directorio.resolve(registro.getFileName()));
+
+        // When - La siguiente página sale del mes ya abierto
+        List<AuditEvent> segunda = auditArchiveService.buscar(filtro, AuditCursor.of(primera.get(4)), 5);
+
+        // Then
+        assertThat(primera).extracting(AuditEvent::getId).containsExactly(139L, 138L, 137L, 136L, 135L);
+        assertThat(segunda).extracting(AuditEvent::getId).containsExactly(134L, 133L, 132L, 131L, 130L);
+    }
+
+    @Test
+    void buscar_withUnknownActor_shouldSkipFileFromCachedDictionary() throws IOException {
+        // Given
+        AuditArchive registro = archivar(AuditArchiveCodecTest.cadena(10));
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthDesc()).thenReturn(List.of(registro));
+        AuditArchiveService.Filtro filtro = AuditArchiveService.Filtro.porActor("otro@banco.cl");
+        assertThat(auditArchiveService.buscar(filtro, null, 10)).isEmpty();
+        Files.delete(directorio.resolve(registro.getFileName()));
+
+        // When & Then - Ya no hace falta leer el archivo para descartarlo
+        assertThat(auditArchiveService.buscar(filtro, null, 10)).isEmpty();
+        assertThat(auditArchiveService.puedeContener(filtro, new AuditCursor(HASTA, 1L))).isFalse();
+    }
+
+    @Test
+    void buscar_withAlteredFile_shouldThrow() throws IOException {
+        // Given
+        AuditArchive registro = archivar(AuditArchiveCodecTest.cadena(10));
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthDesc()).thenReturn(List.of(registro));
+        Path archivo = directorio.resolve(registro.getFileName());
+        byte[] contenido = Files.readAllBytes(archivo);
+        contenido[contenido.length - 1] ^= 1;
+        Files.write(archivo, contenido);
+
+        // When & Then
+        assertThatThrownBy(() -> auditArchiveService.buscar(AuditArchiveService.Filtro.porTicket("C01"), null, 10))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("alterado");
+    }
+
+    @Test
+    void recorrer_shouldDeliverPeriodOldestFirstFilteredByType() throws IOException {
+        // Given - Marzo archivado; abril aún no tiene archivo
+        List<AuditEvent> eventos = AuditArchiveCodecTest.cadena(40);
+        AuditArchive marzo = archivar(eventos);
+        AuditArchive abril = AuditArchive.builder().archiveMonth("2025-04").fileName("audit-2025-04.acol")
+            .minTimestamp(HASTA).maxTimestamp(HASTA.plusDays(1)).build();
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthAsc()).thenReturn(List.of(marzo, abril));
+        List<AuditEvent> recibidos = new ArrayList<>();
+
+        // When - Período entre los eventos 105 y 114, solo STATUS_CHANGED (id % 3 != 0)
+        long entregados = auditArchiveService.recorrer(eventos.get(5).getTimestamp(), eventos.get(14).getTimestamp(),
+                                                       "STATUS_CHANGED", recibidos::add);
+
+        // Then - Orden ascendente; abril empieza después del período y no se lee
+        assertThat(entregados).isEqualTo(6);
+        assertThat(recibidos).extracting(AuditEvent::getId).containsExactly(106L, 107L, 109L, 110L, 112L, 113L);
+    }
+
+    @Test
+    void eliminarVencidos_shouldDeleteOnlyFullyExpiredMonths() {
+        // Given - Límite 2025-04-15: marzo venció, abril no
+        AuditArchive marzo = archivar(AuditArchiveCodecTest.cadena(5));
+        AuditArchive abril = AuditArchive.builder().archiveMonth("2025-04").fileName("audit-2025-04.acol").build();
+        when(auditArchiveRepository.findAllByOrderByArchiveMonthAsc()).thenReturn(List.of(marzo, abril));
+
+        // When
+        int eliminados = auditArchiveService.eliminarVencidos(LocalDate.of(2025, 4, 15));
+
+        // Then
+        assertThat(eliminados).isEqualTo(1);
+        verify(auditArchiveRepository).delete(marzo);
+        verify(auditArchiveRepository, never()).delete(abril);
+        assertThat(directorio.resolve(marzo.getFileName())).doesNotExist();
+    }
+
+    // Archiva marzo con los eventos dados y devuelve el registro guardado
+    private AuditArchive archivar(List<AuditEvent> eventos) {
+        when(auditEventRepository.streamParaArchivo(DESDE, HASTA)).thenReturn(eventos.stream());
+        when(auditEventRepository.eliminarEntre(DESDE, HASTA)).thenReturn(eventos.size());
+        auditArchiveService.archivarMes(MARZO);
+        ArgumentCaptor<AuditArchive> registro = ArgumentCaptor.forClass(AuditArchive.class);
+        verify(auditArchiveRepository).save(registro.capture());
+        return registro.getValue();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.AuditVerificationResponse;
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditChainRepository;
+import com.example.ticketero.repository.AuditEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditChainVerifier
+ * Cubre RN-011: detección de alteración, borrado y reordenamiento de eventos,
+ * verificación incremental desde el checkpoint y verificación completa
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditChainVerifierTest {
+
+    private static final String OCTUBRE = "2026-10";
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private AuditChainRepository auditChainRepository;
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<AuditEvent> eventos = new ArrayList<>();
+    private AuditChain cadena;
+    private AuditChainVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new AuditChainVerifier(auditChainRepository, auditEventRepository, transactionManager,
+                                          BATCH_SIZE, 2);
+        cadena = AuditChain.builder().chainKey(OCTUBRE).build();
+        for (int i = 0; i < 5; i++) {
+            AuditEvent event = AuditEvent.builder()
+                .eventType("TICKET_CREATED")
+                .actor("SYSTEM")
+                .actorType(ActorType.SYSTEM)
+                .ticketNumber("C0" + i)
+                .timestamp(LocalDateTime.of(2026, 10, 1 + i, 9, 0))
+                .build();
+            event.sellar();
+            cadena.enlazar(event);
+            eventos.add(event);
+        }
+        when(auditChainRepository.findByChainKeyBetweenOrderByChainKeyAsc(anyString(), anyString()))
+            .thenReturn(List.of(cadena));
+        // Simula la query por tramos sobre la lista (orden por chainSeq, límite de página)
+        lenient().when(auditEventRepository.findTramoCadena(eq(OCTUBRE), anyLong(), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                long desde = invocation.getArgument(1);
+                long hasta = invocation.getArgument(2);
+                Pageable pageable = invocation.getArgument(3);
+                return eventos.stream()
+                    .filter(event -> event.getChainSeq() > desde && event.getChainSeq() <= hasta)
+                    .limit(pageable.getPageSize())
+                    .toList();
+            });
+        lenient().when(auditEventRepository.findByChainKeyAndChainSeq(eq(OCTUBRE), anyLong()))
+            .thenAnswer(invocation -> eventos.stream()
+                .filter(event -> event.getChainSeq().equals(invocation.getArgument(1)))
+                .findFirst());
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Test
+    void verificar_withIntactChain_shouldBeValidAndRecordCheckpoint() {
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(null, null, false);
+
+        // Then - Los 5 eventos rehasheados en tramos de 2 y checkpoint en la cabeza
+        assertThat(resultado.valid()).isTrue();
+        assertThat(resultado.verifiedEvents()).isEqualTo(5);
+        assertThat(resultado.chains()).singleElement()
+            .satisfies(chain -> assertThat(chain.toSeq()).isEqualTo(5));
+        verify(auditChainRepository).registrarCheckpoint(eq(OCTUBRE), eq(5L),
+            eq(eventos.get(4).getIntegrityHash()), any(LocalDateTime.class));
+    }
+
+    @Test
+    void verificar_withTamperedContent_shouldReportPosition() {
+        // Given - Alguien cambia el estado de un evento directamente en la base
+        eventos.get(2).setNewState("COMPLETED");
+
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(null, null, false);
+
+        // Then
+        assertThat(resultado.valid()).isFalse();
+        AuditVerificationResponse.Chain chain = resultado.chains().get(0);
+        assertThat(chain.invalidSeq()).isEqualTo(3L);
+        assertThat(chain.reason()).isEqualTo("Contenido alterado");
+        verify(auditChainRepository, never()).registrarCheckpoint(anyString(), anyLong(), any(), any());
+    }
+
+    @Test
+    void verificar_withRecomputedHash_shouldDetectBrokenLink() {
+        // Given - Se altera un evento y se recalcula su hash; el siguiente ya no enlaza
+        AuditEvent alterado = eventos.get(1);
+        alterado.setActor("OTRO");
+        alterado.setIntegrityHash(alterado.calcularHash());
+
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(null, null, false);
+
+        // Then
+        AuditVerificationResponse.Chain chain = resultado.chains().get(0);
+        assertThat(chain.valid()).isFalse();
+        assertThat(chain.invalidSeq()).isEqualTo(3L);
+        assertThat(chain.reason()).isEqualTo("No enlaza con el evento anterior");
+    }
+
+    @Test
+    void verificar_withDeletedEvents_shouldReportGap() {
+        // Given - Se borra un evento intermedio y el último
+        eventos.remove(4);
+        eventos.remove(1);
+
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(null, null, false);
+
+        // Then
+        AuditVerificationResponse.Chain chain = resultado.chains().get(0);
+        assertThat(chain.valid()).isFalse();
+        assertThat(chain.invalidSeq()).isEqualTo(2L);
+        assertThat(chain.reason()).isEqualTo("Falta el evento");
+    }
+
+    @Test
+    void verificar_withCheckpoint_shouldOnlyRehashNewEvents() {
+        // Given - Verificado hasta la posición 3
+        cadena.setVerifiedSeq(3L);
+        cadena.setVerifiedHash(eventos.get(2).getIntegrityHash());
+
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(YearMonth.of(2026, 10), YearMonth.of(2026, 10), false);
+
+        // Then - Solo las posiciones 4 y 5
+        assertThat(resultado.valid()).isTrue();
+        assertThat(resultado.verifiedEvents()).isEqualTo(2);
+        verify(auditEventRepository).findTramoCadena(eq(OCTUBRE), eq(3L), eq(5L), any(Pageable.class));
+        verify(auditChainRepository).findByChainKeyBetweenOrderByChainKeyAsc(OCTUBRE, OCTUBRE);
+    }
+
+    @Test
+    void verificar_withTamperedCheckpointAnchor_shouldBeInvalid() {
+        // Given - El evento del checkpoint fue reescrito después de verificado
+        cadena.setVerifiedSeq(3L);
+        cadena.setVerifiedHash(eventos.get(2).getIntegrityHash());
+        eventos.get(2).setIntegrityHash("0".repeat(64));
+
+        // When
+        AuditVerificationResponse resultado = verifier.verificar(null, null, false);
+
+        // Then
+        AuditVerificationResponse.Chain chain = resultado.chains().get(0);
+        assertThat(chain.valid()).isFalse();
+        assertThat(chain.invalidSeq()).isEqualTo(3L);
+        verify(auditEventRepository, never()).findTramoCadena(anyString(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void verificar_full_shouldIgnoreCheckpointAndFindOldTampering() {
+        // Given - Alteración antigua, anterior al checkpoint
+        cadena.setVerifiedSeq(5L);
+        cadena.setVerifiedHash(eventos.get(4).getIntegrityHash());
+        eventos.get(0).setAdditionalData("{\"reescrito\":true}");
+
+        // When
+        AuditVerificationResponse incremental = verifier.verificar(null, null, false);
+        AuditVerificationResponse completa = verifier.verificar(null, null, true);
+
+        // Then - Solo la verificación completa la detecta
+        assertThat(incremental.valid()).isTrue();
+        assertThat(incremental.verifiedEvents()).isZero();
+        assertThat(completa.valid()).isFalse();
+        assertThat(completa.chains().get(0).invalidSeq()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.AuditChain;
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditChainRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditEventWriter
+ * Cubre RN-011: escritura por lotes JDBC, durabilidad SYNC/ASYNC, descarte en rollback,
+ * vaciado al apagar y enlace a la cadena de hashes
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditEventWriterTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditChainRepository auditChainRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> lotes = new CopyOnWriteArrayList<>();
+    private final Map<String, AuditChain> cadenas = new ConcurrentHashMap<>();
+    private AuditEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        // Cabeza de cada cadena en memoria; no todos los tests llegan a insertar
+        lenient().when(auditChainRepository.findForUpdate(anyString())).thenAnswer(invocation ->
+            Optional.of(cadenas.computeIfAbsent(invocation.getArgument(0),
+                chainKey -> AuditChain.builder().chainKey(chainKey).build())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(writer);
+        writer.shutdown();
+    }
+
+    @Test
+    void registrar_async_shouldReturnWithoutWritingAndFlushInBatches() {
+        // Given - El hilo escritor aún no toma nada: buffer con intervalo largo
+        writer = writer(AuditEventWriter.Durabilidad.ASYNC, 60_000);
+        contarLotes();
+
+        // When - 7 eventos fuera de transacción
+        for (int i = 0; i < 7; i++) {
+            writer.registrar(evento("E" + i));
+        }
+        writer.shutdown();
+
+        // Then - Ningún evento perdido y ningún lote mayor a audit.batch-size
+        assertThat(lotes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(7);
+        assertThat(lotes).allMatch(tamano -> tamano <= BATCH_SIZE);
+    }
+
+    @Test
+    void registrar_shouldSealEventBeforeWriting() {
+        // Given
+        writer = writer(AuditEventWriter.Durabilidad.SYNC, 200);
+        AuditEvent event = evento("TICKET_ASSIGNED");
+
+        // When - Sin transacción activa se escribe de inmediato
+        writer.registrar(event);
+
+        // Then - Timestamp y hash completados aunque no pase por @PrePersist
+        assertThat(event.getTimestamp()).isNotNull();
+        assertThat(event.getIntegrityHash()).isNotBlank();
+        verify(jdbcTemplate).batchUpdate(eq(AuditEventWriter.INSERT_SQL), anyList(), any(int[].class));
+    }
+
+    @Test
+    void registrar_syncInTransaction_shouldWriteOneBatchBeforeCommit() {
+        // Given
+        writer = writer(AuditEventWriter.Durabilidad.SYNC, 200);
+        contarLotes();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        writer.registrar(evento("TICKET_CREATED"));
+        writer.registrar(evento("TICKET_ASSIGNED"));
+
+        // Then - Nada antes del commit; luego un solo lote en la misma transacción
+        verifyNoInteractions(jdbcTemplate);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        assertThat(lotes).containsExactly(2);
+    }
+
+    @Test
+    void registrar_asyncWithRollback_shouldDiscardEvents() {
+        // Given
+        writer = writer(AuditEventWriter.Durabilidad.ASYNC, 200);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When - La transacción de negocio se revierte
+        writer.registrar(evento("TICKET_CREATED"));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        writer.shutdown();
+
+        // Then - No se audita lo que no ocurrió
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void registrar_asyncAfterCommit_shouldWriteInBackground() {
+        // Given
+        writer = writer(AuditEventWriter.Durabilidad.ASYNC, 20);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        writer.registrar(evento("TICKET_CREATED"));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        verify(jdbcTemplate, timeout(2000))
+            .batchUpdate(eq(AuditEventWriter.INSERT_SQL), anyList(), any(int[].class));
+    }
+
+    @Test
+    void shutdown_withPersistentFailure_shouldCountDroppedEvents() {
+        // Given - Base de datos caída durante el vaciado final
+        writer = writer(AuditEventWriter.Durabilidad.ASYNC, 60_000);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+            .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        writer.registrar(evento("TICKET_CREATED"));
+
+        // When
+        writer.shutdown();
+
+        // Then
+        assertThat(meterRegistry.get("audit.writer.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void registrar_shouldLinkEventsIntoMonthlyChain() {
+        // Given - Dos eventos de octubre y uno de noviembre
+        writer = writer(AuditEventWriter.Durabilidad.SYNC, 200);
+        AuditEvent primero = evento("TICKET_CREATED", LocalDateTime.of(2026, 10, 30, 9, 0));
+        AuditEvent segundo = evento("TICKET_ASSIGNED", LocalDateTime.of(2026, 10, 31, 9, 0));
+        AuditEvent otroMes = evento("TICKET_CREATED", LocalDateTime.of(2026, 11, 1, 9, 0));
+
+        // When
+        writer.registrar(primero);
+        writer.registrar(segundo);
+        writer.registrar(otroMes);
+
+        // Then - Posiciones consecutivas por mes, cada evento enlazado al hash anterior
+        assertThat(primero.getChainKey()).isEqualTo("2026-10");
+        assertThat(primero.getChainSeq()).isEqualTo(1L);
+        assertThat(primero.getPreviousHash()).isNull();
+        assertThat(segundo.getChainSeq()).isEqualTo(2L);
+        assertThat(segundo.getPreviousHash()).isEqualTo(primero.getIntegrityHash());
+        assertThat(segundo.getIntegrityHash()).isEqualTo(segundo.calcularHash());
+        assertThat(otroMes.getChainKey()).isEqualTo("2026-11");
+        assertThat(otroMes.getChainSeq()).isEqualTo(1L);
+        assertThat(cadenas.get("2026-10").getLastHash()).isEqualTo(segundo.getIntegrityHash());
+    }
+
+    @Test
+    void calcularHash_shouldChangeWhenContentChanges() {
+        // Given
+        writer = writer(AuditEventWriter.Durabilidad.SYNC, 200);
+        AuditEvent event = evento("STATUS_CHANGED", LocalDateTime.of(2026, 10, 18, 12, 0));
+        writer.registrar(event);
+        String original = event.getIntegrityHash();
+
+        // When - Se altera un campo después de escrito
+        event.setNewState("COMPLETED");
+
+        // Then
+        assertThat(event.calcularHash()).isNotEqualTo(original);
+    }
+
+    private AuditEventWriter writer(AuditEventWriter.Durabilidad durabilidad, long flushIntervalMillis) {
+        return new AuditEventWriter(jdbcTemplate, auditChainRepository, transactionManager, meterRegistry,
+                                    durabilidad, BATCH_SIZE, 100, flushIntervalMillis);
+    }
+
+    private void contarLotes() {
+        when(jdbcTemplate.batchUpdate(eq(AuditEventWriter.INSERT_SQL), anyList(), any(int[].class)))
+            .thenAnswer(invocation -> {
+                lotes.add(invocation.<List<?>>getArgument(1).size());
+                return new int[0];
+            });
+    }
+
+    private AuditEvent evento(String eventType) {
+        return evento(eventType, null);
+    }
+
+    private AuditEvent evento(String eventType, LocalDateTime timestamp) {
+        return AuditEvent.builder()
+            .eventType(eventType)
+            .actor("SYSTEM")
+            .actorType(ActorType.SYSTEM)
+            .timestamp(timestamp)
+            .build();
+    }
+}
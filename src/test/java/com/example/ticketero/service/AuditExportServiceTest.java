@@ -0,0 +1,159 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.AuditEvent;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditExportService
+ * Cubre RF-008: exportación en streaming NDJSON/CSV, filtro por tipo de evento,
+ * meses archivados antes de las filas vivas, liberación del contexto de persistencia
+ * y cierre del cursor
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditExportServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2026, 10, 31, 23, 59, 59);
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditArchiveService auditArchiveService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+        .findAndAddModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    private AuditExportService auditExportService;
+
+    @BeforeEach
+    void setUp() {
+        auditExportService = new AuditExportService(auditEventRepository, auditArchiveService, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportar_ndjson_shouldWriteOneJsonObjectPerLine() throws IOException {
+        // Given
+        AuditEvent creado = evento(1L, "TICKET_CREATED", null);
+        AuditEvent asignado = evento(2L, "TICKET_ASSIGNED", "Module: 3");
+        when(auditEventRepository.streamParaExportacion(INICIO, FIN)).thenReturn(Stream.of(creado, asignado));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exportados = auditExportService.exportar(INICIO, FIN, null, AuditExportService.Formato.NDJSON, out);
+
+        // Then - Cada línea es un AuditEventResponse completo y cada evento se libera del contexto
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exportados).isEqualTo(2);
+        assertThat(lineas).hasSize(2);
+        assertThat(objectMapper.readTree(lineas[1]).get("eventType").asText()).isEqualTo("TICKET_ASSIGNED");
+        assertThat(objectMapper.readTree(lineas[1]).get("timestamp").asText()).isEqualTo("2026-10-18T09:30:00");
+        verify(entityManager).detach(creado);
+        verify(entityManager).detach(asignado);
+    }
+
+    @Test
+    void exportar_csv_shouldQuoteFieldsPerRfc4180() {
+        // Given - Datos adicionales con separador y comillas
+        AuditEvent event = evento(7L, "STATUS_CHANGED", "Advisor: \"Ana\", Module: 2");
+        when(auditEventRepository.streamParaExportacionPorTipo(INICIO, FIN, "STATUS_CHANGED"))
+            .thenReturn(Stream.of(event));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        auditExportService.exportar(INICIO, FIN, "STATUS_CHANGED", AuditExportService.Formato.CSV, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            AuditExportService.CSV_ENCABEZADO + "\n"
+                + "7,2026-10-18T09:30,STATUS_CHANGED,SYSTEM,SYSTEM,C01,,,\"Advisor: \"\"Ana\"\", Module: 2\",\n");
+        verify(auditEventRepository, never()).streamParaExportacion(any(), any());
+    }
+
+    @Test
+    void exportar_shouldWriteArchivedMonthsBeforeLiveRows() throws IOException {
+        // Given - El período empieza en un mes archivado
+        AuditEvent archivado = evento(1L, "TICKET_CREATED", null);
+        AuditEvent vivo = evento(2L, "TICKET_ASSIGNED", null);
+        when(auditArchiveService.recorrer(eq(INICIO), eq(FIN), isNull(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(3, AuditArchiveService.Receptor.class).recibir(archivado);
+            return 1L;
+        });
+        when(auditEventRepository.streamParaExportacion(INICIO, FIN)).thenReturn(Stream.of(vivo));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exportados = auditExportService.exportar(INICIO, FIN, null, AuditExportService.Formato.CSV, out);
+
+        // Then - Primero el archivo, luego la base; solo las filas vivas se desvinculan
+        String[] lineas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exportados).isEqualTo(2);
+        assertThat(lineas).hasSize(3);
+        assertThat(lineas[1]).startsWith("1,");
+        assertThat(lineas[2]).startsWith("2,");
+        verify(entityManager, never()).detach(archivado);
+        verify(entityManager).detach(vivo);
+    }
+
+    @Test
+    void exportar_whenClientDisconnects_shouldCloseCursor() {
+        // Given - El cliente corta la descarga
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(auditEventRepository.streamParaExportacion(INICIO, FIN))
+            .thenReturn(Stream.of(evento(1L, "TICKET_CREATED", null)).onClose(() -> cerrado.set(true)));
+        OutputStream desconectado = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        assertThatThrownBy(() -> auditExportService.exportar(
+                INICIO, FIN, null, AuditExportService.Formato.NDJSON, desconectado))
+            .isInstanceOf(UncheckedIOException.class);
+        assertThat(cerrado).isTrue();
+    }
+
+    private AuditEvent evento(Long id, String eventType, String additionalData) {
+        return AuditEvent.builder()
+            .id(id)
+            .timestamp(LocalDateTime.of(2026, 10, 18, 9, 30))
+            .eventType(eventType)
+            .actor("SYSTEM")
+            .actorType(ActorType.SYSTEM)
+            .ticketNumber("C01")
+            .additionalData(additionalData)
+            .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.AuditRollupState;
+import com.example.ticketero.model.enums.ActorType;
+import com.example.ticketero.repository.AuditEventRepository;
+import com.example.ticketero.repository.AuditRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AuditRollupService
+ * Cubre RF-008: compactación horaria con marca de agua y estadísticas combinando
+ * rollups con los eventos de las horas no compactadas
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditRollupServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 10, 18, 12, 3);
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditRollupRepository auditRollupRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AuditRollupState estado = AuditRollupState.builder().name(AuditRollupService.COMPACTACION).build();
+    private AuditRollupService auditRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ZoneId zona = ZoneId.systemDefault();
+        Clock clock = Clock.fixed(AHORA.atZone(zona).toInstant(), zona);
+        auditRollupService = new AuditRollupService(auditEventRepository, auditRollupRepository, jdbcTemplate,
+                                                    transactionManager, 5, 500, 2555, clock);
+    }
+
+    @Test
+    void estadisticasPorTipo_withoutCompactedHours_shouldQueryRawEvents() {
+        // Given - Aún no se compactó ninguna hora
+        LocalDateTime inicio = LocalDateTime.of(2026, 10, 18, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2026, 10, 18, 23, 59, 59);
+        when(auditRollupRepository.findById(AuditRollupService.COMPACTACION)).thenReturn(Optional.of(estado));
+        List<Object[]> crudos = List.<Object[]>of(new Object[]{"TICKET_CREATED", 3L});
+        when(auditEventRepository.getEventTypeStatistics(inicio, fin)).thenReturn(crudos);
+
+        // When
+        List<Object[]> resultado = auditRollupService.estadisticasPorTipo(inicio, fin);
+
+        // Then
+        assertThat(resultado).isSameAs(crudos);
+        verify(auditRollupRepository, never()).sumarPorTipo(any(), any());
+    }
+
+    @Test
+    void estadisticasPorTipo_shouldMergeRollupsWithOpenHours() {
+        // Given - Compactado hasta las 10:00 del último día del período
+        LocalDateTime inicio = LocalDateTime.of(2026, 8, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2026, 10, 18, 23, 59, 59);
+        LocalDateTime marca = LocalDateTime.of(2026, 10, 18, 10, 0);
+        estado.setCompactedUntil(marca);
+        when(auditRollupRepository.findById(AuditRollupService.COMPACTACION)).thenReturn(Optional.of(estado));
+        when(auditRollupRepository.sumarPorTipo(inicio, marca)).thenReturn(List.of(
+            new Object[]{"TICKET_CREATED", 5000L}, new Object[]{"STATUS_CHANGED", 9000L}));
+        when(auditEventRepository.getEventTypeStatistics(marca, fin)).thenReturn(List.<Object[]>of(
+            new Object[]{"TICKET_CREATED", 4001L}, new Object[]{"NOTIFICATION_SENT", 2L}));
+
+        // When
+        List<Object[]> resultado = auditRollupService.estadisticasPorTipo(inicio, fin);
+
+        // Then - Meses desde rollups, la hora abierta desde audit_event, ordenado por cantidad
+        assertThat(resultado).containsExactly(
+            new Object[]{"TICKET_CREATED", 9001L},
+            new Object[]{"STATUS_CHANGED", 9000L},
+            new Object[]{"NOTIFICATION_SENT", 2L});
+        verify(auditEventRepository, never()).contarPorTipoEntre(any(), any());
+    }
+
+    @Test
+    void actividadPorActor_withPartialFirstHour_shouldCountItFromRawEvents() {
+        // Given - El período empieza a mitad de hora
+        LocalDateTime inicio = LocalDateTime.of(2026, 10, 18, 8, 30);
+        LocalDateTime fin = LocalDateTime.of(2026, 10, 18, 11, 59, 59);
+        LocalDateTime horaCompleta = LocalDateTime.of(2026, 10, 18, 9, 0);
+        LocalDateTime marca = LocalDateTime.of(2026, 10, 18, 11, 0);
+        estado.setCompactedUntil(marca);
+        when(auditRollupRepository.findById(AuditRollupService.COMPACTACION)).thenReturn(Optional.of(estado));
+        when(auditEventRepository.contarPorActorEntre(inicio, horaCompleta)).thenReturn(List.<Object[]>of(
+            new Object[]{"SYSTEM", ActorType.SYSTEM, 1L}));
+        when(auditRollupRepository.sumarPorActor(horaCompleta, marca)).thenReturn(List.<Object[]>of(
+            new Object[]{"SYSTEM", ActorType.SYSTEM, 10L}));
+        when(auditEventRepository.getActorActivityStats(marca, fin)).thenReturn(List.<Object[]>of(
+            new Object[]{"Juan Pérez", ActorType.ADVISOR, 4L}));
+
+        // When
+        List<Object[]> resultado = auditRollupService.actividadPorActor(inicio, fin);
+
+        // Then
+        assertThat(resultado).containsExactly(
+            new Object[]{"SYSTEM", ActorType.SYSTEM, 11L},
+            new Object[]{"Juan Pérez", ActorType.ADVISOR, 4L});
+    }
+
+    @Test
+    void compactar_shouldRollUpClosedHoursAndAdvanceWatermark() {
+        // Given - 12:03 con 5 minutos de gracia: cerradas hasta las 11:00
+        LocalDateTime nueve = LocalDateTime.of(2026, 10, 18, 9, 0);
+        LocalDateTime diez = nueve.plusHours(1);
+        LocalDateTime once = nueve.plusHours(2);
+        estado.setCompactedUntil(nueve);
+        when(auditRollupRepository.existsById(AuditRollupService.COMPACTACION)).thenReturn(true);
+        when(auditRollupRepository.findForUpdate(AuditRollupService.COMPACTACION)).thenReturn(Optional.of(estado));
+        when(auditEventRepository.findPrimerTimestampEntre(nueve, once)).thenReturn(nueve.plusMinutes(15));
+        when(auditEventRepository.findPrimerTimestampEntre(diez, once)).thenReturn(null);
+
+        // When
+        auditRollupService.compactar();
+
+        // Then - Se compacta la hora 09:00, la 10:00 vacía se salta y la de las 11:00 sigue abierta
+        verify(jdbcTemplate).update(AuditRollupService.INSERT_POR_TIPO_SQL,
+            Timestamp.valueOf(nueve), Timestamp.valueOf(nueve), Timestamp.valueOf(diez));
+        verify(jdbcTemplate).update(AuditRollupService.INSERT_POR_ACTOR_SQL,
+            Timestamp.valueOf(nueve), Timestamp.valueOf(nueve), Timestamp.valueOf(diez));
+        assertThat(estado.getCompactedUntil()).isEqualTo(once);
+    }
+
+    @Test
+    void compactar_withUpToDateWatermark_shouldNotQueryEvents() {
+        // Given
+        estado.setCompactedUntil(LocalDateTime.of(2026, 10, 18, 11, 0));
+        when(auditRollupRepository.existsById(AuditRollupService.COMPACTACION)).thenReturn(true);
+        when(auditRollupRepository.findForUpdate(AuditRollupService.COMPACTACION)).thenReturn(Optional.of(estado));
+
+        // When
+        auditRollupService.compactar();
+
+        // Then
+        verifyNoInteractions(auditEventRepository);
+        verify(jdbcTemplate, never()).update(eq(AuditRollupService.INSERT_POR_TIPO_SQL), any(Object[].class));
+    }
+}
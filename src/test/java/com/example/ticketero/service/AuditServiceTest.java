@@ -1,5 +1,8 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.exception.CursorInvalidoException;
+import com.example.ticketero.model.dto.AuditCursor;
+import com.example.ticketero.model.dto.AuditEventPageResponse;
 import com.example.ticketero.model.dto.AuditEventResponse;
 import com.example.ticketero.model.entity.AuditEvent;
 import com.example.ticketero.model.entity.Ticket;
@@ -12,6 +15,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -19,11 +23,14 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para AuditService
- * Cubre RN-011, RN-013 y trazabilidad de auditoría
+ * Cubre RN-011, RN-013 y trazabilidad de auditoría con paginación keyset.
+ * La escritura por lotes se cubre en AuditEventWriterTest.
  */
 @ExtendWith(MockitoExtension.class)
 class AuditServiceTest {
@@ -31,6 +38,15 @@ class AuditServiceTest {
     @Mock
     private AuditEventRepository auditEventRepository;
     
+    @Mock
+    private AuditEventWriter auditEventWriter;
+    
+    @Mock
+    private AuditRollupService auditRollupService;
+    
+    @Mock
+    private AuditArchiveService auditArchiveService;
+    
     @InjectMocks
     private AuditService auditService;
 
@@ -45,7 +61,7 @@ class AuditServiceTest {
         
         // Then
         ArgumentCaptor<AuditEvent> eventCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository).save(eventCaptor.capture());
+        verify(auditEventWriter).registrar(eventCaptor.capture());
         
         AuditEvent savedEvent = eventCaptor.getValue();
         assertThat(savedEvent.getEventType()).isEqualTo("TICKET_CREATED");
@@ -74,7 +90,7 @@ class AuditServiceTest {
         
         // Then
         ArgumentCaptor<AuditEvent> eventCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository).save(eventCaptor.capture());
+        verify(auditEventWriter).registrar(eventCaptor.capture());
         
         AuditEvent savedEvent = eventCaptor.getValue();
         assertThat(savedEvent.getEventType()).isEqualTo("STATUS_CHANGED");
@@ -103,7 +119,7 @@ class AuditServiceTest {
         
         // Then
         ArgumentCaptor<AuditEvent> eventCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository).save(eventCaptor.capture());
+        verify(auditEventWriter).registrar(eventCaptor.capture());
         
         AuditEvent savedEvent = eventCaptor.getValue();
         assertThat(savedEvent.getEventType()).isEqualTo(eventType);
@@ -120,26 +136,125 @@ class AuditServiceTest {
         // Given - RF-008: Consulta de trazabilidad
         String ticketNumber = "C001";
         AuditEvent event1 = AuditEvent.builder()
+            .id(1L)
             .eventType("TICKET_CREATED")
             .ticketNumber(ticketNumber)
             .timestamp(LocalDateTime.now().minusMinutes(10))
             .build();
         AuditEvent event2 = AuditEvent.builder()
+            .id(2L)
             .eventType("STATUS_CHANGED")
             .ticketNumber(ticketNumber)
             .timestamp(LocalDateTime.now().minusMinutes(5))
             .build();
         
-        when(auditEventRepository.findByTicketNumberOrderByTimestampDesc(ticketNumber))
+        when(auditEventRepository.findPrimeraPaginaPorTicket(ticketNumber, PageRequest.of(0, AuditService.TAMANO_PAGINA + 1)))
             .thenReturn(Arrays.asList(event2, event1)); // Más reciente primero
         
         // When
-        List<AuditEventResponse> result = auditService.getTicketAuditTrail(ticketNumber);
+        AuditEventPageResponse result = auditService.getTicketAuditTrail(ticketNumber, null, null);
+        
+        // Then - Cabe en una página: sin cursor de continuación
+        assertThat(result.events()).hasSize(2);
+        assertThat(result.events().get(0).eventType()).isEqualTo("STATUS_CHANGED");
+        assertThat(result.events().get(1).eventType()).isEqualTo("TICKET_CREATED");
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getAuditEventsByActor_withMoreEvents_shouldReturnCursorOfLastEvent() {
+        // Given - Se piden 2 y el repositorio trae el evento extra
+        LocalDateTime ahora = LocalDateTime.of(2026, 10, 18, 12, 0);
+        List<AuditEvent> eventos = List.of(
+            evento(30L, ahora), evento(20L, ahora.minusMinutes(1)), evento(10L, ahora.minusMinutes(2)));
+        when(auditEventRepository.findPrimeraPaginaPorActor("SYSTEM", PageRequest.of(0, 3))).thenReturn(eventos);
+        
+        // When
+        AuditEventPageResponse result = auditService.getAuditEventsByActor("SYSTEM", null, 2);
+        
+        // Then - El cursor apunta al último evento entregado, no al extra
+        assertThat(result.events()).extracting(AuditEventResponse::id).containsExactly(30L, 20L);
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(AuditCursor.decodificar(result.nextCursor()))
+            .isEqualTo(new AuditCursor(ahora.minusMinutes(1), 20L));
+    }
+
+    @Test
+    void getAuditEventsByActor_withCursor_shouldContinueAfterIt() {
+        // Given
+        LocalDateTime ahora = LocalDateTime.of(2026, 10, 18, 12, 0);
+        String cursor = new AuditCursor(ahora, 20L).codificar();
+        when(auditEventRepository.findPaginaSiguientePorActor("SYSTEM", ahora, 20L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(evento(10L, ahora.minusMinutes(2))));
+        
+        // When
+        AuditEventPageResponse result = auditService.getAuditEventsByActor("SYSTEM", cursor, 2);
+        
+        // Then - Última página
+        assertThat(result.events()).extracting(AuditEventResponse::id).containsExactly(10L);
+        assertThat(result.nextCursor()).isNull();
+        verify(auditEventRepository, never()).findPrimeraPaginaPorActor(any(), any());
+    }
+
+    @Test
+    void getAuditEventsByDateRange_shouldCapPageSize() {
+        // Given
+        LocalDateTime inicio = LocalDateTime.of(2026, 10, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2026, 10, 31, 23, 59);
+        when(auditEventRepository.findPrimeraPaginaPorPeriodo(eq(inicio), eq(fin), any())).thenReturn(List.of());
+        
+        // When - Un cliente pide un millón de eventos
+        auditService.getAuditEventsByDateRange(inicio, fin, null, 1_000_000);
+        
+        // Then
+        verify(auditEventRepository).findPrimeraPaginaPorPeriodo(
+            inicio, fin, PageRequest.of(0, AuditService.TAMANO_MAXIMO_PAGINA + 1));
+    }
+
+    @Test
+    void getAuditEventsByActor_withLiveEventsExhausted_shouldPointCursorToArchives() {
+        // Given - Quedan 2 eventos vivos y algún mes archivado puede tener más del actor
+        LocalDateTime ahora = LocalDateTime.of(2026, 10, 18, 12, 0);
+        when(auditEventRepository.findPrimeraPaginaPorActor("SYSTEM", PageRequest.of(0, 11)))
+            .thenReturn(List.of(evento(30L, ahora), evento(20L, ahora.minusMinutes(1))));
+        when(auditArchiveService.puedeContener(AuditArchiveService.Filtro.porActor("SYSTEM"),
+                                               new AuditCursor(ahora.minusMinutes(1), 20L))).thenReturn(true);
+        
+        // When
+        AuditEventPageResponse result = auditService.getAuditEventsByActor("SYSTEM", null, 10);
+        
+        // Then - La página no lee archivos, pero deja un cursor para seguir en ellos
+        assertThat(result.events()).extracting(AuditEventResponse::id).containsExactly(30L, 20L);
+        assertThat(AuditCursor.decodificar(result.nextCursor())).isEqualTo(new AuditCursor(ahora.minusMinutes(1), 20L));
+        verify(auditArchiveService, never()).buscar(any(), any(), anyInt());
+    }
+    
+    @Test
+    void getAuditEventsByActor_withCursorPastLiveEvents_shouldReadArchives() {
+        // Given - RN-013: el cursor ya no tiene eventos vivos detrás
+        LocalDateTime ahora = LocalDateTime.of(2026, 10, 18, 12, 0);
+        AuditCursor desde = new AuditCursor(ahora, 20L);
+        AuditArchiveService.Filtro filtro = AuditArchiveService.Filtro.porActor("SYSTEM");
+        when(auditEventRepository.findPaginaSiguientePorActor("SYSTEM", ahora, 20L, PageRequest.of(0, 3)))
+            .thenReturn(List.of());
+        LocalDateTime archivado = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(auditArchiveService.buscar(filtro, desde, 3)).thenReturn(List.of(
+            evento(9L, archivado), evento(8L, archivado.minusMinutes(1)), evento(7L, archivado.minusMinutes(2))));
+        
+        // When
+        AuditEventPageResponse result = auditService.getAuditEventsByActor("SYSTEM", desde.codificar(), 2);
         
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).eventType()).isEqualTo("STATUS_CHANGED");
-        assertThat(result.get(1).eventType()).isEqualTo("TICKET_CREATED");
+        assertThat(result.events()).extracting(AuditEventResponse::id).containsExactly(9L, 8L);
+        assertThat(AuditCursor.decodificar(result.nextCursor())).isEqualTo(new AuditCursor(archivado.minusMinutes(1), 8L));
+    }
+    
+    @Test
+    void getAuditEventsByActor_withTamperedCursor_shouldThrow() {
+        // When & Then
+        assertThatThrownBy(() -> auditService.getAuditEventsByActor("SYSTEM", "no-es-un-cursor", 10))
+            .isInstanceOf(CursorInvalidoException.class);
+        verifyNoInteractions(auditEventRepository);
     }
 
     @Test
@@ -150,28 +265,38 @@ class AuditServiceTest {
         // When & Then - SYSTEM
         spyService.registrarEvento("TEST", "SYSTEM", null, null, null, null);
         ArgumentCaptor<AuditEvent> systemCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository).save(systemCaptor.capture());
+        verify(auditEventWriter).registrar(systemCaptor.capture());
         assertThat(systemCaptor.getValue().getActorType()).isEqualTo(ActorType.SYSTEM);
         
         // When & Then - SUPERVISOR (email)
         spyService.registrarEvento("TEST", "supervisor@banco.cl", null, null, null, null);
         ArgumentCaptor<AuditEvent> supervisorCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository, times(2)).save(supervisorCaptor.capture());
+        verify(auditEventWriter, times(2)).registrar(supervisorCaptor.capture());
         List<AuditEvent> allEvents = supervisorCaptor.getAllValues();
         assertThat(allEvents.get(1).getActorType()).isEqualTo(ActorType.SUPERVISOR);
         
         // When & Then - CLIENT (RUT format)
         spyService.registrarEvento("TEST", "12345678-9", null, null, null, null);
         ArgumentCaptor<AuditEvent> clientCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository, times(3)).save(clientCaptor.capture());
+        verify(auditEventWriter, times(3)).registrar(clientCaptor.capture());
         List<AuditEvent> allClientEvents = clientCaptor.getAllValues();
         assertThat(allClientEvents.get(2).getActorType()).isEqualTo(ActorType.CLIENT);
         
         // When & Then - ADVISOR (default)
         spyService.registrarEvento("TEST", "María López", null, null, null, null);
         ArgumentCaptor<AuditEvent> advisorCaptor = ArgumentCaptor.forClass(AuditEvent.class);
-        verify(auditEventRepository, times(4)).save(advisorCaptor.capture());
+        verify(auditEventWriter, times(4)).registrar(advisorCaptor.capture());
         List<AuditEvent> allAdvisorEvents = advisorCaptor.getAllValues();
         assertThat(allAdvisorEvents.get(3).getActorType()).isEqualTo(ActorType.ADVISOR);
     }
-}
\ No newline at end of file
+
+    private AuditEvent evento(Long id, LocalDateTime timestamp) {
+        return AuditEvent.builder()
+            .id(id)
+            .eventType("NOTIFICATION_SENT")
+            .actor("SYSTEM")
+            .actorType(ActorType.SYSTEM)
+            .timestamp(timestamp)
+            .build();
+    }
+}
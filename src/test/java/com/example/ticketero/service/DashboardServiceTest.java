@@ -5,27 +5,30 @@ import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.TicketRepository;
 import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para DashboardService
  * Cubre RF-007 y métricas en tiempo real
+ * Los conteos se leen de un QueueMetricsRegistry real conciliado contra los repositorios mock
  */
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceTest {
@@ -39,8 +42,15 @@ class DashboardServiceTest {
     @Mock
     private QueueService queueService;
     
-    @InjectMocks
+    private QueueMetricsRegistry metricsRegistry;
+    
     private DashboardService dashboardService;
+    
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new QueueMetricsRegistry(ticketRepository, advisorRepository);
+        dashboardService = new DashboardService(advisorRepository, queueService, metricsRegistry);
+    }
 
     @Test
     void getDashboardData_shouldReturnCompleteData() {
@@ -48,7 +58,7 @@ class DashboardServiceTest {
         setupBasicMocks();
         
         // When
-        DashboardResponse result = dashboardService.getDashboardData();
+        DashboardResponse result = generarDashboard();
         
         // Then
         assertThat(result).isNotNull();
@@ -73,29 +83,73 @@ class DashboardServiceTest {
         
         // Verificar métricas
         assertThat(result.metricas()).isNotEmpty();
-        assertThat(result.metricas()).containsKey("total_asesores");
+        assertThat(result.metricas()).containsEntry("total_asesores", 6);
+    }
+
+    @Test
+    void getDashboardData_shouldReadCountersWithoutCountingRows() {
+        // Given - Contadores conciliados con la consulta agrupada
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(Arrays.asList(
+            new Object[]{TicketStatus.WAITING, QueueType.CAJA, 4L},
+            new Object[]{TicketStatus.WAITING, QueueType.EMPRESAS, 1L},
+            new Object[]{TicketStatus.CALLED, QueueType.CAJA, 2L},
+            new Object[]{TicketStatus.IN_SERVICE, QueueType.GERENCIA, 1L},
+            new Object[]{TicketStatus.COMPLETED, QueueType.CAJA, 7L},
+            new Object[]{TicketStatus.COMPLETED, QueueType.PERSONAL_BANKER, 3L},
+            new Object[]{TicketStatus.NO_SHOW, QueueType.CAJA, 9L}
+        ));
+        setupOtherMocks();
+        metricsRegistry.reconcile();
+        clearInvocations(ticketRepository, advisorRepository);
+        
+        // When
+        DashboardResponse result = dashboardService.getDashboardData();
+        
+        // Then
+        assertThat(result.resumenEjecutivo().ticketsActivos()).isEqualTo(8);
+        assertThat(result.resumenEjecutivo().ticketsCompletadosHoy()).isEqualTo(10);
+        assertThat(result.estadoColas().get("CAJA").ticketsEnEspera()).isEqualTo(4);
+        assertThat(result.estadoColas().get("PERSONAL_BANKER").ticketsEnEspera()).isZero();
+        assertThat(result.metricas()).containsEntry("tickets_caja", 7);
+        assertThat(result.metricas()).containsEntry("tickets_gerencia", 0);
+        
+        // Sin conteos en la base de datos: solo el asesor más productivo
+        verifyNoInteractions(ticketRepository);
+        verify(advisorRepository, never()).countAdvisorsByStatus();
+        verify(advisorRepository, never()).findByStatusOrderByAssignedTicketsCountAsc(any());
+        verify(advisorRepository, times(1)).findFirstByOrderByAssignedTicketsCountDesc();
+    }
+
+    @Test
+    void getDashboardData_afterTransitionEvents_shouldReflectNewCounts() {
+        // Given
+        mockWaiting(2L, 0L, 0L, 0L);
+        setupOtherMocks();
+        metricsRegistry.reconcile();
+        
+        // When - Un ticket de CAJA es llamado y un asesor queda ocupado
+        metricsRegistry.onTicketStatusChanged(new TicketStatusChangedEvent(
+            1L, "C01", QueueType.CAJA, TicketStatus.WAITING, TicketStatus.CALLED, null));
+        metricsRegistry.onAdvisorStatusChanged(new AdvisorStatusChangedEvent(
+            1L, AdvisorStatus.AVAILABLE, AdvisorStatus.BUSY));
+        DashboardResponse result = dashboardService.getDashboardData();
+        
+        // Then
+        assertThat(result.estadoColas().get("CAJA").ticketsEnEspera()).isEqualTo(1);
+        assertThat(result.resumenEjecutivo().ticketsActivos()).isEqualTo(2);
+        assertThat(result.estadoEjecutivos().disponibles()).isEqualTo(2);
+        assertThat(result.estadoEjecutivos().ocupados()).isEqualTo(3);
     }
 
     @Test
     void generateAlertas_withSaturatedQueue_shouldCreateAlert() {
         // Given - Sistema de alertas por saturación
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.CAJA))
-            .thenReturn(15L); // Más de 10 = saturado
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.PERSONAL_BANKER))
-            .thenReturn(2L);
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.EMPRESAS))
-            .thenReturn(1L);
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.GERENCIA))
-            .thenReturn(0L);
-        
-        // Mock asesores disponibles
-        when(advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE))
-            .thenReturn(List.of(TestDataBuilder.advisorAvailable().build()));
+        mockWaiting(15L, 2L, 1L, 0L); // CAJA con más de 10 = saturado
         
         setupOtherMocks();
         
         // When
-        DashboardResponse result = dashboardService.getDashboardData();
+        DashboardResponse result = generarDashboard();
         
         // Then
         assertThat(result.alertas()).isNotEmpty();
@@ -113,17 +167,14 @@ class DashboardServiceTest {
     @Test
     void determineEstadoGeneral_withCriticalAlerts_shouldReturnCritico() {
         // Given - Estado crítico por falta de asesores
-        when(ticketRepository.countByStatusAndQueueType(any(TicketStatus.class), any(QueueType.class)))
-            .thenReturn(5L);
+        mockWaiting(5L, 5L, 5L, 5L);
         
         // Sin asesores disponibles = alerta crítica
-        when(advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE))
-            .thenReturn(List.of()); // Lista vacía
-        
-        setupOtherMocks();
+        mockAdvisorCounts(0L, 5L, 1L);
+        mockMostProductiveAdvisor();
         
         // When
-        DashboardResponse result = dashboardService.getDashboardData();
+        DashboardResponse result = generarDashboard();
         
         // Then
         assertThat(result.estadoGeneral()).isEqualTo("CRITICO");
@@ -140,19 +191,13 @@ class DashboardServiceTest {
     @Test
     void generateEstadoColas_shouldCalculateCorrectStates() {
         // Given - Estados de cola según cantidad de tickets
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.CAJA))
-            .thenReturn(0L); // VACIA
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.PERSONAL_BANKER))
-            .thenReturn(2L); // NORMAL (≤3)
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.EMPRESAS))
-            .thenReturn(5L); // MODERADA (4-7)
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, QueueType.GERENCIA))
-            .thenReturn(12L); // SATURADA (>7)
+        // CAJA: VACIA, PERSONAL_BANKER: NORMAL (≤3), EMPRESAS: MODERADA (4-7), GERENCIA: SATURADA (>7)
+        mockWaiting(0L, 2L, 5L, 12L);
         
         setupOtherMocks();
         
         // When
-        DashboardResponse result = dashboardService.getDashboardData();
+        DashboardResponse result = generarDashboard();
         
         // Then
         assertThat(result.estadoColas().get("CAJA").estado()).isEqualTo("VACIA");
@@ -171,24 +216,48 @@ class DashboardServiceTest {
             .isEqualTo(12 * QueueType.GERENCIA.getAvgTimeMinutes());
     }
     
+    private DashboardResponse generarDashboard() {
+        metricsRegistry.reconcile();
+        return dashboardService.getDashboardData();
+    }
+    
     private void setupBasicMocks() {
-        // Mock conteos básicos
-        when(ticketRepository.countByStatusAndQueueType(any(TicketStatus.class), any(QueueType.class)))
-            .thenReturn(5L);
+        // Mock conteos básicos: 5 tickets en cada combinación estado × cola
+        List<Object[]> rows = new ArrayList<>();
+        for (TicketStatus status : TicketStatus.values()) {
+            for (QueueType queueType : QueueType.values()) {
+                rows.add(new Object[]{status, queueType, 5L});
+            }
+        }
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(rows);
         
         setupOtherMocks();
     }
     
+    private void mockWaiting(long caja, long personalBanker, long empresas, long gerencia) {
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(Arrays.asList(
+            new Object[]{TicketStatus.WAITING, QueueType.CAJA, caja},
+            new Object[]{TicketStatus.WAITING, QueueType.PERSONAL_BANKER, personalBanker},
+            new Object[]{TicketStatus.WAITING, QueueType.EMPRESAS, empresas},
+            new Object[]{TicketStatus.WAITING, QueueType.GERENCIA, gerencia}
+        ));
+    }
+    
     private void setupOtherMocks() {
-        // Mock advisor counts
-        Object[] availableCount = {AdvisorStatus.AVAILABLE, 3L};
-        Object[] busyCount = {AdvisorStatus.BUSY, 2L};
-        Object[] offlineCount = {AdvisorStatus.OFFLINE, 1L};
-        
-        when(advisorRepository.countAdvisorsByStatus())
-            .thenReturn(Arrays.asList(availableCount, busyCount, offlineCount));
+        mockAdvisorCounts(3L, 2L, 1L);
+        mockMostProductiveAdvisor();
+    }
+    
+    private void mockAdvisorCounts(long available, long busy, long offline) {
+        List<Object[]> rows = new ArrayList<>();
+        if (available > 0) rows.add(new Object[]{AdvisorStatus.AVAILABLE, available});
+        if (busy > 0) rows.add(new Object[]{AdvisorStatus.BUSY, busy});
+        if (offline > 0) rows.add(new Object[]{AdvisorStatus.OFFLINE, offline});
         
-        // Mock most productive advisor
+        when(advisorRepository.countAdvisorsByStatus()).thenReturn(rows);
+    }
+    
+    private void mockMostProductiveAdvisor() {
         Advisor productiveAdvisor = TestDataBuilder.advisorBusy()
             .name("Top Performer")
             .assignedTicketsCount(10)
@@ -196,14 +265,5 @@ class DashboardServiceTest {
         
         when(advisorRepository.findFirstByOrderByAssignedTicketsCountDesc())
             .thenReturn(Optional.of(productiveAdvisor));
-        
-        // Mock total advisor count
-        when(advisorRepository.count()).thenReturn(6L);
-        
-        // Mock available advisors for alerts
-        if (advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE) == null) {
-            when(advisorRepository.findByStatusOrderByAssignedTicketsCountAsc(AdvisorStatus.AVAILABLE))
-                .thenReturn(List.of(TestDataBuilder.advisorAvailable().build()));
-        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.dto.DashboardResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para DashboardSnapshotCache
+ * Cubre RF-007 (snapshot compartido por intervalo y antigüedad visible)
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardSnapshotCacheTest {
+
+    @Mock
+    private DashboardService dashboardService;
+
+    private MutableClock clock;
+
+    private DashboardSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-03-15T12:00:00Z"));
+        cache = new DashboardSnapshotCache(dashboardService, clock);
+    }
+
+    @Test
+    void get_afterRefresh_shouldServeSameInstanceWithoutRecomputing() {
+        // Given
+        DashboardResponse dashboard = dashboard("NORMAL");
+        when(dashboardService.getDashboardData()).thenReturn(dashboard);
+        cache.refresh();
+
+        // When - Múltiples monitores consultan el dashboard
+        DashboardSnapshotCache.Snapshot first = cache.get();
+        DashboardSnapshotCache.Snapshot second = cache.get();
+        DashboardSnapshotCache.Snapshot third = cache.get();
+
+        // Then
+        assertThat(first).isSameAs(second).isSameAs(third);
+        assertThat(first.dashboard()).isSameAs(dashboard);
+        verify(dashboardService, times(1)).getDashboardData();
+    }
+
+    @Test
+    void ageSeconds_shouldGrowUntilNextRefresh() {
+        // Given
+        when(dashboardService.getDashboardData()).thenReturn(dashboard("NORMAL"), dashboard("ATENCION"));
+        cache.refresh();
+
+        // When
+        clock.advanceSeconds(12);
+        DashboardSnapshotCache.Snapshot stale = cache.get();
+        long ageBefore = cache.ageSeconds(stale);
+
+        cache.refresh();
+        DashboardSnapshotCache.Snapshot fresh = cache.get();
+
+        // Then
+        assertThat(ageBefore).isEqualTo(12);
+        assertThat(cache.ageSeconds(fresh)).isZero();
+        assertThat(fresh.dashboard().estadoGeneral()).isEqualTo("ATENCION");
+        // El lector que ya tenía el snapshot anterior lo conserva intacto
+        assertThat(stale.dashboard().estadoGeneral()).isEqualTo("NORMAL");
+    }
+
+    @Test
+    void refresh_withFailure_shouldKeepPreviousSnapshot() {
+        // Given
+        when(dashboardService.getDashboardData())
+            .thenReturn(dashboard("NORMAL"))
+            .thenThrow(new IllegalStateException("Base de datos no disponible"));
+        cache.refresh();
+
+        // When
+        clock.advanceSeconds(30);
+        cache.refresh();
+
+        // Then
+        DashboardSnapshotCache.Snapshot snapshot = cache.get();
+        assertThat(snapshot.dashboard().estadoGeneral()).isEqualTo("NORMAL");
+        assertThat(cache.ageSeconds(snapshot)).isEqualTo(30);
+    }
+
+    @Test
+    void get_beforeFirstRefresh_shouldLoadOnce() {
+        // Given
+        when(dashboardService.getDashboardData()).thenReturn(dashboard("NORMAL"));
+
+        // When
+        DashboardSnapshotCache.Snapshot first = cache.get();
+        DashboardSnapshotCache.Snapshot second = cache.get();
+
+        // Then
+        assertThat(first).isSameAs(second);
+        verify(dashboardService, times(1)).getDashboardData();
+    }
+
+    private DashboardResponse dashboard(String estadoGeneral) {
+        return new DashboardResponse(
+            LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC),
+            30,
+            estadoGeneral,
+            new DashboardResponse.ResumenEjecutivo(0, 0, 10.0, 0.0),
+            Map.of(),
+            null,
+            List.of(),
+            Map.of()
+        );
+    }
+
+    /**
+     * Reloj controlable para simular el paso del tiempo entre regeneraciones.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ticketero.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitarios para HierarchicalTimingWheel
+ * Cubre RF-002: vencimientos diferidos sin adelantos, con a lo sumo un tick de retraso,
+ * también más allá del horizonte del primer nivel
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int SIZE = 8;
+    private static final long INICIO = 1_000_000;
+
+    @Test
+    void agregar_withPastExpiration_shouldReturnFalse() {
+        // Given
+        HierarchicalTimingWheel<String> rueda = new HierarchicalTimingWheel<>(TICK, SIZE, INICIO);
+
+        // When / Then - El llamador lo procesa de inmediato
+        assertThat(rueda.agregar("vencido", INICIO - 1)).isFalse();
+        assertThat(rueda.size()).isZero();
+    }
+
+    @Test
+    void avanzar_shouldNeverFireBeforeExpiration() {
+        // Given
+        HierarchicalTimingWheel<String> rueda = new HierarchicalTimingWheel<>(TICK, SIZE, INICIO);
+        List<String> vencidos = new ArrayList<>();
+        rueda.agregar("a", INICIO + 5);
+
+        // When / Then - Sale al cerrar su tick, nunca antes de su vencimiento
+        rueda.avanzar(INICIO + 5, vencidos::add);
+        rueda.avanzar(INICIO + TICK - 1, vencidos::add);
+        assertThat(vencidos).isEmpty();
+
+        rueda.avanzar(INICIO + TICK, vencidos::add);
+        assertThat(vencidos).containsExactly("a");
+        assertThat(rueda.size()).isZero();
+    }
+
+    @Test
+    void avanzar_beyondFirstLevelHorizon_shouldCascadeDownAndFireOnTime() {
+        // Given - Horizonte del primer nivel: 80 ms; 3 s exige tres niveles
+        HierarchicalTimingWheel<String> rueda = new HierarchicalTimingWheel<>(TICK, SIZE, INICIO);
+        long vencimiento = INICIO + 3_003;
+        rueda.agregar("lejano", vencimiento);
+        List<Long> disparos = new ArrayList<>();
+
+        // When
+        for (long ahora = INICIO; ahora <= INICIO + 4_000; ahora += 7) {
+            long instante = ahora;
+            rueda.avanzar(instante, elemento -> disparos.add(instante));
+        }
+
+        // Then
+        assertThat(disparos).hasSize(1);
+        assertThat(disparos.get(0)).isBetween(vencimiento, vencimiento + TICK + 7);
+    }
+
+    @Test
+    void avanzar_withRandomSchedule_shouldFireEachOnceWithinOneTick() {
+        // Given
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> rueda = new HierarchicalTimingWheel<>(TICK, SIZE, INICIO);
+        Map<Integer, Long> vencimientos = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long vencimiento = INICIO + random.nextInt(100_000);
+            vencimientos.put(i, vencimiento);
+            assertThat(rueda.agregar(i, vencimiento)).isTrue();
+        }
+        Map<Integer, Long> disparos = new HashMap<>();
+
+        // When - Avances irregulares, como los de un reloj real
+        long anterior = INICIO;
+        for (long ahora = INICIO; ahora <= INICIO + 100_100; ahora += 1 + random.nextInt(50)) {
+            long previo = anterior;
+            long instante = ahora;
+            rueda.avanzar(instante, elemento -> {
+                assertThat(disparos.put(elemento, instante)).as("disparo repetido de %d", elemento).isNull();
+                long cierreTick = vencimientos.get(elemento) - vencimientos.get(elemento) % TICK + TICK;
+                assertThat(instante).as("adelanto de %d", elemento).isGreaterThanOrEqualTo(vencimientos.get(elemento));
+                assertThat(previo).as("retraso de %d", elemento).isLessThan(cierreTick);
+            });
+            anterior = ahora;
+        }
+
+        // Then
+        assertThat(disparos).hasSize(vencimientos.size());
+        assertThat(rueda.size()).isZero();
+    }
+
+    @Test
+    void avanzar_whenEmpty_shouldJumpToCurrentTime() {
+        // Given - Rueda ociosa durante una hora
+        HierarchicalTimingWheel<String> rueda = new HierarchicalTimingWheel<>(TICK, SIZE, INICIO);
+        List<String> vencidos = new ArrayList<>();
+        long ahora = INICIO + 3_600_000;
+        rueda.avanzar(ahora, vencidos::add);
+
+        // When
+        boolean pasado = rueda.agregar("pasado", ahora - TICK - 1);
+        rueda.agregar("futuro", ahora + 25);
+        rueda.avanzar(ahora + 30, vencidos::add);
+
+        // Then
+        assertThat(pasado).isFalse();
+        assertThat(vencidos).containsExactly("futuro");
+    }
+
+    @Test
+    void constructor_withInvalidSettings_shouldThrow() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<String>(0, SIZE, INICIO))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel<String>(TICK, 1, INICIO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
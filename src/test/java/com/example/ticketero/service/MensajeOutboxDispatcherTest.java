@@ -0,0 +1,175 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para MensajeOutboxDispatcher
+ * Cubre RF-002: reclamo de la outbox por bloques con lease y despacho inmediato tras commit.
+ * El envío de cada bloque se cubre en NotificationPipelineTest.
+ */
+@ExtendWith(MockitoExtension.class)
+class MensajeOutboxDispatcherTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private NotificationPipeline notificationPipeline;
+
+    @Mock
+    private MensajeTimingWheel timingWheel;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MensajeOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new MensajeOutboxDispatcher(
+            mensajeRepository, notificationPipeline, timingWheel, transactionManager, CHUNK_SIZE, 120, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void despacharPendientes_shouldProcessFullChunksUntilOutboxIsEmpty() {
+        // Given - Un bloque completo obliga a reclamar otro en la misma pasada
+        List<Mensaje> primero = List.of(mensaje(1L), mensaje(2L), mensaje(3L), mensaje(4L));
+        List<Mensaje> segundo = List.of(mensaje(5L));
+        when(mensajeRepository.claimPendientes(any(LocalDateTime.class), eq(PageRequest.of(0, CHUNK_SIZE))))
+            .thenReturn(primero, segundo);
+
+        // When
+        int procesados = dispatcher.despacharPendientes();
+
+        // Then
+        assertThat(procesados).isEqualTo(5);
+        verify(mensajeRepository).findWithTicketByIdIn(List.of(1L, 2L, 3L, 4L));
+        verify(notificationPipeline).procesar(primero);
+        verify(notificationPipeline).procesar(segundo);
+        verify(mensajeRepository, times(2)).claimPendientes(any(), any());
+    }
+
+    @Test
+    void despacharPendientes_shouldLeaseClaimedMessagesWhileSending() {
+        // Given
+        Mensaje mensaje = mensaje(1L);
+        LocalDateTime antes = LocalDateTime.now();
+        when(mensajeRepository.claimPendientes(any(LocalDateTime.class), any())).thenReturn(List.of(mensaje));
+        doAnswer(invocation -> {
+            // Then - Durante el envío ninguna otra instancia puede reclamarlo
+            assertThat(mensaje.getFechaProgramada()).isAfterOrEqualTo(antes.plusSeconds(120));
+            return null;
+        }).when(notificationPipeline).procesar(List.of(mensaje));
+
+        // When
+        dispatcher.despacharPendientes();
+
+        // Then - Bloque incompleto: no se vuelve a reclamar en la misma pasada
+        verify(mensajeRepository, times(1)).claimPendientes(any(), any());
+        verify(notificationPipeline).procesar(List.of(mensaje));
+    }
+
+    @Test
+    void despacharPendientes_withEmptyOutbox_shouldNotSend() {
+        // Given
+        when(mensajeRepository.claimPendientes(any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        // When
+        int procesados = dispatcher.despacharPendientes();
+
+        // Then
+        assertThat(procesados).isZero();
+        verifyNoInteractions(notificationPipeline);
+    }
+
+    @Test
+    void onMensajeProgramado_shouldSendImmediatelyWithoutPolling() {
+        // Given
+        Mensaje mensaje = mensaje(7L);
+        when(mensajeRepository.claimPendientesByIds(eq(List.of(7L)), any(LocalDateTime.class)))
+            .thenReturn(List.of(mensaje));
+
+        // When - Tras el commit que programó el mensaje
+        dispatcher.onMensajeProgramado(new MensajeProgramadoEvent(7L, LocalDateTime.now()));
+
+        // Then - Procesado en menos de un segundo, sin pasar por claimPendientes
+        verify(notificationPipeline, timeout(1000)).procesar(List.of(mensaje));
+        verify(mensajeRepository, never()).claimPendientes(any(), any());
+    }
+
+    @Test
+    void onMensajeProgramado_alreadyClaimed_shouldSkipSend() {
+        // Given - El scheduler u otra instancia ya lo reclamó (SKIP LOCKED / lease vigente)
+        when(mensajeRepository.claimPendientesByIds(eq(List.of(8L)), any(LocalDateTime.class)))
+            .thenReturn(List.of());
+
+        // When
+        dispatcher.onMensajeProgramado(new MensajeProgramadoEvent(8L, null));
+
+        // Then
+        verify(mensajeRepository, timeout(1000)).claimPendientesByIds(eq(List.of(8L)), any(LocalDateTime.class));
+        verifyNoInteractions(notificationPipeline);
+    }
+
+    @Test
+    void onMensajeProgramado_withFutureDate_shouldWaitInTimingWheel() {
+        // Given - RN-012: proximidad programada a +5 minutos
+        LocalDateTime fecha = LocalDateTime.now().plusMinutes(5);
+
+        // When
+        dispatcher.onMensajeProgramado(new MensajeProgramadoEvent(9L, fecha));
+
+        // Then - Ni reclamo ni envío hasta que la rueda lo publique al vencer
+        verify(timingWheel).programar(9L, fecha);
+        verifyNoInteractions(mensajeRepository, notificationPipeline);
+    }
+
+    @Test
+    void onMensajeProgramado_withoutId_shouldIgnoreEvent() {
+        // When
+        dispatcher.onMensajeProgramado(new MensajeProgramadoEvent(null, null));
+
+        // Then
+        verifyNoInteractions(mensajeRepository, notificationPipeline);
+    }
+
+    private Mensaje mensaje(Long id) {
+        return Mensaje.builder()
+            .id(id)
+            .ticket(TestDataBuilder.ticketWaiting().build())
+            .telefono("+56912345678")
+            .plantilla(MessageTemplate.TOTEM_TICKET_CREADO)
+            .estadoEnvio(EstadoEnvio.PENDIENTE)
+            .fechaProgramada(LocalDateTime.now())
+            .intentos(0)
+            .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.testutil.TestDataBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para MensajeReconciler
+ * Cubre RF-002: cierre de mensajes ENVIANDO sin resultado registrado, sin reenvíos
+ */
+@ExtendWith(MockitoExtension.class)
+class MensajeReconcilerTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private NotificationChannel channel;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MensajeReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new MensajeReconciler(mensajeRepository, channel, transactionManager, meterRegistry, CHUNK_SIZE);
+    }
+
+    @Test
+    void reconciliar_withConfirmedDelivery_shouldMarkSent() {
+        // Given - El canal reconoce la clave: la entrega ocurrió antes de la caída
+        Mensaje mensaje = enCurso(1L);
+        when(mensajeRepository.claimEnviandoVencidos(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(mensaje));
+        when(channel.confirmarEntrega("clave-1")).thenReturn(Optional.of("MEM-7"));
+
+        // When
+        int reconciliados = reconciler.reconciliar();
+
+        // Then
+        assertThat(reconciliados).isEqualTo(1);
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        assertThat(mensaje.getTelegramMessageId()).isEqualTo("MEM-7");
+        assertThat(mensaje.getFechaEnvio()).isNotNull();
+        assertThat(conteo("confirmed")).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliar_withUnknownDelivery_shouldFailWithoutResending() {
+        // Given - Telegram no permite confirmar entregas pasadas
+        Mensaje mensaje = enCurso(1L);
+        when(mensajeRepository.claimEnviandoVencidos(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(mensaje));
+        when(channel.confirmarEntrega("clave-1")).thenReturn(Optional.empty());
+
+        // When
+        reconciler.reconciliar();
+
+        // Then - Nunca un duplicado: FALLIDO y sin pasar por enviar
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.FALLIDO);
+        assertThat(mensaje.getIntentos()).isZero();
+        verify(channel, never()).enviar(anyString(), anyString(), anyString());
+        assertThat(conteo("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliar_withFullBlock_shouldContinueUntilPartialBlock() {
+        // Given
+        when(mensajeRepository.claimEnviandoVencidos(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(enCurso(1L), enCurso(2L)))
+            .thenReturn(List.of(enCurso(3L)));
+
+        // When
+        int reconciliados = reconciler.reconciliar();
+
+        // Then
+        assertThat(reconciliados).isEqualTo(3);
+        verify(mensajeRepository, times(2)).claimEnviandoVencidos(any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void reconciliar_withNothingInFlight_shouldReturnZero() {
+        // Given
+        when(mensajeRepository.claimEnviandoVencidos(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of());
+
+        // When / Then
+        assertThat(reconciler.reconciliar()).isZero();
+        verifyNoInteractions(channel);
+    }
+
+    private double conteo(String outcome) {
+        return meterRegistry.get("notification.reconcile").tag("outcome", outcome).counter().count();
+    }
+
+    private Mensaje enCurso(Long id) {
+        return Mensaje.builder()
+            .id(id)
+            .ticket(TestDataBuilder.ticketWaiting().build())
+            .telefono("+56912345678")
+            .plantilla(MessageTemplate.TOTEM_TICKET_CREADO)
+            .claveEnvio("clave-" + id)
+            .estadoEnvio(EstadoEnvio.ENVIANDO)
+            .fechaProgramada(LocalDateTime.now().minusMinutes(1))
+            .intentos(0)
+            .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.model.template.CompiledTemplate;
+import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitarios para MensajeRenderer
+ * Cubre RF-002: contenido de las plantillas de mensaje precompiladas
+ */
+class MensajeRendererTest {
+
+    private final MensajeRenderer renderer = new MensajeRenderer();
+
+    @Test
+    void render_withTicketCreated_shouldGenerateCorrectContent() {
+        // Given
+        Ticket ticket = TestDataBuilder.ticketWaiting()
+            .numero("C001")
+            .positionInQueue(3)
+            .estimatedWaitMinutes(15)
+            .build();
+
+        Mensaje mensaje = Mensaje.builder()
+            .ticket(ticket)
+            .plantilla(MessageTemplate.TOTEM_TICKET_CREADO)
+            .build();
+
+        // When
+        String content = renderer.render(mensaje);
+
+        // Then
+        assertThat(content).contains("🎫 *Ticket Creado*");
+        assertThat(content).contains("📋 Número: C001");
+        assertThat(content).contains("📍 Posición: 3");
+        assertThat(content).contains("⏰ Tiempo estimado: 15 min");
+    }
+
+    @Test
+    void render_withEsTuTurno_shouldIncludeAdvisorInfo() {
+        // Given
+        Ticket ticket = TestDataBuilder.ticketInService()
+            .numero("C001")
+            .assignedModuleNumber(2)
+            .assignedAdvisor("María López")
+            .build();
+
+        Mensaje mensaje = Mensaje.builder()
+            .ticket(ticket)
+            .plantilla(MessageTemplate.TOTEM_ES_TU_TURNO)
+            .build();
+
+        // When
+        String content = renderer.render(mensaje);
+
+        // Then
+        assertThat(content).contains("✅ *¡Es tu turno!*");
+        assertThat(content).contains("📋 Ticket: C001");
+        assertThat(content).contains("🏢 Módulo: 2");
+        assertThat(content).contains("👤 Te atiende: María López");
+    }
+
+    @Test
+    void render_withProximoTurno_shouldIncludePositionInfo() {
+        // Given
+        Ticket ticket = TestDataBuilder.ticketWaiting()
+            .numero("C002")
+            .positionInQueue(2)
+            .build();
+
+        Mensaje mensaje = Mensaje.builder()
+            .ticket(ticket)
+            .plantilla(MessageTemplate.TOTEM_PROXIMO_TURNO)
+            .build();
+
+        // When
+        String content = renderer.render(mensaje);
+
+        // Then
+        assertThat(content).contains("🔔 *¡Tu turno está próximo!*");
+        assertThat(content).contains("📋 Ticket: C002");
+        assertThat(content).contains("📍 Posición: 2");
+        assertThat(content).contains("🏃 Dirígete a la sucursal");
+    }
+
+    @Test
+    void render_shouldMatchStringFormatOutputExactly() {
+        // Given - Mismo texto que generaba String.format antes de precompilar
+        Ticket ticket = TestDataBuilder.ticketInService()
+            .numero("C007")
+            .positionInQueue(4)
+            .estimatedWaitMinutes(20)
+            .assignedModuleNumber(3)
+            .assignedAdvisor("Juan Pérez")
+            .build();
+
+        // When / Then
+        assertThat(renderer.render(mensaje(ticket, MessageTemplate.TOTEM_TICKET_CREADO))).isEqualTo(String.format(
+            "🎫 *Ticket Creado*\n\n📋 Número: %s\n📍 Posición: %d\n⏰ Tiempo estimado: %d min",
+            "C007", 4, 20));
+        assertThat(renderer.render(mensaje(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO))).isEqualTo(String.format(
+            "🔔 *¡Tu turno está próximo!*\n\n📋 Ticket: %s\n📍 Posición: %d\n🏃 Dirígete a la sucursal",
+            "C007", 4));
+        assertThat(renderer.render(mensaje(ticket, MessageTemplate.TOTEM_ES_TU_TURNO))).isEqualTo(String.format(
+            "✅ *¡Es tu turno!*\n\n📋 Ticket: %s\n🏢 Módulo: %d\n👤 Te atiende: %s",
+            "C007", 3, "Juan Pérez"));
+    }
+
+    @Test
+    void render_shouldReuseBufferWithoutLeakingPreviousContent() {
+        // Given
+        Ticket largo = TestDataBuilder.ticketInService()
+            .numero("C001").assignedModuleNumber(1).assignedAdvisor("Asesora Con Nombre Muy Largo").build();
+        Ticket corto = TestDataBuilder.ticketWaiting().numero("C002").positionInQueue(1).build();
+
+        // When
+        renderer.render(mensaje(largo, MessageTemplate.TOTEM_ES_TU_TURNO));
+        String content = renderer.render(mensaje(corto, MessageTemplate.TOTEM_PROXIMO_TURNO));
+
+        // Then
+        assertThat(content).startsWith("🔔").endsWith("🏃 Dirígete a la sucursal").doesNotContain("Asesora");
+    }
+
+    @Test
+    void render_withMarkdownInAdvisorName_shouldEscapeIt() {
+        // Given - Texto dinámico: se escapa al renderizar para no romper el Markdown
+        Ticket ticket = TestDataBuilder.ticketInService()
+            .numero("C001")
+            .assignedModuleNumber(2)
+            .assignedAdvisor("ana_lopez *[ext]*")
+            .build();
+
+        // When
+        String content = renderer.render(mensaje(ticket, MessageTemplate.TOTEM_ES_TU_TURNO));
+
+        // Then - La negrita del título se conserva
+        assertThat(content).startsWith("✅ *¡Es tu turno!*");
+        assertThat(content).endsWith("👤 Te atiende: ana\\_lopez \\*\\[ext]\\*");
+    }
+
+    @Test
+    void render_withNullValues_shouldWriteNullLikeStringFormat() {
+        // Given - Ticket sin módulo ni asesor asignados
+        Ticket ticket = TestDataBuilder.ticketWaiting()
+            .numero("C001")
+            .assignedModuleNumber(null)
+            .assignedAdvisor(null)
+            .build();
+
+        // When
+        String content = renderer.render(mensaje(ticket, MessageTemplate.TOTEM_ES_TU_TURNO));
+
+        // Then
+        assertThat(content).contains("🏢 Módulo: null").endsWith("👤 Te atiende: null");
+    }
+
+    @Test
+    void compile_shouldEscapeLiteralsOnceAndRejectUnknownSlots() {
+        // Given
+        Ticket ticket = TestDataBuilder.ticketWaiting().numero("C001").build();
+        StringBuilder out = new StringBuilder();
+
+        // When
+        CompiledTemplate.compile("*Aviso* [sucursal_centro] {NUMERO}").renderInto(ticket, out);
+
+        // Then
+        assertThat(out).hasToString("*Aviso* \\[sucursal\\_centro] C001");
+        assertThatThrownBy(() -> CompiledTemplate.compile("Ticket {FOLIO}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("{FOLIO}");
+        assertThatThrownBy(() -> CompiledTemplate.compile("Ticket {NUMERO"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Mensaje mensaje(Ticket ticket, MessageTemplate plantilla) {
+        return Mensaje.builder().ticket(ticket).plantilla(plantilla).build();
+    }
+}
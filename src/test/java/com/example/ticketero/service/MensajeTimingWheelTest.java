@@ -0,0 +1,91 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
+import com.example.ticketero.repository.MensajeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para MensajeTimingWheel
+ * Cubre RF-002 y RN-008: despacho de mensajes diferidos en su hora exacta y
+ * reconstrucción desde la tabla mensaje
+ */
+@ExtendWith(MockitoExtension.class)
+class MensajeTimingWheelTest {
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MensajeTimingWheel timingWheel;
+
+    @BeforeEach
+    void setUp() {
+        timingWheel = new MensajeTimingWheel(mensajeRepository, eventPublisher, 5, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timingWheel.shutdown();
+    }
+
+    @Test
+    void programar_withFutureDate_shouldPublishAtDueTimeNotBefore() {
+        // Given - RN-008: reintento programado, aquí a +300 ms
+        LocalDateTime fecha = LocalDateTime.now().plusNanos(300_000_000);
+        AtomicReference<LocalDateTime> publicado = new AtomicReference<>();
+        doAnswer(invocation -> {
+            publicado.set(LocalDateTime.now());
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        // When
+        timingWheel.programar(5L, fecha);
+
+        // Then - Sale al vencer, sin esperar al scheduler, y el reclamo ya lo encuentra listo
+        verify(eventPublisher, timeout(2000)).publishEvent(new MensajeProgramadoEvent(5L, null));
+        assertThat(publicado.get()).isAfterOrEqualTo(fecha);
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    void programar_withPastDate_shouldPublishImmediately() {
+        // When
+        timingWheel.programar(6L, LocalDateTime.now().minusSeconds(1));
+
+        // Then
+        verify(eventPublisher).publishEvent(new MensajeProgramadoEvent(6L, null));
+    }
+
+    @Test
+    void reconstruir_shouldScheduleDeferredMessagesFromTable() {
+        // Given - Mensajes diferidos que sobrevivieron a un reinicio
+        LocalDateTime pronto = LocalDateTime.now().plusNanos(100_000_000);
+        LocalDateTime lejano = LocalDateTime.now().plusMinutes(5);
+        when(mensajeRepository.findProgramadosPendientesDespuesDe(any(LocalDateTime.class)))
+            .thenReturn(List.of(new Object[]{1L, pronto}, new Object[]{2L, lejano}));
+
+        // When
+        timingWheel.reconstruir();
+
+        // Then
+        verify(eventPublisher, timeout(2000)).publishEvent(new MensajeProgramadoEvent(1L, null));
+        verify(eventPublisher, never()).publishEvent(new MensajeProgramadoEvent(2L, null));
+        assertThat(timingWheel.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.exception.EnvioInciertoException;
+import com.example.ticketero.exception.TelegramRateLimitException;
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.EstadoEnvio;
+import com.example.ticketero.model.enums.MessageTemplate;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.testutil.TestDataBuilder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para NotificationPipeline
+ * Cubre RF-002 (coalesce, render, dedupe, rate-limit, send y record con envíos en paralelo),
+ * RN-007 y RN-008
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationPipelineTest {
+
+    private static final int CONCURRENCY = 4;
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private NotificationChannel channel;
+
+    @Mock
+    private MensajeTimingWheel timingWheel;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        when(channel.nombre()).thenReturn("mock");
+        lenient().when(channel.destino(any(Mensaje.class)))
+            .thenAnswer(invocation -> "chat-" + invocation.<Mensaje>getArgument(0).getId());
+        // Por defecto todos siguen PENDIENTE al reservar
+        lenient().when(mensajeRepository.marcarEnviando(anyCollection()))
+            .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+        // Límites holgados: solo los tests de tasa usan un limitador estricto
+        pipeline = pipeline(new TelegramRateLimiter(1000, 100, 1000, 100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    private NotificationPipeline pipeline(TelegramRateLimiter rateLimiter) {
+        return new NotificationPipeline(mensajeRepository, new MensajeRenderer(), channel, rateLimiter,
+            timingWheel, transactionManager, meterRegistry, CONCURRENCY, 100);
+    }
+
+    @Test
+    void procesar_shouldSendBlockConcurrentlyAndPersistOnce() throws Exception {
+        // Given - Cada envío espera a que los otros 3 estén en curso: solo termina si corren en paralelo
+        List<Mensaje> bloque = List.of(mensaje(1L), mensaje(2L), mensaje(3L), mensaje(4L));
+        CyclicBarrier enCurso = new CyclicBarrier(CONCURRENCY);
+        when(channel.enviar(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            enCurso.await(5, TimeUnit.SECONDS);
+            return "tg-" + invocation.getArgument(0);
+        });
+
+        // When
+        pipeline.procesar(bloque);
+
+        // Then
+        assertThat(bloque).allMatch(m -> m.getEstadoEnvio() == EstadoEnvio.ENVIADO);
+        assertThat(bloque).allMatch(m -> m.getIntentos() == 0);
+        assertThat(bloque).allMatch(m -> m.getFechaEnvio() != null);
+        assertThat(bloque.get(0).getTelegramMessageId()).isEqualTo("tg-chat-1");
+        verify(mensajeRepository).saveAll(bloque);
+        verify(mensajeRepository, never()).save(any());
+    }
+
+    @Test
+    void procesar_shouldSendRenderedContent() {
+        // Given
+        Mensaje mensaje = mensaje(1L);
+        mensaje.getTicket().setNumero("C042");
+        when(channel.enviar(eq("chat-1"), anyString(), anyString())).thenReturn("tg-1");
+
+        // When
+        pipeline.procesar(List.of(mensaje));
+
+        // Then
+        verify(channel).enviar(eq("chat-1"), contains("📋 Número: C042"), eq("clave-1"));
+    }
+
+    @Test
+    void procesar_withFailure_shouldScheduleRetryWithBackoff() {
+        // Given - RN-008: primer fallo reprograma a +30s
+        Mensaje fallido = mensaje(1L);
+        Mensaje enviado = mensaje(2L);
+        when(channel.enviar(eq("chat-1"), anyString(), anyString())).thenThrow(new RuntimeException("Telegram no disponible"));
+        when(channel.enviar(eq("chat-2"), anyString(), anyString())).thenReturn("tg-2");
+
+        // When
+        pipeline.procesar(List.of(fallido, enviado));
+
+        // Then
+        assertThat(fallido.getEstadoEnvio()).isEqualTo(EstadoEnvio.PENDIENTE);
+        assertThat(fallido.getIntentos()).isEqualTo(1);
+        assertThat(fallido.getFechaProgramada())
+            .isBetween(LocalDateTime.now().plusSeconds(25), LocalDateTime.now().plusSeconds(31));
+        assertThat(enviado.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        // El reintento sale en su hora exacta, una vez persistido
+        InOrder orden = inOrder(mensajeRepository, timingWheel);
+        orden.verify(mensajeRepository).saveAll(List.of(fallido, enviado));
+        orden.verify(timingWheel).programar(1L, fallido.getFechaProgramada());
+        verify(timingWheel, never()).programar(eq(2L), any());
+    }
+
+    @Test
+    void procesar_withFourthFailure_shouldMarkFailed() {
+        // Given - RN-007: máximo 3 reintentos
+        Mensaje mensaje = mensaje(1L);
+        mensaje.setIntentos(3);
+        when(channel.enviar(anyString(), anyString(), anyString())).thenThrow(new RuntimeException("timeout"));
+
+        // When
+        pipeline.procesar(List.of(mensaje));
+
+        // Then
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.FALLIDO);
+        assertThat(mensaje.getIntentos()).isEqualTo(4);
+    }
+
+    @Test
+    void procesar_shouldMarkInFlightBeforeHandingToChannel() {
+        // Given
+        Mensaje mensaje = mensaje(1L);
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg-1");
+
+        // When
+        pipeline.procesar(List.of(mensaje));
+
+        // Then - ENVIANDO queda durable antes del envío, que lleva la clave del mensaje
+        InOrder orden = inOrder(mensajeRepository, channel);
+        orden.verify(mensajeRepository).marcarEnviando(List.of(1L));
+        orden.verify(channel).enviar(eq("chat-1"), anyString(), eq("clave-1"));
+        orden.verify(mensajeRepository).saveAll(List.of(mensaje));
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+    }
+
+    @Test
+    void procesar_withUncertainOutcome_shouldStayInFlightWithoutRetry() {
+        // Given - Timeout de lectura: Telegram pudo haberlo entregado
+        Mensaje mensaje = mensaje(1L);
+        LocalDateTime lease = mensaje.getFechaProgramada();
+        when(channel.enviar(anyString(), anyString(), anyString()))
+            .thenThrow(new EnvioInciertoException("chat-1", new SocketTimeoutException("Read timed out")));
+
+        // When
+        pipeline.procesar(List.of(mensaje));
+
+        // Then - Ni reintento ni intento consumido: lo resuelve MensajeReconciler
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIANDO);
+        assertThat(mensaje.getIntentos()).isZero();
+        assertThat(mensaje.getFechaProgramada()).isEqualTo(lease);
+        verify(mensajeRepository).saveAll(List.of(mensaje));
+    }
+
+    @Test
+    void procesar_withMessageChangedAfterClaim_shouldNotSendNorOverwriteIt() {
+        // Given - El mensaje 1 fue descartado por coalescencia entre el reclamo y el envío
+        Mensaje descartado = mensaje(1L);
+        Mensaje vigente = mensaje(2L);
+        when(mensajeRepository.marcarEnviando(List.of(1L, 2L))).thenReturn(1);
+        when(mensajeRepository.findIdsByIdInAndEstadoEnvio(List.of(1L, 2L), EstadoEnvio.ENVIANDO))
+            .thenReturn(List.of(2L));
+        when(channel.enviar(eq("chat-2"), anyString(), anyString())).thenReturn("tg-2");
+
+        // When
+        pipeline.procesar(List.of(descartado, vigente));
+
+        // Then
+        verify(channel, times(1)).enviar(anyString(), anyString(), anyString());
+        assertThat(vigente.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        verify(mensajeRepository).saveAll(List.of(vigente));
+    }
+
+    @Test
+    void procesar_withTooManyRequests_shouldRescheduleWithoutConsumingAttempt() {
+        // Given - Telegram responde 429 con retry_after=20
+        Mensaje mensaje = mensaje(1L);
+        mensaje.setIntentos(3);
+        when(channel.enviar(anyString(), anyString(), anyString()))
+            .thenThrow(new TelegramRateLimitException("chat-1", Duration.ofSeconds(20)));
+
+        // When
+        pipeline.procesar(List.of(mensaje));
+
+        // Then - Sigue PENDIENTE, sin intento consumido, a la hora indicada por Telegram
+        assertThat(mensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.PENDIENTE);
+        assertThat(mensaje.getIntentos()).isEqualTo(3);
+        assertThat(mensaje.getFechaProgramada())
+            .isBetween(LocalDateTime.now().plusSeconds(15), LocalDateTime.now().plusSeconds(21));
+        verify(mensajeRepository).saveAll(List.of(mensaje));
+        verify(timingWheel).programar(1L, mensaje.getFechaProgramada());
+    }
+
+    @Test
+    void procesar_withBusyChat_shouldNotStarveOtherChats() {
+        // Given - 1 msg/s por chat; el chat A tiene 3 pendientes por delante del chat B
+        pipeline.shutdown();
+        pipeline = pipeline(new TelegramRateLimiter(30, 30, 1, 1));
+        Mensaje a1 = mensaje(1L);
+        Mensaje a2 = mensaje(2L);
+        Mensaje a3 = mensaje(3L);
+        Mensaje b1 = mensaje(4L);
+        when(channel.destino(any(Mensaje.class)))
+            .thenAnswer(invocation -> invocation.<Mensaje>getArgument(0) == b1 ? "chat-B" : "chat-A");
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg");
+
+        // When
+        pipeline.procesar(List.of(a1, a2, a3, b1));
+
+        // Then - B sale en la primera vuelta; el exceso de A espera ~1s (> max-wait) y se difiere
+        assertThat(b1.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        assertThat(a1.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        assertThat(List.of(a2, a3)).allSatisfy(m -> {
+            assertThat(m.getEstadoEnvio()).isEqualTo(EstadoEnvio.PENDIENTE);
+            assertThat(m.getIntentos()).isZero();
+            assertThat(m.getFechaProgramada()).isBefore(LocalDateTime.now().plusSeconds(2));
+        });
+        verify(channel, times(1)).enviar(eq("chat-A"), anyString(), anyString());
+    }
+
+    @Test
+    void procesar_withDuplicates_shouldDiscardWithoutSending() {
+        // Given - El ticket 10 ya recibió TOTEM_TICKET_CREADO; el ticket 20 lo tiene dos veces en el bloque
+        Mensaje yaEnviado = mensaje(1L, 10L);
+        Mensaje primero = mensaje(2L, 20L);
+        Mensaje repetido = mensaje(3L, 20L);
+        when(mensajeRepository.findPlantillasEnviadasByTicketIdIn(List.of(10L, 20L)))
+            .thenReturn(List.<Object[]>of(new Object[]{10L, MessageTemplate.TOTEM_TICKET_CREADO}));
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg-2");
+
+        // When
+        pipeline.procesar(List.of(yaEnviado, primero, repetido));
+
+        // Then
+        assertThat(yaEnviado.getEstadoEnvio()).isEqualTo(EstadoEnvio.DESCARTADO);
+        assertThat(primero.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        assertThat(repetido.getEstadoEnvio()).isEqualTo(EstadoEnvio.DESCARTADO);
+        verify(channel, times(1)).enviar(anyString(), anyString(), anyString());
+        verify(mensajeRepository).saveAll(List.of(yaEnviado, primero, repetido));
+    }
+
+    @Test
+    void procesar_withNewerTemplateForSameTicket_shouldSendOnlyLatest() {
+        // Given - En un mismo tick el ticket 20 recibió pre-aviso y luego su turno
+        Mensaje creado = mensaje(1L, 20L);
+        Mensaje proximo = mensaje(2L, 20L);
+        proximo.setPlantilla(MessageTemplate.TOTEM_PROXIMO_TURNO);
+        Mensaje turno = mensaje(3L, 20L);
+        turno.setPlantilla(MessageTemplate.TOTEM_ES_TU_TURNO);
+        Mensaje otroTicket = mensaje(4L, 30L);
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg");
+
+        // When
+        pipeline.procesar(List.of(creado, proximo, turno, otroTicket));
+
+        // Then - Solo sale el más reciente del ticket 20; el otro ticket no se ve afectado
+        assertThat(List.of(creado, proximo)).allMatch(m -> m.getEstadoEnvio() == EstadoEnvio.DESCARTADO);
+        assertThat(turno.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        assertThat(otroTicket.getEstadoEnvio()).isEqualTo(EstadoEnvio.ENVIADO);
+        verify(channel).enviar(eq("chat-3"), contains("Es tu turno"), anyString());
+        verify(channel, times(2)).enviar(anyString(), anyString(), anyString());
+        verify(mensajeRepository).saveAll(List.of(creado, proximo, turno, otroTicket));
+    }
+
+    @Test
+    void procesar_withNewerTemplateAlreadySent_shouldDiscardStaleMessage() {
+        // Given - Pre-aviso diferido (+5 min) de un ticket que ya recibió su turno
+        Mensaje proximo = mensaje(1L, 10L);
+        proximo.setPlantilla(MessageTemplate.TOTEM_PROXIMO_TURNO);
+        when(mensajeRepository.findPlantillasEnviadasByTicketIdIn(List.of(10L)))
+            .thenReturn(List.<Object[]>of(new Object[]{10L, MessageTemplate.TOTEM_ES_TU_TURNO}));
+
+        // When
+        pipeline.procesar(List.of(proximo));
+
+        // Then
+        assertThat(proximo.getEstadoEnvio()).isEqualTo(EstadoEnvio.DESCARTADO);
+        assertThat(proximo.getIntentos()).isZero();
+        verify(channel, never()).enviar(anyString(), anyString(), anyString());
+        verify(mensajeRepository).saveAll(List.of(proximo));
+    }
+
+    @Test
+    void procesar_withRenderFailure_shouldConsumeAttemptAndSkipSend() {
+        // Given - Mensaje sin plantilla: no se puede renderizar
+        Mensaje invalido = mensaje(1L);
+        invalido.setPlantilla(null);
+
+        // When
+        pipeline.procesar(List.of(invalido));
+
+        // Then
+        assertThat(invalido.getIntentos()).isEqualTo(1);
+        verify(channel, never()).enviar(anyString(), anyString(), anyString());
+        verify(mensajeRepository).saveAll(List.of(invalido));
+    }
+
+    @Test
+    void procesar_shouldRecordLatencyPerStage() {
+        // Given
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg");
+
+        // When
+        pipeline.procesar(List.of(mensaje(1L), mensaje(2L)));
+
+        // Then - Etapas por bloque: una medición; etapas por mensaje: una por mensaje
+        assertThat(conteo("coalesce")).isEqualTo(1);
+        assertThat(conteo("render")).isEqualTo(1);
+        assertThat(conteo("dedupe")).isEqualTo(1);
+        assertThat(conteo("rate_limit")).isEqualTo(2);
+        assertThat(conteo("reserve")).isEqualTo(1);
+        assertThat(conteo("send")).isEqualTo(2);
+        assertThat(conteo("record")).isEqualTo(1);
+    }
+
+    @Test
+    void procesar_withThrottledChat_shouldRecordEachTokenWaitSeparately() {
+        // Given - 20 msg/s por chat (un token cada 50 ms); 4 mensajes al mismo chat
+        pipeline.shutdown();
+        pipeline = pipeline(new TelegramRateLimiter(1000, 100, 20, 1));
+        when(channel.destino(any(Mensaje.class))).thenReturn("chat-A");
+        when(channel.enviar(anyString(), anyString(), anyString())).thenReturn("tg");
+
+        // When
+        pipeline.procesar(List.of(mensaje(1L), mensaje(2L), mensaje(3L), mensaje(4L)));
+
+        // Then - cada espera cubre un solo token (~50 ms), no la suma desde el inicio (~150 ms)
+        Timer rateLimit = meterRegistry.get("notification.pipeline.stage")
+            .tag("stage", "rate_limit").tag("channel", "mock").timer();
+        assertThat(rateLimit.count()).isEqualTo(4);
+        assertThat(rateLimit.max(TimeUnit.MILLISECONDS)).isLessThan(120);
+    }
+
+    @Test
+    void procesar_withEmptyBlock_shouldDoNothing() {
+        // When
+        pipeline.procesar(List.of());
+
+        // Then
+        verifyNoInteractions(mensajeRepository);
+        verify(channel, never()).enviar(anyString(), anyString(), anyString());
+        verify(mensajeRepository, never()).findPlantillasEnviadasByTicketIdIn(anyCollection());
+    }
+
+    private long conteo(String etapa) {
+        return meterRegistry.get("notification.pipeline.stage")
+            .tag("stage", etapa).tag("channel", "mock").timer().count();
+    }
+
+    private Mensaje mensaje(Long id) {
+        return mensaje(id, 100L + id);
+    }
+
+    private Mensaje mensaje(Long id, Long ticketId) {
+        Ticket ticket = TestDataBuilder.ticketWaiting().id(ticketId).build();
+        return Mensaje.builder()
+            .id(id)
+            .ticket(ticket)
+            .telefono("+56912345678")
+            .plantilla(MessageTemplate.TOTEM_TICKET_CREADO)
+            .claveEnvio("clave-" + id)
+            .estadoEnvio(EstadoEnvio.PENDIENTE)
+            .fechaProgramada(LocalDateTime.now())
+            .intentos(0)
+            .build();
+    }
+}
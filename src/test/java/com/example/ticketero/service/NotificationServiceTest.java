@@ -5,6 +5,7 @@ import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.EstadoEnvio;
 import com.example.ticketero.model.enums.MessageTemplate;
 import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.MensajeProgramadoEvent;
 import com.example.ticketero.repository.MensajeRepository;
 import com.example.ticketero.testutil.TestDataBuilder;
 import org.junit.jupiter.api.Test;
@@ -13,7 +14,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,7 +25,7 @@ import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para NotificationService
- * Cubre RF-005 y lógica condicional de notificaciones
+ * Cubre RF-002 (único punto de creación de mensajes), RF-005 y lógica condicional de notificaciones
  */
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
@@ -29,14 +33,72 @@ class NotificationServiceTest {
     @Mock
     private MensajeRepository mensajeRepository;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private NotificationService notificationService;
 
+    @Test
+    void programar_shouldCreatePendingMessageAndPublishEvent() {
+        // Given
+        Ticket ticket = TestDataBuilder.ticketWaiting().build();
+        LocalDateTime fecha = LocalDateTime.now();
+        when(mensajeRepository.save(any(Mensaje.class))).thenAnswer(invocation -> {
+            invocation.<Mensaje>getArgument(0).setId(77L);
+            return invocation.getArgument(0);
+        });
+        
+        // When
+        notificationService.programar(ticket, MessageTemplate.TOTEM_ES_TU_TURNO, fecha);
+        
+        // Then - El despachador lo envía tras el commit, sin esperar al scheduler
+        ArgumentCaptor<Mensaje> mensajeCaptor = ArgumentCaptor.forClass(Mensaje.class);
+        verify(mensajeRepository).save(mensajeCaptor.capture());
+        Mensaje savedMensaje = mensajeCaptor.getValue();
+        assertThat(savedMensaje.getEstadoEnvio()).isEqualTo(EstadoEnvio.PENDIENTE);
+        assertThat(savedMensaje.getIntentos()).isZero();
+        assertThat(savedMensaje.getFechaProgramada()).isEqualTo(fecha);
+        verify(eventPublisher).publishEvent(new MensajeProgramadoEvent(77L, fecha));
+    }
+
+    @Test
+    void programar_withNewerStage_shouldDiscardStalePendingMessages() {
+        // Given - El ticket tiene pre-aviso pendiente y pasa a su turno
+        Ticket ticket = TestDataBuilder.ticketWaiting().id(20L).build();
+        List<MessageTemplate> anteriores = List.of(MessageTemplate.TOTEM_TICKET_CREADO, MessageTemplate.TOTEM_PROXIMO_TURNO);
+        when(mensajeRepository.descartarPendientesByTicketIdAndPlantillaIn(20L, anteriores)).thenReturn(1);
+        
+        // When
+        notificationService.programar(ticket, MessageTemplate.TOTEM_ES_TU_TURNO, LocalDateTime.now());
+        
+        // Then - Los anteriores quedan DESCARTADO y solo se crea el más reciente
+        verify(mensajeRepository).existsVigenteByTicketIdAndPlantillaIn(20L, List.of(MessageTemplate.TOTEM_ES_TU_TURNO));
+        verify(mensajeRepository).descartarPendientesByTicketIdAndPlantillaIn(20L, anteriores);
+        verify(mensajeRepository).save(any(Mensaje.class));
+    }
+
+    @Test
+    void programar_withCurrentOrNewerMessage_shouldNotCreateAnother() {
+        // Given - El ticket ya tiene TOTEM_ES_TU_TURNO pendiente o enviado
+        Ticket ticket = TestDataBuilder.ticketWaiting().id(20L).build();
+        when(mensajeRepository.existsVigenteByTicketIdAndPlantillaIn(20L,
+                List.of(MessageTemplate.TOTEM_PROXIMO_TURNO, MessageTemplate.TOTEM_ES_TU_TURNO)))
+            .thenReturn(true);
+        
+        // When - Llega un pre-aviso ya obsoleto
+        notificationService.programar(ticket, MessageTemplate.TOTEM_PROXIMO_TURNO, LocalDateTime.now());
+        
+        // Then - Ni fila nueva ni despacho
+        verify(mensajeRepository, never()).descartarPendientesByTicketIdAndPlantillaIn(any(), any());
+        verify(mensajeRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void sendTicketCreatedNotification_shouldCreatePendingMessage() {
         // Given - RF-005: Notificación de creación de ticket
         Ticket ticket = TestDataBuilder.ticketWaiting().build();
-        ReflectionTestUtils.setField(notificationService, "telegramEnabled", false);
         
         // When
         notificationService.sendTicketCreatedNotification(ticket);
@@ -61,7 +123,6 @@ class NotificationServiceTest {
             .status(TicketStatus.CALLED)
             .build();
         TicketStatus oldStatus = TicketStatus.WAITING;
-        ReflectionTestUtils.setField(notificationService, "telegramEnabled", false);
         
         // When
         notificationService.sendStatusChangeNotification(ticket, oldStatus);
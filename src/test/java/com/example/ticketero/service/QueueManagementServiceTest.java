@@ -15,6 +15,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -45,13 +47,22 @@ class QueueManagementServiceTest {
     @Mock
     private AuditService auditService;
     
+    @Mock
+    private WaitingLineIndex waitingLineIndex;
+    
+    @Mock
+    private TicketPriorityEngine priorityEngine;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private QueueManagementService queueManagementService;
 
     @Test
     void calcularPosicion_withQueueType_shouldReturnCorrectPosition() {
-        // Given
-        when(ticketRepository.count()).thenReturn(5L);
+        // Given - 5 tickets en espera en la cola CAJA
+        when(waitingLineIndex.positionForNewArrival(QueueType.CAJA)).thenReturn(6);
         
         // When
         QueueManagementService.PositionInfo result = queueManagementService.calcularPosicion(QueueType.CAJA);
@@ -59,6 +70,7 @@ class QueueManagementServiceTest {
         // Then
         assertThat(result.getPosition()).isEqualTo(6);
         assertThat(result.getEstimatedTime()).isEqualTo(6 * QueueType.CAJA.getAvgTimeMinutes());
+        verify(ticketRepository, never()).count();
     }
 
     @Test
@@ -67,8 +79,8 @@ class QueueManagementServiceTest {
         Ticket ticket = TestDataBuilder.ticketWaiting().build();
         Advisor advisor = TestDataBuilder.advisorAvailable().build();
         
-        when(ticketRepository.findNextTicketByPriority()).thenReturn(List.of(ticket));
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        stubCandidates(1, ticket);
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.of(advisor));
         
         // When
@@ -98,13 +110,13 @@ class QueueManagementServiceTest {
     @Test
     void asignarSiguienteTicket_noTicketsPending_shouldDoNothing() {
         // Given
-        when(ticketRepository.findNextTicketByPriority()).thenReturn(Collections.emptyList());
+        when(priorityEngine.claimNext(1)).thenReturn(Collections.emptyList());
         
         // When
         queueManagementService.asignarSiguienteTicket();
         
         // Then
-        verify(advisorRepository, never()).findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(any());
+        verify(advisorRepository, never()).claimLeastLoadedAvailable();
         verify(ticketRepository, never()).save(any());
         verify(advisorRepository, never()).save(any());
     }
@@ -114,8 +126,8 @@ class QueueManagementServiceTest {
         // Given
         Ticket ticket = TestDataBuilder.ticketWaiting().build();
         
-        when(ticketRepository.findNextTicketByPriority()).thenReturn(List.of(ticket));
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        stubCandidates(1, ticket);
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.empty());
         
         // When
@@ -136,8 +148,8 @@ class QueueManagementServiceTest {
             .build();
         Advisor advisor = TestDataBuilder.advisorAvailable().build();
         
-        when(ticketRepository.findNextTicketByPriority()).thenReturn(List.of(gerenciaTicket));
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        stubCandidates(1, gerenciaTicket);
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.of(advisor));
         
         // When
@@ -160,15 +172,15 @@ class QueueManagementServiceTest {
             .assignedTicketsCount(0)
             .build();
         
-        when(ticketRepository.findNextTicketByPriority()).thenReturn(List.of(ticket));
-        when(advisorRepository.findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE))
+        stubCandidates(1, ticket);
+        when(advisorRepository.claimLeastLoadedAvailable())
             .thenReturn(Optional.of(leastLoadedAdvisor));
         
         // When
         queueManagementService.asignarSiguienteTicket();
         
         // Then
-        verify(advisorRepository).findFirstByStatusOrderByAssignedTicketsCountAscUpdatedAtAsc(AdvisorStatus.AVAILABLE);
+        verify(advisorRepository).claimLeastLoadedAvailable();
         
         ArgumentCaptor<Advisor> advisorCaptor = ArgumentCaptor.forClass(Advisor.class);
         verify(advisorRepository).save(advisorCaptor.capture());
@@ -177,15 +189,85 @@ class QueueManagementServiceTest {
         assertThat(savedAdvisor.getAssignedTicketsCount()).isEqualTo(1);
     }
 
+    @Test
+    void asignarTicketsPendientes_shouldPairPriorityHeadWithLeastLoadedAdvisors() {
+        // Given - RN-002 + RN-004: 3 ejecutivos libres y 2 tickets pendientes
+        Advisor menosCargado = TestDataBuilder.advisorAvailable().id(1L).name("Ana").moduleNumber(1).build();
+        Advisor intermedio = TestDataBuilder.advisorAvailable().id(2L).name("Luis").moduleNumber(2).assignedTicketsCount(1).build();
+        Advisor masCargado = TestDataBuilder.advisorAvailable().id(3L).name("Rosa").moduleNumber(3).assignedTicketsCount(2).build();
+        Ticket gerencia = TestDataBuilder.ticketWaiting().id(10L).numero("G01").queueType(QueueType.GERENCIA).build();
+        Ticket caja = TestDataBuilder.ticketWaiting().id(11L).numero("C01").build();
+        
+        when(advisorRepository.claimByStatusOrderByLoad(AdvisorStatus.AVAILABLE, PageRequest.of(0, 50)))
+            .thenReturn(List.of(menosCargado, intermedio, masCargado));
+        when(priorityEngine.claimNext(3)).thenReturn(List.of(gerencia, caja));
+        
+        // When
+        int asignados = queueManagementService.asignarTicketsPendientes();
+        
+        // Then
+        assertThat(asignados).isEqualTo(2);
+        assertThat(gerencia.getAssignedAdvisor()).isEqualTo("Ana");
+        assertThat(caja.getAssignedAdvisor()).isEqualTo("Luis");
+        assertThat(List.of(gerencia, caja)).allMatch(t -> t.getStatus() == TicketStatus.IN_SERVICE);
+        assertThat(menosCargado.getStatus()).isEqualTo(AdvisorStatus.BUSY);
+        assertThat(intermedio.getAssignedTicketsCount()).isEqualTo(2);
+        assertThat(masCargado.getStatus()).isEqualTo(AdvisorStatus.AVAILABLE);
+        
+        // Una sola escritura agrupada por entidad
+        verify(ticketRepository).saveAll(List.of(gerencia, caja));
+        verify(advisorRepository).saveAll(List.of(menosCargado, intermedio));
+        verify(ticketRepository, never()).save(any());
+        verify(advisorRepository, never()).save(any());
+        verify(telegramService, times(2)).programarMensaje(any(Ticket.class), eq(MessageTemplate.TOTEM_ES_TU_TURNO));
+        verify(auditService, times(2)).registrarEvento(eq("TICKET_ASSIGNED"), eq("SYSTEM"), any(), eq("WAITING"), eq("IN_SERVICE"), any());
+    }
+
+    @Test
+    void asignarTicketsPendientes_noAdvisorsAvailable_shouldNotClaimTickets() {
+        // Given
+        when(advisorRepository.claimByStatusOrderByLoad(eq(AdvisorStatus.AVAILABLE), any()))
+            .thenReturn(Collections.emptyList());
+        
+        // When
+        int asignados = queueManagementService.asignarTicketsPendientes();
+        
+        // Then
+        assertThat(asignados).isZero();
+        verifyNoInteractions(priorityEngine);
+        verify(ticketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void asignarTicketsPendientes_noTicketsPending_shouldLeaveAdvisorsAvailable() {
+        // Given
+        Advisor advisor = TestDataBuilder.advisorAvailable().build();
+        when(advisorRepository.claimByStatusOrderByLoad(eq(AdvisorStatus.AVAILABLE), any()))
+            .thenReturn(List.of(advisor));
+        when(priorityEngine.claimNext(1)).thenReturn(Collections.emptyList());
+        
+        // When
+        int asignados = queueManagementService.asignarTicketsPendientes();
+        
+        // Then
+        assertThat(asignados).isZero();
+        assertThat(advisor.getStatus()).isEqualTo(AdvisorStatus.AVAILABLE);
+        verify(advisorRepository, never()).saveAll(any());
+        verify(telegramService, never()).programarMensaje(any(), any());
+    }
+
     @Test
     void recalcularPosiciones_withPositionLessOrEqualThree_shouldNotify() {
         // Given - RN-012: Pre-aviso cuando posición ≤ 3
-        Ticket ticket1 = TestDataBuilder.ticketWaiting().numero("C001").build();
-        Ticket ticket2 = TestDataBuilder.ticketWaiting().numero("C002").build();
-        Ticket ticket3 = TestDataBuilder.ticketWaiting().numero("C003").build();
+        Ticket ticket1 = TestDataBuilder.ticketWaiting().id(1L).numero("C001").build();
+        Ticket ticket2 = TestDataBuilder.ticketWaiting().id(2L).numero("C002").build();
+        Ticket ticket3 = TestDataBuilder.ticketWaiting().id(3L).numero("C003").build();
         
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
-            .thenReturn(Arrays.asList(ticket1, ticket2, ticket3));
+        when(waitingLineIndex.head(QueueType.CAJA, 10))
+            .thenReturn(List.of(waiting(ticket1), waiting(ticket2), waiting(ticket3)));
+        // La base de datos no garantiza el orden de findAllById
+        when(ticketRepository.findAllById(List.of(1L, 2L, 3L)))
+            .thenReturn(Arrays.asList(ticket3, ticket1, ticket2));
         
         // When
         queueManagementService.recalcularPosiciones(QueueType.CAJA);
@@ -200,23 +282,56 @@ class QueueManagementServiceTest {
         // Verificar que todos los tickets fueron notificados (posición ≤ 3)
         verify(telegramService, times(3)).programarMensaje(any(Ticket.class), eq(MessageTemplate.TOTEM_PROXIMO_TURNO));
         
-        // Verificar posiciones calculadas
+        // Verificar posiciones calculadas según el orden del índice
+        assertThat(savedTickets).extracting(Ticket::getNumero).containsExactly("C001", "C002", "C003");
         assertThat(savedTickets.get(0).getPositionInQueue()).isEqualTo(1);
         assertThat(savedTickets.get(1).getPositionInQueue()).isEqualTo(2);
         assertThat(savedTickets.get(2).getPositionInQueue()).isEqualTo(3);
     }
 
+    @Test
+    void recalcularPosiciones_shouldOnlyNotifyFirstThreeOfQueue() {
+        // Given - 5 tickets en la cola; solo los 3 primeros reciben pre-aviso
+        List<Long> ids = List.of(10L, 11L, 12L, 13L, 14L);
+        List<Ticket> tickets = ids.stream()
+            .map(id -> TestDataBuilder.ticketWaiting().id(id).numero("P" + id).queueType(QueueType.PERSONAL_BANKER).build())
+            .toList();
+        
+        when(waitingLineIndex.head(QueueType.PERSONAL_BANKER, 10))
+            .thenReturn(tickets.stream().map(this::waiting).toList());
+        when(ticketRepository.findAllById(ids)).thenReturn(tickets);
+        
+        // When
+        queueManagementService.recalcularPosiciones(QueueType.PERSONAL_BANKER);
+        
+        // Then
+        verify(telegramService, times(3)).programarMensaje(any(Ticket.class), eq(MessageTemplate.TOTEM_PROXIMO_TURNO));
+        assertThat(tickets.get(3).getStatus()).isEqualTo(TicketStatus.WAITING);
+        assertThat(tickets.get(4).getPositionInQueue()).isEqualTo(5);
+        assertThat(tickets.get(4).getEstimatedWaitMinutes()).isEqualTo(5 * QueueType.PERSONAL_BANKER.getAvgTimeMinutes());
+    }
+
     @Test
     void recalcularPosiciones_withEmptyQueue_shouldDoNothing() {
         // Given
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+        when(waitingLineIndex.head(QueueType.CAJA, 10))
             .thenReturn(Collections.emptyList());
         
         // When
         queueManagementService.recalcularPosiciones(QueueType.CAJA);
         
         // Then
-        verify(ticketRepository).saveAll(Collections.emptyList());
+        verify(ticketRepository, never()).findAllById(any());
+        verify(ticketRepository, never()).saveAll(any());
         verify(telegramService, never()).programarMensaje(any(), any());
     }
-}
\ No newline at end of file
+
+    private void stubCandidates(int limit, Ticket... tickets) {
+        when(priorityEngine.claimNext(limit)).thenReturn(List.of(tickets));
+    }
+
+    private WaitingLineIndex.WaitingTicket waiting(Ticket ticket) {
+        return new WaitingLineIndex.WaitingTicket(
+            ticket.getId(), ticket.getNumero(), ticket.getQueueType(), ticket.getFechaCreacion());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
+import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para QueueMetricsRegistry
+ * Cubre RF-007 (contadores incrementales y conciliación con la base de datos)
+ */
+@ExtendWith(MockitoExtension.class)
+class QueueMetricsRegistryTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private AdvisorRepository advisorRepository;
+
+    @InjectMocks
+    private QueueMetricsRegistry metricsRegistry;
+
+    @Test
+    void reconcile_shouldSeedCountersFromGroupedQueries() {
+        // Given
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(Arrays.asList(
+            new Object[]{TicketStatus.WAITING, QueueType.CAJA, 4L},
+            new Object[]{TicketStatus.COMPLETED, QueueType.GERENCIA, 2L}
+        ));
+        when(advisorRepository.countAdvisorsByStatus()).thenReturn(Arrays.asList(
+            new Object[]{AdvisorStatus.AVAILABLE, 3L},
+            new Object[]{AdvisorStatus.BUSY, 1L}
+        ));
+
+        // When
+        long drift = metricsRegistry.reconcile();
+
+        // Then
+        assertThat(drift).isEqualTo(10);
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.CAJA)).isEqualTo(4);
+        assertThat(metricsRegistry.count(TicketStatus.COMPLETED, QueueType.GERENCIA)).isEqualTo(2);
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.EMPRESAS)).isZero();
+        assertThat(metricsRegistry.advisorCounts())
+            .containsEntry(AdvisorStatus.AVAILABLE, 3)
+            .containsEntry(AdvisorStatus.BUSY, 1)
+            .containsEntry(AdvisorStatus.OFFLINE, 0);
+    }
+
+    @Test
+    void onTicketStatusChanged_shouldMoveCountBetweenStatuses() {
+        // Given - Creación de dos tickets
+        metricsRegistry.onTicketStatusChanged(transition(1L, QueueType.EMPRESAS, null, TicketStatus.WAITING));
+        metricsRegistry.onTicketStatusChanged(transition(2L, QueueType.EMPRESAS, null, TicketStatus.WAITING));
+
+        // When - Uno es llamado, atendido y completado
+        metricsRegistry.onTicketStatusChanged(transition(1L, QueueType.EMPRESAS, TicketStatus.WAITING, TicketStatus.CALLED));
+        metricsRegistry.onTicketStatusChanged(transition(1L, QueueType.EMPRESAS, TicketStatus.CALLED, TicketStatus.IN_SERVICE));
+        metricsRegistry.onTicketStatusChanged(transition(1L, QueueType.EMPRESAS, TicketStatus.IN_SERVICE, TicketStatus.COMPLETED));
+
+        // Then
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.EMPRESAS)).isEqualTo(1);
+        assertThat(metricsRegistry.count(TicketStatus.CALLED, QueueType.EMPRESAS)).isZero();
+        assertThat(metricsRegistry.count(TicketStatus.IN_SERVICE, QueueType.EMPRESAS)).isZero();
+        assertThat(metricsRegistry.count(TicketStatus.COMPLETED, QueueType.EMPRESAS)).isEqualTo(1);
+        assertThat(metricsRegistry.ticketCounts().countByStatus(TicketStatus.WAITING)).isEqualTo(1);
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void onStatusChanged_withSameStatus_shouldNotChangeCounters() {
+        // When
+        metricsRegistry.onTicketStatusChanged(transition(1L, QueueType.CAJA, TicketStatus.WAITING, TicketStatus.WAITING));
+        metricsRegistry.onAdvisorStatusChanged(new AdvisorStatusChangedEvent(1L, AdvisorStatus.BUSY, AdvisorStatus.BUSY));
+
+        // Then
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.CAJA)).isZero();
+        assertThat(metricsRegistry.count(AdvisorStatus.BUSY)).isZero();
+    }
+
+    @Test
+    void reconcile_afterMissedEvents_shouldCorrectDrift() {
+        // Given - Contadores iniciales y un cambio realizado fuera de los servicios
+        when(advisorRepository.countAdvisorsByStatus()).thenReturn(List.<Object[]>of(
+            new Object[]{AdvisorStatus.AVAILABLE, 5L}
+        ));
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(List.<Object[]>of(
+            new Object[]{TicketStatus.WAITING, QueueType.CAJA, 3L}
+        ));
+        metricsRegistry.reconcile();
+        metricsRegistry.onAdvisorStatusChanged(new AdvisorStatusChangedEvent(1L, AdvisorStatus.AVAILABLE, AdvisorStatus.BUSY));
+
+        when(ticketRepository.countGroupedByStatusAndQueueType()).thenReturn(List.<Object[]>of(
+            new Object[]{TicketStatus.WAITING, QueueType.CAJA, 2L},
+            new Object[]{TicketStatus.CANCELLED, QueueType.CAJA, 1L}
+        ));
+        when(advisorRepository.countAdvisorsByStatus()).thenReturn(List.<Object[]>of(
+            new Object[]{AdvisorStatus.AVAILABLE, 4L},
+            new Object[]{AdvisorStatus.BUSY, 1L}
+        ));
+
+        // When
+        long drift = metricsRegistry.reconcile();
+
+        // Then - Solo el ticket cancelado por fuera quedó desviado
+        assertThat(drift).isEqualTo(2);
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.CAJA)).isEqualTo(2);
+        assertThat(metricsRegistry.count(TicketStatus.CANCELLED, QueueType.CAJA)).isEqualTo(1);
+        assertThat(metricsRegistry.count(AdvisorStatus.AVAILABLE)).isEqualTo(4);
+        assertThat(metricsRegistry.count(AdvisorStatus.BUSY)).isEqualTo(1);
+    }
+
+    @Test
+    void onTicketStatusChanged_fromConcurrentThreads_shouldNotLoseUpdates() throws Exception {
+        // Given
+        int threads = 8;
+        int ticketsPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When - Cada hilo crea y llama tickets de la misma cola
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ticketsPerThread; i++) {
+                        metricsRegistry.onTicketStatusChanged(transition(null, QueueType.CAJA, null, TicketStatus.WAITING));
+                        if (i % 2 == 0) {
+                            metricsRegistry.onTicketStatusChanged(
+                                transition(null, QueueType.CAJA, TicketStatus.WAITING, TicketStatus.CALLED));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(metricsRegistry.count(TicketStatus.WAITING, QueueType.CAJA)).isEqualTo(threads * ticketsPerThread / 2);
+        assertThat(metricsRegistry.count(TicketStatus.CALLED, QueueType.CAJA)).isEqualTo(threads * ticketsPerThread / 2);
+    }
+
+    private TicketStatusChangedEvent transition(Long ticketId, QueueType queueType,
+                                                TicketStatus previousStatus, TicketStatus newStatus) {
+        return new TicketStatusChangedEvent(ticketId, null, queueType, previousStatus, newStatus, null);
+    }
+}
@@ -4,25 +4,27 @@ import com.example.ticketero.model.dto.QueueStatusResponse;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
 import com.example.ticketero.repository.TicketRepository;
 import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para QueueService
  * Cubre RN-002, RN-003, RF-003
+ * La línea de espera se sirve desde un WaitingLineIndex real poblado por eventos
  */
 @ExtendWith(MockitoExtension.class)
 class QueueServiceTest {
@@ -30,8 +32,15 @@ class QueueServiceTest {
     @Mock
     private TicketRepository ticketRepository;
     
-    @InjectMocks
+    private WaitingLineIndex waitingLineIndex;
+    
     private QueueService queueService;
+    
+    @BeforeEach
+    void setUp() {
+        waitingLineIndex = new WaitingLineIndex(ticketRepository);
+        queueService = new QueueService(ticketRepository, waitingLineIndex);
+    }
 
     @Test
     void calculateQueuePosition_shouldReturnCorrectPosition() {
@@ -66,30 +75,38 @@ class QueueServiceTest {
         // Given - RF-003: Estado completo de cola
         QueueType queueType = QueueType.CAJA;
         
-        // Mock conteos por estado
-        when(ticketRepository.countByStatusAndQueueType(TicketStatus.WAITING, queueType))
-            .thenReturn(3L);
+        // Mock conteos por estado (WAITING se obtiene del índice)
         when(ticketRepository.countByStatusAndQueueType(TicketStatus.CALLED, queueType))
             .thenReturn(1L);
         when(ticketRepository.countByStatusAndQueueType(TicketStatus.IN_SERVICE, queueType))
             .thenReturn(2L);
         
-        // Mock tickets en espera
+        // Tickets en espera registrados en el índice
+        LocalDateTime base = LocalDateTime.now().minusMinutes(30);
         Ticket ticket1 = TestDataBuilder.ticketWaiting()
+            .id(1L)
+            .fechaCreacion(base)
             .numero("C001")
             .queueType(queueType)
             .positionInQueue(1)
             .estimatedWaitMinutes(5)
             .build();
         Ticket ticket2 = TestDataBuilder.ticketWaiting()
+            .id(2L)
+            .fechaCreacion(base.plusMinutes(1))
             .numero("C002")
             .queueType(queueType)
             .positionInQueue(2)
             .estimatedWaitMinutes(10)
             .build();
+        Ticket ticket3 = TestDataBuilder.ticketWaiting()
+            .id(3L)
+            .fechaCreacion(base.plusMinutes(2))
+            .numero("C003")
+            .queueType(queueType)
+            .build();
         
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
-            .thenReturn(Arrays.asList(ticket1, ticket2));
+        registrarEnIndice(ticket3, ticket1, ticket2);
         
         // When
         QueueStatusResponse result = queueService.getQueueStatus(queueType);
@@ -109,10 +126,15 @@ class QueueServiceTest {
         assertThat(estadoActual.tiempoEstimadoCola()).isEqualTo(3 * queueType.getAvgTimeMinutes());
         assertThat(estadoActual.proximoNumero()).isEqualTo("C001");
         
-        // Verificar tickets en cola
-        assertThat(result.tickets()).hasSize(2);
+        // Verificar tickets en cola en orden FIFO con posición real
+        assertThat(result.tickets()).hasSize(3);
         assertThat(result.tickets().get(0).numero()).isEqualTo("C001");
         assertThat(result.tickets().get(1).numero()).isEqualTo("C002");
+        assertThat(result.tickets().get(1).posicionEnCola()).isEqualTo(2);
+        assertThat(result.tickets().get(1).tiempoEstimadoMinutos()).isEqualTo(queueType.getAvgTimeMinutes());
+        
+        // Sin cargar tickets en espera desde la base de datos
+        verify(ticketRepository, never()).findByStatusOrderByFechaCreacionAsc(any());
     }
 
     @Test
@@ -120,25 +142,29 @@ class QueueServiceTest {
         // Given - Próximo ticket en cola
         QueueType queueType = QueueType.EMPRESAS;
         
+        LocalDateTime base = LocalDateTime.now().minusMinutes(30);
+        Ticket differentQueue = TestDataBuilder.ticketWaiting()
+            .id(1L)
+            .fechaCreacion(base)
+            .numero("C001")
+            .queueType(QueueType.CAJA)
+            .build();
         Ticket firstTicket = TestDataBuilder.ticketWaiting()
+            .id(2L)
+            .fechaCreacion(base.plusMinutes(1))
             .numero("E001")
             .queueType(queueType)
             .build();
         Ticket secondTicket = TestDataBuilder.ticketWaiting()
+            .id(3L)
+            .fechaCreacion(base.plusMinutes(2))
             .numero("E002")
             .queueType(queueType)
             .build();
-        Ticket differentQueue = TestDataBuilder.ticketWaiting()
-            .numero("C001")
-            .queueType(QueueType.CAJA)
-            .build();
         
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
-            .thenReturn(Arrays.asList(firstTicket, differentQueue, secondTicket));
+        registrarEnIndice(secondTicket, differentQueue, firstTicket);
         
         // Mock other counts for getQueueStatus
-        when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.WAITING), eq(queueType)))
-            .thenReturn(2L);
         when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.CALLED), eq(queueType)))
             .thenReturn(0L);
         when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.IN_SERVICE), eq(queueType)))
@@ -149,6 +175,32 @@ class QueueServiceTest {
         
         // Then
         assertThat(result.estadoActual().proximoNumero()).isEqualTo("E001");
+        assertThat(result.estadoActual().ticketsEnEspera()).isEqualTo(2);
+    }
+
+    @Test
+    void getQueueStatus_afterTicketLeavesWaiting_shouldAdvanceNextNumber() {
+        // Given - El índice se mantiene al día con cada cambio de estado
+        QueueType queueType = QueueType.PERSONAL_BANKER;
+        LocalDateTime base = LocalDateTime.now().minusMinutes(30);
+        Ticket first = TestDataBuilder.ticketWaiting()
+            .id(1L).fechaCreacion(base).numero("P01").queueType(queueType).build();
+        Ticket second = TestDataBuilder.ticketWaiting()
+            .id(2L).fechaCreacion(base.plusMinutes(1)).numero("P02").queueType(queueType).build();
+        registrarEnIndice(first, second);
+        
+        when(ticketRepository.countByStatusAndQueueType(any(TicketStatus.class), eq(queueType)))
+            .thenReturn(0L);
+        
+        // When - El primer ticket es asignado a un ejecutivo
+        first.setStatus(TicketStatus.CALLED);
+        waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(first, TicketStatus.WAITING));
+        QueueStatusResponse result = queueService.getQueueStatus(queueType);
+        
+        // Then
+        assertThat(result.estadoActual().proximoNumero()).isEqualTo("P02");
+        assertThat(result.estadoActual().ticketsEnEspera()).isEqualTo(1);
+        assertThat(result.tickets()).extracting(QueueStatusResponse.TicketEnCola::numero).containsExactly("P02");
     }
 
     @Test
@@ -157,27 +209,19 @@ class QueueServiceTest {
         QueueType queueType = QueueType.GERENCIA;
         
         // Crear 12 tickets (más del límite de 10)
-        List<Ticket> manyTickets = Arrays.asList(
-            TestDataBuilder.ticketWaiting().numero("G001").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G002").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G003").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G004").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G005").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G006").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G007").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G008").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G009").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G010").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G011").queueType(queueType).build(),
-            TestDataBuilder.ticketWaiting().numero("G012").queueType(queueType).build()
-        );
-        
-        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
-            .thenReturn(manyTickets);
+        LocalDateTime base = LocalDateTime.now().minusHours(1);
+        Ticket[] manyTickets = IntStream.rangeClosed(1, 12)
+            .mapToObj(i -> TestDataBuilder.ticketWaiting()
+                .id((long) i)
+                .fechaCreacion(base.plusMinutes(i))
+                .numero(String.format("G%03d", i))
+                .queueType(queueType)
+                .build())
+            .toArray(Ticket[]::new);
+        
+        registrarEnIndice(manyTickets);
         
         // Mock counts
-        when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.WAITING), eq(queueType)))
-            .thenReturn(12L);
         when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.CALLED), eq(queueType)))
             .thenReturn(0L);
         when(ticketRepository.countByStatusAndQueueType(eq(TicketStatus.IN_SERVICE), eq(queueType)))
@@ -187,6 +231,7 @@ class QueueServiceTest {
         QueueStatusResponse result = queueService.getQueueStatus(queueType);
         
         // Then - Solo debe retornar 10 tickets máximo
+        assertThat(result.estadoActual().ticketsEnEspera()).isEqualTo(12);
         assertThat(result.tickets()).hasSize(10);
         assertThat(result.tickets().get(0).numero()).isEqualTo("G001");
         assertThat(result.tickets().get(9).numero()).isEqualTo("G010");
@@ -196,4 +241,10 @@ class QueueServiceTest {
             .anyMatch(t -> t.numero().equals("G011") || t.numero().equals("G012")))
             .isFalse();
     }
-}
\ No newline at end of file
+    
+    private void registrarEnIndice(Ticket... tickets) {
+        for (Ticket ticket : tickets) {
+            waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(ticket, null));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ticketero.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitarios para TelegramRateLimiter
+ * Cubre RF-002: límite global, límite por chat y pausa por HTTP 429
+ *
+ * Usa un reloj de nanosegundos manual para avanzar el tiempo sin esperar.
+ */
+class TelegramRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private TelegramRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // 3 msg/s global (ráfaga 3), 1 msg/s por chat (ráfaga 1)
+        rateLimiter = new TelegramRateLimiter(3, 3, 1, 1, nanos::get);
+    }
+
+    @Test
+    void tryAcquire_sameChat_shouldAllowOnePerSecond() {
+        // When / Then
+        assertThat(rateLimiter.tryAcquire("chat-A")).isZero();
+        assertEspera(rateLimiter.tryAcquire("chat-A"), Duration.ofSeconds(1));
+
+        avanzar(Duration.ofMillis(400));
+        assertEspera(rateLimiter.tryAcquire("chat-A"), Duration.ofMillis(600));
+
+        avanzar(Duration.ofMillis(600));
+        assertThat(rateLimiter.tryAcquire("chat-A")).isZero();
+    }
+
+    @Test
+    void tryAcquire_manyChats_shouldRespectGlobalLimit() {
+        // Given - La ráfaga global se agota con 3 chats distintos
+        assertThat(rateLimiter.tryAcquire("chat-A")).isZero();
+        assertThat(rateLimiter.tryAcquire("chat-B")).isZero();
+        assertThat(rateLimiter.tryAcquire("chat-C")).isZero();
+
+        // When
+        Duration espera = rateLimiter.tryAcquire("chat-D");
+
+        // Then - Un token global se recarga en 1/3 s
+        assertEspera(espera, Duration.ofNanos(333_333_334));
+        avanzar(espera);
+        assertThat(rateLimiter.tryAcquire("chat-D")).isZero();
+    }
+
+    @Test
+    void tryAcquire_rejected_shouldNotConsumeGlobalToken() {
+        // Given - chat-A sin tokens propios
+        assertThat(rateLimiter.tryAcquire("chat-A")).isZero();
+        assertThat(rateLimiter.tryAcquire("chat-A")).isPositive();
+
+        // When / Then - El rechazo de chat-A no restó capacidad global
+        assertThat(rateLimiter.tryAcquire("chat-B")).isZero();
+        assertThat(rateLimiter.tryAcquire("chat-C")).isZero();
+    }
+
+    @Test
+    void pause_shouldBlockChatUntilRetryAfter() {
+        // Given - Telegram respondió 429 con retry_after=10 para chat-A
+        rateLimiter.pause("chat-A", Duration.ofSeconds(10));
+
+        // When / Then
+        assertEspera(rateLimiter.tryAcquire("chat-A"), Duration.ofSeconds(10));
+        assertThat(rateLimiter.tryAcquire("chat-B")).isZero();
+
+        avanzar(Duration.ofSeconds(9));
+        assertEspera(rateLimiter.tryAcquire("chat-A"), Duration.ofSeconds(1));
+
+        avanzar(Duration.ofSeconds(1));
+        assertThat(rateLimiter.tryAcquire("chat-A")).isZero();
+    }
+
+    @Test
+    void constructor_withInvalidRate_shouldFail() {
+        assertThatThrownBy(() -> new TelegramRateLimiter(0, 30, 1, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertEspera(Duration actual, Duration esperada) {
+        // La recarga es en punto flotante: tolera redondeo de pocos nanosegundos
+        assertThat(actual.toNanos()).isCloseTo(esperada.toNanos(), within(1_000L));
+    }
+
+    private void avanzar(Duration duracion) {
+        nanos.addAndGet(duracion.toNanos());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.config.TelegramConfig;
+import com.example.ticketero.exception.EnvioInciertoException;
+import com.example.ticketero.exception.TelegramRateLimitException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests del transporte HTTP de Telegram (TelegramConfig) contra un servidor stub local.
+ * Cubre RF-002: reutilización de conexiones, límite del pool, timeouts, HTTP 429 y métricas.
+ *
+ * El stub es el HttpServer del JDK (HTTP/1.1 keep-alive), que responde como sendMessage.
+ */
+class TelegramTransportTest {
+
+    private static final int MAX_CONNECTIONS = 4;
+    private static final long READ_TIMEOUT_MILLIS = 500;
+
+    private HttpServer telegramStub;
+    private ExecutorService stubExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long responseDelayMillis;
+    private volatile boolean rateLimited;
+    private volatile String lastRequestBody;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private TelegramService telegramService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        telegramStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        telegramStub.createContext("/bottest-token/sendMessage", this::sendMessage);
+        stubExecutor = Executors.newFixedThreadPool(MAX_CONNECTIONS * 2);
+        telegramStub.setExecutor(stubExecutor);
+        telegramStub.start();
+        String baseUrl = "http://localhost:" + telegramStub.getAddress().getPort();
+
+        TelegramConfig config = new TelegramConfig();
+        connectionManager = config.telegramConnectionManager(MAX_CONNECTIONS, 1000, READ_TIMEOUT_MILLIS);
+        httpClient = config.telegramHttpClient(connectionManager, 1000, READ_TIMEOUT_MILLIS, 30);
+
+        telegramService = new TelegramService(mock(NotificationService.class),
+            config.telegramRestTemplate(new RestTemplateBuilder(), httpClient));
+        ReflectionTestUtils.setField(telegramService, "telegramApiUrl", baseUrl + "/bot");
+        ReflectionTestUtils.setField(telegramService, "botToken", "test-token");
+        ReflectionTestUtils.setField(telegramService, "defaultChatId", "123");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        telegramStub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void enviarTexto_shouldReturnTelegramMessageId() {
+        // When
+        String messageId = telegramService.enviarTexto("123", "hola");
+
+        // Then
+        assertThat(messageId).isEqualTo("42");
+        assertThat(lastRequestBody).contains("\"chat_id\":\"123\"").contains("\"text\":\"hola\"");
+    }
+
+    @Test
+    void enviarTexto_sequentialMessages_shouldReuseOneConnection() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            telegramService.enviarTexto("123", "hola");
+        }
+
+        // Then - Un único handshake: la conexión vuelve al pool y se reutiliza
+        assertThat(requests).hasValue(20);
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+    }
+
+    @Test
+    void enviarTexto_concurrentMessages_shouldNotExceedPoolSize() throws Exception {
+        // Given - Respuestas lentas para que los envíos se solapen
+        responseDelayMillis = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_CONNECTIONS * 2);
+
+        // When
+        try {
+            List<Future<?>> envios = new ArrayList<>();
+            for (int i = 0; i < MAX_CONNECTIONS * 4; i++) {
+                envios.add(executor.submit(() -> telegramService.enviarTexto("123", "hola")));
+            }
+            for (Future<?> envio : envios) {
+                envio.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(connectionManager.getTotalStats().getAvailable())
+            .isGreaterThan(1)
+            .isLessThanOrEqualTo(MAX_CONNECTIONS);
+    }
+
+    @Test
+    void enviarTexto_slowTelegram_shouldFailAtReadTimeoutAsUncertain() {
+        // Given - La petición llegó a Telegram; no se sabe si la entregó
+        responseDelayMillis = 3000;
+        long inicio = System.nanoTime();
+
+        // When / Then
+        assertThatThrownBy(() -> telegramService.enviarTexto("123", "hola"))
+            .isInstanceOf(EnvioInciertoException.class)
+            .hasCauseInstanceOf(ResourceAccessException.class);
+        assertThat((System.nanoTime() - inicio) / 1_000_000).isLessThan(2000);
+    }
+
+    @Test
+    void enviarTexto_telegramUnreachable_shouldFailAsRetryable() throws Exception {
+        // Given - Nadie escucha en el puerto: la petición nunca salió
+        int puertoLibre;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            puertoLibre = socket.getLocalPort();
+        }
+        ReflectionTestUtils.setField(telegramService, "telegramApiUrl", "http://localhost:" + puertoLibre + "/bot");
+
+        // When / Then
+        assertThatThrownBy(() -> telegramService.enviarTexto("123", "hola"))
+            .isInstanceOf(ResourceAccessException.class)
+            .isNotInstanceOf(EnvioInciertoException.class);
+    }
+
+    @Test
+    void enviarTexto_tooManyRequests_shouldReportRetryAfter() {
+        // Given - Telegram responde 429 con parameters.retry_after
+        rateLimited = true;
+
+        // When / Then
+        assertThatThrownBy(() -> telegramService.enviarTexto("123", "hola"))
+            .isInstanceOfSatisfying(TelegramRateLimitException.class, e -> {
+                assertThat(e.getChatId()).isEqualTo("123");
+                assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(7));
+            });
+    }
+
+    @Test
+    void telegramConnectionPoolMetrics_shouldExposePoolGauges() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TelegramConfig().telegramConnectionPoolMetrics(connectionManager).bindTo(registry);
+        telegramService.enviarTexto("123", "hola");
+
+        // Then
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.max").gauge().value())
+            .isEqualTo(MAX_CONNECTIONS);
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.connections")
+            .tag("httpclient", "telegram").tag("state", "available").gauge().value())
+            .isEqualTo(1);
+    }
+
+    private void sendMessage(HttpExchange exchange) throws IOException {
+        lastRequestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(responseDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int status = rateLimited ? 429 : 200;
+        byte[] body = (rateLimited
+            ? "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 7\",\"parameters\":{\"retry_after\":7}}"
+            : "{\"ok\":true,\"result\":{\"message_id\":42}}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // El cliente ya cortó la conexión por timeout
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.TicketSequence;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TicketNumberSequence
+ * Cubre RN-005, RN-006 (numeración por cola y día) y reserva de bloques
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TicketNumberSequenceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2024, 3, 15);
+
+    @Mock
+    private TicketSequenceRepository sequenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Tabla ticket_sequence simulada: (cola, día) -> último valor
+    private final Map<String, Long> tabla = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(sequenceRepository.findForUpdate(any(), any())).thenAnswer(invocation -> {
+            QueueType queueType = invocation.getArgument(0);
+            LocalDate day = invocation.getArgument(1);
+            return Optional.ofNullable(tabla.get(key(queueType, day)))
+                .map(last -> TicketSequence.builder()
+                    .id(1L)
+                    .queueType(queueType)
+                    .sequenceDate(day)
+                    .lastValue(last)
+                    .build());
+        });
+        when(sequenceRepository.saveAndFlush(any(TicketSequence.class))).thenAnswer(invocation -> {
+            TicketSequence sequence = invocation.getArgument(0);
+            tabla.put(key(sequence.getQueueType(), sequence.getSequenceDate()), sequence.getLastValue());
+            return sequence;
+        });
+    }
+
+    @Test
+    void nextNumber_shouldUseQueuePrefixAndTwoDigits() {
+        // Given
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 1);
+
+        // When
+        String first = sequence.nextNumber(QueueType.CAJA, HOY);
+        String second = sequence.nextNumber(QueueType.CAJA, HOY);
+        String otherQueue = sequence.nextNumber(QueueType.EMPRESAS, HOY);
+
+        // Then - Cada cola tiene su propio contador
+        assertThat(first).isEqualTo("C01");
+        assertThat(second).isEqualTo("C02");
+        assertThat(otherQueue).isEqualTo("E01");
+    }
+
+    @Test
+    void next_beyond99_shouldNotWrapAround() {
+        // Given
+        tabla.put(key(QueueType.CAJA, HOY), 99L);
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 1);
+
+        // When + Then
+        assertThat(sequence.next(QueueType.CAJA, HOY)).isEqualTo(100L);
+    }
+
+    @Test
+    void next_onNewDay_shouldRestartAtOne() {
+        // Given
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 1);
+        sequence.next(QueueType.PERSONAL_BANKER, HOY);
+        sequence.next(QueueType.PERSONAL_BANKER, HOY);
+
+        // When
+        long manana = sequence.next(QueueType.PERSONAL_BANKER, HOY.plusDays(1));
+
+        // Then
+        assertThat(manana).isEqualTo(1L);
+        assertThat(tabla).containsEntry(key(QueueType.PERSONAL_BANKER, HOY), 2L);
+    }
+
+    @Test
+    void next_afterRestart_shouldContinueFromPersistedValue() {
+        // Given - Otro proceso ya entregó hasta el 7 hoy
+        tabla.put(key(QueueType.GERENCIA, HOY), 7L);
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 1);
+
+        // When
+        long value = sequence.next(QueueType.GERENCIA, HOY);
+
+        // Then
+        assertThat(value).isEqualTo(8L);
+    }
+
+    @Test
+    void next_withBlockSize_shouldReserveOncePerBlock() {
+        // Given
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 10);
+
+        // When
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            values.add(sequence.next(QueueType.CAJA, HOY));
+        }
+
+        // Then - 11 números requieren solo 2 reservas
+        assertThat(values).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+        verify(sequenceRepository, times(2)).findForUpdate(QueueType.CAJA, HOY);
+        assertThat(tabla).containsEntry(key(QueueType.CAJA, HOY), 20L);
+    }
+
+    @Test
+    void next_withRestartMidBlock_shouldSkipUnusedNumbers() {
+        // Given - Un nodo reservó un bloque de 10 y entregó 3 antes de reiniciar
+        TicketNumberSequence before = new TicketNumberSequence(sequenceRepository, transactionManager, 10);
+        before.next(QueueType.CAJA, HOY);
+        before.next(QueueType.CAJA, HOY);
+        before.next(QueueType.CAJA, HOY);
+
+        // When
+        TicketNumberSequence after = new TicketNumberSequence(sequenceRepository, transactionManager, 10);
+
+        // Then - Nunca se reutiliza un número del bloque anterior
+        assertThat(after.next(QueueType.CAJA, HOY)).isEqualTo(11L);
+    }
+
+    @Test
+    void next_withConcurrentRowCreation_shouldRetry() {
+        // Given - El primer INSERT choca con la fila creada por otro nodo
+        AtomicBoolean firstAttempt = new AtomicBoolean(true);
+        when(sequenceRepository.saveAndFlush(any(TicketSequence.class))).thenAnswer(invocation -> {
+            if (firstAttempt.getAndSet(false)) {
+                tabla.put(key(QueueType.EMPRESAS, HOY), 1L);
+                throw new DataIntegrityViolationException("uk_ticket_sequence_queue_date");
+            }
+            TicketSequence saved = invocation.getArgument(0);
+            tabla.put(key(saved.getQueueType(), saved.getSequenceDate()), saved.getLastValue());
+            return saved;
+        });
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 1);
+
+        // When
+        long value = sequence.next(QueueType.EMPRESAS, HOY);
+
+        // Then
+        assertThat(value).isEqualTo(2L);
+        verify(sequenceRepository, times(2)).findForUpdate(QueueType.EMPRESAS, HOY);
+    }
+
+    @Test
+    void next_withConcurrentCallers_shouldNeverRepeatNumbers() throws Exception {
+        // Given
+        TicketNumberSequence sequence = new TicketNumberSequence(sequenceRepository, transactionManager, 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> entregados = ConcurrentHashMap.newKeySet();
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    assertThat(entregados.add(sequence.next(QueueType.CAJA, HOY))).isTrue();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(entregados).hasSize(400);
+        assertThat(entregados).allSatisfy(value -> assertThat(value).isBetween(1L, 400L));
+    }
+
+    @Test
+    void constructor_withInvalidBlockSize_shouldFail() {
+        assertThatThrownBy(() -> new TicketNumberSequence(sequenceRepository, transactionManager, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String key(QueueType queueType, LocalDate day) {
+        return queueType + "|" + day;
+    }
+}
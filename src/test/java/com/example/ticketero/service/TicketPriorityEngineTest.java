@@ -0,0 +1,195 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TicketPriorityEngine
+ * Cubre RN-002 (prioridad por cola con envejecimiento) y RN-003 (FIFO dentro de la cola)
+ *
+ * El motor lee un WaitingLineIndex real poblado por eventos, con reloj fijo.
+ */
+@ExtendWith(MockitoExtension.class)
+class TicketPriorityEngineTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 3, 12, 0);
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    private WaitingLineIndex waitingLineIndex;
+    private TicketPriorityEngine priorityEngine;
+
+    @BeforeEach
+    void setUp() {
+        waitingLineIndex = new WaitingLineIndex(ticketRepository);
+        priorityEngine = engine(15);
+    }
+
+    @Test
+    void peekNext_withFreshTickets_shouldFollowQueuePriority() {
+        // Given - RN-002: GERENCIA > EMPRESAS > PERSONAL_BANKER > CAJA
+        registrar(1L, "C01", QueueType.CAJA, 2);
+        registrar(2L, "P01", QueueType.PERSONAL_BANKER, 2);
+        registrar(3L, "G01", QueueType.GERENCIA, 1);
+        registrar(4L, "E01", QueueType.EMPRESAS, 2);
+
+        // When / Then
+        assertThat(priorityEngine.peekNext())
+            .get().extracting(WaitingLineIndex.WaitingTicket::numero).isEqualTo("G01");
+        assertThat(numeros(priorityEngine.nextTickets(4))).containsExactly("G01", "E01", "P01", "C01");
+    }
+
+    @Test
+    void nextTickets_shouldKeepFifoWithinQueueAndRespectLimit() {
+        // Given
+        registrar(1L, "E01", QueueType.EMPRESAS, 3);
+        registrar(2L, "E02", QueueType.EMPRESAS, 2);
+        registrar(3L, "C01", QueueType.CAJA, 4);
+        registrar(4L, "E03", QueueType.EMPRESAS, 1);
+
+        // When
+        List<WaitingLineIndex.WaitingTicket> next = priorityEngine.nextTickets(2);
+
+        // Then
+        assertThat(numeros(next)).containsExactly("E01", "E02");
+        assertThat(priorityEngine.nextTickets(0)).isEmpty();
+    }
+
+    @Test
+    void nextTickets_withLongWait_shouldPromoteLowPriorityQueue() {
+        // Given - CAJA esperando 50 min: 1 + 50/15 ≈ 4.3 supera a GERENCIA recién llegado (4.0)
+        registrar(1L, "G01", QueueType.GERENCIA, 0);
+        registrar(2L, "C01", QueueType.CAJA, 50);
+        registrar(3L, "C02", QueueType.CAJA, 10);
+
+        // When
+        List<WaitingLineIndex.WaitingTicket> next = priorityEngine.nextTickets(3);
+
+        // Then
+        assertThat(numeros(next)).containsExactly("C01", "G01", "C02");
+        assertThat(priorityEngine.effectivePriority(next.get(0), NOW)).isCloseTo(1 + 50 / 15.0, within(0.001));
+    }
+
+    @Test
+    void nextTickets_withAgingDisabled_shouldUseStrictPriority() {
+        // Given
+        priorityEngine = engine(0);
+        registrar(1L, "G01", QueueType.GERENCIA, 0);
+        registrar(2L, "C01", QueueType.CAJA, 240);
+
+        // When / Then
+        assertThat(numeros(priorityEngine.nextTickets(2))).containsExactly("G01", "C01");
+    }
+
+    @Test
+    void nextTickets_withEqualEffectivePriority_shouldPreferOldestTicket() {
+        // Given - PERSONAL_BANKER a 15 min (3.0) empata con EMPRESAS recién llegado (3.0)
+        registrar(1L, "E01", QueueType.EMPRESAS, 0);
+        registrar(2L, "P01", QueueType.PERSONAL_BANKER, 15);
+
+        // When / Then
+        assertThat(numeros(priorityEngine.nextTickets(2))).containsExactly("P01", "E01");
+    }
+
+    @Test
+    void discard_shouldRemoveStaleCandidates() {
+        // Given
+        registrar(1L, "G01", QueueType.GERENCIA, 1);
+        registrar(2L, "C01", QueueType.CAJA, 1);
+
+        // When
+        priorityEngine.discard(List.of(1L));
+
+        // Then
+        assertThat(numeros(priorityEngine.nextTickets(5))).containsExactly("C01");
+        assertThat(waitingLineIndex.countWaiting(QueueType.GERENCIA)).isZero();
+    }
+
+    @Test
+    void claimNext_shouldReturnClaimedTicketsInEngineOrder() {
+        // Given
+        registrar(1L, "C01", QueueType.CAJA, 2);
+        registrar(2L, "G01", QueueType.GERENCIA, 1);
+        Ticket caja = ticket(1L, "C01", QueueType.CAJA);
+        Ticket gerencia = ticket(2L, "G01", QueueType.GERENCIA);
+        // La base de datos no garantiza el orden del reclamo
+        when(ticketRepository.claimWaitingByIds(List.of(2L, 1L))).thenReturn(List.of(caja, gerencia));
+
+        // When
+        List<Ticket> claimed = priorityEngine.claimNext(2);
+
+        // Then
+        assertThat(claimed).containsExactly(gerencia, caja);
+        verify(ticketRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void claimNext_withStaleCandidate_shouldDiscardItAndKeepLockedOnes() {
+        // Given - G01 ya fue asignado en otro nodo; E01 sigue en espera pero bloqueado
+        registrar(1L, "G01", QueueType.GERENCIA, 3);
+        registrar(2L, "E01", QueueType.EMPRESAS, 2);
+        registrar(3L, "C01", QueueType.CAJA, 1);
+        Ticket caja = ticket(3L, "C01", QueueType.CAJA);
+        Ticket asignado = ticket(1L, "G01", QueueType.GERENCIA);
+        asignado.setStatus(TicketStatus.CALLED);
+        Ticket bloqueado = ticket(2L, "E01", QueueType.EMPRESAS);
+        when(ticketRepository.claimWaitingByIds(List.of(1L, 2L, 3L))).thenReturn(List.of(caja));
+        when(ticketRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(asignado, bloqueado));
+
+        // When
+        List<Ticket> claimed = priorityEngine.claimNext(3);
+
+        // Then
+        assertThat(claimed).containsExactly(caja);
+        assertThat(numeros(priorityEngine.nextTickets(5))).containsExactly("E01", "C01");
+    }
+
+    @Test
+    void claimNext_withNoWaitingTickets_shouldNotQueryDatabase() {
+        assertThat(priorityEngine.claimNext(1)).isEmpty();
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void peekNext_withNoWaitingTickets_shouldReturnEmpty() {
+        assertThat(priorityEngine.peekNext()).isEmpty();
+        assertThat(priorityEngine.nextTickets(3)).isEmpty();
+    }
+
+    private TicketPriorityEngine engine(long agingMinutes) {
+        Clock clock = Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE);
+        return new TicketPriorityEngine(waitingLineIndex, ticketRepository, agingMinutes, clock);
+    }
+
+    private void registrar(Long id, String numero, QueueType queueType, int minutesWaiting) {
+        waitingLineIndex.onTicketStatusChanged(new TicketStatusChangedEvent(
+            id, numero, queueType, null, TicketStatus.WAITING, NOW.minusMinutes(minutesWaiting)));
+    }
+
+    private static Ticket ticket(Long id, String numero, QueueType queueType) {
+        return TestDataBuilder.ticketWaiting().id(id).numero(numero).queueType(queueType).build();
+    }
+
+    private static List<String> numeros(List<WaitingLineIndex.WaitingTicket> tickets) {
+        return tickets.stream().map(WaitingLineIndex.WaitingTicket::numero).toList();
+    }
+}
@@ -10,13 +10,21 @@ import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.TicketRepository;
 import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -42,9 +50,26 @@ class TicketServiceTest {
     @Mock
     private TelegramService telegramService;
     
-    @InjectMocks
+    @Mock
+    private TicketNumberSequence ticketNumberSequence;
+    
+    @Mock
+    private WaitingLineIndex waitingLineIndex;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
     private TicketService ticketService;
 
+    @BeforeEach
+    void setUp() {
+        ticketService = new TicketService(ticketRepository, queueManagementService, telegramService, ticketNumberSequence,
+                                          waitingLineIndex, eventPublisher, transactionManager, Clock.systemDefaultZone());
+    }
+
     @Test
     void createTicket_withValidData_shouldCreateTicketAndCalculatePosition() {
         // Given
@@ -54,6 +79,8 @@ class TicketServiceTest {
         
         when(ticketRepository.findByNationalIdAndStatusIn(eq("12345678-9"), any()))
             .thenReturn(Optional.empty());
+        when(ticketNumberSequence.nextNumber(eq(QueueType.CAJA), any(LocalDate.class)))
+            .thenReturn("C01");
         when(queueManagementService.calcularPosicion(QueueType.CAJA))
             .thenReturn(positionInfo);
         when(ticketRepository.save(any(Ticket.class)))
@@ -72,10 +99,48 @@ class TicketServiceTest {
         
         Ticket capturedTicket = ticketCaptor.getValue();
         assertThat(capturedTicket.getNationalId()).isEqualTo("12345678-9");
+        assertThat(capturedTicket.getNumero()).isEqualTo("C01");
         assertThat(capturedTicket.getPositionInQueue()).isEqualTo(1);
         assertThat(capturedTicket.getEstimatedWaitMinutes()).isEqualTo(5);
         
         verify(telegramService).programarMensaje(savedTicket, MessageTemplate.TOTEM_TICKET_CREADO);
+        
+        // El número se reserva antes de abrir la transacción de escritura
+        InOrder inOrder = inOrder(ticketNumberSequence, transactionManager, ticketRepository);
+        inOrder.verify(ticketNumberSequence).nextNumber(eq(QueueType.CAJA), any(LocalDate.class));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(ticketRepository).save(any(Ticket.class));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void createTicket_reservedBeforeMidnightAndPersistedAfter_shouldKeepReservationDay() {
+        // Given - El reloj marca el último milisegundo del 31 de marzo; la persistencia
+        // ocurre después (@PrePersist con el reloj real, en un día posterior)
+        LocalDateTime antesDeMedianoche = LocalDateTime.of(2025, 3, 31, 23, 59, 59, 999_000_000);
+        TicketService service = new TicketService(ticketRepository, queueManagementService, telegramService,
+            ticketNumberSequence, waitingLineIndex, eventPublisher, transactionManager,
+            Clock.fixed(antesDeMedianoche.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        when(ticketRepository.findByNationalIdAndStatusIn(eq("12345678-9"), any()))
+            .thenReturn(Optional.empty());
+        when(ticketNumberSequence.nextNumber(QueueType.CAJA, LocalDate.of(2025, 3, 31)))
+            .thenReturn("C01");
+        when(queueManagementService.calcularPosicion(QueueType.CAJA))
+            .thenReturn(TestDataBuilder.positionInfo(1, 5));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> {
+            Ticket ticket = invocation.getArgument(0);
+            ReflectionTestUtils.invokeMethod(ticket, "onCreate");
+            return ticket;
+        });
+
+        // When
+        TicketResponse response = service.createTicket(TestDataBuilder.validTicketRequest());
+
+        // Then - Número y created_at pertenecen al mismo día: (C01, 31-03) no se repite el 1 de abril
+        assertThat(response.numero()).isEqualTo("C01");
+        ArgumentCaptor<Ticket> ticketCaptor = ArgumentCaptor.forClass(Ticket.class);
+        verify(ticketRepository).save(ticketCaptor.capture());
+        assertThat(ticketCaptor.getValue().getFechaCreacion()).isEqualTo(antesDeMedianoche);
     }
 
     @Test
@@ -93,7 +158,9 @@ class TicketServiceTest {
             .hasMessageContaining("Ya existe un ticket activo para el RUT: 12345678-9");
         
         verify(ticketRepository, never()).save(any());
+        verify(ticketNumberSequence, never()).nextNumber(any(), any());
         verify(telegramService, never()).programarMensaje(any(), any());
+        verifyNoInteractions(transactionManager);
     }
 
     @Test
@@ -116,6 +183,30 @@ class TicketServiceTest {
         assertThat(result.get().numero()).isEqualTo("C001");
     }
 
+    @Test
+    void findByCodigoReferencia_withWaitingTicket_shouldReturnLivePosition() {
+        // Given - Posición persistida desactualizada (5), posición real en la cola (2)
+        UUID uuid = TestDataBuilder.VALID_UUID;
+        Ticket ticket = TestDataBuilder.ticketWaiting()
+            .id(42L)
+            .codigoReferencia(uuid)
+            .positionInQueue(5)
+            .build();
+        
+        when(ticketRepository.findByCodigoReferencia(uuid))
+            .thenReturn(Optional.of(ticket));
+        when(waitingLineIndex.positionOf(QueueType.CAJA, 42L))
+            .thenReturn(Optional.of(2));
+        
+        // When
+        Optional<TicketResponse> result = ticketService.findByCodigoReferencia(uuid);
+        
+        // Then
+        assertThat(result).isPresent();
+        assertThat(result.get().positionInQueue()).isEqualTo(2);
+        assertThat(result.get().estimatedWaitMinutes()).isEqualTo(2 * QueueType.CAJA.getAvgTimeMinutes());
+    }
+
     @Test
     void findByCodigoReferencia_withNonExistentUuid_shouldReturnEmpty() {
         // Given
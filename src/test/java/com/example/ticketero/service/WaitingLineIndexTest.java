@@ -0,0 +1,282 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.model.event.TicketStatusChangedEvent;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.testutil.TestDataBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para WaitingLineIndex
+ * Cubre RF-003 (posición por cola), RN-003 (orden FIFO por cola), RN-010 (posición
+ * de nueva llegada), mantenimiento del índice por eventos y conciliación con la base de datos
+ */
+@ExtendWith(MockitoExtension.class)
+class WaitingLineIndexTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private WaitingLineIndex waitingLineIndex;
+
+    private final LocalDateTime base = LocalDateTime.now().minusHours(1);
+
+    @Test
+    void reconcile_shouldLoadWaitingTicketsPerQueue() {
+        // Given
+        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+            .thenReturn(Arrays.asList(
+                ticket(1L, "C01", QueueType.CAJA, 0),
+                ticket(2L, "P01", QueueType.PERSONAL_BANKER, 1),
+                ticket(3L, "C02", QueueType.CAJA, 2)
+            ));
+
+        // When
+        waitingLineIndex.reconcile();
+
+        // Then
+        assertThat(waitingLineIndex.countWaiting(QueueType.CAJA)).isEqualTo(2);
+        assertThat(waitingLineIndex.countWaiting(QueueType.PERSONAL_BANKER)).isEqualTo(1);
+        assertThat(waitingLineIndex.countWaiting(QueueType.EMPRESAS)).isZero();
+        assertThat(waitingLineIndex.peekNext(QueueType.CAJA))
+            .get().extracting(WaitingLineIndex.WaitingTicket::numero).isEqualTo("C01");
+    }
+
+    @Test
+    void reconcile_shouldPickUpChangesFromOtherNodes() {
+        // Given - Otro nodo asignó C01 y creó C03 sin eventos en esta instancia
+        registrar(ticket(1L, "C01", QueueType.CAJA, 1));
+        registrar(ticket(2L, "C02", QueueType.CAJA, 2));
+        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+            .thenReturn(Arrays.asList(ticket(2L, "C02", QueueType.CAJA, 2), ticket(3L, "C03", QueueType.CAJA, 3)));
+
+        // When
+        int drift = waitingLineIndex.reconcile();
+
+        // Then
+        assertThat(drift).isEqualTo(2);
+        assertThat(waitingLineIndex.head(QueueType.CAJA, 10)).extracting(WaitingLineIndex.WaitingTicket::numero)
+            .containsExactly("C02", "C03");
+    }
+
+    @Test
+    void reconcile_shouldNotUndoEventsReceivedDuringQuery() {
+        // Given - Mientras se consulta, C01 se asigna y llega C04; la consulta aún ve C01 y no C04
+        Ticket asignado = ticket(1L, "C01", QueueType.CAJA, 1);
+        registrar(asignado);
+        Ticket nuevo = ticket(4L, "C04", QueueType.CAJA, 4);
+        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING)).thenAnswer(invocation -> {
+            asignado.setStatus(TicketStatus.CALLED);
+            waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(asignado, TicketStatus.WAITING));
+            registrar(nuevo);
+            return Arrays.asList(ticket(1L, "C01", QueueType.CAJA, 1));
+        });
+
+        // When
+        int drift = waitingLineIndex.reconcile();
+
+        // Then
+        assertThat(drift).isZero();
+        assertThat(waitingLineIndex.head(QueueType.CAJA, 10)).extracting(WaitingLineIndex.WaitingTicket::numero)
+            .containsExactly("C04");
+    }
+
+    @Test
+    void onTicketStatusChanged_shouldKeepFifoOrderRegardlessOfArrival() {
+        // Given - Eventos llegan fuera de orden
+        registrar(ticket(3L, "C03", QueueType.CAJA, 3));
+        registrar(ticket(1L, "C01", QueueType.CAJA, 1));
+        registrar(ticket(2L, "C02", QueueType.CAJA, 2));
+
+        // When
+        var head = waitingLineIndex.head(QueueType.CAJA, 10);
+
+        // Then
+        assertThat(head).extracting(WaitingLineIndex.WaitingTicket::numero)
+            .containsExactly("C01", "C02", "C03");
+    }
+
+    @Test
+    void onTicketStatusChanged_withNonWaitingStatus_shouldRemoveTicket() {
+        // Given
+        Ticket first = ticket(1L, "E01", QueueType.EMPRESAS, 1);
+        registrar(first);
+        registrar(ticket(2L, "E02", QueueType.EMPRESAS, 2));
+
+        // When
+        first.setStatus(TicketStatus.CALLED);
+        waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(first, TicketStatus.WAITING));
+
+        // Then
+        assertThat(waitingLineIndex.countWaiting(QueueType.EMPRESAS)).isEqualTo(1);
+        assertThat(waitingLineIndex.peekNext(QueueType.EMPRESAS))
+            .get().extracting(WaitingLineIndex.WaitingTicket::numero).isEqualTo("E02");
+    }
+
+    @Test
+    void onTicketStatusChanged_withRepeatedWaitingEvent_shouldNotDuplicate() {
+        // Given
+        Ticket ticket = ticket(1L, "G01", QueueType.GERENCIA, 1);
+
+        // When
+        registrar(ticket);
+        registrar(ticket);
+
+        // Then
+        assertThat(waitingLineIndex.countWaiting(QueueType.GERENCIA)).isEqualTo(1);
+        assertThat(waitingLineIndex.head(QueueType.GERENCIA, 10)).hasSize(1);
+    }
+
+    @Test
+    void onTicketStatusChanged_withUnknownTicketLeaving_shouldBeIgnored() {
+        // Given
+        Ticket ticket = ticket(99L, "C99", QueueType.CAJA, 1);
+        ticket.setStatus(TicketStatus.COMPLETED);
+
+        // When
+        waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(ticket, TicketStatus.IN_SERVICE));
+
+        // Then
+        assertThat(waitingLineIndex.countWaiting(QueueType.CAJA)).isZero();
+        assertThat(waitingLineIndex.peekNext(QueueType.CAJA)).isEmpty();
+    }
+
+    @Test
+    void head_shouldRespectLimit() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            registrar(ticket((long) i, "C0" + i, QueueType.CAJA, i));
+        }
+
+        // When
+        var head = waitingLineIndex.head(QueueType.CAJA, 3);
+
+        // Then
+        assertThat(head).extracting(WaitingLineIndex.WaitingTicket::numero)
+            .containsExactly("C01", "C02", "C03");
+        assertThat(waitingLineIndex.countWaiting(QueueType.CAJA)).isEqualTo(5);
+    }
+
+    @Test
+    void reconcile_shouldComputePositionsPerQueue() {
+        // Given
+        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+            .thenReturn(Arrays.asList(
+                ticket(1L, "C01", QueueType.CAJA, 0),
+                ticket(2L, "E01", QueueType.EMPRESAS, 1),
+                ticket(3L, "C02", QueueType.CAJA, 2)
+            ));
+
+        // When
+        waitingLineIndex.reconcile();
+
+        // Then - La posición es por cola, no global
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 1L)).contains(1);
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 3L)).contains(2);
+        assertThat(waitingLineIndex.positionOf(QueueType.EMPRESAS, 2L)).contains(1);
+        assertThat(waitingLineIndex.positionForNewArrival(QueueType.CAJA)).isEqualTo(3);
+        assertThat(waitingLineIndex.positionForNewArrival(QueueType.GERENCIA)).isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_withOlderTicketFromOtherNode_shouldKeepFifoPositions() {
+        // Given - Otro nodo confirmó C01 (más antiguo) sin eventos en esta instancia
+        registrar(ticket(2L, "C02", QueueType.CAJA, 2));
+        registrar(ticket(3L, "C03", QueueType.CAJA, 3));
+        when(ticketRepository.findByStatusOrderByFechaCreacionAsc(TicketStatus.WAITING))
+            .thenReturn(Arrays.asList(
+                ticket(1L, "C01", QueueType.CAJA, 1),
+                ticket(2L, "C02", QueueType.CAJA, 2),
+                ticket(3L, "C03", QueueType.CAJA, 3)
+            ));
+
+        // When
+        waitingLineIndex.reconcile();
+
+        // Then
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 1L)).contains(1);
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 3L)).contains(3);
+        assertThat(waitingLineIndex.head(QueueType.CAJA, 10)).extracting(WaitingLineIndex.WaitingTicket::numero)
+            .containsExactly("C01", "C02", "C03");
+    }
+
+    @Test
+    void onTicketStatusChanged_whenTicketLeaves_shouldShiftFollowingPositions() {
+        // Given
+        for (int i = 1; i <= 4; i++) {
+            registrar(ticket((long) i, "C0" + i, QueueType.CAJA, i));
+        }
+
+        // When - El segundo ticket es llamado
+        registrarSalida(ticket(2L, "C02", QueueType.CAJA, 2));
+
+        // Then
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 2L)).isEmpty();
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 1L)).contains(1);
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 3L)).contains(2);
+        assertThat(waitingLineIndex.positionOf(QueueType.CAJA, 4L)).contains(3);
+        assertThat(waitingLineIndex.countWaiting(QueueType.CAJA)).isEqualTo(3);
+    }
+
+    @Test
+    void positions_withManyArrivalsAndDepartures_shouldMatchNaiveCount() {
+        // Given - Secuencia aleatoria que fuerza crecimiento y compactaciones del árbol
+        Random random = new Random(42);
+        List<Long> esperados = new ArrayList<>();
+        long nextId = 1;
+
+        // When
+        for (int step = 0; step < 2_000; step++) {
+            if (esperados.isEmpty() || random.nextInt(100) < 60) {
+                long id = nextId++;
+                registrar(ticket(id, "C" + id, QueueType.CAJA, (int) id));
+                esperados.add(id);
+            } else {
+                Long id = esperados.remove(random.nextInt(esperados.size()));
+                registrarSalida(ticket(id, "C" + id, QueueType.CAJA, id.intValue()));
+            }
+        }
+
+        // Then - Cada posición coincide con el conteo lineal de tickets anteriores
+        assertThat(waitingLineIndex.countWaiting(QueueType.CAJA)).isEqualTo(esperados.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            assertThat(waitingLineIndex.positionOf(QueueType.CAJA, esperados.get(i))).contains(i + 1);
+        }
+        assertThat(waitingLineIndex.head(QueueType.CAJA, 10)).extracting(WaitingLineIndex.WaitingTicket::ticketId)
+            .containsExactlyElementsOf(esperados.subList(0, Math.min(10, esperados.size())));
+    }
+
+    private Ticket ticket(Long id, String numero, QueueType queueType, int minutesOffset) {
+        return TestDataBuilder.ticketWaiting()
+            .id(id)
+            .numero(numero)
+            .queueType(queueType)
+            .fechaCreacion(base.plusMinutes(minutesOffset))
+            .build();
+    }
+
+    private void registrar(Ticket ticket) {
+        waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(ticket, null));
+    }
+
+    private void registrarSalida(Ticket ticket) {
+        ticket.setStatus(TicketStatus.CALLED);
+        waitingLineIndex.onTicketStatusChanged(TicketStatusChangedEvent.of(ticket, TicketStatus.WAITING));
+    }
+}